@@ -0,0 +1,149 @@
+package com.example.bench;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Random;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Synthetic model responses for the parser and decoding benchmarks
+ * The same seed always gives the same text, so runs are comparable
+ */
+public final class PlanCorpus {
+    public static final LocalDate START = LocalDate.of(2030, 1, 1);
+
+    private static final String[] SUBJECTS = {"Mathematics", "Physics", "Chemistry", "Biology", "History", "Literature"};
+    private static final String[] TOPICS = {"Algebra", "Calculus", "Optics", "Thermodynamics", "Organic Reactions",
+        "Cell Biology", "World War II", "Poetry Analysis", "Probability", "Electromagnetism"};
+    private static final DateTimeFormatter LONG_DATE = DateTimeFormatter.ofPattern("MMMM d, yyyy", Locale.ENGLISH);
+
+    private PlanCorpus() {
+    }
+
+    /**
+     * Text shaped like real model output: headers in the prompted and common
+     * markdown forms, items in every supported shape, and prose in between
+     * @param days Number of plan days
+     * @param seed Random seed
+     */
+    public static String realistic(int days, long seed) {
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder("Here is your personalized study plan. Stay consistent and take breaks!\n\n");
+        for (int day = 0; day < days; day++) {
+            LocalDate date = START.plusDays(day);
+            switch (random.nextInt(4)) {
+                case 0:
+                    text.append("**Date: ").append(date).append("**\n");
+                    break;
+                case 1:
+                    text.append("### Day ").append(day + 1).append(" - ").append(date.format(LONG_DATE)).append('\n');
+                    break;
+                default:
+                    text.append("Date: ").append(date).append('\n');
+                    break;
+            }
+            int items = 2 + random.nextInt(3);
+            for (int i = 0; i < items; i++) {
+                String subject = SUBJECTS[random.nextInt(SUBJECTS.length)];
+                String topic = TOPICS[random.nextInt(TOPICS.length)];
+                double hours = 0.5 * (1 + random.nextInt(6));
+                switch (random.nextInt(5)) {
+                    case 0:
+                        text.append("- ").append(subject).append(" - ").append(topic).append(" (").append(hours).append(" hours)\n");
+                        break;
+                    case 1:
+                        text.append("* ").append(subject).append(": ").append(topic).append(" - ").append(hours).append(" hrs\n");
+                        break;
+                    default:
+                        text.append("- Subject: ").append(subject).append(", Topic: ").append(topic)
+                                .append(", Hours: ").append(hours).append('\n');
+                        break;
+                }
+            }
+            if (random.nextInt(5) == 0) {
+                text.append("Tip: review yesterday's notes for 10 minutes before starting.\n");
+            }
+            text.append('\n');
+        }
+        text.append("Good luck on your exam!\n");
+        return text.toString();
+    }
+
+    /**
+     * Text exactly in the prompted format: "Date:" headers and labelled items,
+     * with one dash-form item and a line of prose per day
+     * @param days Number of plan days
+     */
+    public static String prompted(int days) {
+        StringBuilder text = new StringBuilder();
+        for (int day = 0; day < days; day++) {
+            text.append("Date: ").append(START.plusDays(day)).append('\n');
+            for (int topic = 0; topic < 4; topic++) {
+                text.append("- Subject: ").append(SUBJECTS[topic]).append(", Topic: ").append(TOPICS[day % 9])
+                        .append(", Hours: 1.5\n");
+            }
+            text.append("Mathematics - Revision (1 hour)\n");
+            text.append("Take a short break between sessions\n");
+            text.append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Wrap plan text in a generateContent response body
+     * @param planText The text of the single candidate
+     * @return The UTF-8 JSON body
+     */
+    public static byte[] generateContentResponse(String planText) {
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode root = mapper.createObjectNode();
+        ObjectNode candidate = root.putArray("candidates").addObject();
+        candidate.putObject("content").put("role", "model").putArray("parts").addObject().put("text", planText);
+        candidate.put("finishReason", "STOP");
+        ObjectNode usage = root.putObject("usageMetadata");
+        usage.put("promptTokenCount", 400);
+        usage.put("candidatesTokenCount", planText.length() / 4);
+        usage.put("totalTokenCount", 400 + planText.length() / 4);
+        try {
+            return mapper.writeValueAsString(root).getBytes(StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Text that defeats the cheap pre-checks: lines full of the keywords,
+     * colons and digit runs the patterns look for, but which match nothing,
+     * plus very long lines and a final line with no line break
+     * @param days Number of plan days
+     * @param seed Random seed
+     */
+    public static String adversarial(int days, long seed) {
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder();
+        for (int day = 0; day < days; day++) {
+            text.append("Date: ").append(START.plusDays(day)).append('\n');
+            text.append("Day: 12:30 to 14:45, then 2030 1 2 3 4 subject hours hr day date\n");
+            text.append("Subject: ").append(SUBJECTS[random.nextInt(SUBJECTS.length)])
+                    .append(" Topic: no commas here so the labelled form never closes Hours: many\n");
+            text.append("hours: hours: hours - hrs (hour) : - ( ").append(random.nextInt(99)).append(" days )\n");
+            text.append("- Mathematics - Algebra (two hours)\n");
+            if (day % 10 == 0) {
+                text.append("Day ");
+                for (int i = 0; i < 400; i++) {
+                    text.append(random.nextInt(10)).append(i % 7 == 0 ? '/' : ' ');
+                }
+                text.append("hours\n");
+            }
+        }
+        for (int i = 0; i < 200; i++) {
+            text.append("Subject: x: Topic: y: Hours: z: ");
+        }
+        return text.toString();
+    }
+}
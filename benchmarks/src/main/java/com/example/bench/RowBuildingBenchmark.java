@@ -0,0 +1,52 @@
+package com.example.bench;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.model.DailyStudyItem;
+import com.example.service.StudyPlanParser;
+import com.example.service.logging.LogLevel;
+import com.example.service.logging.PlanLogger;
+import com.example.view.StudyPlanView.DayPlanRow;
+
+/**
+ * Building the study plan table rows, as StudyPlanView does for each plan shown
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowBuildingBenchmark {
+    @Param({"30", "180"})
+    public int days;
+
+    private Map<LocalDate, List<DailyStudyItem>> dailyPlan;
+
+    @Setup
+    public void setUp() {
+        PlanLogger.get("parser").setLevel(LogLevel.OFF);
+        dailyPlan = new StudyPlanParser().parsePlan(PlanCorpus.realistic(days, 42),
+                PlanCorpus.START, PlanCorpus.START.plusDays(days));
+    }
+
+    @Benchmark
+    public List<DayPlanRow> buildRows() {
+        return DayPlanRow.forDays(dailyPlan);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.bench.PlanCorpus;
+import com.example.model.DailyStudyItem;
+import com.example.service.logging.LogLevel;
+import com.example.service.logging.PlanLogger;
+
+/**
+ * StudyPlanParser.parsePlan over prompted, realistic and adversarial responses
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+    @Param({"prompted", "realistic", "adversarial"})
+    public String corpus;
+
+    @Param({"30", "180"})
+    public int days;
+
+    private String text;
+    private LocalDate endDate;
+    private StudyPlanParser parser;
+
+    @Setup
+    public void setUp() {
+        PlanLogger.get("parser").setLevel(LogLevel.OFF);
+        switch (corpus) {
+            case "prompted":
+                text = PlanCorpus.prompted(days);
+                break;
+            case "realistic":
+                text = PlanCorpus.realistic(days, 42);
+                break;
+            default:
+                text = PlanCorpus.adversarial(days, 42);
+                break;
+        }
+        endDate = PlanCorpus.START.plusDays(days);
+        parser = new StudyPlanParser();
+    }
+
+    @Benchmark
+    public Map<LocalDate, List<DailyStudyItem>> parsePlan() {
+        return parser.parsePlan(text, PlanCorpus.START, endDate);
+    }
+}
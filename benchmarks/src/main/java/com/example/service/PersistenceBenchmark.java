@@ -0,0 +1,87 @@
+package com.example.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.bench.PlanCorpus;
+import com.example.model.StudyPlan;
+import com.example.model.Subject;
+import com.example.model.User;
+import com.example.service.logging.LogLevel;
+import com.example.service.logging.PlanLogger;
+
+/**
+ * DatabaseService.saveStudyPlan and loadStudyPlan on a temporary SQLite file
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistenceBenchmark {
+    @Param({"30", "180"})
+    public int days;
+
+    private Path directory;
+    private DatabaseService database;
+    private StudyPlan studyPlan;
+    private int savedPlanId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        PlanLogger.get("parser").setLevel(LogLevel.OFF);
+        directory = Files.createTempDirectory("planner-bench");
+        database = new DatabaseService("jdbc:sqlite:" + directory.resolve("bench.db"));
+
+        User user = new User("Benchmark", PlanCorpus.START.plusDays(days));
+        for (String name : new String[] {"Mathematics", "Physics", "Chemistry"}) {
+            Subject subject = new Subject(name);
+            subject.addTopic("Topic A");
+            subject.addTopic("Topic B");
+            user.addSubject(subject);
+        }
+        studyPlan = new StudyPlan(user);
+        studyPlan.setRawPlanText(PlanCorpus.realistic(days, 42));
+        studyPlan.setDailyPlan(new StudyPlanParser().parsePlan(studyPlan.getRawPlanText(),
+                PlanCorpus.START, user.getExamDate()));
+        savedPlanId = database.saveStudyPlan(1, studyPlan, "balanced");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        database.close();
+        try (java.util.stream.Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public int saveStudyPlan() {
+        return database.saveStudyPlan(1, studyPlan, "balanced");
+    }
+
+    @Benchmark
+    public StudyPlan loadStudyPlan() {
+        return database.loadStudyPlan(savedPlanId);
+    }
+}
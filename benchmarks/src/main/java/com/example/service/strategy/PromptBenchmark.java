@@ -0,0 +1,63 @@
+package com.example.service.strategy;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.model.Subject;
+import com.example.model.User;
+import com.example.service.backend.SyntheticPlanTextBackend;
+
+/**
+ * Prompt construction in the prompt-based strategies
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PromptBenchmark {
+    @Param({"balanced", "intensive"})
+    public String strategy;
+
+    @Param({"3", "12"})
+    public int subjects;
+
+    private AbstractPromptStudyPlanStrategy promptStrategy;
+    private User user;
+    private long daysUntilExam;
+
+    @Setup
+    public void setUp() {
+        promptStrategy = "balanced".equals(strategy)
+                ? new BalancedStudyPlanStrategy(new SyntheticPlanTextBackend(0))
+                : new IntensiveStudyPlanStrategy(new SyntheticPlanTextBackend(0));
+        user = new User("Benchmark", LocalDate.now().plusDays(60));
+        for (int s = 0; s < subjects; s++) {
+            Subject subject = new Subject("Subject " + s);
+            for (int t = 0; t < 8; t++) {
+                subject.addTopic("Topic " + s + "." + t);
+            }
+            user.addSubject(subject);
+        }
+        daysUntilExam = ChronoUnit.DAYS.between(LocalDate.now(), user.getExamDate());
+    }
+
+    @Benchmark
+    public String buildPrompt() {
+        return promptStrategy.buildPrompt(user, user.getExamDate(), daysUntilExam, null);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.service.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.util.EntityUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.bench.PlanCorpus;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Decoding a generateContent body by buffering it into a String and JsonNode tree,
+ * against GeminiResponseDecoder streaming it; run with -prof gc to compare allocation
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseDecodingBenchmark {
+    @Param({"30", "180"})
+    public int days;
+
+    private byte[] body;
+    private ObjectMapper mapper;
+
+    @Setup
+    public void setUp() {
+        body = PlanCorpus.generateContentResponse(PlanCorpus.prompted(days));
+        mapper = new ObjectMapper();
+    }
+
+    @Benchmark
+    public String treeDecode() throws IOException {
+        String json = EntityUtils.toString(new ByteArrayEntity(body, ContentType.APPLICATION_JSON), "UTF-8");
+        JsonNode root = mapper.readTree(json);
+        return root.get("candidates").get(0).get("content").get("parts").get(0).get("text").asText();
+    }
+
+    @Benchmark
+    public String streamingDecode() throws IOException {
+        return GeminiResponseDecoder.decode(mapper.getFactory(), new ByteArrayInputStream(body)).getText();
+    }
+}
@@ -9,6 +9,7 @@ import com.example.view.StudyPlanView;
 import com.example.view.UserInputView;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -56,11 +57,12 @@ public class SmartStudyPlannerApp extends Application {
         // Create strategy selection
         Label strategyLabel = new Label("Study Plan Strategy:");
         ComboBox<String> strategyComboBox = new ComboBox<>();
-        strategyComboBox.getItems().addAll("Balanced", "Intensive");
+        strategyComboBox.getItems().addAll("Balanced", "Intensive", "Offline (local)", "Spaced repetition (local)");
         strategyComboBox.setValue("Balanced");
         
         // Create generate button and progress indicator
         Button generateButton = new Button("Generate Study Plan");
+        Button replanButton = new Button("Replan Missed Work");
         ProgressIndicator progressIndicator = new ProgressIndicator();
         progressIndicator.setVisible(false);
         progressIndicator.setPrefSize(24, 24);
@@ -88,7 +90,8 @@ public class SmartStudyPlannerApp extends Application {
         // Add observer
         StudyPlanGenerationObserver observer = new StudyPlanGenerationObserver(
             progressIndicator, progressBar, progressLabel, studyPlanView);
-        controller.addObserver(observer);
+        // Delivered on the FX thread, so a burst of streamed days is one runLater
+        controller.addObserver(observer, Platform::runLater);
         
         // Define a method to update UI based on login state
         Runnable updateLoginState = () -> {
@@ -155,6 +158,10 @@ public class SmartStudyPlannerApp extends Application {
                     StudyPlanStrategyFactory.StrategyType strategyType = 
                             "Intensive".equals(selectedStrategy) ? 
                             StudyPlanStrategyFactory.StrategyType.INTENSIVE : 
+                            "Offline (local)".equals(selectedStrategy) ?
+                            StudyPlanStrategyFactory.StrategyType.LOCAL :
+                            "Spaced repetition (local)".equals(selectedStrategy) ?
+                            StudyPlanStrategyFactory.StrategyType.SPACED_REPETITION :
                             StudyPlanStrategyFactory.StrategyType.BALANCED;
                     
                     // Generate plan asynchronously
@@ -171,8 +178,19 @@ public class SmartStudyPlannerApp extends Application {
             }
         });
         
+        // Move unfinished items from past days into the days left, without regenerating
+        replanButton.setOnAction(e -> {
+            if (controller.getCurrentStudyPlan() == null) {
+                showErrorAlert("Generate or load a study plan first");
+                return;
+            }
+            controller.replanRemainingDays();
+            tabPane.getSelectionModel().select(planTab);
+        });
+        
         // Create bottom controls
-        HBox leftControls = new HBox(10, strategyLabel, strategyComboBox, generateButton, progressIndicator);
+        HBox leftControls = new HBox(10, strategyLabel, strategyComboBox, generateButton, replanButton,
+                progressIndicator);
         HBox progressControls = new HBox(10, progressBar, progressLabel);
         progressControls.setAlignment(Pos.CENTER_LEFT);
         HBox rightControls = new HBox(10, userStatusLabel, logoutButton);
@@ -254,4 +272,4 @@ public class SmartStudyPlannerApp extends Application {
     public static void main(String[] args) {
         launch(args);
     }
-} 
\ No newline at end of file
+} 
\ No newline at end of file
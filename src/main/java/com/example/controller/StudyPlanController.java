@@ -1,11 +1,13 @@
 package com.example.controller;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 import com.example.model.AuthenticatedUser;
 import com.example.model.DailyStudyItem;
@@ -13,8 +15,17 @@ import com.example.model.StudyPlan;
 import com.example.model.Subject;
 import com.example.model.User;
 import com.example.service.DatabaseService;
+import com.example.service.GeminiClientSingleton;
+import com.example.service.PlanChangeSet;
+import com.example.service.PlanReplanner;
 import com.example.service.StudyPlanGenerator;
+import com.example.service.cohort.CohortGenerator;
+import com.example.service.cohort.CohortInputReader;
+import com.example.service.cohort.CohortProgressListener;
+import com.example.service.cohort.CohortReport;
 import com.example.service.factory.StudyPlanStrategyFactory;
+import com.example.service.logging.PlanLogger;
+import com.example.service.observer.PlanEvent;
 import com.example.service.observer.StudyPlanObserver;
 
 /**
@@ -22,6 +33,8 @@ import com.example.service.observer.StudyPlanObserver;
  * Part of the MVC architecture
  */
 public class StudyPlanController {
+    private static final PlanLogger LOG = PlanLogger.get("controller");
+    
     private final StudyPlanGenerator studyPlanGenerator;
     private final DatabaseService databaseService;
     private User currentUser;
@@ -29,12 +42,13 @@ public class StudyPlanController {
     private AuthenticatedUser authenticatedUser;
     private String currentStrategy;
     private final List<StudyPlanObserver> observers;
+    private StudyPlanGenerator cohortPlanGenerator;
     
     public StudyPlanController() {
         this.studyPlanGenerator = new StudyPlanGenerator();
         this.currentUser = new User();
         this.databaseService = DatabaseService.getInstance();
-        this.observers = new ArrayList<>();
+        this.observers = new CopyOnWriteArrayList<>();
     }
     
     /**
@@ -115,11 +129,11 @@ public class StudyPlanController {
         // Set the new user as the current user
         currentUser = newUser;
         
-        // Print user details for debugging
-        System.out.println("User updated: " + name + ", Exam date: " + examDate);
-        System.out.println("Subjects count: " + currentUser.getSubjects().size());
-        for (Subject subject : currentUser.getSubjects()) {
-            System.out.println("Subject: " + subject.getName() + ", Topics: " + subject.getTopics());
+        LOG.debug("User updated", "name", name, "examDate", examDate, "subjects", currentUser.getSubjects().size());
+        if (LOG.isDebugEnabled()) {
+            for (Subject subject : currentUser.getSubjects()) {
+                LOG.debug("Subject", "name", subject.getName(), "topics", subject.getTopics());
+            }
         }
     }
     
@@ -162,6 +176,7 @@ public class StudyPlanController {
             );
             if (studyPlanId > 0) {
                 authenticatedUser.setCurrentStudyPlanId(studyPlanId);
+                studyPlanGenerator.getEventBus().publish(PlanEvent.persisted(currentStudyPlan, studyPlanId));
             }
         }
         
@@ -175,8 +190,9 @@ public class StudyPlanController {
      */
     public CompletableFuture<StudyPlan> generateStudyPlanAsync(StudyPlanStrategyFactory.StrategyType strategyType) {
         currentStrategy = strategyType.toString();
+        // Persist on the generator's worker pool rather than the thread completing the HTTP response
         return studyPlanGenerator.generatePlanAsync(currentUser, strategyType)
-                .thenApply(studyPlan -> {
+                .thenApplyAsync(studyPlan -> {
                     currentStudyPlan = studyPlan;
                     
                     // Save to database if user is logged in
@@ -188,11 +204,45 @@ public class StudyPlanController {
                         );
                         if (studyPlanId > 0) {
                             authenticatedUser.setCurrentStudyPlanId(studyPlanId);
+                            studyPlanGenerator.getEventBus().publish(PlanEvent.persisted(studyPlan, studyPlanId));
                         }
                     }
                     
                     return studyPlan;
-                });
+                }, studyPlanGenerator.getExecutor());
+    }
+    
+    /**
+     * Generate plans for every student in a cohort file
+     * @param cohortFile A CSV or JSON file, see {@link CohortInputReader}
+     * @param strategyType The type of study plan strategy to use
+     * @param listener Receives per-student progress, or null
+     * @return Completes with the cohort report
+     * @throws IOException If the file cannot be read or is malformed
+     */
+    public CompletableFuture<CohortReport> generateCohortAsync(Path cohortFile,
+                                                               StudyPlanStrategyFactory.StrategyType strategyType,
+                                                               CohortProgressListener listener) throws IOException {
+        return generateCohortAsync(CohortInputReader.read(cohortFile), strategyType, listener);
+    }
+    
+    /**
+     * Generate plans for every student in a cohort
+     * Plans are saved under the logged in account; the current user and plan are left unchanged
+     * @param users The students
+     * @param strategyType The type of study plan strategy to use
+     * @param listener Receives per-student progress, or null
+     * @return Completes with the cohort report
+     */
+    public synchronized CompletableFuture<CohortReport> generateCohortAsync(List<User> users,
+                                                                            StudyPlanStrategyFactory.StrategyType strategyType,
+                                                                            CohortProgressListener listener) {
+        // A generator of its own, so the UI observers do not follow every student
+        if (cohortPlanGenerator == null) {
+            cohortPlanGenerator = new StudyPlanGenerator();
+        }
+        int ownerId = isUserLoggedIn() ? authenticatedUser.getId() : 0;
+        return new CohortGenerator(cohortPlanGenerator, databaseService).generate(users, strategyType, ownerId, listener);
     }
     
     /**
@@ -232,6 +282,42 @@ public class StudyPlanController {
         return updatedInMemory;
     }
     
+    /**
+     * Move the current plan's missed work into the days left before the exam
+     * Completed items and past days are kept, no new plan is generated and
+     * only the changed rows are written to the database
+     * @return The changes made
+     */
+    public PlanChangeSet replanRemainingDays() {
+        return replanRemainingDays(LocalDate.now());
+    }
+    
+    /**
+     * Move the current plan's missed work into the days from today until the exam
+     * Observers are told through the event bus, as a replan rather than a new generation
+     * @param today The first day that can still be studied
+     * @return The changes made
+     */
+    public PlanChangeSet replanRemainingDays(LocalDate today) {
+        if (currentStudyPlan == null) {
+            throw new IllegalStateException("No study plan to replan");
+        }
+        PlanChangeSet changes = new PlanReplanner().replan(currentStudyPlan, today);
+        if (changes.isEmpty()) {
+            return changes;
+        }
+        
+        // Update in database if user is logged in and has a loaded study plan
+        if (isUserLoggedIn() && authenticatedUser.hasLoadedStudyPlan()
+                && !databaseService.applyPlanChanges(authenticatedUser.getCurrentStudyPlanId(), changes)) {
+            LOG.warn("Replanned plan could not be saved", "studyPlanId", authenticatedUser.getCurrentStudyPlanId(),
+                    "changes", changes.size());
+        }
+        
+        studyPlanGenerator.getEventBus().publish(PlanEvent.replanned(currentStudyPlan));
+        return changes;
+    }
+    
     /**
      * Get completion statistics for the current study plan
      * @return Map with total and completed counts
@@ -319,7 +405,16 @@ public class StudyPlanController {
      * @param observer The observer to add
      */
     public void addObserver(StudyPlanObserver observer) {
-        studyPlanGenerator.addObserver(observer);
+        addObserver(observer, null);
+    }
+    
+    /**
+     * Add an observer whose generation events are delivered on the given executor
+     * @param observer The observer to add
+     * @param executor Runs the notifications, e.g. Platform::runLater, or null for the event bus's threads
+     */
+    public void addObserver(StudyPlanObserver observer, Executor executor) {
+        studyPlanGenerator.addObserver(observer, executor);
         observers.add(observer);
     }
     
@@ -333,10 +428,14 @@ public class StudyPlanController {
     }
     
     /**
-     * Shutdown the study plan generator and database connection
+     * Shutdown the study plan generator, Gemini transport and database connection
      */
     public void shutdown() {
         studyPlanGenerator.shutdown();
+        if (cohortPlanGenerator != null) {
+            cohortPlanGenerator.shutdown();
+        }
+        GeminiClientSingleton.getInstance().shutdown();
         databaseService.close();
     }
-} 
\ No newline at end of file
+} 
\ No newline at end of file
@@ -12,6 +12,7 @@ public class StudyPlan {
     private User user;
     private Map<LocalDate, List<DailyStudyItem>> dailyPlan;
     private String rawPlanText;
+    private double unscheduledHours;
 
     public StudyPlan(User user) {
         this.user = user;
@@ -41,4 +42,16 @@ public class StudyPlan {
     public void setRawPlanText(String rawPlanText) {
         this.rawPlanText = rawPlanText;
     }
-} 
\ No newline at end of file
+
+    /**
+     * Get the hours of generated work that fit under the daily cap on no day and were left out
+     * @return The hours left out, 0 when everything was scheduled
+     */
+    public double getUnscheduledHours() {
+        return unscheduledHours;
+    }
+
+    public void setUnscheduledHours(double unscheduledHours) {
+        this.unscheduledHours = unscheduledHours;
+    }
+} 
\ No newline at end of file
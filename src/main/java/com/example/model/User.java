@@ -2,7 +2,7 @@ package com.example.model;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -54,13 +54,13 @@ public class User {
 
     /**
      * Returns all subjects and their topics as a map
-     * @return Map of subject names to lists of topics
+     * @return Map of subject names to lists of topics, in the order the subjects were added
      */
     public Map<String, List<String>> getAllSubjectsWithTopics() {
-        Map<String, List<String>> result = new HashMap<>();
+        Map<String, List<String>> result = new LinkedHashMap<>();
         for (Subject subject : subjects) {
             result.put(subject.getName(), subject.getTopics());
         }
         return result;
     }
-} 
\ No newline at end of file
+} 
\ No newline at end of file
@@ -8,13 +8,16 @@ import com.example.model.User;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Service for database operations using SQLite
- * Implements Singleton pattern
+ * Implements Singleton pattern. All operations share one connection, so every
+ * public method is synchronized: a transaction and the statements of other
+ * threads can never interleave on it
  */
 public class DatabaseService {
     
@@ -26,9 +29,17 @@ public class DatabaseService {
      * Private constructor to prevent direct instantiation
      */
     private DatabaseService() {
+        this(DB_URL);
+    }
+    
+    /**
+     * Create a service on another database, e.g. a temporary file for benchmarks
+     * @param dbUrl The JDBC URL
+     */
+    DatabaseService(String dbUrl) {
         try {
             // Create a connection to the database
-            connection = DriverManager.getConnection(DB_URL);
+            connection = DriverManager.getConnection(dbUrl);
             // Initialize the database schema if needed
             initializeDatabase();
         } catch (SQLException e) {
@@ -101,6 +112,16 @@ public class DatabaseService {
                     "completed BOOLEAN DEFAULT 0," +
                     "FOREIGN KEY (study_plan_id) REFERENCES study_plans(id)" +
                     ")");
+            // Row updates look items up by plan and date
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_daily_items_plan_date ON daily_items (study_plan_id, date)");
+            
+            // Create response cache table (persistent tier of PlanResponseCache)
+            stmt.execute("CREATE TABLE IF NOT EXISTS response_cache (" +
+                    "prompt_hash TEXT PRIMARY KEY," +
+                    "response TEXT NOT NULL," +
+                    "created_at INTEGER NOT NULL," +
+                    "last_access INTEGER NOT NULL" +
+                    ")");
             
             System.out.println("Database initialized successfully");
         }
@@ -112,7 +133,7 @@ public class DatabaseService {
      * @param password Password
      * @return true if registration successful, false otherwise
      */
-    public boolean registerUser(String username, String password) {
+    public synchronized boolean registerUser(String username, String password) {
         try (PreparedStatement pstmt = connection.prepareStatement(
                 "INSERT INTO users (username, password) VALUES (?, ?)")) {
             pstmt.setString(1, username);
@@ -131,7 +152,7 @@ public class DatabaseService {
      * @param password Password
      * @return User ID if authenticated, -1 otherwise
      */
-    public int authenticateUser(String username, String password) {
+    public synchronized int authenticateUser(String username, String password) {
         try (PreparedStatement pstmt = connection.prepareStatement(
                 "SELECT id FROM users WHERE username = ? AND password = ?")) {
             pstmt.setString(1, username);
@@ -154,52 +175,32 @@ public class DatabaseService {
      * @param studyPlan The study plan to save
      * @return The ID of the saved study plan, or -1 if an error occurred
      */
-    public int saveStudyPlan(int userId, StudyPlan studyPlan, String strategy) {
-        int studyPlanId = -1;
+    public synchronized int saveStudyPlan(int userId, StudyPlan studyPlan, String strategy) {
+        return saveStudyPlans(userId, List.of(studyPlan), strategy)[0];
+    }
+    
+    /**
+     * Save several study plans in one transaction
+     * Either every plan is saved or none is
+     * @param userId User ID
+     * @param studyPlans The study plans to save
+     * @param strategy The strategy that generated them
+     * @return The IDs of the saved study plans in order, or all -1 if an error occurred
+     */
+    public synchronized int[] saveStudyPlans(int userId, List<StudyPlan> studyPlans, String strategy) {
+        int[] studyPlanIds = new int[studyPlans.size()];
         
         try {
             // Start transaction
             connection.setAutoCommit(false);
             
-            // Save study plan
-            try (PreparedStatement pstmt = connection.prepareStatement(
-                    "INSERT INTO study_plans (user_id, name, exam_date, strategy, raw_plan_text) VALUES (?, ?, ?, ?, ?)",
-                    Statement.RETURN_GENERATED_KEYS)) {
-                pstmt.setInt(1, userId);
-                pstmt.setString(2, studyPlan.getUser().getName());
-                pstmt.setString(3, studyPlan.getUser().getExamDate().toString());
-                pstmt.setString(4, strategy);
-                pstmt.setString(5, studyPlan.getRawPlanText());
-                pstmt.executeUpdate();
-                
-                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        studyPlanId = generatedKeys.getInt(1);
-                    }
-                }
-            }
-            
-            // Save subjects and topics
-            for (Subject subject : studyPlan.getUser().getSubjects()) {
-                int subjectId = saveSubject(studyPlanId, subject.getName());
-                if (subjectId != -1) {
-                    for (String topic : subject.getTopics()) {
-                        saveTopic(subjectId, topic);
-                    }
-                }
-            }
-            
-            // Save daily items
-            for (Map.Entry<LocalDate, List<DailyStudyItem>> entry : studyPlan.getDailyPlan().entrySet()) {
-                LocalDate date = entry.getKey();
-                for (DailyStudyItem item : entry.getValue()) {
-                    saveDailyItem(studyPlanId, date, item);
-                }
+            for (int i = 0; i < studyPlans.size(); i++) {
+                studyPlanIds[i] = insertStudyPlan(userId, studyPlans.get(i), strategy);
             }
             
             // Commit transaction
             connection.commit();
-            return studyPlanId;
+            return studyPlanIds;
             
         } catch (SQLException e) {
             System.err.println("Error saving study plan: " + e.getMessage());
@@ -208,7 +209,8 @@ public class DatabaseService {
             } catch (SQLException ex) {
                 System.err.println("Error rolling back transaction: " + ex.getMessage());
             }
-            return -1;
+            Arrays.fill(studyPlanIds, -1);
+            return studyPlanIds;
         } finally {
             try {
                 connection.setAutoCommit(true);
@@ -218,6 +220,56 @@ public class DatabaseService {
         }
     }
     
+    /**
+     * Insert a study plan with its subjects, topics and daily items
+     * @param userId User ID
+     * @param studyPlan The study plan to save
+     * @param strategy The strategy that generated it
+     * @return The ID of the saved study plan
+     * @throws SQLException if a database error occurs
+     */
+    private int insertStudyPlan(int userId, StudyPlan studyPlan, String strategy) throws SQLException {
+        int studyPlanId = -1;
+        
+        // Save study plan
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "INSERT INTO study_plans (user_id, name, exam_date, strategy, raw_plan_text) VALUES (?, ?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setInt(1, userId);
+            pstmt.setString(2, studyPlan.getUser().getName());
+            pstmt.setString(3, studyPlan.getUser().getExamDate().toString());
+            pstmt.setString(4, strategy);
+            pstmt.setString(5, studyPlan.getRawPlanText());
+            pstmt.executeUpdate();
+            
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    studyPlanId = generatedKeys.getInt(1);
+                }
+            }
+        }
+        
+        // Save subjects and topics
+        for (Subject subject : studyPlan.getUser().getSubjects()) {
+            int subjectId = saveSubject(studyPlanId, subject.getName());
+            if (subjectId != -1) {
+                for (String topic : subject.getTopics()) {
+                    saveTopic(subjectId, topic);
+                }
+            }
+        }
+        
+        // Save daily items
+        for (Map.Entry<LocalDate, List<DailyStudyItem>> entry : studyPlan.getDailyPlan().entrySet()) {
+            LocalDate date = entry.getKey();
+            for (DailyStudyItem item : entry.getValue()) {
+                saveDailyItem(studyPlanId, date, item);
+            }
+        }
+        
+        return studyPlanId;
+    }
+    
     /**
      * Save a subject to the database
      * @param studyPlanId Study plan ID
@@ -281,7 +333,7 @@ public class DatabaseService {
      * @param userId User ID
      * @return List of study plan IDs and names
      */
-    public List<Map<String, Object>> getUserStudyPlans(int userId) {
+    public synchronized List<Map<String, Object>> getUserStudyPlans(int userId) {
         List<Map<String, Object>> plans = new ArrayList<>();
         
         try (PreparedStatement pstmt = connection.prepareStatement(
@@ -305,12 +357,37 @@ public class DatabaseService {
         return plans;
     }
     
+    /**
+     * Get the raw model text of every saved study plan, for re-parsing
+     * The plan window starts on the day the plan was saved
+     * @return The stored texts in ID order
+     */
+    public synchronized List<StoredPlanText> getStoredPlanTexts() {
+        List<StoredPlanText> texts = new ArrayList<>();
+        
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "SELECT id, exam_date, created_at, raw_plan_text FROM study_plans ORDER BY id")) {
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    texts.add(new StoredPlanText(rs.getInt("id"),
+                            LocalDate.parse(rs.getString("created_at").substring(0, 10)),
+                            LocalDate.parse(rs.getString("exam_date")),
+                            rs.getString("raw_plan_text")));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting stored plan texts: " + e.getMessage());
+        }
+        
+        return texts;
+    }
+    
     /**
      * Load a study plan from the database
      * @param studyPlanId Study plan ID
      * @return The loaded study plan, or null if an error occurred
      */
-    public StudyPlan loadStudyPlan(int studyPlanId) {
+    public synchronized StudyPlan loadStudyPlan(int studyPlanId) {
         try {
             // Get study plan details
             String userName = "";
@@ -434,7 +511,7 @@ public class DatabaseService {
      * @param completed New completion status
      * @return true if update successful, false otherwise
      */
-    public boolean updateItemCompletion(int studyPlanId, LocalDate date, String subject, String topic, boolean completed) {
+    public synchronized boolean updateItemCompletion(int studyPlanId, LocalDate date, String subject, String topic, boolean completed) {
         try (PreparedStatement pstmt = connection.prepareStatement(
                 "UPDATE daily_items SET completed = ? WHERE study_plan_id = ? AND date = ? AND subject = ? AND topic = ?")) {
             pstmt.setBoolean(1, completed);
@@ -452,12 +529,78 @@ public class DatabaseService {
         }
     }
     
+    /**
+     * Apply the row changes of a replan in one transaction
+     * Each change touches one incomplete row found by date, subject and topic;
+     * if a row is missing the transaction is rolled back
+     * @param studyPlanId Study plan ID
+     * @param changes The changes, in order
+     * @return true if every change was applied, false otherwise
+     */
+    public synchronized boolean applyPlanChanges(int studyPlanId, PlanChangeSet changes) {
+        String row = "(SELECT id FROM daily_items WHERE study_plan_id = ? AND date = ? AND subject = ? " +
+                "AND topic = ? AND completed = 0 LIMIT 1)";
+        try {
+            connection.setAutoCommit(false);
+            
+            try (PreparedStatement move = connection.prepareStatement(
+                    "UPDATE daily_items SET date = ? WHERE id = " + row);
+                 PreparedStatement resize = connection.prepareStatement(
+                    "UPDATE daily_items SET hours = ? WHERE id = " + row);
+                 PreparedStatement delete = connection.prepareStatement(
+                    "DELETE FROM daily_items WHERE id = " + row)) {
+                for (PlanChangeSet.Change change : changes.getChanges()) {
+                    PreparedStatement pstmt;
+                    int next = 1;
+                    switch (change.getKind()) {
+                        case MOVE:
+                            pstmt = move;
+                            pstmt.setString(next++, change.getNewDate().toString());
+                            break;
+                        case RESIZE:
+                            pstmt = resize;
+                            pstmt.setDouble(next++, change.getHours());
+                            break;
+                        default:
+                            pstmt = delete;
+                            break;
+                    }
+                    pstmt.setInt(next++, studyPlanId);
+                    pstmt.setString(next++, change.getDate().toString());
+                    pstmt.setString(next++, change.getSubject());
+                    pstmt.setString(next, change.getTopic());
+                    if (pstmt.executeUpdate() != 1) {
+                        throw new SQLException("No incomplete row for " + change);
+                    }
+                }
+            }
+            
+            connection.commit();
+            return true;
+            
+        } catch (SQLException e) {
+            System.err.println("Error applying plan changes: " + e.getMessage());
+            try {
+                connection.rollback();
+            } catch (SQLException ex) {
+                System.err.println("Error rolling back transaction: " + ex.getMessage());
+            }
+            return false;
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                System.err.println("Error resetting auto-commit: " + e.getMessage());
+            }
+        }
+    }
+    
     /**
      * Get completion statistics for a study plan
      * @param studyPlanId Study plan ID
      * @return Map with total and completed counts
      */
-    public Map<String, Integer> getCompletionStats(int studyPlanId) {
+    public synchronized Map<String, Integer> getCompletionStats(int studyPlanId) {
         Map<String, Integer> stats = new HashMap<>();
         stats.put("total", 0);
         stats.put("completed", 0);
@@ -480,10 +623,86 @@ public class DatabaseService {
         return stats;
     }
     
+    /**
+     * Look up a cached Gemini response
+     * @param promptHash Hash of the normalized prompt
+     * @param notBefore Entries created before this epoch-millis time are treated as expired
+     * @param accessedAt Time of this lookup in epoch millis, recorded for least-recently-used eviction
+     * @return The cached response, or null if absent or expired
+     */
+    public synchronized String getCachedResponse(String promptHash, long notBefore, long accessedAt) {
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "SELECT response FROM response_cache WHERE prompt_hash = ? AND created_at >= ?")) {
+            pstmt.setString(1, promptHash);
+            pstmt.setLong(2, notBefore);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                String response = rs.getString("response");
+                
+                try (PreparedStatement touch = connection.prepareStatement(
+                        "UPDATE response_cache SET last_access = ? WHERE prompt_hash = ?")) {
+                    touch.setLong(1, accessedAt);
+                    touch.setString(2, promptHash);
+                    touch.executeUpdate();
+                }
+                return response;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error reading response cache: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Store a Gemini response in the persistent cache
+     * @param promptHash Hash of the normalized prompt
+     * @param response The response text
+     * @param createdAt Creation time in epoch millis
+     */
+    public synchronized void putCachedResponse(String promptHash, String response, long createdAt) {
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "INSERT OR REPLACE INTO response_cache (prompt_hash, response, created_at, last_access) VALUES (?, ?, ?, ?)")) {
+            pstmt.setString(1, promptHash);
+            pstmt.setString(2, response);
+            pstmt.setLong(3, createdAt);
+            pstmt.setLong(4, createdAt);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Error writing response cache: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Remove expired cache entries and trim the cache to its size limit
+     * Least recently accessed entries are removed first
+     * @param notBefore Entries created before this epoch-millis time are removed
+     * @param maxEntries Maximum number of entries to keep
+     * @return Number of entries removed
+     */
+    public synchronized int evictCachedResponses(long notBefore, int maxEntries) {
+        try (PreparedStatement expired = connection.prepareStatement(
+                "DELETE FROM response_cache WHERE created_at < ?");
+             PreparedStatement overflow = connection.prepareStatement(
+                "DELETE FROM response_cache WHERE prompt_hash NOT IN " +
+                "(SELECT prompt_hash FROM response_cache ORDER BY last_access DESC LIMIT ?)")) {
+            expired.setLong(1, notBefore);
+            int removed = expired.executeUpdate();
+            overflow.setInt(1, maxEntries);
+            removed += overflow.executeUpdate();
+            return removed;
+        } catch (SQLException e) {
+            System.err.println("Error evicting response cache: " + e.getMessage());
+            return 0;
+        }
+    }
+    
     /**
      * Close the database connection
      */
-    public void close() {
+    public synchronized void close() {
         try {
             if (connection != null && !connection.isClosed()) {
                 connection.close();
@@ -493,4 +712,4 @@ public class DatabaseService {
             System.err.println("Error closing database connection: " + e.getMessage());
         }
     }
-} 
\ No newline at end of file
+} 
\ No newline at end of file
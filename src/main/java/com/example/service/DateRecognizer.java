@@ -0,0 +1,302 @@
+package com.example.service;
+
+/**
+ * Recognizes the date shapes StudyPlanParser accepts without DateTimeFormatter
+ * Shapes: "yyyy-MM-dd", "MM/dd/yyyy", "MMM d, yyyy", "MMMM d, yyyy" and "d MMMM yyyy"
+ * with English month names, plus "Day N" references. Nothing throws on a
+ * mismatch: dates come back as an epoch day, or NOT_A_DATE, so callers only
+ * build a LocalDate for text that really is a date. Day-of-month values past
+ * the end of the month are clamped, as the formatters' SMART resolver did
+ */
+final class DateRecognizer {
+    /**
+     * Returned when the text is not a date
+     */
+    static final long NOT_A_DATE = Long.MIN_VALUE;
+
+    private static final long DAYS_0000_TO_1970 = 719_528L;
+
+    private static final MonthTrie MONTHS = new MonthTrie(
+            new String[] {"January", "February", "March", "April", "May", "June", "July",
+                "August", "September", "October", "November", "December"},
+            new String[] {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul",
+                "Aug", "Sep", "Oct", "Nov", "Dec"});
+
+    private DateRecognizer() {
+    }
+
+    /**
+     * Parse text that is exactly one date in a supported shape
+     * @param text The text
+     * @param start Index of the first character
+     * @param end Index after the last character
+     * @return The epoch day, or NOT_A_DATE
+     */
+    static long parseEpochDay(CharSequence text, int start, int end) {
+        int length = end - start;
+        if (length < 8) {
+            return NOT_A_DATE;
+        }
+        char first = text.charAt(start);
+        if (isDigit(first)) {
+            if (length == 10 && text.charAt(start + 4) == '-' && text.charAt(start + 7) == '-') {
+                // yyyy-MM-dd
+                return epochDay(fixedDigits(text, start, 4), fixedDigits(text, start + 5, 2),
+                        fixedDigits(text, start + 8, 2));
+            }
+            if (length == 10 && text.charAt(start + 2) == '/' && text.charAt(start + 5) == '/') {
+                // MM/dd/yyyy
+                return epochDay(fixedDigits(text, start + 6, 4), fixedDigits(text, start, 2),
+                        fixedDigits(text, start + 3, 2));
+            }
+            return parseDayMonthYear(text, start, end);
+        }
+        return parseMonthDayYear(text, start, end);
+    }
+
+    /**
+     * d MMMM yyyy
+     */
+    private static long parseDayMonthYear(CharSequence text, int start, int end) {
+        int dayEnd = digitsEnd(text, start, end);
+        int day = dayValue(text, start, dayEnd);
+        if (day < 0 || dayEnd >= end || text.charAt(dayEnd) != ' ') {
+            return NOT_A_DATE;
+        }
+        long month = MONTHS.match(text, dayEnd + 1, end, false);
+        if (month < 0) {
+            return NOT_A_DATE;
+        }
+        int yearStart = dayEnd + 1 + MonthTrie.length(month) + 1;
+        if (yearStart - 1 >= end || text.charAt(yearStart - 1) != ' ' || end - yearStart != 4) {
+            return NOT_A_DATE;
+        }
+        return epochDay(fixedDigits(text, yearStart, 4), MonthTrie.month(month), day);
+    }
+
+    /**
+     * MMM d, yyyy and MMMM d, yyyy
+     */
+    private static long parseMonthDayYear(CharSequence text, int start, int end) {
+        long epochDay = parseMonthDayYear(text, start, end, MONTHS.match(text, start, end, true));
+        return epochDay != NOT_A_DATE ? epochDay : parseMonthDayYear(text, start, end, MONTHS.match(text, start, end, false));
+    }
+
+    private static long parseMonthDayYear(CharSequence text, int start, int end, long month) {
+        if (month < 0) {
+            return NOT_A_DATE;
+        }
+        int dayStart = start + MonthTrie.length(month) + 1;
+        if (dayStart > end || text.charAt(dayStart - 1) != ' ') {
+            return NOT_A_DATE;
+        }
+        int dayEnd = digitsEnd(text, dayStart, end);
+        int day = dayValue(text, dayStart, dayEnd);
+        if (day < 0 || end - dayEnd != 6 || text.charAt(dayEnd) != ',' || text.charAt(dayEnd + 1) != ' ') {
+            return NOT_A_DATE;
+        }
+        return epochDay(fixedDigits(text, dayEnd + 2, 4), MonthTrie.month(month), day);
+    }
+
+    /**
+     * Find the first "Day N" or "Date N" reference, as \b(?:day|date)\s*(\d+)\b ignoring case
+     * @param text The text to search
+     * @return N, or -1 if there is no reference or N does not fit in an int
+     */
+    static int findDayNumber(CharSequence text) {
+        int length = text.length();
+        for (int i = 0; i + 3 < length; i++) {
+            if (i > 0 && isWordChar(text.charAt(i - 1))) {
+                continue;
+            }
+            int wordEnd;
+            if (asciiLower(text.charAt(i)) == 'd' && asciiLower(text.charAt(i + 1)) == 'a') {
+                char third = asciiLower(text.charAt(i + 2));
+                if (third == 'y') {
+                    wordEnd = i + 3;
+                } else if (third == 't' && asciiLower(text.charAt(i + 3)) == 'e') {
+                    wordEnd = i + 4;
+                } else {
+                    continue;
+                }
+            } else {
+                continue;
+            }
+            int digitsStart = wordEnd;
+            while (digitsStart < length && isRegexSpace(text.charAt(digitsStart))) {
+                digitsStart++;
+            }
+            int digitsEnd = digitsEnd(text, digitsStart, length);
+            if (digitsEnd == digitsStart || (digitsEnd < length && isWordChar(text.charAt(digitsEnd)))) {
+                continue;
+            }
+            long value = 0;
+            for (int k = digitsStart; k < digitsEnd; k++) {
+                value = value * 10 + (text.charAt(k) - '0');
+                if (value > Integer.MAX_VALUE) {
+                    return -1;
+                }
+            }
+            return (int) value;
+        }
+        return -1;
+    }
+
+    /**
+     * Days since 1970-01-01, clamping the day to the month's length
+     * @return The epoch day, or NOT_A_DATE if a field is out of range
+     */
+    static long epochDay(int year, int month, int day) {
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return NOT_A_DATE;
+        }
+        boolean leap = (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+        int monthLength = month == 2 ? (leap ? 29 : 28) : (month == 4 || month == 6 || month == 9 || month == 11) ? 30 : 31;
+        day = Math.min(day, monthLength);
+
+        // Same arithmetic as LocalDate.toEpochDay for years after 0
+        long y = year;
+        long total = 365 * y + (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!leap) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    private static int fixedDigits(CharSequence text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = text.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int digitsEnd(CharSequence text, int start, int end) {
+        int i = start;
+        while (i < end && isDigit(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Value of a one to nineteen digit day-of-month, as the "d" pattern reads it
+     * @return The day, or -1 if the digits cannot be a day of the month
+     */
+    private static int dayValue(CharSequence text, int start, int end) {
+        if (end == start || end - start > 19) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + (text.charAt(i) - '0');
+            if (value > 31) {
+                return -1;
+            }
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWordChar(char c) {
+        return c == '_' || Character.isLetterOrDigit(c);
+    }
+
+    private static char asciiLower(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static boolean isRegexSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Case-sensitive trie of full and abbreviated month names
+     * A match is packed as month * 256 + length of the matched name
+     */
+    private static final class MonthTrie {
+        private final Node root = new Node();
+
+        MonthTrie(String[] fullNames, String[] shortNames) {
+            for (int i = 0; i < 12; i++) {
+                add(fullNames[i], i + 1, false);
+                add(shortNames[i], i + 1, true);
+            }
+        }
+
+        private void add(String name, int month, boolean abbreviated) {
+            Node node = root;
+            for (int i = 0; i < name.length(); i++) {
+                node = node.child(name.charAt(i), true);
+            }
+            if (abbreviated) {
+                node.shortMonth = month;
+            } else {
+                node.fullMonth = month;
+            }
+        }
+
+        /**
+         * Match the longest month name of one style at the position
+         * @return The packed match, or -1 if none
+         */
+        long match(CharSequence text, int start, int end, boolean abbreviated) {
+            Node node = root;
+            long best = -1;
+            for (int i = start; i < end; i++) {
+                node = node.child(text.charAt(i), false);
+                if (node == null) {
+                    break;
+                }
+                int month = abbreviated ? node.shortMonth : node.fullMonth;
+                if (month > 0) {
+                    best = (long) month * 256 + (i - start + 1);
+                }
+            }
+            return best;
+        }
+
+        static int month(long match) {
+            return (int) (match / 256);
+        }
+
+        static int length(long match) {
+            return (int) (match % 256);
+        }
+
+        private static final class Node {
+            private char[] keys = new char[0];
+            private Node[] children = new Node[0];
+            private int shortMonth;
+            private int fullMonth;
+
+            Node child(char key, boolean create) {
+                for (int i = 0; i < keys.length; i++) {
+                    if (keys[i] == key) {
+                        return children[i];
+                    }
+                }
+                if (!create) {
+                    return null;
+                }
+                keys = java.util.Arrays.copyOf(keys, keys.length + 1);
+                children = java.util.Arrays.copyOf(children, children.length + 1);
+                keys[keys.length - 1] = key;
+                children[children.length - 1] = new Node();
+                return children[children.length - 1];
+            }
+        }
+    }
+}
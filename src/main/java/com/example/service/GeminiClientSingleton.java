@@ -1,8 +1,25 @@
 package com.example.service;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 
 import com.example.GeminiClient;
+import com.example.service.ratelimit.GenerationRateLimiter;
+import com.example.service.ratelimit.GenerationRateLimiter.Priority;
+import com.example.service.resilience.Deadline;
+import com.example.service.resilience.GeminiApiException;
+import com.example.service.resilience.GeminiResilience;
+import com.example.service.resilience.GeminiResilience.Attempt;
+import com.example.service.transport.GeminiResponse;
+import com.example.service.transport.GeminiTransport;
+import com.example.service.transport.GeminiTransportConfig;
+import com.fasterxml.jackson.databind.JsonNode;
 
 /**
  * Singleton implementation for the GeminiClient
@@ -10,9 +27,17 @@ import com.example.GeminiClient;
  */
 public class GeminiClientSingleton {
     private static GeminiClientSingleton instance;
+    private GeminiTransport transport;
+    private final GeminiResilience resilience;
+    private final GenerationRateLimiter rateLimiter;
+    private final int expectedResponseTokens;
     
     private GeminiClientSingleton() {
         // Private constructor to prevent direct instantiation
+        this.transport = new GeminiTransport(new GeminiTransportConfig());
+        this.resilience = GeminiResilience.fromSystemProperties();
+        this.rateLimiter = GenerationRateLimiter.fromSystemProperties();
+        this.expectedResponseTokens = Integer.getInteger("gemini.rateLimit.expectedResponseTokens", 4096);
     }
     
     /**
@@ -28,11 +53,262 @@ public class GeminiClientSingleton {
     
     /**
      * Generate text using the Gemini API
+     * Each attempt is admitted by the rate limiter at the priority bound to this thread;
+     * transient failures are retried with backoff under the endpoint's circuit breaker
      * @param prompt The prompt to send to Gemini
      * @return The generated text response
-     * @throws IOException If an I/O error occurs
+     * @throws IOException If the call fails; Gemini failures are GeminiApiExceptions
      */
     public String generateText(String prompt) throws IOException {
-        return GeminiClient.generateText(prompt);
+        return generateText(prompt, null);
+    }
+    
+    /**
+     * Generate text using the Gemini API with a generationConfig, e.g. a response schema
+     * @param prompt The prompt to send to Gemini
+     * @param generationConfig The request's generationConfig, may be null
+     * @return The generated text response
+     * @throws IOException If the call fails; Gemini failures are GeminiApiExceptions
+     */
+    public String generateText(String prompt, JsonNode generationConfig) throws IOException {
+        GeminiTransport current = getTransport();
+        int promptTokens = GenerationRateLimiter.estimateTokens(prompt);
+        return resilience.call(current.getConfig().getBaseUrl() + ":generateContent",
+                rateLimited(promptTokens, () -> GeminiClient.generateResponse(prompt, generationConfig, current),
+                        response -> usedTokens(promptTokens, response))).getText();
+    }
+    
+    /**
+     * Generate text using the Gemini streaming endpoint
+     * @param prompt The prompt to send to Gemini
+     * @param chunkConsumer Receives each text chunk as it arrives
+     * @return The full generated text response
+     * @throws IOException If an I/O error occurs
+     */
+    public String streamText(String prompt, Consumer<String> chunkConsumer) throws IOException {
+        return streamText(prompt, null, chunkConsumer);
+    }
+    
+    /**
+     * Generate text using the Gemini streaming endpoint with a generationConfig
+     * @param prompt The prompt to send to Gemini
+     * @param generationConfig The request's generationConfig, may be null
+     * @param chunkConsumer Receives each text chunk as it arrives
+     * @return The full generated text response
+     * @throws IOException If an I/O error occurs
+     */
+    public String streamText(String prompt, JsonNode generationConfig, Consumer<String> chunkConsumer) throws IOException {
+        GeminiTransport current = getTransport();
+        AtomicBoolean delivered = new AtomicBoolean();
+        Consumer<String> trackingConsumer = chunk -> {
+            delivered.set(true);
+            chunkConsumer.accept(chunk);
+        };
+        int promptTokens = GenerationRateLimiter.estimateTokens(prompt);
+        Attempt<String> streamAttempt = rateLimited(promptTokens,
+                () -> GeminiClient.streamText(prompt, generationConfig, current, trackingConsumer),
+                text -> promptTokens + GenerationRateLimiter.estimateTokens(text));
+        return resilience.call(current.getConfig().getBaseUrl() + ":streamGenerateContent", () -> {
+            try {
+                return streamAttempt.call();
+            } catch (GeminiApiException e) {
+                if (delivered.get() && e.isRetryable()) {
+                    // Chunks already reached the parser, so a retry would duplicate them
+                    throw new GeminiApiException(GeminiApiException.Kind.STREAM_INTERRUPTED,
+                            "Gemini stream interrupted after partial delivery", e.getStatusCode(), -1, e);
+                }
+                throw e;
+            }
+        });
+    }
+    
+    /**
+     * Generate text without blocking the calling thread
+     * Rate limiter admission, backoff between retries and the HTTP exchange are all
+     * scheduled asynchronously, so no thread is parked while the call is outstanding
+     * @param prompt The prompt to send to Gemini
+     * @param generationConfig The request's generationConfig, may be null
+     * @param priority Admission priority at the rate limiter
+     * @param deadline Overall deadline across retries, or null for none
+     * @return A future for the generated text; cancelling it aborts the request in flight
+     */
+    public CompletableFuture<String> generateTextAsync(String prompt, JsonNode generationConfig, Priority priority,
+                                                       Deadline deadline) {
+        GeminiTransport current = getTransport();
+        int promptTokens = GenerationRateLimiter.estimateTokens(prompt);
+        return resilience.callAsync(current.getConfig().getBaseUrl() + ":generateContent", deadline,
+                rateLimitedAsync(promptTokens, priority, deadline,
+                        () -> GeminiClient.generateResponseAsync(prompt, generationConfig, current, deadline),
+                        response -> usedTokens(promptTokens, response)))
+                .thenApply(GeminiResponse::getText);
+    }
+    
+    /**
+     * Stream text through the Gemini streaming endpoint without blocking the calling thread
+     * @param prompt The prompt to send to Gemini
+     * @param generationConfig The request's generationConfig, may be null
+     * @param priority Admission priority at the rate limiter
+     * @param deadline Overall deadline across retries, or null for none
+     * @param chunkConsumer Receives each text chunk as it arrives
+     * @return A future for the full generated text
+     */
+    public CompletableFuture<String> streamTextAsync(String prompt, JsonNode generationConfig, Priority priority,
+                                                     Deadline deadline, Consumer<String> chunkConsumer) {
+        GeminiTransport current = getTransport();
+        AtomicBoolean delivered = new AtomicBoolean();
+        Consumer<String> trackingConsumer = chunk -> {
+            delivered.set(true);
+            chunkConsumer.accept(chunk);
+        };
+        int promptTokens = GenerationRateLimiter.estimateTokens(prompt);
+        Supplier<CompletableFuture<String>> streamAttempt = rateLimitedAsync(promptTokens, priority, deadline,
+                () -> GeminiClient.streamTextAsync(prompt, generationConfig, current, deadline, trackingConsumer),
+                text -> promptTokens + GenerationRateLimiter.estimateTokens(text));
+        return resilience.callAsync(current.getConfig().getBaseUrl() + ":streamGenerateContent", deadline, () -> {
+            CompletableFuture<String> call = streamAttempt.get();
+            CompletableFuture<String> checked = call.handle((response, error) -> {
+                if (error == null) {
+                    return response;
+                }
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                if (delivered.get() && cause instanceof GeminiApiException
+                        && ((GeminiApiException) cause).isRetryable()) {
+                    // Chunks already reached the parser, so a retry would duplicate them
+                    GeminiApiException e = (GeminiApiException) cause;
+                    throw new CompletionException(new GeminiApiException(GeminiApiException.Kind.STREAM_INTERRUPTED,
+                            "Gemini stream interrupted after partial delivery", e.getStatusCode(), -1, e));
+                }
+                throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(cause);
+            });
+            checked.whenComplete((response, error) -> {
+                if (checked.isCancelled()) {
+                    call.cancel(true);
+                }
+            });
+            return checked;
+        });
+    }
+    
+    /**
+     * Asynchronous counterpart of {@link #rateLimited}: the attempt starts once the
+     * rate limiter admits it, and the reservation is settled when it completes
+     */
+    private <T> Supplier<CompletableFuture<T>> rateLimitedAsync(int promptTokens, Priority priority, Deadline deadline,
+                                                                Supplier<CompletableFuture<T>> attempt,
+                                                                ToIntFunction<T> usedTokens) {
+        return () -> {
+            CompletableFuture<GenerationRateLimiter.Permit> admission =
+                    rateLimiter.acquireAsync(priority, promptTokens + expectedResponseTokens);
+            if (deadline != null && !admission.isDone()) {
+                // Give up the queue slot once the deadline passes
+                CompletableFuture.delayedExecutor(deadline.remainingMillis(), TimeUnit.MILLISECONDS).execute(() ->
+                        admission.completeExceptionally(new GeminiApiException(GeminiApiException.Kind.DEADLINE_EXCEEDED,
+                                "Study plan generation deadline exceeded while waiting for the Gemini quota")));
+            }
+            CompletableFuture<T> result = new CompletableFuture<>();
+            admission.whenComplete((permit, admissionError) -> {
+                if (admissionError != null) {
+                    result.completeExceptionally(admissionError instanceof CompletionException
+                            && admissionError.getCause() != null ? admissionError.getCause() : admissionError);
+                    return;
+                }
+                if (result.isDone()) {
+                    // Cancelled while queued
+                    permit.settle(0);
+                    return;
+                }
+                CompletableFuture<T> call;
+                try {
+                    call = attempt.get();
+                } catch (RuntimeException e) {
+                    permit.settle(promptTokens);
+                    result.completeExceptionally(e);
+                    return;
+                }
+                result.whenComplete((response, error) -> {
+                    if (result.isCancelled()) {
+                        call.cancel(true);
+                    }
+                });
+                call.whenComplete((response, error) -> {
+                    permit.settle(response != null ? usedTokens.applyAsInt(response) : promptTokens);
+                    if (error != null) {
+                        result.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error);
+                    } else {
+                        result.complete(response);
+                    }
+                });
+            });
+            result.whenComplete((response, error) -> {
+                if (result.isCancelled()) {
+                    admission.cancel(false);
+                }
+            });
+            return result;
+        };
+    }
+    
+    /**
+     * Wrap an attempt so it waits for rate limiter admission and then settles
+     * the token reservation with the tokens the call actually used
+     */
+    private <T> Attempt<T> rateLimited(int promptTokens, Attempt<T> attempt, ToIntFunction<T> usedTokens) {
+        return () -> {
+            GenerationRateLimiter.Permit permit = rateLimiter.acquire(
+                    GenerationRateLimiter.currentPriority(), promptTokens + expectedResponseTokens);
+            T response = null;
+            try {
+                response = attempt.call();
+                return response;
+            } finally {
+                permit.settle(response != null ? usedTokens.applyAsInt(response) : promptTokens);
+            }
+        };
+    }
+    
+    /**
+     * Tokens charged for a response: Gemini's reported total when present, otherwise an estimate
+     */
+    private static int usedTokens(int promptTokens, GeminiResponse response) {
+        if (response.getTotalTokenCount() >= 0) {
+            return response.getTotalTokenCount();
+        }
+        return promptTokens + GenerationRateLimiter.estimateTokens(response.getText());
+    }
+    
+    /**
+     * Get the rate limiter in front of the Gemini API, e.g. for queue-depth metrics
+     * @return the shared rate limiter
+     */
+    public GenerationRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+    
+    /**
+     * Get the shared HTTP transport
+     * @return the current transport
+     */
+    public synchronized GeminiTransport getTransport() {
+        return transport;
+    }
+    
+    /**
+     * Replace the shared transport with one built from the given configuration
+     * The previous transport's pooled connections are closed
+     * @param config The new transport configuration
+     */
+    public synchronized void configure(GeminiTransportConfig config) {
+        GeminiTransport previous = transport;
+        transport = new GeminiTransport(config);
+        previous.close();
+    }
+    
+    /**
+     * Close the shared transport and its pooled connections
+     */
+    public synchronized void shutdown() {
+        transport.close();
     }
-} 
\ No newline at end of file
+} 
\ No newline at end of file
@@ -0,0 +1,91 @@
+package com.example.service;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What PlanHourBalancer changed in a plan
+ */
+public class HourBalanceReport {
+    private final double hoursBefore;
+    private final double hoursAfter;
+    private final double hoursRescaled;
+    private final double hoursMoved;
+    private final double hoursDropped;
+    private final int itemsChanged;
+    private final int daysOverCap;
+    private final List<LocalDate> changedDates;
+
+    HourBalanceReport(double hoursBefore, double hoursAfter, double hoursRescaled, double hoursMoved,
+                      double hoursDropped, int itemsChanged, int daysOverCap, List<LocalDate> changedDates) {
+        this.hoursBefore = hoursBefore;
+        this.hoursAfter = hoursAfter;
+        this.hoursRescaled = hoursRescaled;
+        this.hoursMoved = hoursMoved;
+        this.hoursDropped = hoursDropped;
+        this.itemsChanged = itemsChanged;
+        this.daysOverCap = daysOverCap;
+        this.changedDates = Collections.unmodifiableList(changedDates);
+    }
+
+    /**
+     * @return Total hours of the plan as generated
+     */
+    public double getHoursBefore() {
+        return hoursBefore;
+    }
+
+    /**
+     * @return Total hours of the balanced plan
+     */
+    public double getHoursAfter() {
+        return hoursAfter;
+    }
+
+    /**
+     * @return Hours added to or taken from subjects to bring them to their target share
+     */
+    public double getHoursRescaled() {
+        return hoursRescaled;
+    }
+
+    /**
+     * @return Hours moved from days over the cap to other days
+     */
+    public double getHoursMoved() {
+        return hoursMoved;
+    }
+
+    /**
+     * @return Hours that fit under the cap on no day and were left out
+     */
+    public double getHoursDropped() {
+        return hoursDropped;
+    }
+
+    /**
+     * @return Number of items whose hours or day changed, counting split-off parts
+     */
+    public int getItemsChanged() {
+        return itemsChanged;
+    }
+
+    /**
+     * @return Number of days over the cap before balancing
+     */
+    public int getDaysOverCap() {
+        return daysOverCap;
+    }
+
+    /**
+     * @return The days whose items changed, in date order
+     */
+    public List<LocalDate> getChangedDates() {
+        return changedDates;
+    }
+
+    public boolean isChanged() {
+        return itemsChanged > 0;
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import com.example.model.DailyStudyItem;
+import com.example.service.logging.PlanLogger;
+
+/**
+ * Incremental counterpart of StudyPlanParser for streamed responses
+ * Text is pushed in arbitrary chunks with feed(), or pulled from a Reader with
+ * parse(); each day is handed to the listener as soon as the next day header
+ * (or the end of the stream) closes it. Only the current line and day are
+ * buffered, plus the raw text when it is retained
+ */
+public class IncrementalPlanParser implements PlanChunkParser {
+    private static final PlanLogger LOG = PlanLogger.get("parser");
+    private final StudyPlanParser parser;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final BiConsumer<LocalDate, List<DailyStudyItem>> dayListener;
+    private static final int READ_BUFFER_CHARS = 8192;
+    private final StringBuilder lineBuffer;
+    private final boolean retainRawText;
+    // Without retention, text is kept only until the first day is parsed, for the default plan fallback
+    private StringBuilder rawText;
+    private final Map<LocalDate, List<DailyStudyItem>> result;
+    
+    private LocalDate currentDate;
+    private List<DailyStudyItem> currentDayItems;
+    
+    /**
+     * Create a new incremental parser
+     * @param startDate The start date of the study plan
+     * @param endDate The end date of the study plan (exam date)
+     * @param dayListener Called with each completed day, may be null
+     */
+    public IncrementalPlanParser(LocalDate startDate, LocalDate endDate,
+                                 BiConsumer<LocalDate, List<DailyStudyItem>> dayListener) {
+        this(startDate, endDate, dayListener, true);
+    }
+    
+    /**
+     * Create a new incremental parser
+     * @param startDate The start date of the study plan
+     * @param endDate The end date of the study plan (exam date)
+     * @param dayListener Called with each completed day, may be null
+     * @param retainRawText Whether to keep all text for getRawText(); without it
+     *                      memory use does not grow with the response
+     */
+    public IncrementalPlanParser(LocalDate startDate, LocalDate endDate,
+                                 BiConsumer<LocalDate, List<DailyStudyItem>> dayListener, boolean retainRawText) {
+        this.parser = new StudyPlanParser();
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.dayListener = dayListener;
+        this.lineBuffer = new StringBuilder();
+        this.retainRawText = retainRawText;
+        this.rawText = new StringBuilder();
+        this.result = new HashMap<>();
+    }
+    
+    /**
+     * Feed the next chunk of response text
+     * @param chunk The text chunk, which may end mid-line
+     */
+    @Override
+    public void feed(CharSequence chunk) {
+        if (rawText != null) {
+            rawText.append(chunk);
+        }
+        int lineStart = 0;
+        for (int i = 0; i < chunk.length(); i++) {
+            if (chunk.charAt(i) == '\n') {
+                lineBuffer.append(chunk, lineStart, i);
+                processLine();
+                lineStart = i + 1;
+            }
+        }
+        lineBuffer.append(chunk, lineStart, chunk.length());
+        if (!retainRawText && !result.isEmpty()) {
+            rawText = null;
+        }
+    }
+    
+    /**
+     * Read the reader to its end and return the complete plan
+     * The reader is not closed
+     * @param reader Source of the response text, e.g. a streaming HTTP body
+     * @return A map of dates to daily study items
+     * @throws IOException If reading fails
+     */
+    public Map<LocalDate, List<DailyStudyItem>> parse(Reader reader) throws IOException {
+        char[] buffer = new char[READ_BUFFER_CHARS];
+        int read;
+        while ((read = reader.read(buffer)) >= 0) {
+            feed(CharBuffer.wrap(buffer, 0, read));
+        }
+        return finish();
+    }
+    
+    /**
+     * Signal the end of the stream and return the complete plan
+     * Falls back to the default plan when no structured days were found
+     * @return A map of dates to daily study items
+     */
+    @Override
+    public Map<LocalDate, List<DailyStudyItem>> finish() {
+        processLine();
+        closeCurrentDay();
+        
+        if (result.isEmpty()) {
+            LOG.warn("No structured data found, creating default plan", "chars", rawText.length());
+            return parser.createDefaultPlan(rawText.toString(), startDate, endDate);
+        }
+        if (!retainRawText) {
+            rawText = null;
+        }
+        return result;
+    }
+    
+    /**
+     * Get all text fed so far
+     * @return The raw response text, or null if the parser does not retain it
+     */
+    public String getRawText() {
+        return retainRawText ? rawText.toString() : null;
+    }
+    
+    private void processLine() {
+        String line = lineBuffer.toString().trim();
+        lineBuffer.setLength(0);
+        if (line.isEmpty()) {
+            return;
+        }
+        
+        int features = PlanLineScanner.scan(line);
+        LocalDate possibleDate = PlanLineScanner.extractDate(line, features, startDate, endDate);
+        if (possibleDate != null) {
+            closeCurrentDay();
+            currentDate = possibleDate;
+            currentDayItems = new ArrayList<>();
+            return;
+        }
+        
+        if (currentDate != null) {
+            DailyStudyItem item = PlanLineScanner.extractStudyItem(line, features);
+            if (item != null) {
+                currentDayItems.add(item);
+            }
+        }
+    }
+    
+    private void closeCurrentDay() {
+        if (currentDate != null && !currentDayItems.isEmpty()) {
+            List<DailyStudyItem> dayItems = new ArrayList<>(currentDayItems);
+            result.put(currentDate, dayItems);
+            if (dayListener != null) {
+                dayListener.accept(currentDate, dayItems);
+            }
+        }
+        currentDate = null;
+        currentDayItems = null;
+    }
+}
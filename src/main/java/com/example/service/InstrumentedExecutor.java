@@ -0,0 +1,103 @@
+package com.example.service;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executor wrapper that counts queued, running and finished tasks
+ * Works the same over a thread pool or a virtual thread per task, so the
+ * gauges do not depend on which executor is configured
+ */
+public class InstrumentedExecutor extends AbstractExecutorService {
+    private final ExecutorService delegate;
+    private final AtomicInteger queued;
+    private final AtomicInteger active;
+    private final AtomicLong completed;
+    
+    /**
+     * Wrap an executor
+     * @param delegate Runs the tasks
+     */
+    public InstrumentedExecutor(ExecutorService delegate) {
+        this.delegate = delegate;
+        this.queued = new AtomicInteger();
+        this.active = new AtomicInteger();
+        this.completed = new AtomicLong();
+    }
+    
+    @Override
+    public void execute(Runnable task) {
+        queued.incrementAndGet();
+        try {
+            delegate.execute(() -> {
+                queued.decrementAndGet();
+                active.incrementAndGet();
+                try {
+                    task.run();
+                } finally {
+                    active.decrementAndGet();
+                    completed.incrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            throw e;
+        }
+    }
+    
+    /**
+     * Get the number of tasks submitted but not yet started
+     * @return queued task count
+     */
+    public int getQueuedTaskCount() {
+        return queued.get();
+    }
+    
+    /**
+     * Get the number of tasks running now
+     * @return active task count
+     */
+    public int getActiveTaskCount() {
+        return active.get();
+    }
+    
+    /**
+     * Get the number of tasks that have finished, normally or not
+     * @return completed task count
+     */
+    public long getCompletedTaskCount() {
+        return completed.get();
+    }
+    
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+    
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> neverStarted = delegate.shutdownNow();
+        queued.addAndGet(-neverStarted.size());
+        return neverStarted;
+    }
+    
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+    
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+    
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
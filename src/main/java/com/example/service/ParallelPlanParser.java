@@ -0,0 +1,273 @@
+package com.example.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.example.model.DailyStudyItem;
+import com.example.service.logging.PlanLogger;
+
+/**
+ * Parses large plan texts, and batches of stored plans, on a ForkJoinPool
+ * A text is split into segments at day headers where possible and each segment
+ * is scanned on its own. Segments report the items they saw before their first
+ * day header, so merging them in order replays exactly what a single pass over
+ * the text would do, wherever the split falls. Plans come back in date order
+ */
+public class ParallelPlanParser {
+    private static final PlanLogger LOG = PlanLogger.get("parser");
+    private static final int DEFAULT_SEGMENT_CHARS = 32 * 1024;
+
+    private final ForkJoinPool pool;
+    private final int segmentChars;
+
+    /**
+     * Create a parser on the common pool
+     * Segment size comes from planner.parse.segmentChars, 32K characters unless set
+     */
+    public ParallelPlanParser() {
+        this(ForkJoinPool.commonPool(), Integer.getInteger("planner.parse.segmentChars", DEFAULT_SEGMENT_CHARS));
+    }
+
+    /**
+     * Create a parser
+     * @param pool The pool that runs the parsing tasks
+     * @param segmentChars Texts up to this length are parsed in one task
+     */
+    public ParallelPlanParser(ForkJoinPool pool, int segmentChars) {
+        this.pool = pool;
+        this.segmentChars = Math.max(1, segmentChars);
+    }
+
+    /**
+     * Parse one plan text, splitting it when it is larger than a segment
+     * @param rawPlanText The raw text from the model
+     * @param startDate The start date of the study plan
+     * @param endDate The end date of the study plan (exam date)
+     * @return The plan by date, in date order
+     */
+    public Map<LocalDate, List<DailyStudyItem>> parsePlan(String rawPlanText, LocalDate startDate, LocalDate endDate) {
+        return pool.invoke(new PlanTask(rawPlanText, startDate, endDate));
+    }
+
+    /**
+     * Re-parse many stored plans concurrently
+     * @param plans The stored plan texts
+     * @return Each plan by study plan ID, in the order given, with days in date order
+     */
+    public Map<Integer, Map<LocalDate, List<DailyStudyItem>>> parsePlans(List<StoredPlanText> plans) {
+        long started = System.nanoTime();
+        List<Map<LocalDate, List<DailyStudyItem>>> parsed = pool.invoke(new BatchTask(plans, 0, plans.size()));
+
+        Map<Integer, Map<LocalDate, List<DailyStudyItem>>> result = new LinkedHashMap<>();
+        for (int i = 0; i < plans.size(); i++) {
+            result.put(plans.get(i).getStudyPlanId(), parsed.get(i));
+        }
+        LOG.info("Batch parse complete", "plans", plans.size(),
+                "ms", (System.nanoTime() - started) / 1_000_000);
+        return result;
+    }
+
+    /**
+     * Parses one plan: splits it into segments, then merges them in text order
+     */
+    private final class PlanTask extends RecursiveTask<Map<LocalDate, List<DailyStudyItem>>> {
+        private static final long serialVersionUID = 1L;
+
+        private final String text;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+
+        private PlanTask(String text, LocalDate startDate, LocalDate endDate) {
+            this.text = text;
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+
+        @Override
+        protected Map<LocalDate, List<DailyStudyItem>> compute() {
+            String planText = text != null ? text : "";
+            List<DayEntry> entries = new SegmentTask(planText, 0, planText.length(), startDate, endDate).compute();
+
+            Map<LocalDate, List<DailyStudyItem>> result = new TreeMap<>();
+            LocalDate currentDate = null;
+            List<DailyStudyItem> currentDayItems = null;
+            for (DayEntry entry : entries) {
+                if (entry.date == null) {
+                    // Items before a segment's first header belong to the day still open
+                    if (currentDate != null) {
+                        currentDayItems.addAll(entry.items);
+                    }
+                    continue;
+                }
+                if (currentDate != null && !currentDayItems.isEmpty()) {
+                    result.put(currentDate, currentDayItems);
+                }
+                currentDate = entry.date;
+                currentDayItems = entry.items;
+            }
+            if (currentDate != null && !currentDayItems.isEmpty()) {
+                result.put(currentDate, currentDayItems);
+            }
+
+            if (result.isEmpty()) {
+                return new TreeMap<>(new StudyPlanParser().createDefaultPlan(planText, startDate, endDate));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Scans text[from, to) into day entries, forking halves of large ranges
+     */
+    private final class SegmentTask extends RecursiveTask<List<DayEntry>> {
+        private static final long serialVersionUID = 1L;
+
+        private final String text;
+        private final int from;
+        private final int to;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+
+        private SegmentTask(String text, int from, int to, LocalDate startDate, LocalDate endDate) {
+            this.text = text;
+            this.from = from;
+            this.to = to;
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+
+        @Override
+        protected List<DayEntry> compute() {
+            int split = to - from > segmentChars ? splitPoint(text, from, to) : -1;
+            if (split < 0) {
+                return scan();
+            }
+            SegmentTask head = new SegmentTask(text, from, split, startDate, endDate);
+            head.fork();
+            List<DayEntry> tail = new SegmentTask(text, split, to, startDate, endDate).compute();
+            List<DayEntry> entries = head.join();
+            entries.addAll(tail);
+            return entries;
+        }
+
+        private List<DayEntry> scan() {
+            List<DayEntry> entries = new ArrayList<>();
+            DayEntry current = new DayEntry(null);
+            entries.add(current);
+            int lineStart = from;
+            while (lineStart < to) {
+                int lineEnd = text.indexOf('\n', lineStart);
+                if (lineEnd < 0 || lineEnd > to) {
+                    lineEnd = to;
+                }
+                String line = text.substring(lineStart, lineEnd).trim();
+                lineStart = lineEnd + 1;
+                if (line.isEmpty()) {
+                    continue;
+                }
+
+                int features = PlanLineScanner.scan(line);
+                LocalDate date = PlanLineScanner.extractDate(line, features, startDate, endDate);
+                if (date != null) {
+                    current = new DayEntry(date);
+                    entries.add(current);
+                    continue;
+                }
+                DailyStudyItem item = PlanLineScanner.extractStudyItem(line, features);
+                if (item != null) {
+                    current.items.add(item);
+                }
+            }
+            return entries;
+        }
+    }
+
+    /**
+     * Parses a run of stored plans, forking halves until single plans remain
+     */
+    private final class BatchTask extends RecursiveTask<List<Map<LocalDate, List<DailyStudyItem>>>> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<StoredPlanText> plans;
+        private final int from;
+        private final int to;
+
+        private BatchTask(List<StoredPlanText> plans, int from, int to) {
+            this.plans = plans;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Map<LocalDate, List<DailyStudyItem>>> compute() {
+            if (to - from == 1) {
+                StoredPlanText plan = plans.get(from);
+                List<Map<LocalDate, List<DailyStudyItem>>> parsed = new ArrayList<>(1);
+                parsed.add(new PlanTask(plan.getRawPlanText(), plan.getStartDate(), plan.getExamDate()).compute());
+                return parsed;
+            }
+            if (to == from) {
+                return new ArrayList<>();
+            }
+            int middle = (from + to) >>> 1;
+            BatchTask head = new BatchTask(plans, from, middle);
+            head.fork();
+            List<Map<LocalDate, List<DailyStudyItem>>> tail = new BatchTask(plans, middle, to).compute();
+            List<Map<LocalDate, List<DailyStudyItem>>> parsed = head.join();
+            parsed.addAll(tail);
+            return parsed;
+        }
+    }
+
+    /**
+     * Find where to split text[from, to): the start of the first day header in the
+     * second half, or failing that the first line start after the middle
+     * @return The split position, or -1 if the range is a single line
+     */
+    static int splitPoint(String text, int from, int to) {
+        int middle = from + (to - from) / 2;
+        int newline = text.indexOf('\n', middle);
+        if (newline < 0 || newline + 1 >= to) {
+            newline = text.lastIndexOf('\n', middle - 1);
+            return newline >= from ? newline + 1 : -1;
+        }
+        int firstLine = newline + 1;
+        for (int lineStart = firstLine; lineStart < to; ) {
+            if (isDayHeader(text, lineStart, to)) {
+                return lineStart;
+            }
+            int next = text.indexOf('\n', lineStart);
+            if (next < 0 || next + 1 >= to) {
+                break;
+            }
+            lineStart = next + 1;
+        }
+        return firstLine;
+    }
+
+    /**
+     * Whether the line looks like "Date: ..." or "Day N", allowing markdown before it
+     */
+    private static boolean isDayHeader(String text, int lineStart, int to) {
+        int i = lineStart;
+        while (i < to && (Character.isWhitespace(text.charAt(i)) || text.charAt(i) == '*' || text.charAt(i) == '#')) {
+            i++;
+        }
+        return text.regionMatches(true, i, "day", 0, 3) || text.regionMatches(true, i, "date", 0, 4);
+    }
+
+    private static final class DayEntry {
+        private final LocalDate date;
+        private final List<DailyStudyItem> items = new ArrayList<>();
+
+        private DayEntry(LocalDate date) {
+            this.date = date;
+        }
+    }
+}
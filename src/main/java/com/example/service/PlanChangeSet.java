@@ -0,0 +1,115 @@
+package com.example.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Row-level changes a replan made to a study plan
+ * Each change names one daily item by date, subject and topic, the same key
+ * DatabaseService uses for completion updates, so only the affected
+ * daily_items rows are written. Changes must be applied in order
+ */
+public class PlanChangeSet {
+    /**
+     * What happens to the row
+     */
+    public enum Kind {
+        // The item moves to another day
+        MOVE,
+        // The item's hours change
+        RESIZE,
+        // The item was merged into another row and is removed
+        DELETE
+    }
+
+    /**
+     * One changed row
+     */
+    public static final class Change {
+        private final Kind kind;
+        private final LocalDate date;
+        private final String subject;
+        private final String topic;
+        private final LocalDate newDate;
+        private final double hours;
+
+        private Change(Kind kind, LocalDate date, String subject, String topic, LocalDate newDate, double hours) {
+            this.kind = kind;
+            this.date = date;
+            this.subject = subject;
+            this.topic = topic;
+            this.newDate = newDate;
+            this.hours = hours;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * @return The date the row has before the change
+         */
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public String getSubject() {
+            return subject;
+        }
+
+        public String getTopic() {
+            return topic;
+        }
+
+        /**
+         * @return The date a moved row gets, or null for other changes
+         */
+        public LocalDate getNewDate() {
+            return newDate;
+        }
+
+        /**
+         * @return The hours a resized row gets, or 0 for other changes
+         */
+        public double getHours() {
+            return hours;
+        }
+
+        @Override
+        public String toString() {
+            return kind + " " + date + " " + subject + " - " + topic
+                    + (newDate != null ? " -> " + newDate : "") + (kind == Kind.RESIZE ? " = " + hours : "");
+        }
+    }
+
+    private final List<Change> changes = new ArrayList<>();
+
+    void move(LocalDate date, String subject, String topic, LocalDate newDate) {
+        changes.add(new Change(Kind.MOVE, date, subject, topic, newDate, 0));
+    }
+
+    void resize(LocalDate date, String subject, String topic, double hours) {
+        changes.add(new Change(Kind.RESIZE, date, subject, topic, null, hours));
+    }
+
+    void delete(LocalDate date, String subject, String topic) {
+        changes.add(new Change(Kind.DELETE, date, subject, topic, null, 0));
+    }
+
+    /**
+     * @return The changes in the order they must be applied
+     */
+    public List<Change> getChanges() {
+        return Collections.unmodifiableList(changes);
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    public int size() {
+        return changes.size();
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import com.example.model.DailyStudyItem;
+
+/**
+ * A parser that is fed response text in chunks as it arrives
+ */
+public interface PlanChunkParser {
+    /**
+     * Feed the next chunk of response text
+     * @param chunk The text chunk, which may end anywhere
+     */
+    void feed(CharSequence chunk);
+    
+    /**
+     * Signal the end of the response and return the complete plan
+     * @return A map of dates to daily study items
+     */
+    Map<LocalDate, List<DailyStudyItem>> finish();
+}
@@ -0,0 +1,286 @@
+package com.example.service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.example.model.DailyStudyItem;
+import com.example.service.logging.PlanLogger;
+
+/**
+ * Rebalances the hours of a generated plan across its days
+ * Model-written plans often pile many hours on some days and leave others empty.
+ * Two greedy passes fix that: subjects whose share of the hours is far from
+ * their target share are scaled back to it, then hours over the daily cap are
+ * moved to the least busy day of the window, found with a min-heap keyed on the
+ * day's load. A moved part merges into the same topic when the target day
+ * already has it. Each move costs O(log days), so plans with thousands of items
+ * balance in milliseconds. Hours that fit under the cap on no day are dropped
+ * and reported; completed items are never touched
+ */
+public class PlanHourBalancer {
+    private static final PlanLogger LOG = PlanLogger.get("balance");
+    // Rescaled hours are rounded to half hours
+    private static final double STEP = 0.5;
+    private static final double EPSILON = 1e-9;
+
+    private final double dailyHourCap;
+    private final double shareTolerance;
+
+    /**
+     * Create a balancer configured by system properties
+     * planner.balance.dailyHours caps the hours per day (default 8) and
+     * planner.balance.shareTolerance is how far, relative to its target, a
+     * subject's share may be before it is rescaled (default 0.5)
+     */
+    public PlanHourBalancer() {
+        this(Double.parseDouble(System.getProperty("planner.balance.dailyHours", "8")),
+                Double.parseDouble(System.getProperty("planner.balance.shareTolerance", "0.5")));
+    }
+
+    /**
+     * Create a balancer
+     * @param dailyHourCap Most hours on one day
+     * @param shareTolerance Relative distance from the target share a subject may be left at
+     */
+    public PlanHourBalancer(double dailyHourCap, double shareTolerance) {
+        if (dailyHourCap <= 0) {
+            throw new IllegalArgumentException("Daily hour cap must be positive");
+        }
+        this.dailyHourCap = dailyHourCap;
+        this.shareTolerance = Math.max(0, shareTolerance);
+    }
+
+    /**
+     * Target shares that follow the number of topics of each subject
+     * @param subjectsWithTopics Subject names mapped to their topics
+     * @return Subject names mapped to their share of the hours, summing to 1
+     */
+    public static Map<String, Double> topicShares(Map<String, List<String>> subjectsWithTopics) {
+        int total = 0;
+        for (List<String> topics : subjectsWithTopics.values()) {
+            total += topics.size();
+        }
+        Map<String, Double> shares = new LinkedHashMap<>();
+        if (total == 0) {
+            return shares;
+        }
+        for (Map.Entry<String, List<String>> entry : subjectsWithTopics.entrySet()) {
+            shares.put(entry.getKey(), (double) entry.getValue().size() / total);
+        }
+        return shares;
+    }
+
+    /**
+     * Balance a plan in place
+     * @param dailyPlan Study items by date; days may be added
+     * @param startDate First day hours may be moved to
+     * @param endDate Day after the last day hours may be moved to
+     * @param targetShares Subject names mapped to their share of the hours, or empty to keep subject totals;
+     *                     subjects without a share keep their hours
+     * @return What changed
+     */
+    public HourBalanceReport balance(Map<LocalDate, List<DailyStudyItem>> dailyPlan, LocalDate startDate,
+                                     LocalDate endDate, Map<String, Double> targetShares) {
+        Set<DailyStudyItem> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<LocalDate> changedDates = new TreeSet<>();
+        double hoursBefore = totalHours(dailyPlan);
+        double rescaled = rescaleSubjects(dailyPlan, targetShares, changed, changedDates);
+
+        int days = (int) Math.max(0, ChronoUnit.DAYS.between(startDate, endDate));
+        double[] load = new double[days];
+        for (Map.Entry<LocalDate, List<DailyStudyItem>> day : dailyPlan.entrySet()) {
+            long index = ChronoUnit.DAYS.between(startDate, day.getKey());
+            if (index >= 0 && index < days) {
+                load[(int) index] = hours(day.getValue());
+            }
+        }
+        // Days with room, least busy first; only the polled day's load changes, so the order stays valid
+        PriorityQueue<Integer> withRoom = new PriorityQueue<>(Math.max(1, days), (a, b) -> {
+            int byLoad = Double.compare(load[a], load[b]);
+            return byLoad != 0 ? byLoad : Integer.compare(a, b);
+        });
+        int daysOverCap = 0;
+        for (int d = 0; d < days; d++) {
+            if (load[d] < dailyHourCap - EPSILON) {
+                withRoom.add(d);
+            } else if (load[d] > dailyHourCap + EPSILON) {
+                daysOverCap++;
+            }
+        }
+
+        double moved = 0;
+        double dropped = 0;
+        for (int d = 0; d < days; d++) {
+            if (load[d] <= dailyHourCap + EPSILON) {
+                continue;
+            }
+            List<DailyStudyItem> items = dailyPlan.get(startDate.plusDays(d));
+            changedDates.add(startDate.plusDays(d));
+            while (load[d] > dailyHourCap + EPSILON) {
+                DailyStudyItem largest = largestOpenItem(items);
+                if (largest == null) {
+                    break;
+                }
+                double excess = load[d] - dailyHourCap;
+                Integer target = withRoom.poll();
+                if (target == null) {
+                    // Every day is full: what is left over does not fit anywhere
+                    double amount = Math.min(excess, largest.getHoursRecommended());
+                    take(items, largest, amount, changed);
+                    load[d] -= amount;
+                    dropped += amount;
+                    continue;
+                }
+                double amount = Math.min(Math.min(excess, dailyHourCap - load[target]), largest.getHoursRecommended());
+                DailyStudyItem part = take(items, largest, amount, changed);
+                LocalDate targetDate = startDate.plusDays(target);
+                changed.add(put(dailyPlan.computeIfAbsent(targetDate, date -> new ArrayList<>()), part));
+                changedDates.add(targetDate);
+                load[d] -= amount;
+                load[target] += amount;
+                moved += amount;
+                if (load[target] < dailyHourCap - EPSILON) {
+                    withRoom.add(target);
+                }
+            }
+        }
+
+        HourBalanceReport report = new HourBalanceReport(hoursBefore, totalHours(dailyPlan), rescaled, moved, dropped,
+                changed.size(), daysOverCap, new ArrayList<>(changedDates));
+        if (report.isChanged()) {
+            LOG.info("Balanced plan hours", "itemsChanged", report.getItemsChanged(), "rescaled", rescaled,
+                    "moved", moved, "dropped", dropped, "daysOverCap", daysOverCap, "dailyHours", dailyHourCap);
+        }
+        if (dropped > 0) {
+            LOG.warn("Plan hours do not fit under the daily cap", "dropped", dropped, "days", days);
+        }
+        return report;
+    }
+
+    /**
+     * Scale each subject whose share is out of tolerance to its target share of the same total
+     * @return Hours added or taken away
+     */
+    private double rescaleSubjects(Map<LocalDate, List<DailyStudyItem>> dailyPlan, Map<String, Double> targetShares,
+                                   Set<DailyStudyItem> changed, Set<LocalDate> changedDates) {
+        if (targetShares == null || targetShares.isEmpty()) {
+            return 0;
+        }
+        Map<String, Double> subjectHours = new HashMap<>();
+        for (List<DailyStudyItem> items : dailyPlan.values()) {
+            for (DailyStudyItem item : items) {
+                if (!item.isCompleted() && targetShares.containsKey(item.getSubject())) {
+                    subjectHours.merge(item.getSubject(), item.getHoursRecommended(), Double::sum);
+                }
+            }
+        }
+        // Shares are renormalised over the subjects the plan has, since hours cannot be invented for the others
+        double total = 0;
+        double shareTotal = 0;
+        for (Map.Entry<String, Double> subject : subjectHours.entrySet()) {
+            total += subject.getValue();
+            shareTotal += targetShares.get(subject.getKey());
+        }
+        if (total <= 0 || shareTotal <= 0) {
+            return 0;
+        }
+        Map<String, Double> factors = new HashMap<>();
+        for (Map.Entry<String, Double> subject : subjectHours.entrySet()) {
+            double target = total * targetShares.get(subject.getKey()) / shareTotal;
+            double actual = subject.getValue();
+            if (actual > 0 && target > 0 && Math.abs(actual - target) > shareTolerance * target) {
+                factors.put(subject.getKey(), target / actual);
+            }
+        }
+
+        double rescaled = 0;
+        for (Map.Entry<LocalDate, List<DailyStudyItem>> day : dailyPlan.entrySet()) {
+            for (DailyStudyItem item : day.getValue()) {
+                Double factor = item.isCompleted() ? null : factors.get(item.getSubject());
+                if (factor == null) {
+                    continue;
+                }
+                double hours = Math.max(STEP, Math.round(item.getHoursRecommended() * factor / STEP) * STEP);
+                if (Math.abs(hours - item.getHoursRecommended()) > EPSILON) {
+                    rescaled += Math.abs(hours - item.getHoursRecommended());
+                    item.setHoursRecommended(hours);
+                    changed.add(item);
+                    changedDates.add(day.getKey());
+                }
+            }
+        }
+        return rescaled;
+    }
+
+    /**
+     * Take hours off an item, removing it when nothing is left
+     * @return The item itself when all of it was taken, otherwise a new item with the hours taken
+     */
+    private static DailyStudyItem take(List<DailyStudyItem> items, DailyStudyItem item, double hours,
+                                       Set<DailyStudyItem> changed) {
+        changed.add(item);
+        if (hours >= item.getHoursRecommended() - EPSILON) {
+            items.remove(item);
+            return item;
+        }
+        item.setHoursRecommended(item.getHoursRecommended() - hours);
+        return new DailyStudyItem(item.getSubject(), item.getTopic(), hours);
+    }
+
+    /**
+     * Add an item to a day, merging it into an open item for the same topic
+     * @return The item that holds the hours on that day
+     */
+    private static DailyStudyItem put(List<DailyStudyItem> items, DailyStudyItem part) {
+        for (DailyStudyItem item : items) {
+            if (!item.isCompleted() && item.getSubject().equals(part.getSubject())
+                    && item.getTopic().equals(part.getTopic())) {
+                item.setHoursRecommended(item.getHoursRecommended() + part.getHoursRecommended());
+                return item;
+            }
+        }
+        items.add(part);
+        return part;
+    }
+
+    private static DailyStudyItem largestOpenItem(List<DailyStudyItem> items) {
+        DailyStudyItem largest = null;
+        for (DailyStudyItem item : items) {
+            if (!item.isCompleted() && item.getHoursRecommended() > EPSILON
+                    && (largest == null || item.getHoursRecommended() > largest.getHoursRecommended())) {
+                largest = item;
+            }
+        }
+        return largest;
+    }
+
+    private static double hours(List<DailyStudyItem> items) {
+        double hours = 0;
+        for (DailyStudyItem item : items) {
+            hours += item.getHoursRecommended();
+        }
+        return hours;
+    }
+
+    private static double totalHours(Map<LocalDate, List<DailyStudyItem>> dailyPlan) {
+        double hours = 0;
+        for (List<DailyStudyItem> items : dailyPlan.values()) {
+            hours += hours(items);
+        }
+        return hours;
+    }
+
+    public double getDailyHourCap() {
+        return dailyHourCap;
+    }
+}
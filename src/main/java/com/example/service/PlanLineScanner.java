@@ -0,0 +1,335 @@
+package com.example.service;
+
+import java.time.LocalDate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.example.model.DailyStudyItem;
+
+/**
+ * Line scanner behind StudyPlanParser
+ * Patterns are compiled once. One pass over each line records which keywords and
+ * characters it contains, and a regex only runs when the line has everything
+ * that regex needs to match, so results are the same as trying every pattern
+ * on every line. The unlabelled item forms only match from the start of the line,
+ * and lines over MAX_ITEM_LINE characters are never items, which keeps long
+ * keyword-dense lines linear. Lines in the prompted "Date: YYYY-MM-DD" form skip regex entirely,
+ * and dates are validated by DateRecognizer rather than by catching parse exceptions
+ */
+final class PlanLineScanner {
+
+    // Line features found by scan(); each one is required by some of the patterns below
+    static final int DAY_WORD = 1;
+    static final int SUBJECT_WORD = 1 << 1;
+    static final int HOUR_WORD = 1 << 2;
+    static final int COLON = 1 << 3;
+    static final int DIGIT = 1 << 4;
+    static final int DATE_DIGITS = 1 << 5;
+
+    // "Date: ..." or "Day: ..."; needs DAY_WORD and COLON
+    private static final Pattern DATE_PREFIX = Pattern.compile("(?i)\\b(?:date|day)\\s*:\\s*(.+)");
+    // A date somewhere in the text; needs DATE_DIGITS
+    private static final Pattern DATE_IN_TEXT = Pattern.compile(
+            "\\b\\d{1,4}[\\-/\\s]\\d{1,2}[\\-/\\s]\\d{1,4}\\b|\\b\\w+ \\d{1,2},? \\d{4}\\b|\\b\\d{1,2} \\w+ \\d{4}\\b");
+
+    // Longer lines are prose rather than plan items, and the unanchored item regex is quadratic on them
+    static final int MAX_ITEM_LINE = 1000;
+
+    // Subject: [subject], Topic: [topic], Hours: [hours]; needs SUBJECT_WORD
+    private static final Pattern ITEM_LABELLED = Pattern.compile(
+            "(?i)subject\\s*:\\s*([^,]+)\\s*,\\s*topic\\s*:\\s*([^,]+)\\s*,\\s*hours\\s*:\\s*(\\d+(?:\\.\\d+)?)");
+    // The remaining item forms all need HOUR_WORD and are matched at the start of the line,
+    // so a failed match costs one pass over the line instead of one per offset
+    // [Subject] - [Topic] ([X] hours)
+    private static final Pattern ITEM_DASH_PAREN = Pattern.compile(
+            "([^\\-]+)\\s*-\\s*([^\\(]+)\\s*\\(\\s*(\\d+(?:\\.\\d+)?)\\s*(?:hours|hrs|hour|hr)\\s*\\)");
+    // [Subject]: [Topic] - [X] hours
+    private static final Pattern ITEM_COLON_DASH = Pattern.compile(
+            "([^:]+)\\s*:\\s*([^\\-]+)\\s*-\\s*(\\d+(?:\\.\\d+)?)\\s*(?:hours|hrs|hour|hr)");
+    // [X] hours - [Subject]: [Topic]
+    private static final Pattern ITEM_HOURS_FIRST = Pattern.compile(
+            "(\\d+(?:\\.\\d+)?)\\s*(?:hours|hrs|hour|hr)\\s*-\\s*([^:]+)\\s*:\\s*(.+)");
+    // [Subject]: [Topic] ([X] hours)
+    private static final Pattern ITEM_COLON_PAREN = Pattern.compile(
+            "([^:]+)\\s*:\\s*([^\\(]+)\\s*\\(\\s*(\\d+(?:\\.\\d+)?)\\s*(?:hours|hrs|hour|hr)\\s*\\)");
+
+    static final Pattern SUBJECT_TOPIC = Pattern.compile("(?i)subject\\s*:\\s*([^\\n,]+).*?topic\\s*:\\s*([^\\n,]+)");
+
+    private PlanLineScanner() {
+    }
+
+    /**
+     * Record in one pass which pattern prerequisites the line contains
+     * @param line The trimmed line
+     * @return A bit set of the feature constants
+     */
+    static int scan(String line) {
+        int features = 0;
+        int digitRun = 0;
+        int length = line.length();
+        for (int i = 0; i < length; i++) {
+            char c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                features |= DIGIT;
+                if (++digitRun >= 4) {
+                    features |= DATE_DIGITS;
+                }
+                continue;
+            }
+            if (digitRun > 0 && (c == '-' || c == '/' || isRegexSpace(c))
+                    && i + 1 < length && isDigit(line.charAt(i + 1))) {
+                features |= DATE_DIGITS;
+            }
+            digitRun = 0;
+            switch (c) {
+                case ':':
+                    features |= COLON;
+                    break;
+                case 'd':
+                case 'D':
+                    if (line.regionMatches(true, i, "day", 0, 3) || line.regionMatches(true, i, "date", 0, 4)) {
+                        features |= DAY_WORD;
+                    }
+                    break;
+                case 's':
+                case 'S':
+                    if (line.regionMatches(true, i, "subject", 0, 7)) {
+                        features |= SUBJECT_WORD;
+                    }
+                    break;
+                case 'h':
+                    if (line.startsWith("hr", i) || line.startsWith("hour", i)) {
+                        features |= HOUR_WORD;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return features;
+    }
+
+    /**
+     * Extract a date from a line of text
+     * @param line The trimmed line
+     * @param features The line's features from scan()
+     * @param startDate First day of the plan
+     * @param endDate Last day of the plan
+     * @return The date, or null if the line does not start a day
+     */
+    static LocalDate extractDate(String line, int features, LocalDate startDate, LocalDate endDate) {
+        long startDay = startDate.toEpochDay();
+        long endDay = endDate.toEpochDay();
+        long prefixed = parsePrefixedDate(line);
+        if (prefixed >= startDay && prefixed <= endDay) {
+            return LocalDate.ofEpochDay(prefixed);
+        }
+
+        // First, look for specific "Date:" prefix
+        if (has(features, DAY_WORD | COLON)) {
+            Matcher datePrefixMatcher = DATE_PREFIX.matcher(line);
+            if (datePrefixMatcher.find()) {
+                LocalDate date = parseDate(datePrefixMatcher.group(1).trim(), features, startDay, endDay);
+                if (date != null) {
+                    return date;
+                }
+            }
+        }
+
+        // Second, try to find a date pattern directly in the whole line
+        LocalDate date = parseDate(line, features, startDay, endDay);
+        if (date != null) {
+            return date;
+        }
+
+        // Lines that just have "Day X" or similar
+        if (has(features, DAY_WORD | DIGIT)) {
+            int dayNumber = DateRecognizer.findDayNumber(line);
+            if (dayNumber >= 0 && startDay + dayNumber - 1 <= endDay) {
+                return LocalDate.ofEpochDay(startDay + dayNumber - 1);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Parse text that is a date, or contains one, within the plan's days
+     * @param features Features of the line the text was taken from
+     */
+    private static LocalDate parseDate(String dateText, int features, long startDay, long endDay) {
+        long epochDay = DateRecognizer.parseEpochDay(dateText, 0, dateText.length());
+        if (epochDay >= startDay && epochDay <= endDay) {
+            return LocalDate.ofEpochDay(epochDay);
+        }
+
+        if (has(features, DATE_DIGITS)) {
+            Matcher dateMatcher = DATE_IN_TEXT.matcher(dateText);
+            if (dateMatcher.find()) {
+                epochDay = DateRecognizer.parseEpochDay(dateText, dateMatcher.start(), dateMatcher.end());
+                if (epochDay >= startDay && epochDay <= endDay) {
+                    return LocalDate.ofEpochDay(epochDay);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parse "Date: <date>" without regex
+     * @return The epoch day, or DateRecognizer.NOT_A_DATE for any other line
+     */
+    private static long parsePrefixedDate(String line) {
+        if (!line.regionMatches(true, 0, "date", 0, 4)) {
+            return DateRecognizer.NOT_A_DATE;
+        }
+        int i = skipSpaces(line, 4);
+        if (i >= line.length() || line.charAt(i) != ':') {
+            return DateRecognizer.NOT_A_DATE;
+        }
+        return DateRecognizer.parseEpochDay(line, skipSpaces(line, i + 1), line.length());
+    }
+
+    /**
+     * Extract a study item from a line of text
+     * @param line The trimmed line
+     * @param features The line's features from scan()
+     * @return The item, or null if the line is not a study item
+     */
+    static DailyStudyItem extractStudyItem(String line, int features) {
+        if (!has(features, SUBJECT_WORD) && !has(features, HOUR_WORD)) {
+            return null;
+        }
+        // Check for lines starting with a bullet point or dash
+        if (line.startsWith("-") || line.startsWith("•") || line.startsWith("*")) {
+            line = line.substring(1).trim();
+        }
+
+        if (has(features, SUBJECT_WORD)) {
+            DailyStudyItem labelled = parseLabelledItem(line);
+            if (labelled != null) {
+                return labelled;
+            }
+            if (line.length() > MAX_ITEM_LINE) {
+                return null;
+            }
+            Matcher matcher = ITEM_LABELLED.matcher(line);
+            if (matcher.find()) {
+                return item(matcher.group(1), matcher.group(2), matcher.group(3));
+            }
+        }
+        if (!has(features, HOUR_WORD) || line.length() > MAX_ITEM_LINE) {
+            return null;
+        }
+
+        Matcher matcher = ITEM_DASH_PAREN.matcher(line);
+        if (matcher.lookingAt()) {
+            return item(matcher.group(1), matcher.group(2), matcher.group(3));
+        }
+        matcher = ITEM_COLON_DASH.matcher(line);
+        if (matcher.lookingAt()) {
+            return item(matcher.group(1), matcher.group(2), matcher.group(3));
+        }
+        matcher = ITEM_HOURS_FIRST.matcher(line);
+        if (matcher.find()) {
+            return item(matcher.group(2), matcher.group(3), matcher.group(1));
+        }
+        matcher = ITEM_COLON_PAREN.matcher(line);
+        if (matcher.lookingAt()) {
+            return item(matcher.group(1), matcher.group(2), matcher.group(3));
+        }
+        return null;
+    }
+
+    /**
+     * Parse "Subject: X, Topic: Y, Hours: Z" at the start of the line without regex
+     * Gives the same groups ITEM_LABELLED would; anything else returns null so the
+     * caller falls back to the regex
+     */
+    private static DailyStudyItem parseLabelledItem(String line) {
+        int i = label(line, 0, "subject");
+        if (i < 0) {
+            return null;
+        }
+        int subjectEnd = line.indexOf(',', i);
+        if (subjectEnd <= i) {
+            return null;
+        }
+        int topicStart = label(line, skipSpaces(line, subjectEnd + 1), "topic");
+        if (topicStart < 0) {
+            return null;
+        }
+        int topicEnd = line.indexOf(',', topicStart);
+        if (topicEnd <= topicStart) {
+            return null;
+        }
+        int hoursStart = label(line, skipSpaces(line, topicEnd + 1), "hours");
+        if (hoursStart < 0) {
+            return null;
+        }
+        int hoursEnd = hoursStart;
+        while (hoursEnd < line.length() && isDigit(line.charAt(hoursEnd))) {
+            hoursEnd++;
+        }
+        if (hoursEnd == hoursStart) {
+            return null;
+        }
+        if (hoursEnd + 1 < line.length() && line.charAt(hoursEnd) == '.' && isDigit(line.charAt(hoursEnd + 1))) {
+            hoursEnd++;
+            while (hoursEnd < line.length() && isDigit(line.charAt(hoursEnd))) {
+                hoursEnd++;
+            }
+        }
+        return item(line.substring(i, subjectEnd), line.substring(topicStart, topicEnd),
+                line.substring(hoursStart, hoursEnd));
+    }
+
+    /**
+     * Match "word\s*:\s*" at the position, ignoring ASCII case like (?i)
+     * @return The index after the label, or -1 if it does not match
+     */
+    private static int label(String line, int start, String word) {
+        int length = line.length();
+        if (start + word.length() > length) {
+            return -1;
+        }
+        for (int k = 0; k < word.length(); k++) {
+            char c = line.charAt(start + k);
+            if (c != word.charAt(k) && c != Character.toUpperCase(word.charAt(k))) {
+                return -1;
+            }
+        }
+        int i = skipSpaces(line, start + word.length());
+        if (i >= length || line.charAt(i) != ':') {
+            return -1;
+        }
+        return skipSpaces(line, i + 1);
+    }
+
+    private static int skipSpaces(String line, int start) {
+        int i = start;
+        while (i < line.length() && isRegexSpace(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static DailyStudyItem item(String subject, String topic, String hours) {
+        return new DailyStudyItem(subject.trim(), topic.trim(), Double.parseDouble(hours));
+    }
+
+    private static boolean has(int features, int required) {
+        return (features & required) == required;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * The characters matched by \s in a Java regex without UNICODE_CHARACTER_CLASS
+     */
+    private static boolean isRegexSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import com.example.model.DailyStudyItem;
+import com.example.model.StudyPlan;
+import com.example.service.logging.PlanLogger;
+
+/**
+ * Moves missed work into the days left before the exam
+ * Items on days before today that are not completed are moved, whole, to the
+ * earliest remaining day with room under the daily cap; completed items, past
+ * days and the work already planned for the remaining days stay as they are.
+ * The plan is changed in place and the returned change set lists one row per
+ * moved item, so the cost follows the amount of missed work, not the plan size
+ */
+public class PlanReplanner {
+    private static final PlanLogger LOG = PlanLogger.get("replan");
+
+    private final double dailyHourCap;
+
+    /**
+     * Create a replanner configured by system properties
+     * planner.replan.dailyHours caps the hours per day; unset, the cap is the plan's busiest day
+     */
+    public PlanReplanner() {
+        this(Double.parseDouble(System.getProperty("planner.replan.dailyHours", "0")));
+    }
+
+    /**
+     * Create a replanner
+     * @param dailyHourCap Most hours to fill a day up to, or 0 to use the plan's busiest day
+     */
+    public PlanReplanner(double dailyHourCap) {
+        this.dailyHourCap = dailyHourCap;
+    }
+
+    /**
+     * Redistribute the incomplete items of past days over today and the days until the exam
+     * When the remaining days are full, an item goes to the least busy one
+     * @param studyPlan The plan, updated in place
+     * @param today The first day that can still be studied
+     * @return The changed rows, empty if nothing was missed or the exam has passed
+     */
+    public PlanChangeSet replan(StudyPlan studyPlan, LocalDate today) {
+        PlanChangeSet changes = new PlanChangeSet();
+        int days = (int) ChronoUnit.DAYS.between(today, studyPlan.getUser().getExamDate());
+        if (days <= 0) {
+            LOG.info("Nothing to replan, the exam has passed", "examDate", studyPlan.getUser().getExamDate());
+            return changes;
+        }
+
+        Map<LocalDate, List<DailyStudyItem>> dailyPlan = studyPlan.getDailyPlan();
+        double[] load = new double[days];
+        double busiestDay = 0;
+        List<LocalDate> missedDates = new ArrayList<>();
+        List<DailyStudyItem> missed = new ArrayList<>();
+        for (Map.Entry<LocalDate, List<DailyStudyItem>> day : dailyPlan.entrySet()) {
+            double hours = 0;
+            for (DailyStudyItem item : day.getValue()) {
+                hours += item.getHoursRecommended();
+                if (!item.isCompleted() && day.getKey().isBefore(today)) {
+                    missedDates.add(day.getKey());
+                    missed.add(item);
+                }
+            }
+            busiestDay = Math.max(busiestDay, hours);
+            long index = ChronoUnit.DAYS.between(today, day.getKey());
+            if (index >= 0 && index < days) {
+                load[(int) index] = hours;
+            }
+        }
+        if (missed.isEmpty()) {
+            return changes;
+        }
+        double cap = dailyHourCap > 0 ? dailyHourCap : busiestDay;
+
+        // Place the oldest missed work first
+        Integer[] order = new Integer[missed.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> missedDates.get(a).compareTo(missedDates.get(b)));
+
+        int firstOpen = 0;
+        int overCap = 0;
+        for (int i : order) {
+            DailyStudyItem item = missed.get(i);
+            LocalDate from = missedDates.get(i);
+            double hours = item.getHoursRecommended();
+
+            while (firstOpen < days && load[firstOpen] >= cap) {
+                firstOpen++;
+            }
+            int target = -1;
+            for (int day = firstOpen; day < days; day++) {
+                if (load[day] + hours <= cap) {
+                    target = day;
+                    break;
+                }
+            }
+            if (target < 0) {
+                target = leastBusy(load);
+                overCap++;
+            }
+            load[target] += hours;
+
+            LocalDate to = today.plusDays(target);
+            List<DailyStudyItem> source = dailyPlan.get(from);
+            source.remove(item);
+            if (source.isEmpty()) {
+                dailyPlan.remove(from);
+            }
+            List<DailyStudyItem> destination = dailyPlan.computeIfAbsent(to, date -> new ArrayList<>());
+            DailyStudyItem same = findIncomplete(destination, item.getSubject(), item.getTopic());
+            if (same != null) {
+                // Keep one row per topic and day, so completion updates stay unambiguous
+                same.setHoursRecommended(same.getHoursRecommended() + hours);
+                changes.resize(to, same.getSubject(), same.getTopic(), same.getHoursRecommended());
+                changes.delete(from, item.getSubject(), item.getTopic());
+            } else {
+                destination.add(item);
+                changes.move(from, item.getSubject(), item.getTopic(), to);
+            }
+        }
+
+        if (overCap > 0) {
+            LOG.warn("Missed work does not fit under the daily cap", "itemsOverCap", overCap,
+                    "dailyHours", cap, "days", days);
+        }
+        LOG.info("Replanned missed work", "items", missed.size(), "changes", changes.size(), "days", days);
+        return changes;
+    }
+
+    private static int leastBusy(double[] load) {
+        int best = 0;
+        for (int day = 1; day < load.length; day++) {
+            if (load[day] < load[best]) {
+                best = day;
+            }
+        }
+        return best;
+    }
+
+    private static DailyStudyItem findIncomplete(List<DailyStudyItem> items, String subject, String topic) {
+        for (DailyStudyItem item : items) {
+            if (!item.isCompleted() && item.getSubject().equals(subject) && item.getTopic().equals(topic)) {
+                return item;
+            }
+        }
+        return null;
+    }
+}
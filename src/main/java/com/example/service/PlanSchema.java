@@ -0,0 +1,87 @@
+package com.example.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * The JSON shape requested in structured output mode
+ * {"days":[{"date":"YYYY-MM-DD","items":[{"subject":...,"topic":...,"hours":...}]}]}
+ * Read back by {@link StructuredPlanParser}
+ */
+public final class PlanSchema {
+
+    private PlanSchema() {
+    }
+
+    /**
+     * Build the generationConfig asking Gemini for JSON that matches the plan schema
+     * @param objectMapper Mapper used to create the nodes
+     * @return The generationConfig object for a generateContent request
+     */
+    public static ObjectNode generationConfig(ObjectMapper objectMapper) {
+        ObjectNode config = objectMapper.createObjectNode();
+        config.put("responseMimeType", "application/json");
+        config.set("responseSchema", responseSchema(objectMapper));
+        return config;
+    }
+
+    /**
+     * Build the response schema in the OpenAPI subset Gemini accepts
+     * @param objectMapper Mapper used to create the nodes
+     * @return The schema object
+     */
+    public static ObjectNode responseSchema(ObjectMapper objectMapper) {
+        ObjectNode item = object(objectMapper, "subject", "topic", "hours");
+        ObjectNode itemProperties = (ObjectNode) item.get("properties");
+        itemProperties.set("subject", type(objectMapper, "STRING"));
+        itemProperties.set("topic", type(objectMapper, "STRING"));
+        itemProperties.set("hours", type(objectMapper, "NUMBER"));
+
+        // Date before items so each day can be placed as soon as it streams in
+        ObjectNode day = object(objectMapper, "date", "items");
+        ObjectNode dayProperties = (ObjectNode) day.get("properties");
+        dayProperties.set("date", type(objectMapper, "STRING").put("description", "Study day as YYYY-MM-DD"));
+        dayProperties.set("items", array(objectMapper, item));
+
+        ObjectNode root = object(objectMapper, "days");
+        ((ObjectNode) root.get("properties")).set("days", array(objectMapper, day));
+        return root;
+    }
+
+    /**
+     * Output format instructions for prompts in structured mode
+     * @return The instruction text
+     */
+    public static String formatInstructions() {
+        return "REQUIRED OUTPUT FORMAT:\n"
+                + "Return JSON only, following the response schema: a \"days\" array in date order,\n"
+                + "one entry per day with \"date\" (YYYY-MM-DD) and \"items\",\n"
+                + "each item having \"subject\", \"topic\" and \"hours\" (a number)\n\n";
+    }
+
+    private static ObjectNode type(ObjectMapper objectMapper, String type) {
+        return objectMapper.createObjectNode().put("type", type);
+    }
+
+    private static ObjectNode array(ObjectMapper objectMapper, ObjectNode items) {
+        ObjectNode array = type(objectMapper, "ARRAY");
+        array.set("items", items);
+        return array;
+    }
+
+    /**
+     * An OBJECT schema whose listed properties are all required, in that order
+     */
+    private static ObjectNode object(ObjectMapper objectMapper, String... properties) {
+        ObjectNode object = type(objectMapper, "OBJECT");
+        object.putObject("properties");
+        ArrayNode required = object.putArray("required");
+        ArrayNode ordering = object.putArray("propertyOrdering");
+        for (String property : properties) {
+            required.add(property);
+            ordering.add(property);
+        }
+        return object;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls that share a key into a single in-flight call
+ * Every caller gets its own future; the shared call is only cancelled once
+ * every caller has cancelled
+ * @param <T> The result type
+ */
+public class SingleFlight<T> {
+    private final Map<String, Flight<T>> flights;
+    private final AtomicLong coalescedCalls;
+    
+    public SingleFlight() {
+        this.flights = new HashMap<>();
+        this.coalescedCalls = new AtomicLong();
+    }
+    
+    /**
+     * Run the call for the key, or attach to the call already in flight for it
+     * @param key Identifies equivalent calls
+     * @param call Starts the call; only invoked for the first caller of a key
+     * @return A future for this caller, completing with the shared result
+     */
+    public CompletableFuture<T> execute(String key, Supplier<CompletableFuture<T>> call) {
+        Flight<T> flight;
+        boolean leader = false;
+        synchronized (flights) {
+            flight = flights.get(key);
+            if (flight == null) {
+                flight = new Flight<>();
+                flights.put(key, flight);
+                leader = true;
+            } else {
+                coalescedCalls.incrementAndGet();
+            }
+            flight.waiters++;
+        }
+        
+        Flight<T> joined = flight;
+        if (leader) {
+            CompletableFuture<T> source;
+            try {
+                source = call.get();
+            } catch (RuntimeException e) {
+                source = new CompletableFuture<>();
+                source.completeExceptionally(e);
+            }
+            CompletableFuture<T> upstream = source;
+            upstream.whenComplete((result, error) -> {
+                if (error != null) {
+                    joined.shared.completeExceptionally(error);
+                } else {
+                    joined.shared.complete(result);
+                }
+            });
+            // Cancelling the shared future (last waiter gone) cancels the real work
+            joined.shared.whenComplete((result, error) -> {
+                synchronized (flights) {
+                    flights.remove(key, joined);
+                }
+                if (joined.shared.isCancelled()) {
+                    upstream.cancel(true);
+                }
+            });
+        }
+        
+        CompletableFuture<T> waiter = new CompletableFuture<>();
+        joined.shared.whenComplete((result, error) -> {
+            if (error != null) {
+                waiter.completeExceptionally(error);
+            } else {
+                waiter.complete(result);
+            }
+        });
+        waiter.whenComplete((result, error) -> {
+            if (waiter.isCancelled()) {
+                release(key, joined);
+            }
+        });
+        return waiter;
+    }
+    
+    /**
+     * Drop one waiter from a flight, cancelling the flight when none remain
+     */
+    private void release(String key, Flight<T> flight) {
+        boolean cancelShared;
+        synchronized (flights) {
+            flight.waiters--;
+            cancelShared = flight.waiters == 0;
+            if (cancelShared) {
+                flights.remove(key, flight);
+            }
+        }
+        if (cancelShared) {
+            flight.shared.cancel(true);
+        }
+    }
+    
+    /**
+     * Get the number of distinct calls currently in flight
+     * @return in-flight call count
+     */
+    public int getInFlightCount() {
+        synchronized (flights) {
+            return flights.size();
+        }
+    }
+    
+    /**
+     * Get the number of callers that attached to an existing call instead of starting one
+     * @return coalesced caller count
+     */
+    public long getCoalescedCount() {
+        return coalescedCalls.get();
+    }
+    
+    private static final class Flight<T> {
+        private final CompletableFuture<T> shared = new CompletableFuture<>();
+        private int waiters;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.service;
+
+import java.time.LocalDate;
+
+/**
+ * Raw model text of a saved study plan, with the window it was parsed for
+ */
+public class StoredPlanText {
+    private final int studyPlanId;
+    private final LocalDate startDate;
+    private final LocalDate examDate;
+    private final String rawPlanText;
+
+    /**
+     * Create a stored plan text
+     * @param studyPlanId The study plan ID
+     * @param startDate First day of the plan, the day it was created
+     * @param examDate The exam date
+     * @param rawPlanText The text the model returned
+     */
+    public StoredPlanText(int studyPlanId, LocalDate startDate, LocalDate examDate, String rawPlanText) {
+        this.studyPlanId = studyPlanId;
+        this.startDate = startDate;
+        this.examDate = examDate;
+        this.rawPlanText = rawPlanText;
+    }
+
+    public int getStudyPlanId() {
+        return studyPlanId;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getExamDate() {
+        return examDate;
+    }
+
+    public String getRawPlanText() {
+        return rawPlanText;
+    }
+}
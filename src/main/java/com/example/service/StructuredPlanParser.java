@@ -0,0 +1,327 @@
+package com.example.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+
+import com.example.model.DailyStudyItem;
+import com.example.service.logging.PlanLogger;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+
+/**
+ * Parser for plans returned in the structured JSON format described by {@link PlanSchema}
+ * Binds {"days":[{"date":..., "items":[{"subject":..., "topic":..., "hours":...}]}]}
+ * straight into the plan with a non-blocking Jackson parser, so it can be fed
+ * streamed chunks and hands out each day as soon as its object closes
+ * Several plan documents back to back (as stitched from shards) read as one plan
+ * If the text is not valid JSON of that shape, the whole text goes through StudyPlanParser instead
+ */
+public class StructuredPlanParser implements PlanChunkParser {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final PlanLogger LOG = PlanLogger.get("parser");
+
+    /**
+     * Where the token stream currently is
+     */
+    private enum State {
+        START, ROOT, DAYS, DAY, ITEMS, ITEM, DONE
+    }
+
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final BiConsumer<LocalDate, List<DailyStudyItem>> dayListener;
+    private final StringBuilder rawText;
+    private final Map<LocalDate, List<DailyStudyItem>> result;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+
+    private State state = State.START;
+    private boolean invalid;
+    private String field;
+    private int skipDepth;
+    // A high surrogate held back until the chunk carrying its pair arrives
+    private char pendingHighSurrogate;
+
+    private LocalDate dayDate;
+    private List<DailyStudyItem> dayItems;
+    private String itemSubject;
+    private String itemTopic;
+    private double itemHours;
+
+    /**
+     * Create a new structured parser
+     * @param startDate The start date of the study plan
+     * @param endDate The end date of the study plan (exam date)
+     * @param dayListener Called with each completed day, may be null
+     */
+    public StructuredPlanParser(LocalDate startDate, LocalDate endDate,
+                                BiConsumer<LocalDate, List<DailyStudyItem>> dayListener) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.dayListener = dayListener;
+        this.rawText = new StringBuilder();
+        this.result = new HashMap<>();
+        try {
+            this.parser = JSON_FACTORY.createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot create JSON parser", e);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Parse a complete structured response
+     * @param json The response text
+     * @param startDate The start date of the study plan
+     * @param endDate The end date of the study plan (exam date)
+     * @return A map of dates to daily study items
+     */
+    public static Map<LocalDate, List<DailyStudyItem>> parse(String json, LocalDate startDate, LocalDate endDate) {
+        StructuredPlanParser parser = new StructuredPlanParser(startDate, endDate, null);
+        parser.feed(json);
+        return parser.finish();
+    }
+
+    @Override
+    public void feed(CharSequence chunk) {
+        rawText.append(chunk);
+        if (invalid || chunk.length() == 0) {
+            return;
+        }
+        StringBuilder text = new StringBuilder(chunk.length() + 1);
+        if (pendingHighSurrogate != 0) {
+            text.append(pendingHighSurrogate);
+            pendingHighSurrogate = 0;
+        }
+        text.append(chunk);
+        if (Character.isHighSurrogate(text.charAt(text.length() - 1))) {
+            pendingHighSurrogate = text.charAt(text.length() - 1);
+            text.setLength(text.length() - 1);
+        }
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        try {
+            feeder.feedInput(bytes, 0, bytes.length);
+            drain();
+        } catch (IOException e) {
+            markInvalid(e.getMessage());
+        }
+    }
+
+    /**
+     * Signal the end of the response and return the complete plan
+     * Falls back to StudyPlanParser when the text was not a complete structured plan
+     * @return A map of dates to daily study items
+     */
+    @Override
+    public Map<LocalDate, List<DailyStudyItem>> finish() {
+        if (!invalid) {
+            try {
+                feeder.endOfInput();
+                drain();
+            } catch (IOException e) {
+                markInvalid(e.getMessage());
+            }
+        }
+        if (!invalid && state != State.DONE) {
+            markInvalid("response ended inside the JSON document");
+        }
+        if (!invalid) {
+            LOG.info("Structured plan parsed", "days", result.size());
+            return result;
+        }
+
+        Map<LocalDate, List<DailyStudyItem>> fallback =
+                new StudyPlanParser().parsePlan(rawText.toString(), startDate, endDate);
+        if (dayListener != null) {
+            // Days already delivered from the valid prefix are not repeated
+            Set<LocalDate> delivered = result.keySet();
+            for (Map.Entry<LocalDate, List<DailyStudyItem>> day : new TreeMap<>(fallback).entrySet()) {
+                if (!delivered.contains(day.getKey())) {
+                    dayListener.accept(day.getKey(), day.getValue());
+                }
+            }
+        }
+        return fallback;
+    }
+
+    /**
+     * Get all text fed so far
+     * @return The raw response text
+     */
+    public String getRawText() {
+        return rawText.toString();
+    }
+
+    /**
+     * Whether the text so far failed to parse as a structured plan
+     * @return true if finish() will fall back to the text parser
+     */
+    public boolean isInvalid() {
+        return invalid;
+    }
+
+    private void markInvalid(String reason) {
+        if (!invalid) {
+            LOG.warn("Structured plan invalid, falling back to text parsing", "reason", reason);
+            invalid = true;
+        }
+    }
+
+    /**
+     * Consume every token available so far
+     */
+    private void drain() throws IOException {
+        JsonToken token;
+        while (!invalid && (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            onToken(token);
+        }
+    }
+
+    private void onToken(JsonToken token) throws IOException {
+        if (skipDepth > 0) {
+            if (token.isStructStart()) {
+                skipDepth++;
+            } else if (token.isStructEnd()) {
+                skipDepth--;
+            }
+            return;
+        }
+        if (token == JsonToken.FIELD_NAME) {
+            field = parser.currentName();
+            return;
+        }
+        switch (state) {
+            case START:
+                expect(token == JsonToken.START_OBJECT, "expected an object");
+                state = State.ROOT;
+                break;
+            case ROOT:
+                if (token == JsonToken.END_OBJECT) {
+                    state = State.DONE;
+                } else if ("days".equals(field)) {
+                    expect(token == JsonToken.START_ARRAY, "days must be an array");
+                    state = State.DAYS;
+                } else {
+                    skipValue(token);
+                }
+                break;
+            case DAYS:
+                if (token == JsonToken.END_ARRAY) {
+                    state = State.ROOT;
+                } else {
+                    expect(token == JsonToken.START_OBJECT, "each day must be an object");
+                    dayDate = null;
+                    dayItems = new ArrayList<>();
+                    state = State.DAY;
+                }
+                break;
+            case DAY:
+                if (token == JsonToken.END_OBJECT) {
+                    closeDay();
+                    state = State.DAYS;
+                } else if ("date".equals(field) && token == JsonToken.VALUE_STRING) {
+                    dayDate = parseDate(parser.getText());
+                } else if ("items".equals(field) && token == JsonToken.START_ARRAY) {
+                    state = State.ITEMS;
+                } else {
+                    skipValue(token);
+                }
+                break;
+            case ITEMS:
+                if (token == JsonToken.END_ARRAY) {
+                    state = State.DAY;
+                } else {
+                    expect(token == JsonToken.START_OBJECT, "each item must be an object");
+                    itemSubject = null;
+                    itemTopic = null;
+                    itemHours = 0;
+                    state = State.ITEM;
+                }
+                break;
+            case ITEM:
+                if (token == JsonToken.END_OBJECT) {
+                    if (itemSubject != null && itemTopic != null) {
+                        dayItems.add(new DailyStudyItem(itemSubject, itemTopic, itemHours));
+                    }
+                    state = State.ITEMS;
+                } else if ("subject".equals(field) && token == JsonToken.VALUE_STRING) {
+                    itemSubject = parser.getText().trim();
+                } else if ("topic".equals(field) && token == JsonToken.VALUE_STRING) {
+                    itemTopic = parser.getText().trim();
+                } else if ("hours".equals(field) && token.isNumeric()) {
+                    itemHours = parser.getDoubleValue();
+                } else if ("hours".equals(field) && token == JsonToken.VALUE_STRING) {
+                    itemHours = parseHours(parser.getText());
+                } else {
+                    skipValue(token);
+                }
+                break;
+            case DONE:
+                // Another plan document follows
+                expect(token == JsonToken.START_OBJECT, "unexpected content after the plan");
+                state = State.ROOT;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void expect(boolean condition, String reason) {
+        if (!condition) {
+            markInvalid(reason);
+        }
+    }
+
+    private void skipValue(JsonToken token) {
+        if (token.isStructStart()) {
+            skipDepth = 1;
+        }
+    }
+
+    /**
+     * Record a completed day; days outside the plan range or without items are dropped
+     */
+    private void closeDay() {
+        if (dayDate == null || dayItems.isEmpty()) {
+            return;
+        }
+        List<DailyStudyItem> items = result.get(dayDate);
+        if (items == null) {
+            items = new ArrayList<>(dayItems);
+            result.put(dayDate, items);
+        } else {
+            items.addAll(dayItems);
+        }
+        if (dayListener != null) {
+            dayListener.accept(dayDate, new ArrayList<>(dayItems));
+        }
+    }
+
+    private LocalDate parseDate(String text) {
+        try {
+            LocalDate date = LocalDate.parse(text.trim());
+            return date.isBefore(startDate) || date.isAfter(endDate) ? null : date;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static double parseHours(String text) {
+        try {
+            return Double.parseDouble(text.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
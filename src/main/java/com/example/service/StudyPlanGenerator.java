@@ -1,39 +1,152 @@
 package com.example.service;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
 
+import com.example.model.DailyStudyItem;
 import com.example.model.StudyPlan;
 import com.example.model.User;
+import com.example.service.factory.GenerationExecutorFactory;
 import com.example.service.factory.StudyPlanStrategyFactory;
+import com.example.service.logging.PlanLogger;
+import com.example.service.observer.PlanEvent;
+import com.example.service.observer.PlanEventBus;
+import com.example.service.observer.PlanEventListener;
 import com.example.service.observer.StudyPlanObserver;
+import com.example.service.ratelimit.GenerationRateLimiter;
+import com.example.service.resilience.Deadline;
+import com.example.service.strategy.GenerationContext;
+import com.example.service.strategy.PlanShard;
+import com.example.service.strategy.ShardableStudyPlanStrategy;
 import com.example.service.strategy.StudyPlanStrategy;
 
 /**
  * Generator for study plans that notifies observers
- * Implements the Observable part of the Observer design pattern
+ * Implements the Observable part of the Observer design pattern; events go
+ * through a {@link PlanEventBus}, so observers never hold up a generation
  */
 public class StudyPlanGenerator {
-    private final List<StudyPlanObserver> observers;
-    private final ExecutorService executorService;
+    private static final PlanLogger LOG = PlanLogger.get("generation");
+    
+    private final PlanEventBus eventBus;
+    private final ConcurrentMap<StudyPlanObserver, PlanEventBus.Subscription> observerSubscriptions;
+    private final InstrumentedExecutor executorService;
     private final StudyPlanStrategyFactory strategyFactory;
+    private final SingleFlight<StudyPlan> inFlightGenerations;
+    private volatile boolean streamingEnabled;
+    private volatile long generationTimeoutMillis;
+    private volatile int shardThresholdDays;
+    private volatile int shardDays;
     
     public StudyPlanGenerator() {
-        this.observers = new ArrayList<>();
-        this.executorService = Executors.newSingleThreadExecutor();
-        this.strategyFactory = new StudyPlanStrategyFactory();
+        this(new StudyPlanStrategyFactory());
+    }
+    
+    /**
+     * Create a generator whose strategies come from the given factory
+     * @param strategyFactory Creates the strategy for each generation
+     */
+    public StudyPlanGenerator(StudyPlanStrategyFactory strategyFactory) {
+        this(strategyFactory, new GenerationExecutorFactory().createConfiguredExecutor());
+    }
+    
+    /**
+     * Create a generator that runs local stages on the given executor
+     * @param strategyFactory Creates the strategy for each generation
+     * @param executor Runs prompt building, parsing and persistence; shut down with the generator
+     */
+    public StudyPlanGenerator(StudyPlanStrategyFactory strategyFactory, ExecutorService executor) {
+        this.eventBus = new PlanEventBus();
+        this.observerSubscriptions = new ConcurrentHashMap<>();
+        // Only runs local stages (prompt building, parsing, persistence); Gemini calls
+        // are non-blocking, so a couple of threads serve many concurrent generations
+        this.executorService = new InstrumentedExecutor(executor);
+        this.strategyFactory = strategyFactory;
+        this.inFlightGenerations = new SingleFlight<>();
+        this.streamingEnabled = Boolean.parseBoolean(System.getProperty("planner.streaming", "true"));
+        this.generationTimeoutMillis = Long.getLong("planner.generation.timeoutSeconds", 180L) * 1000;
+        this.shardThresholdDays = Integer.getInteger("planner.sharding.thresholdDays", 28);
+        this.shardDays = Integer.getInteger("planner.sharding.shardDays", 7);
+    }
+    
+    /**
+     * Set how long the study window must be before it is generated in shards
+     * @param shardThresholdDays Windows longer than this many days are sharded; 0 or less disables sharding
+     */
+    public void setShardThresholdDays(int shardThresholdDays) {
+        this.shardThresholdDays = shardThresholdDays;
+    }
+    
+    /**
+     * Set the number of days each shard of a long window covers
+     * @param shardDays Days per shard
+     */
+    public void setShardDays(int shardDays) {
+        this.shardDays = shardDays;
+    }
+    
+    /**
+     * Set the overall time budget of a single generation, including every retry
+     * @param generationTimeoutMillis The deadline in milliseconds
+     */
+    public void setGenerationTimeoutMillis(long generationTimeoutMillis) {
+        this.generationTimeoutMillis = generationTimeoutMillis;
+    }
+    
+    /**
+     * Enable or disable streaming delivery for asynchronous generation
+     * When enabled, observers receive each day as soon as it is parsed
+     * @param streamingEnabled true to stream, false to wait for the full response
+     */
+    public void setStreamingEnabled(boolean streamingEnabled) {
+        this.streamingEnabled = streamingEnabled;
+    }
+    
+    public boolean isStreamingEnabled() {
+        return streamingEnabled;
     }
     
     /**
      * Add an observer to be notified of study plan generation events
+     * Notifications arrive in order on the event bus's own threads
      * @param observer The observer to add
      */
     public void addObserver(StudyPlanObserver observer) {
-        observers.add(observer);
+        addObserver(observer, null);
+    }
+    
+    /**
+     * Add an observer notified on the given executor
+     * Events published while a delivery is pending are handed over together,
+     * so a UI observer gets one Platform.runLater per burst
+     * @param observer The observer to add
+     * @param executor Runs the notifications, or null for the event bus's threads
+     */
+    public void addObserver(StudyPlanObserver observer, Executor executor) {
+        PlanEventListener listener = PlanEventListener.of(observer);
+        PlanEventBus.Subscription subscription = executor == null
+                ? eventBus.subscribe(listener) : eventBus.subscribe(listener, executor);
+        PlanEventBus.Subscription previous = observerSubscriptions.put(observer, subscription);
+        if (previous != null) {
+            previous.cancel();
+        }
     }
     
     /**
@@ -41,29 +154,230 @@ public class StudyPlanGenerator {
      * @param observer The observer to remove
      */
     public void removeObserver(StudyPlanObserver observer) {
-        observers.remove(observer);
+        PlanEventBus.Subscription subscription = observerSubscriptions.remove(observer);
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+    
+    /**
+     * Get the bus that carries this generator's events
+     * Other components publish to it too, e.g. when a plan has been saved
+     * @return the event bus
+     */
+    public PlanEventBus getEventBus() {
+        return eventBus;
     }
     
     /**
      * Generate a study plan asynchronously
+     * Concurrent requests for the same input and strategy share one generation;
+     * observers are notified once per generation, not once per caller
      * @param user The user to generate a plan for
      * @param strategyType The type of study plan strategy to use
      * @return A CompletableFuture that will complete with the generated study plan
      */
     public CompletableFuture<StudyPlan> generatePlanAsync(User user, StudyPlanStrategyFactory.StrategyType strategyType) {
+        return generatePlanAsync(user, strategyType, GenerationRateLimiter.Priority.INTERACTIVE);
+    }
+    
+    /**
+     * Generate a study plan asynchronously at the given rate limiter priority
+     * @param user The user to generate a plan for
+     * @param strategyType The type of study plan strategy to use
+     * @param priority Admission priority for the Gemini quota
+     * @return A CompletableFuture that will complete with the generated study plan
+     */
+    public CompletableFuture<StudyPlan> generatePlanAsync(User user, StudyPlanStrategyFactory.StrategyType strategyType,
+                                                          GenerationRateLimiter.Priority priority) {
+        return generatePlanAsync(user, strategyType, priority, generationTimeoutMillis);
+    }
+    
+    /**
+     * Generate a study plan asynchronously with a time budget of its own
+     * When the budget runs out the returned future fails with a TimeoutException
+     * and this caller leaves the generation; a generation nobody waits for any
+     * more is cancelled, aborting its request in flight. A caller that joins a
+     * generation already in flight cannot extend that generation's deadline
+     * @param user The user to generate a plan for
+     * @param strategyType The type of study plan strategy to use
+     * @param priority Admission priority for the Gemini quota
+     * @param timeoutMillis Time budget in milliseconds, including every retry
+     * @return A CompletableFuture that will complete with the generated study plan
+     */
+    public CompletableFuture<StudyPlan> generatePlanAsync(User user, StudyPlanStrategyFactory.StrategyType strategyType,
+                                                          GenerationRateLimiter.Priority priority, long timeoutMillis) {
+        StudyPlanStrategy strategy = strategyFactory.createStrategy(strategyType);
+        Deadline deadline = Deadline.after(timeoutMillis);
+        String requestKey = strategy.requestKey(user);
+        CompletableFuture<StudyPlan> generation = requestKey == null
+                ? startGeneration(user, strategy, priority, deadline)
+                : inFlightGenerations.execute(strategyType + ":" + requestKey,
+                        () -> startGeneration(user, strategy, priority, deadline));
+        
+        CompletableFuture<StudyPlan> result = new CompletableFuture<>();
+        generation.whenComplete((studyPlan, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(studyPlan);
+            }
+        });
+        result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).whenComplete((studyPlan, error) -> {
+            if (result.isCancelled() || error instanceof TimeoutException) {
+                generation.cancel(true);
+            }
+        });
+        return result;
+    }
+    
+    /**
+     * Start a generation through the strategy's asynchronous path
+     * Cancelling the returned future cancels the generation, aborting any request in flight
+     */
+    private CompletableFuture<StudyPlan> startGeneration(User user, StudyPlanStrategy strategy,
+                                                         GenerationRateLimiter.Priority priority, Deadline deadline) {
         notifyGenerationStarted();
         
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                StudyPlanStrategy strategy = strategyFactory.createStrategy(strategyType);
-                StudyPlan studyPlan = strategy.generatePlan(user);
-                notifyGenerationCompleted(studyPlan);
-                return studyPlan;
-            } catch (Exception e) {
-                notifyGenerationFailed(e);
-                throw new RuntimeException("Failed to generate study plan", e);
+        GenerationContext context = new GenerationContext(executorService, deadline,
+                priority, streamingEnabled ? progressListener(user) : null, eventBus::publish);
+        CompletableFuture<StudyPlan> generation = shouldShard(user, strategy)
+                ? generateSharded(user, (ShardableStudyPlanStrategy) strategy, context)
+                : strategy.generatePlanAsync(user, context);
+        CompletableFuture<StudyPlan> result = generation.handle((studyPlan, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                Exception exception = cause instanceof Exception ? (Exception) cause : new RuntimeException(cause);
+                notifyGenerationFailed(exception);
+                throw new RuntimeException("Failed to generate study plan", cause);
+            }
+            notifyGenerationCompleted(studyPlan);
+            return studyPlan;
+        });
+        result.whenComplete((studyPlan, error) -> {
+            if (result.isCancelled()) {
+                generation.cancel(true);
             }
-        }, executorService);
+        });
+        return result;
+    }
+    
+    private boolean shouldShard(User user, StudyPlanStrategy strategy) {
+        if (!(strategy instanceof ShardableStudyPlanStrategy) || shardThresholdDays <= 0 || shardDays <= 0 || user.getExamDate() == null) {
+            return false;
+        }
+        return ChronoUnit.DAYS.between(LocalDate.now(), user.getExamDate()) > shardThresholdDays;
+    }
+    
+    /**
+     * Generate a long window as week-sized shards in parallel and stitch them into one plan
+     * Each shard gets its own prompt, so latency follows the shard size rather than
+     * the length of the window; if any shard fails the others are cancelled
+     */
+    private CompletableFuture<StudyPlan> generateSharded(User user, ShardableStudyPlanStrategy strategy,
+                                                         GenerationContext context) {
+        List<PlanShard> shards = PlanShard.split(LocalDate.now(), user.getExamDate(), shardDays,
+                user.getAllSubjectsWithTopics());
+        LOG.info("Generating plan in shards", "shards", shards.size(), "shardDays", shardDays);
+        
+        // Shards stream concurrently; observers still receive one day at a time
+        BiConsumer<LocalDate, List<DailyStudyItem>> dayListener = context.getDayListener();
+        Object listenerLock = new Object();
+        GenerationContext shardContext = new GenerationContext(context.getExecutor(), context.getDeadline(),
+                context.getPriority(), dayListener == null ? null : (date, items) -> {
+                    synchronized (listenerLock) {
+                        dayListener.accept(date, items);
+                    }
+                }, context.getEventListener());
+        
+        List<CompletableFuture<StudyPlan>> parts = new ArrayList<>(shards.size());
+        for (PlanShard shard : shards) {
+            parts.add(strategy.generateShardAsync(user, shard, shardContext));
+        }
+        
+        CompletableFuture<StudyPlan> result = new CompletableFuture<>();
+        for (CompletableFuture<StudyPlan> part : parts) {
+            part.whenComplete((studyPlan, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                }
+            });
+        }
+        result.whenComplete((studyPlan, error) -> {
+            if (error != null) {
+                for (CompletableFuture<StudyPlan> part : parts) {
+                    part.cancel(true);
+                }
+            }
+        });
+        CompletableFuture.allOf(parts.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> stitch(user, parts))
+                .whenComplete((studyPlan, error) -> {
+                    if (error != null) {
+                        result.completeExceptionally(error);
+                    } else {
+                        result.complete(studyPlan);
+                    }
+                });
+        return result;
+    }
+    
+    /**
+     * Merge the shard plans, in shard order, into a single plan
+     */
+    private static StudyPlan stitch(User user, List<CompletableFuture<StudyPlan>> parts) {
+        Map<LocalDate, List<DailyStudyItem>> dailyPlan = new HashMap<>();
+        StringBuilder rawText = new StringBuilder();
+        double unscheduledHours = 0;
+        for (CompletableFuture<StudyPlan> part : parts) {
+            StudyPlan shardPlan = part.join();
+            unscheduledHours += shardPlan.getUnscheduledHours();
+            for (Map.Entry<LocalDate, List<DailyStudyItem>> day : shardPlan.getDailyPlan().entrySet()) {
+                dailyPlan.putIfAbsent(day.getKey(), day.getValue());
+            }
+            if (shardPlan.getRawPlanText() != null) {
+                rawText.append(shardPlan.getRawPlanText()).append('\n');
+            }
+        }
+        StudyPlan studyPlan = new StudyPlan(user);
+        studyPlan.setDailyPlan(dailyPlan);
+        studyPlan.setRawPlanText(rawText.toString());
+        studyPlan.setUnscheduledHours(unscheduledHours);
+        return studyPlan;
+    }
+    
+    /**
+     * Get the executor that runs the local stages of asynchronous generations
+     * Callers can use it to chain further local work such as persistence
+     * @return the generation worker executor
+     */
+    public ExecutorService getExecutor() {
+        return executorService;
+    }
+    
+    /**
+     * Get the number of local generation tasks waiting for a worker
+     * @return queued task count
+     */
+    public int getQueuedTaskCount() {
+        return executorService.getQueuedTaskCount();
+    }
+    
+    /**
+     * Get the number of local generation tasks running now
+     * @return active task count
+     */
+    public int getActiveTaskCount() {
+        return executorService.getActiveTaskCount();
+    }
+    
+    /**
+     * Get the number of generations currently shared between callers
+     * @return in-flight generation count
+     */
+    public int getInFlightGenerationCount() {
+        return inFlightGenerations.getInFlightCount();
     }
     
     /**
@@ -76,9 +390,17 @@ public class StudyPlanGenerator {
     public StudyPlan generatePlan(User user, StudyPlanStrategyFactory.StrategyType strategyType) throws IOException {
         notifyGenerationStarted();
         
+        Deadline.set(Deadline.after(generationTimeoutMillis));
         try {
             StudyPlanStrategy strategy = strategyFactory.createStrategy(strategyType);
-            StudyPlan studyPlan = strategy.generatePlan(user);
+            StudyPlan studyPlan;
+            if (shouldShard(user, strategy)) {
+                GenerationContext context = new GenerationContext(executorService, Deadline.current(),
+                        GenerationRateLimiter.currentPriority(), null);
+                studyPlan = awaitShards(generateSharded(user, (ShardableStudyPlanStrategy) strategy, context));
+            } else {
+                studyPlan = strategy.generatePlan(user);
+            }
             notifyGenerationCompleted(studyPlan);
             return studyPlan;
         } catch (Exception e) {
@@ -88,31 +410,60 @@ public class StudyPlanGenerator {
             } else {
                 throw new IOException("Failed to generate study plan", e);
             }
+        } finally {
+            Deadline.set(null);
         }
     }
     
-    private void notifyGenerationStarted() {
-        for (StudyPlanObserver observer : observers) {
-            observer.onGenerationStarted();
+    private static StudyPlan awaitShards(CompletableFuture<StudyPlan> generation) throws IOException {
+        try {
+            return generation.get();
+        } catch (InterruptedException e) {
+            generation.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for plan shards");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null
+                    ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Failed to generate study plan", cause);
         }
     }
     
+    private void notifyGenerationStarted() {
+        eventBus.publish(PlanEvent.started());
+    }
+    
+    /**
+     * Publish each parsed day followed by the share of the window parsed so far
+     */
+    private BiConsumer<LocalDate, List<DailyStudyItem>> progressListener(User user) {
+        long windowDays = user.getExamDate() != null ? ChronoUnit.DAYS.between(LocalDate.now(), user.getExamDate()) : 0;
+        // A day delivered again with balanced hours replaces the earlier one and does not count twice
+        Set<LocalDate> parsedDays = ConcurrentHashMap.newKeySet();
+        return (date, items) -> {
+            eventBus.publish(PlanEvent.dayParsed(date, items));
+            if (windowDays > 0 && parsedDays.add(date)) {
+                eventBus.publish(PlanEvent.progress(Math.min(1.0, parsedDays.size() / (double) windowDays)));
+            }
+        };
+    }
+    
     private void notifyGenerationCompleted(StudyPlan studyPlan) {
-        for (StudyPlanObserver observer : observers) {
-            observer.onGenerationCompleted(studyPlan);
-        }
+        eventBus.publish(PlanEvent.completed(studyPlan));
     }
     
     private void notifyGenerationFailed(Exception exception) {
-        for (StudyPlanObserver observer : observers) {
-            observer.onGenerationFailed(exception);
-        }
+        eventBus.publish(PlanEvent.failed(exception));
     }
     
     /**
-     * Shutdown the executor service
+     * Shutdown the executor service and the event bus
      */
     public void shutdown() {
         executorService.shutdown();
+        eventBus.shutdown();
     }
-} 
\ No newline at end of file
+} 
\ No newline at end of file
@@ -1,29 +1,23 @@
 package com.example.service;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import com.example.model.DailyStudyItem;
+import com.example.service.logging.PlanLogger;
 
 /**
  * Parser for converting Gemini AI responses into structured study plans
  */
 public class StudyPlanParser {
-    
-    private static final DateTimeFormatter[] DATE_FORMATTERS = {
-            DateTimeFormatter.ofPattern("yyyy-MM-dd"),
-            DateTimeFormatter.ofPattern("MM/dd/yyyy"),
-            DateTimeFormatter.ofPattern("MMM d, yyyy"),
-            DateTimeFormatter.ofPattern("MMMM d, yyyy"),
-            DateTimeFormatter.ofPattern("d MMMM yyyy")
-    };
+    private static final PlanLogger LOG = PlanLogger.get("parser");
     
     /**
      * Parse the raw text response from Gemini into a structured study plan
@@ -34,27 +28,32 @@ public class StudyPlanParser {
      * @return A map of dates to daily study items
      */
     public Map<LocalDate, List<DailyStudyItem>> parsePlan(String rawPlanText, LocalDate startDate, LocalDate endDate) {
-        System.out.println("Parsing study plan...");
+        LOG.debug("Parsing study plan", "chars", rawPlanText.length());
         
         Map<LocalDate, List<DailyStudyItem>> result = new HashMap<>();
         
-        // Split into lines
-        String[] lines = rawPlanText.split("\\r?\\n");
-        
         LocalDate currentDate = null;
         List<DailyStudyItem> currentDayItems = null;
         
-        // Process line by line
-        for (String line : lines) {
-            line = line.trim();
+        // Process line by line, scanning each line once
+        int length = rawPlanText.length();
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = rawPlanText.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = length;
+            }
+            String line = rawPlanText.substring(lineStart, lineEnd).trim();
+            lineStart = lineEnd + 1;
             if (line.isEmpty()) continue;
             
-            System.out.println("Processing line: " + line);
+            LOG.debugSampled(() -> "Processing line: " + line);
+            int features = PlanLineScanner.scan(line);
             
             // Try to extract a date
-            LocalDate possibleDate = extractDate(line, startDate, endDate);
+            LocalDate possibleDate = PlanLineScanner.extractDate(line, features, startDate, endDate);
             if (possibleDate != null) {
-                System.out.println("Found date: " + possibleDate);
+                LOG.debugSampled(() -> "Found date: " + possibleDate);
                 
                 // We found a new date, save previous day's items if there are any
                 if (currentDate != null && currentDayItems != null && !currentDayItems.isEmpty()) {
@@ -69,9 +68,9 @@ public class StudyPlanParser {
             
             // If we have a current date, try to parse study items
             if (currentDate != null && currentDayItems != null) {
-                DailyStudyItem item = extractStudyItem(line);
+                DailyStudyItem item = PlanLineScanner.extractStudyItem(line, features);
                 if (item != null) {
-                    System.out.println("Found study item: " + item);
+                    LOG.debugSampled(() -> "Found study item: " + item);
                     currentDayItems.add(item);
                 }
             }
@@ -83,173 +82,59 @@ public class StudyPlanParser {
         }
         
         // If we didn't find any properly formatted dates, try to distribute items by day
-        if (result.isEmpty() && lines.length > 0) {
-            System.out.println("No structured data found. Creating default plan.");
+        if (result.isEmpty()) {
+            LOG.warn("No structured data found, creating default plan", "chars", rawPlanText.length());
             return createDefaultPlan(rawPlanText, startDate, endDate);
         }
         
-        System.out.println("Parsing complete. Found " + result.size() + " days with study items.");
+        LOG.debug("Parsing complete", "days", result.size());
         return result;
     }
     
     /**
-     * Extract a date from a line of text
+     * Parse a study plan from a reader without holding the whole response
+     * Only the current line and day are buffered, so memory stays flat however
+     * long the response is
+     * 
+     * @param reader Source of the response text; not closed
+     * @param startDate The start date of the study plan
+     * @param endDate The end date of the study plan (exam date)
+     * @param dayListener Called with each completed day, may be null
+     * @return A map of dates to daily study items
+     * @throws IOException If reading fails
      */
-    private LocalDate extractDate(String line, LocalDate startDate, LocalDate endDate) {
-        // First, look for specific "Date:" prefix
-        Pattern datePrefix = Pattern.compile("(?i)\\b(?:date|day)\\s*:\\s*(.+)");
-        Matcher datePrefixMatcher = datePrefix.matcher(line);
-        
-        if (datePrefixMatcher.find()) {
-            String dateText = datePrefixMatcher.group(1).trim();
-            LocalDate date = parseDate(dateText, startDate, endDate);
-            if (date != null) {
-                return date;
-            }
-        }
-        
-        // Second, try to find a date pattern directly in the whole line
-        LocalDate date = parseDate(line, startDate, endDate);
-        if (date != null) {
-            return date;
-        }
-        
-        // Try more lenient approach for lines that just have "Day X" or similar
-        Pattern dayPattern = Pattern.compile("\\b(?:day|date)\\s*(\\d+)\\b", Pattern.CASE_INSENSITIVE);
-        Matcher dayMatcher = dayPattern.matcher(line);
-        
-        if (dayMatcher.find()) {
-            try {
-                int dayOffset = Integer.parseInt(dayMatcher.group(1)) - 1;
-                LocalDate offsetDate = startDate.plusDays(dayOffset);
-                
-                if (!offsetDate.isAfter(endDate)) {
-                    return offsetDate;
-                }
-            } catch (NumberFormatException e) {
-                // Ignore and continue
-            }
-        }
-        
-        return null;
+    public Map<LocalDate, List<DailyStudyItem>> parsePlan(Reader reader, LocalDate startDate, LocalDate endDate,
+                                                          BiConsumer<LocalDate, List<DailyStudyItem>> dayListener)
+            throws IOException {
+        Map<LocalDate, List<DailyStudyItem>> result =
+                new IncrementalPlanParser(startDate, endDate, dayListener, false).parse(reader);
+        LOG.debug("Parsing complete", "days", result.size());
+        return result;
     }
     
     /**
-     * Try to parse a date string using multiple formatters
+     * Extract a date from a line of text
      */
-    private LocalDate parseDate(String dateText, LocalDate startDate, LocalDate endDate) {
-        // Try each formatter
-        for (DateTimeFormatter formatter : DATE_FORMATTERS) {
-            try {
-                LocalDate date = LocalDate.parse(dateText, formatter);
-                if (!date.isBefore(startDate) && !date.isAfter(endDate)) {
-                    return date;
-                }
-            } catch (DateTimeParseException e) {
-                // Try the next formatter
-            }
-        }
-        
-        // Try to extract and parse date patterns
-        Pattern datePattern = Pattern.compile("\\b\\d{1,4}[\\-/\\s]\\d{1,2}[\\-/\\s]\\d{1,4}\\b|\\b\\w+ \\d{1,2},? \\d{4}\\b|\\b\\d{1,2} \\w+ \\d{4}\\b");
-        Matcher dateMatcher = datePattern.matcher(dateText);
-        
-        if (dateMatcher.find()) {
-            String extractedDate = dateMatcher.group();
-            for (DateTimeFormatter formatter : DATE_FORMATTERS) {
-                try {
-                    LocalDate date = LocalDate.parse(extractedDate, formatter);
-                    if (!date.isBefore(startDate) && !date.isAfter(endDate)) {
-                        return date;
-                    }
-                } catch (DateTimeParseException e) {
-                    // Try the next formatter
-                }
-            }
-        }
-        
-        return null;
+    LocalDate extractDate(String line, LocalDate startDate, LocalDate endDate) {
+        return PlanLineScanner.extractDate(line, PlanLineScanner.scan(line), startDate, endDate);
     }
     
     /**
      * Extract a study item from a line of text
      */
-    private DailyStudyItem extractStudyItem(String line) {
-        // Check for lines starting with a bullet point or dash
-        if (line.startsWith("-") || line.startsWith("•") || line.startsWith("*")) {
-            line = line.substring(1).trim();
-        }
-        
-        // Try several patterns:
-        
-        // Pattern 1: Subject: [subject], Topic: [topic], Hours: [hours]
-        Pattern pattern1 = Pattern.compile("(?i)subject\\s*:\\s*([^,]+)\\s*,\\s*topic\\s*:\\s*([^,]+)\\s*,\\s*hours\\s*:\\s*(\\d+(?:\\.\\d+)?)");
-        Matcher matcher1 = pattern1.matcher(line);
-        
-        if (matcher1.find()) {
-            String subject = matcher1.group(1).trim();
-            String topic = matcher1.group(2).trim();
-            double hours = Double.parseDouble(matcher1.group(3));
-            return new DailyStudyItem(subject, topic, hours);
-        }
-        
-        // Pattern 2: [Subject] - [Topic] ([X] hours)
-        Pattern pattern2 = Pattern.compile("([^\\-]+)\\s*-\\s*([^\\(]+)\\s*\\(\\s*(\\d+(?:\\.\\d+)?)\\s*(?:hours|hrs|hour|hr)\\s*\\)");
-        Matcher matcher2 = pattern2.matcher(line);
-        
-        if (matcher2.find()) {
-            String subject = matcher2.group(1).trim();
-            String topic = matcher2.group(2).trim();
-            double hours = Double.parseDouble(matcher2.group(3));
-            return new DailyStudyItem(subject, topic, hours);
-        }
-        
-        // Pattern 3: [Subject]: [Topic] - [X] hours
-        Pattern pattern3 = Pattern.compile("([^:]+)\\s*:\\s*([^\\-]+)\\s*-\\s*(\\d+(?:\\.\\d+)?)\\s*(?:hours|hrs|hour|hr)");
-        Matcher matcher3 = pattern3.matcher(line);
-        
-        if (matcher3.find()) {
-            String subject = matcher3.group(1).trim();
-            String topic = matcher3.group(2).trim();
-            double hours = Double.parseDouble(matcher3.group(3));
-            return new DailyStudyItem(subject, topic, hours);
-        }
-        
-        // Pattern 4: [X] hours - [Subject]: [Topic]
-        Pattern pattern4 = Pattern.compile("(\\d+(?:\\.\\d+)?)\\s*(?:hours|hrs|hour|hr)\\s*-\\s*([^:]+)\\s*:\\s*(.+)");
-        Matcher matcher4 = pattern4.matcher(line);
-        
-        if (matcher4.find()) {
-            double hours = Double.parseDouble(matcher4.group(1));
-            String subject = matcher4.group(2).trim();
-            String topic = matcher4.group(3).trim();
-            return new DailyStudyItem(subject, topic, hours);
-        }
-        
-        // Pattern 5: [Subject]: [Topic] ([X] hours)
-        Pattern pattern5 = Pattern.compile("([^:]+)\\s*:\\s*([^\\(]+)\\s*\\(\\s*(\\d+(?:\\.\\d+)?)\\s*(?:hours|hrs|hour|hr)\\s*\\)");
-        Matcher matcher5 = pattern5.matcher(line);
-        
-        if (matcher5.find()) {
-            String subject = matcher5.group(1).trim();
-            String topic = matcher5.group(2).trim();
-            double hours = Double.parseDouble(matcher5.group(3));
-            return new DailyStudyItem(subject, topic, hours);
-        }
-        
-        return null;
+    DailyStudyItem extractStudyItem(String line) {
+        return PlanLineScanner.extractStudyItem(line, PlanLineScanner.scan(line));
     }
     
     /**
      * Create a default plan if the AI response couldn't be properly parsed
      */
-    private Map<LocalDate, List<DailyStudyItem>> createDefaultPlan(String rawPlanText, LocalDate startDate, LocalDate endDate) {
+    Map<LocalDate, List<DailyStudyItem>> createDefaultPlan(String rawPlanText, LocalDate startDate, LocalDate endDate) {
         Map<LocalDate, List<DailyStudyItem>> result = new HashMap<>();
         List<DailyStudyItem> allItems = new ArrayList<>();
         
         // Extract all possible study items
-        String[] lines = rawPlanText.split("\\r?\\n");
-        for (String line : lines) {
+        for (String line : rawPlanText.split("\\r?\\n")) {
             DailyStudyItem item = extractStudyItem(line);
             if (item != null) {
                 allItems.add(item);
@@ -259,8 +144,7 @@ public class StudyPlanParser {
         // If we still couldn't extract any items, try to create some basic ones
         if (allItems.isEmpty()) {
             // Try to extract subject and topic from text
-            Pattern subjectTopicPattern = Pattern.compile("(?i)subject\\s*:\\s*([^\\n,]+).*?topic\\s*:\\s*([^\\n,]+)");
-            Matcher stMatcher = subjectTopicPattern.matcher(rawPlanText);
+            Matcher stMatcher = PlanLineScanner.SUBJECT_TOPIC.matcher(rawPlanText);
             
             if (stMatcher.find()) {
                 String subject = stMatcher.group(1).trim();
@@ -298,4 +182,4 @@ public class StudyPlanParser {
         
         return result;
     }
-} 
\ No newline at end of file
+} 
\ No newline at end of file
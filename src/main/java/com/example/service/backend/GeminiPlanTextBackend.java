@@ -0,0 +1,59 @@
+package com.example.service.backend;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import com.example.service.GeminiClientSingleton;
+import com.example.service.PlanSchema;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Backend that asks Gemini through the shared client
+ * Rate limiting, retries and the connection pool all come from GeminiClientSingleton
+ */
+public class GeminiPlanTextBackend implements PlanTextBackend {
+
+    @Override
+    public String getName() {
+        return "gemini";
+    }
+
+    @Override
+    public String generateText(PlanTextRequest request) throws IOException {
+        return GeminiClientSingleton.getInstance().generateText(request.getPrompt(), generationConfig(request));
+    }
+
+    @Override
+    public String streamText(PlanTextRequest request, Consumer<String> chunkConsumer) throws IOException {
+        return GeminiClientSingleton.getInstance().streamText(request.getPrompt(), generationConfig(request), chunkConsumer);
+    }
+
+    @Override
+    public CompletableFuture<String> generateTextAsync(PlanTextRequest request) {
+        return GeminiClientSingleton.getInstance().generateTextAsync(
+                request.getPrompt(), generationConfig(request), request.getPriority(), request.getDeadline());
+    }
+
+    @Override
+    public CompletableFuture<String> streamTextAsync(PlanTextRequest request, Consumer<String> chunkConsumer) {
+        return GeminiClientSingleton.getInstance().streamTextAsync(request.getPrompt(), generationConfig(request),
+                request.getPriority(), request.getDeadline(), chunkConsumer);
+    }
+
+    /**
+     * Ask for schema-constrained JSON when the request wants structured output
+     */
+    private static JsonNode generationConfig(PlanTextRequest request) {
+        if (!request.isStructured()) {
+            return null;
+        }
+        GeminiClientSingleton client = GeminiClientSingleton.getInstance();
+        return PlanSchema.generationConfig(client.getTransport().getObjectMapper());
+    }
+
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.service.backend;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Source of the plan text that strategies parse into a study plan
+ * Lets strategies run against Gemini, a local synthetic generator or recorded responses
+ */
+public interface PlanTextBackend {
+    /**
+     * Get a short name for logs and configuration
+     * @return the backend name
+     */
+    String getName();
+
+    /**
+     * Generate the full plan text
+     * @param request The request
+     * @return The plan text
+     * @throws IOException If the text cannot be produced
+     */
+    String generateText(PlanTextRequest request) throws IOException;
+
+    /**
+     * Generate the plan text, handing each chunk to the consumer as it becomes available
+     * Backends that cannot stream deliver the whole text as a single chunk
+     * @param request The request
+     * @param chunkConsumer Receives each text chunk in order
+     * @return The full plan text
+     * @throws IOException If the text cannot be produced
+     */
+    default String streamText(PlanTextRequest request, Consumer<String> chunkConsumer) throws IOException {
+        String text = generateText(request);
+        chunkConsumer.accept(text);
+        return text;
+    }
+
+    /**
+     * Generate the full plan text without blocking on the network
+     * The default runs the blocking call inline, which suits local backends
+     * @param request The request
+     * @return A future for the plan text
+     */
+    default CompletableFuture<String> generateTextAsync(PlanTextRequest request) {
+        try {
+            return CompletableFuture.completedFuture(generateText(request));
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Streaming counterpart of {@link #generateTextAsync(PlanTextRequest)}
+     * @param request The request
+     * @param chunkConsumer Receives each text chunk in order
+     * @return A future for the full plan text
+     */
+    default CompletableFuture<String> streamTextAsync(PlanTextRequest request, Consumer<String> chunkConsumer) {
+        try {
+            return CompletableFuture.completedFuture(streamText(request, chunkConsumer));
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Whether responses should go through the shared response cache
+     * Only backends that call a real model benefit; local output is cheap and
+     * must not mix with cached model responses
+     * @return true to use the response cache
+     */
+    default boolean isCacheable() {
+        return false;
+    }
+}
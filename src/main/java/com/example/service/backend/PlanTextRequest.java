@@ -0,0 +1,91 @@
+package com.example.service.backend;
+
+import java.time.LocalDate;
+
+import com.example.model.User;
+import com.example.service.ratelimit.GenerationRateLimiter;
+import com.example.service.resilience.Deadline;
+
+/**
+ * One request for plan text
+ * Remote backends only need the prompt; local backends can also use the
+ * structured input the prompt was built from
+ */
+public class PlanTextRequest {
+    private final String prompt;
+    private final User user;
+    private final LocalDate startDate;
+    private final LocalDate examDate;
+    private GenerationRateLimiter.Priority priority;
+    private Deadline deadline;
+    private boolean structured;
+
+    /**
+     * Create a new request
+     * @param prompt The prompt text
+     * @param user The user the plan is for
+     * @param startDate The first day of the plan
+     * @param examDate The exam date
+     */
+    public PlanTextRequest(String prompt, User user, LocalDate startDate, LocalDate examDate) {
+        this.prompt = prompt;
+        this.user = user;
+        this.startDate = startDate;
+        this.examDate = examDate;
+        this.priority = GenerationRateLimiter.Priority.INTERACTIVE;
+    }
+
+    public String getPrompt() {
+        return prompt;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getExamDate() {
+        return examDate;
+    }
+
+    /**
+     * Get the admission priority used by asynchronous calls
+     * Blocking calls use the priority bound to the calling thread
+     * @return the priority
+     */
+    public GenerationRateLimiter.Priority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(GenerationRateLimiter.Priority priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * Get the deadline used by asynchronous calls, or null for none
+     * Blocking calls use the deadline bound to the calling thread
+     * @return the deadline
+     */
+    public Deadline getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(Deadline deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Whether the plan should come back as JSON in the PlanSchema shape instead of free text
+     * @return true for structured output
+     */
+    public boolean isStructured() {
+        return structured;
+    }
+
+    public void setStructured(boolean structured) {
+        this.structured = structured;
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.service.backend;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.example.service.cache.PlanResponseCache;
+import com.example.service.logging.PlanLogger;
+
+/**
+ * Backend that captures real responses to disk and serves them back later
+ * In RECORD mode every call goes to the delegate and its response is saved;
+ * in REPLAY mode responses come only from disk, so load tests and CI get
+ * realistic text with no network and a fixed latency
+ * Recordings are keyed by the same normalized prompt hash as the response cache
+ */
+public class RecordReplayPlanTextBackend implements PlanTextBackend {
+    private static final PlanLogger LOG = PlanLogger.get("backend");
+
+    /**
+     * Whether calls are captured or served from disk
+     */
+    public enum Mode {
+        RECORD,
+        REPLAY
+    }
+
+    private final PlanTextBackend delegate;
+    private final Path directory;
+    private final Mode mode;
+    private final long latencyMillis;
+
+    /**
+     * Create a record/replay backend
+     * @param delegate The backend to record; may be null in REPLAY mode
+     * @param directory Directory holding one file per recorded prompt
+     * @param mode Whether to record or replay
+     * @param latencyMillis Fixed delay added to each replayed response
+     */
+    public RecordReplayPlanTextBackend(PlanTextBackend delegate, Path directory, Mode mode, long latencyMillis) {
+        if (mode == Mode.RECORD && delegate == null) {
+            throw new IllegalArgumentException("Recording needs a backend to record");
+        }
+        this.delegate = delegate;
+        this.directory = directory;
+        this.mode = mode;
+        this.latencyMillis = latencyMillis;
+    }
+
+    @Override
+    public String getName() {
+        return mode == Mode.RECORD ? "record(" + delegate.getName() + ")" : "replay";
+    }
+
+    @Override
+    public String generateText(PlanTextRequest request) throws IOException {
+        if (mode == Mode.REPLAY) {
+            pause();
+            return readRecording(request);
+        }
+        String response = delegate.generateText(request);
+        writeRecording(request, response);
+        return response;
+    }
+
+    @Override
+    public String streamText(PlanTextRequest request, Consumer<String> chunkConsumer) throws IOException {
+        if (mode == Mode.REPLAY) {
+            pause();
+            return replayChunks(readRecording(request), chunkConsumer);
+        }
+        String response = delegate.streamText(request, chunkConsumer);
+        writeRecording(request, response);
+        return response;
+    }
+
+    @Override
+    public CompletableFuture<String> generateTextAsync(PlanTextRequest request) {
+        if (mode == Mode.REPLAY) {
+            return CompletableFuture.supplyAsync(() -> readUnchecked(request),
+                    CompletableFuture.delayedExecutor(latencyMillis, TimeUnit.MILLISECONDS));
+        }
+        return delegate.generateTextAsync(request).thenApply(response -> recordUnchecked(request, response));
+    }
+
+    @Override
+    public CompletableFuture<String> streamTextAsync(PlanTextRequest request, Consumer<String> chunkConsumer) {
+        if (mode == Mode.REPLAY) {
+            return CompletableFuture.supplyAsync(() -> replayChunks(readUnchecked(request), chunkConsumer),
+                    CompletableFuture.delayedExecutor(latencyMillis, TimeUnit.MILLISECONDS));
+        }
+        return delegate.streamTextAsync(request, chunkConsumer).thenApply(response -> recordUnchecked(request, response));
+    }
+
+    /**
+     * Get the file a prompt is recorded in
+     * @param prompt The prompt
+     * @return The recording path
+     */
+    public Path recordingPath(String prompt) {
+        return directory.resolve(PlanResponseCache.keyFor(prompt) + ".txt");
+    }
+
+    private String readRecording(PlanTextRequest request) throws IOException {
+        Path path = recordingPath(request.getPrompt());
+        if (!Files.exists(path)) {
+            throw new FileNotFoundException("No recorded response for this prompt: " + path);
+        }
+        return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+    }
+
+    private void writeRecording(PlanTextRequest request, String response) throws IOException {
+        Path path = recordingPath(request.getPrompt());
+        Files.createDirectories(directory);
+        // Write then rename so a concurrent replay never sees a partial file
+        Path temp = Files.createTempFile(directory, "recording", ".tmp");
+        Files.write(temp, response.getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        LOG.info("Recorded response", "path", path);
+    }
+
+    private String readUnchecked(PlanTextRequest request) {
+        try {
+            return readRecording(request);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private String recordUnchecked(PlanTextRequest request, String response) {
+        try {
+            writeRecording(request, response);
+            return response;
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Replay a recording line by line, the way a streamed response arrives
+     */
+    private static String replayChunks(String text, Consumer<String> chunkConsumer) {
+        int start = 0;
+        while (start < text.length()) {
+            int end = text.indexOf('\n', start);
+            end = end < 0 ? text.length() : end + 1;
+            chunkConsumer.accept(text.substring(start, end));
+            start = end;
+        }
+        return text;
+    }
+
+    private void pause() throws InterruptedIOException {
+        if (latencyMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while simulating latency");
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.service.backend;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.example.model.Subject;
+import com.example.model.User;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+/**
+ * Local backend that writes a plan in the format the prompts ask Gemini for,
+ * free text or structured JSON as the request asks
+ * Output depends only on the request, so runs are repeatable with no network;
+ * an optional fixed latency stands in for the model's response time
+ */
+public class SyntheticPlanTextBackend implements PlanTextBackend {
+    private static final int TOPICS_PER_DAY = 3;
+
+    private final long latencyMillis;
+
+    public SyntheticPlanTextBackend() {
+        this(0);
+    }
+
+    /**
+     * Create a synthetic backend
+     * @param latencyMillis Fixed delay before the text is returned
+     */
+    public SyntheticPlanTextBackend(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    @Override
+    public String getName() {
+        return "synthetic";
+    }
+
+    @Override
+    public String generateText(PlanTextRequest request) throws IOException {
+        pause();
+        return String.join("", buildChunks(request));
+    }
+
+    @Override
+    public String streamText(PlanTextRequest request, Consumer<String> chunkConsumer) throws IOException {
+        pause();
+        StringBuilder text = new StringBuilder();
+        for (String day : buildChunks(request)) {
+            text.append(day);
+            chunkConsumer.accept(day);
+        }
+        return text.toString();
+    }
+
+    @Override
+    public CompletableFuture<String> generateTextAsync(PlanTextRequest request) {
+        return CompletableFuture.supplyAsync(() -> String.join("", buildChunks(request)),
+                CompletableFuture.delayedExecutor(latencyMillis, TimeUnit.MILLISECONDS));
+    }
+
+    @Override
+    public CompletableFuture<String> streamTextAsync(PlanTextRequest request, Consumer<String> chunkConsumer) {
+        return CompletableFuture.supplyAsync(() -> {
+            StringBuilder text = new StringBuilder();
+            for (String day : buildChunks(request)) {
+                text.append(day);
+                chunkConsumer.accept(day);
+            }
+            return text.toString();
+        }, CompletableFuture.delayedExecutor(latencyMillis, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Build the plan as one chunk per day, rotating through every subject and topic
+     * Structured requests get the PlanSchema JSON, split at day boundaries
+     */
+    private List<String> buildChunks(PlanTextRequest request) {
+        List<String[]> topics = collectTopics(request.getUser());
+        boolean structured = request.isStructured();
+        List<String> days = new ArrayList<>();
+        int dayIndex = 0;
+        for (LocalDate date = request.getStartDate(); date.isBefore(request.getExamDate()); date = date.plusDays(1)) {
+            StringBuilder day = new StringBuilder();
+            if (structured) {
+                day.append(dayIndex == 0 ? "{\"days\":[" : ",");
+                day.append("{\"date\":\"").append(date).append("\",\"items\":[");
+            } else {
+                day.append("Date: ").append(date).append('\n');
+            }
+            int count = Math.min(TOPICS_PER_DAY, topics.size());
+            for (int i = 0; i < count; i++) {
+                String[] topic = topics.get((dayIndex * count + i) % topics.size());
+                double hours = 1.0 + ((dayIndex + i) % 3) * 0.5;
+                if (structured) {
+                    day.append(i == 0 ? "" : ",")
+                            .append("{\"subject\":").append(quote(topic[0]))
+                            .append(",\"topic\":").append(quote(topic[1]))
+                            .append(",\"hours\":").append(hours).append('}');
+                } else {
+                    day.append("- Subject: ").append(topic[0])
+                            .append(", Topic: ").append(topic[1])
+                            .append(", Hours: ").append(hours).append('\n');
+                }
+            }
+            day.append(structured ? "]}" : "\n");
+            days.add(day.toString());
+            dayIndex++;
+        }
+        if (structured) {
+            days.add(days.isEmpty() ? "{\"days\":[]}" : "]}");
+        }
+        return days;
+    }
+
+    private static String quote(String value) {
+        return "\"" + new String(JsonStringEncoder.getInstance().quoteAsString(value)) + "\"";
+    }
+
+    private static List<String[]> collectTopics(User user) {
+        List<String[]> topics = new ArrayList<>();
+        for (Subject subject : user.getSubjects()) {
+            if (subject.getTopics().isEmpty()) {
+                topics.add(new String[] {subject.getName(), "Review"});
+            }
+            for (String topic : subject.getTopics()) {
+                topics.add(new String[] {subject.getName(), topic});
+            }
+        }
+        if (topics.isEmpty()) {
+            topics.add(new String[] {"General", "Review"});
+        }
+        return topics;
+    }
+
+    private void pause() throws InterruptedIOException {
+        if (latencyMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while simulating latency");
+        }
+    }
+}
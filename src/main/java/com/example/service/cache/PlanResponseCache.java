@@ -0,0 +1,216 @@
+package com.example.service.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+import com.example.service.DatabaseService;
+
+/**
+ * Content-addressed cache of Gemini responses keyed by a hash of the normalized prompt
+ * Two tiers: an in-memory LRU in front of the response_cache table in studyplanner.db
+ * Implements Singleton pattern
+ */
+public class PlanResponseCache {
+    private static final Pattern BLANKS = Pattern.compile("[ \\t]+");
+    
+    private static PlanResponseCache instance;
+    
+    private final boolean enabled;
+    private final int maxMemoryEntries;
+    private final int maxPersistentEntries;
+    private final long ttlMillis;
+    private final DatabaseService databaseService;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, CacheEntry> memoryTier;
+    
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong persistentHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    
+    /**
+     * Create a cache
+     * @param maxMemoryEntries Capacity of the in-memory LRU tier
+     * @param maxPersistentEntries Capacity of the SQLite tier
+     * @param ttlMillis Time-to-live of an entry in milliseconds
+     * @param databaseService Backing store for the persistent tier, or null for memory only
+     */
+    public PlanResponseCache(int maxMemoryEntries, int maxPersistentEntries, long ttlMillis,
+                             DatabaseService databaseService) {
+        this(maxMemoryEntries, maxPersistentEntries, ttlMillis, databaseService, System::currentTimeMillis);
+    }
+    
+    /**
+     * Create a cache that reads the time from the given clock
+     * @param clock Current time in epoch millis
+     */
+    PlanResponseCache(int maxMemoryEntries, int maxPersistentEntries, long ttlMillis,
+                      DatabaseService databaseService, LongSupplier clock) {
+        this.clock = clock;
+        this.enabled = Boolean.parseBoolean(System.getProperty("planner.cache.enabled", "true"));
+        this.maxMemoryEntries = maxMemoryEntries;
+        this.maxPersistentEntries = maxPersistentEntries;
+        this.ttlMillis = ttlMillis;
+        this.databaseService = databaseService;
+        this.memoryTier = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                if (size() > PlanResponseCache.this.maxMemoryEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+    
+    /**
+     * Get the singleton instance
+     * Limits can be tuned with -Dplanner.cache.memoryEntries, -Dplanner.cache.persistentEntries
+     * and -Dplanner.cache.ttlHours
+     * @return The shared cache
+     */
+    public static synchronized PlanResponseCache getInstance() {
+        if (instance == null) {
+            instance = new PlanResponseCache(
+                    Integer.getInteger("planner.cache.memoryEntries", 64),
+                    Integer.getInteger("planner.cache.persistentEntries", 500),
+                    Long.getLong("planner.cache.ttlHours", 24L * 7) * 60 * 60 * 1000,
+                    DatabaseService.getInstance());
+        }
+        return instance;
+    }
+    
+    /**
+     * Look up the response for a prompt
+     * @param prompt The prompt as sent to Gemini
+     * @return The cached response, or null on a miss
+     */
+    public String get(String prompt) {
+        if (!enabled) {
+            return null;
+        }
+        String key = keyFor(prompt);
+        long now = clock.getAsLong();
+        
+        synchronized (memoryTier) {
+            CacheEntry entry = memoryTier.get(key);
+            if (entry != null) {
+                if (now - entry.createdAt <= ttlMillis) {
+                    memoryHits.incrementAndGet();
+                    return entry.response;
+                }
+                memoryTier.remove(key);
+                evictions.incrementAndGet();
+            }
+        }
+        
+        if (databaseService != null) {
+            String response = databaseService.getCachedResponse(key, now - ttlMillis, now);
+            if (response != null) {
+                persistentHits.incrementAndGet();
+                synchronized (memoryTier) {
+                    // The original creation time is unknown here, so the promoted copy gets a fresh TTL
+                    memoryTier.put(key, new CacheEntry(response, now));
+                }
+                return response;
+            }
+        }
+        
+        misses.incrementAndGet();
+        return null;
+    }
+    
+    /**
+     * Store the response for a prompt in both tiers
+     * Empty responses are not stored, so a failed call is retried next time
+     * @param prompt The prompt as sent to Gemini
+     * @param response The response text
+     */
+    public void put(String prompt, String response) {
+        if (!enabled || response == null || response.isBlank()) {
+            return;
+        }
+        String key = keyFor(prompt);
+        long now = clock.getAsLong();
+        
+        synchronized (memoryTier) {
+            memoryTier.put(key, new CacheEntry(response, now));
+        }
+        if (databaseService != null) {
+            databaseService.putCachedResponse(key, response, now);
+            evictions.addAndGet(databaseService.evictCachedResponses(now - ttlMillis, maxPersistentEntries));
+        }
+    }
+    
+    /**
+     * Drop every in-memory entry (the persistent tier is kept)
+     */
+    public void clearMemory() {
+        synchronized (memoryTier) {
+            memoryTier.clear();
+        }
+    }
+    
+    public long getMemoryHits() {
+        return memoryHits.get();
+    }
+    
+    public long getPersistentHits() {
+        return persistentHits.get();
+    }
+    
+    public long getMisses() {
+        return misses.get();
+    }
+    
+    public long getEvictions() {
+        return evictions.get();
+    }
+    
+    /**
+     * Get a one-line summary of the cache counters
+     * @return hit/miss statistics
+     */
+    public String getStats() {
+        return "memoryHits=" + memoryHits.get() + ", persistentHits=" + persistentHits.get()
+                + ", misses=" + misses.get() + ", evictions=" + evictions.get();
+    }
+    
+    /**
+     * Compute the cache key of a prompt
+     * Line endings and runs of whitespace are normalized so cosmetic differences still hit
+     * @param prompt The prompt text
+     * @return Hex-encoded SHA-256 of the normalized prompt
+     */
+    public static String keyFor(String prompt) {
+        String normalized = BLANKS.matcher(prompt.replace("\r\n", "\n")).replaceAll(" ").trim();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(normalized.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    private static final class CacheEntry {
+        private final String response;
+        private final long createdAt;
+        
+        private CacheEntry(String response, long createdAt) {
+            this.response = response;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.service.cohort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.example.model.StudyPlan;
+import com.example.model.User;
+import com.example.service.DatabaseService;
+import com.example.service.StudyPlanGenerator;
+import com.example.service.factory.StudyPlanStrategyFactory;
+import com.example.service.logging.PlanLogger;
+import com.example.service.ratelimit.GenerationRateLimiter;
+
+/**
+ * Generates plans for a whole cohort of students
+ * At most `concurrency` generations are in flight at once, each admitted at
+ * BATCH priority so interactive users keep their share of the Gemini quota;
+ * a finished generation immediately starts the next student. Generated plans
+ * are saved in groups, one transaction per group, instead of one per student.
+ * A failure only affects its own student and is recorded in the report
+ */
+public class CohortGenerator {
+    private static final PlanLogger LOG = PlanLogger.get("cohort");
+
+    private final StudyPlanGenerator generator;
+    private final DatabaseService databaseService;
+    private final int concurrency;
+    private final int saveBatchSize;
+
+    /**
+     * Create a cohort generator configured by system properties
+     * planner.cohort.concurrency limits generations in flight (default 8) and
+     * planner.cohort.saveBatch is the number of plans saved per transaction (default 25)
+     * @param generator Generates each plan; its observers see every student's generation
+     * @param databaseService Saves the plans, or null to only generate them
+     */
+    public CohortGenerator(StudyPlanGenerator generator, DatabaseService databaseService) {
+        this(generator, databaseService, Integer.getInteger("planner.cohort.concurrency", 8),
+                Integer.getInteger("planner.cohort.saveBatch", 25));
+    }
+
+    /**
+     * Create a cohort generator
+     * @param generator Generates each plan; its observers see every student's generation
+     * @param databaseService Saves the plans, or null to only generate them
+     * @param concurrency Most generations in flight at once
+     * @param saveBatchSize Plans saved per transaction
+     */
+    public CohortGenerator(StudyPlanGenerator generator, DatabaseService databaseService, int concurrency,
+                           int saveBatchSize) {
+        this.generator = generator;
+        this.databaseService = databaseService;
+        this.concurrency = Math.max(1, concurrency);
+        this.saveBatchSize = Math.max(1, saveBatchSize);
+    }
+
+    /**
+     * Generate and save a plan for every student
+     * @param users The students
+     * @param strategyType The strategy used for every plan
+     * @param ownerId The account the plans are saved under, or 0 or less to not save them
+     * @param listener Receives per-student progress, or null
+     * @return Completes with the report once every student is generated and saved or has failed
+     */
+    public CompletableFuture<CohortReport> generate(List<User> users, StudyPlanStrategyFactory.StrategyType strategyType,
+                                                    int ownerId, CohortProgressListener listener) {
+        Run run = new Run(users, strategyType, databaseService != null && ownerId > 0 ? ownerId : 0,
+                listener != null ? listener : new CohortProgressListener() { });
+        run.start();
+        return run.result;
+    }
+
+    /**
+     * State of one cohort generation
+     */
+    private final class Run {
+        private final List<User> users;
+        private final StudyPlanStrategyFactory.StrategyType strategyType;
+        private final int ownerId;
+        private final CohortProgressListener listener;
+        private final CompletableFuture<CohortReport> result = new CompletableFuture<>();
+        private final long startedNanos = System.nanoTime();
+        private final AtomicInteger next = new AtomicInteger();
+
+        // Guarded by this
+        private final int[] studyPlanIds;
+        private final long[] latencies;
+        private final Map<Integer, String> failures = new TreeMap<>();
+        private List<Integer> pendingIndexes = new ArrayList<>();
+        private List<StudyPlan> pendingPlans = new ArrayList<>();
+        private int finished;
+        private int savesInProgress;
+
+        private Run(List<User> users, StudyPlanStrategyFactory.StrategyType strategyType, int ownerId,
+                    CohortProgressListener listener) {
+            this.users = users;
+            this.strategyType = strategyType;
+            this.ownerId = ownerId;
+            this.listener = listener;
+            this.studyPlanIds = new int[users.size()];
+            this.latencies = new long[users.size()];
+        }
+
+        private void start() {
+            LOG.info("Generating cohort", "students", users.size(), "concurrency", concurrency,
+                    "strategy", strategyType);
+            if (users.isEmpty()) {
+                complete();
+                return;
+            }
+            for (int i = 0; i < Math.min(concurrency, users.size()); i++) {
+                launchNext();
+            }
+        }
+
+        private void launchNext() {
+            int index = next.getAndIncrement();
+            if (index >= users.size()) {
+                return;
+            }
+            long started = System.nanoTime();
+            CompletableFuture<StudyPlan> generation;
+            try {
+                generation = generator.generatePlanAsync(users.get(index), strategyType,
+                        GenerationRateLimiter.Priority.BATCH);
+            } catch (RuntimeException e) {
+                generation = CompletableFuture.failedFuture(e);
+            }
+            // Bookkeeping and saving are local work, so they run on the generator's workers
+            generation.whenCompleteAsync((studyPlan, error) -> finish(index, started, studyPlan, error),
+                    generator.getExecutor());
+        }
+
+        private void finish(int index, long started, StudyPlan studyPlan, Throwable error) {
+            long latencyMillis = (System.nanoTime() - started) / 1_000_000;
+            List<Integer> saveIndexes = null;
+            List<StudyPlan> savePlans = null;
+            boolean done;
+            synchronized (this) {
+                finished++;
+                if (error != null) {
+                    fail(index, error);
+                } else {
+                    latencies[index] = latencyMillis;
+                    RuntimeException listenerError = notifyListener(() -> listener.onPlanGenerated(index,
+                            users.get(index), latencyMillis, finished, users.size()));
+                    if (listenerError != null) {
+                        fail(index, listenerError);
+                    } else if (ownerId > 0) {
+                        pendingIndexes.add(index);
+                        pendingPlans.add(studyPlan);
+                    }
+                }
+                if (pendingPlans.size() >= saveBatchSize || (finished == users.size() && !pendingPlans.isEmpty())) {
+                    saveIndexes = pendingIndexes;
+                    savePlans = pendingPlans;
+                    pendingIndexes = new ArrayList<>();
+                    pendingPlans = new ArrayList<>();
+                    savesInProgress++;
+                }
+                done = finished == users.size() && savesInProgress == 0;
+            }
+
+            try {
+                launchNext();
+            } finally {
+                if (savePlans != null) {
+                    done = save(saveIndexes, savePlans);
+                }
+                if (done) {
+                    complete();
+                }
+            }
+        }
+
+        /**
+         * Save one group in a single transaction
+         * @return true if this was the last work of the run
+         */
+        private boolean save(List<Integer> indexes, List<StudyPlan> plans) {
+            int[] ids = null;
+            RuntimeException saveError = null;
+            try {
+                ids = databaseService.saveStudyPlans(ownerId, plans, strategyType.toString());
+            } catch (RuntimeException e) {
+                LOG.error("Saving cohort plans failed", "plans", plans.size(), "error", e.toString());
+                saveError = e;
+            }
+            synchronized (this) {
+                try {
+                    for (int i = 0; i < indexes.size(); i++) {
+                        if (ids != null && ids[i] > 0) {
+                            studyPlanIds[indexes.get(i)] = ids[i];
+                        } else {
+                            fail(indexes.get(i), saveError != null
+                                    ? saveError : new IllegalStateException("Plan could not be saved"));
+                        }
+                    }
+                    if (ids != null && ids.length > 0 && ids[0] > 0) {
+                        notifyListener(() -> listener.onPlansSaved(plans.size()));
+                    }
+                } finally {
+                    savesInProgress--;
+                }
+                return finished == users.size() && savesInProgress == 0;
+            }
+        }
+
+        private void fail(int index, Throwable error) {
+            // Report what went wrong rather than the generator's wrapping exceptions
+            Throwable cause = error;
+            while (cause.getCause() != null && cause.getCause() != cause) {
+                cause = cause.getCause();
+            }
+            studyPlanIds[index] = -1;
+            latencies[index] = -1;
+            failures.put(index, String.valueOf(cause.getMessage()));
+            Throwable reported = cause;
+            notifyListener(() -> listener.onPlanFailed(index, users.get(index), reported, finished, users.size()));
+        }
+
+        /**
+         * Call the listener, keeping a failing listener from stalling the run
+         * @return The exception the listener threw, or null
+         */
+        private RuntimeException notifyListener(Runnable call) {
+            try {
+                call.run();
+                return null;
+            } catch (RuntimeException e) {
+                LOG.warn("Cohort progress listener failed", "error", e.toString());
+                return e;
+            }
+        }
+
+        private void complete() {
+            CohortReport report;
+            synchronized (this) {
+                long[] generated = new long[users.size() - failures.size()];
+                int count = 0;
+                for (long latency : latencies) {
+                    if (latency >= 0 && count < generated.length) {
+                        generated[count++] = latency;
+                    }
+                }
+                report = new CohortReport(studyPlanIds.clone(), new TreeMap<>(failures), generated,
+                        (System.nanoTime() - startedNanos) / 1_000_000);
+            }
+            LOG.info("Cohort finished", "students", report.getTotal(), "failed", report.getFailed(),
+                    "wallMillis", report.getWallMillis(), "p50Millis", report.getLatencyPercentile(50),
+                    "p90Millis", report.getLatencyPercentile(90), "p99Millis", report.getLatencyPercentile(99));
+            result.complete(report);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.service.cohort;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.model.Subject;
+import com.example.model.User;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads the students of a cohort from a CSV or JSON file
+ * CSV files have one row per topic, "name,examDate,subject,topic", with an
+ * optional header row; rows with the same name and exam date make up one
+ * student. JSON files hold an array of
+ * {"name":..., "examDate":"yyyy-MM-dd", "subjects":[{"name":..., "topics":[...]}]}
+ */
+public final class CohortInputReader {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private CohortInputReader() {
+    }
+
+    /**
+     * Read a cohort file, choosing the format by its extension (.json, otherwise CSV)
+     * @param file The file
+     * @return The students in file order
+     * @throws IOException If the file cannot be read or is malformed
+     */
+    public static List<User> read(Path file) throws IOException {
+        String name = file.getFileName().toString().toLowerCase();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return name.endsWith(".json") ? readJson(reader) : readCsv(reader);
+        }
+    }
+
+    /**
+     * Read students from CSV rows
+     * @param reader The CSV text
+     * @return The students in order of their first row
+     * @throws IOException If a row is malformed
+     */
+    public static List<User> readCsv(BufferedReader reader) throws IOException {
+        Map<String, User> users = new LinkedHashMap<>();
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            List<String> fields = splitCsv(line);
+            if (lineNumber == 1 && "examDate".equalsIgnoreCase(fields.size() > 1 ? fields.get(1).trim() : "")) {
+                continue;
+            }
+            if (fields.size() != 4) {
+                throw new IOException("Line " + lineNumber + ": expected name,examDate,subject,topic");
+            }
+            String name = fields.get(0).trim();
+            LocalDate examDate = parseDate(fields.get(1).trim(), "Line " + lineNumber);
+            User user = users.computeIfAbsent(name + '\u0000' + examDate, key -> new User(name, examDate));
+            subject(user, fields.get(2).trim()).addTopic(fields.get(3).trim());
+        }
+        return new ArrayList<>(users.values());
+    }
+
+    /**
+     * Read students from a JSON array
+     * @param reader The JSON text
+     * @return The students in array order
+     * @throws IOException If the JSON is malformed or not of the expected shape
+     */
+    public static List<User> readJson(BufferedReader reader) throws IOException {
+        JsonNode root = MAPPER.readTree(reader);
+        if (root == null || !root.isArray()) {
+            throw new IOException("Expected a JSON array of students");
+        }
+        List<User> users = new ArrayList<>(root.size());
+        for (int i = 0; i < root.size(); i++) {
+            JsonNode student = root.get(i);
+            String where = "Student " + i;
+            User user = new User(student.path("name").asText(), parseDate(student.path("examDate").asText(), where));
+            for (JsonNode subjectNode : student.path("subjects")) {
+                Subject subject = subject(user, subjectNode.path("name").asText());
+                for (JsonNode topic : subjectNode.path("topics")) {
+                    subject.addTopic(topic.asText());
+                }
+            }
+            users.add(user);
+        }
+        return users;
+    }
+
+    private static LocalDate parseDate(String text, String where) throws IOException {
+        try {
+            return LocalDate.parse(text);
+        } catch (DateTimeParseException e) {
+            throw new IOException(where + ": exam date must be yyyy-MM-dd, was \"" + text + "\"", e);
+        }
+    }
+
+    private static Subject subject(User user, String name) {
+        for (Subject subject : user.getSubjects()) {
+            if (subject.getName().equals(name)) {
+                return subject;
+            }
+        }
+        Subject subject = new Subject(name);
+        user.addSubject(subject);
+        return subject;
+    }
+
+    /**
+     * Split one CSV row; fields may be quoted, with "" for a quote inside
+     */
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
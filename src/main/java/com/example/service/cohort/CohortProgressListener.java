@@ -0,0 +1,38 @@
+package com.example.service.cohort;
+
+import com.example.model.User;
+
+/**
+ * Receives per-student progress of a cohort generation
+ * Calls come from the generator's worker threads, one at a time
+ */
+public interface CohortProgressListener {
+    /**
+     * A student's plan was generated
+     * @param index The student's position in the cohort
+     * @param user The student
+     * @param latencyMillis Time from starting the generation to its plan
+     * @param finished Students finished so far, including failures
+     * @param total Students in the cohort
+     */
+    default void onPlanGenerated(int index, User user, long latencyMillis, int finished, int total) {
+    }
+
+    /**
+     * A student's plan could not be generated or saved
+     * @param index The student's position in the cohort
+     * @param user The student
+     * @param error Why it failed
+     * @param finished Students finished so far, including failures
+     * @param total Students in the cohort
+     */
+    default void onPlanFailed(int index, User user, Throwable error, int finished, int total) {
+    }
+
+    /**
+     * A group of generated plans was saved in one transaction
+     * @param count Plans in the group
+     */
+    default void onPlansSaved(int count) {
+    }
+}
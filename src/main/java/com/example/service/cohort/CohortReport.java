@@ -0,0 +1,83 @@
+package com.example.service.cohort;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Outcome of a cohort generation: per-student plan IDs and failures, and latency percentiles
+ */
+public class CohortReport {
+    private final int total;
+    private final int[] studyPlanIds;
+    private final Map<Integer, String> failures;
+    private final long[] sortedLatencies;
+    private final long wallMillis;
+
+    /**
+     * Create a report
+     * @param studyPlanIds Saved plan ID per student, 0 when generated but not saved, -1 when failed
+     * @param failures Failure message per student index
+     * @param latencies Generation latency in milliseconds of every generated plan
+     * @param wallMillis Time for the whole cohort
+     */
+    CohortReport(int[] studyPlanIds, Map<Integer, String> failures, long[] latencies, long wallMillis) {
+        this.total = studyPlanIds.length;
+        this.studyPlanIds = studyPlanIds;
+        this.failures = Collections.unmodifiableMap(failures);
+        this.sortedLatencies = latencies.clone();
+        Arrays.sort(this.sortedLatencies);
+        this.wallMillis = wallMillis;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getSucceeded() {
+        return total - failures.size();
+    }
+
+    public int getFailed() {
+        return failures.size();
+    }
+
+    /**
+     * @param index A student's position in the cohort
+     * @return The saved plan ID, 0 if the plan was not saved, or -1 if it failed
+     */
+    public int getStudyPlanId(int index) {
+        return studyPlanIds[index];
+    }
+
+    /**
+     * @return Failure messages by student index
+     */
+    public Map<Integer, String> getFailures() {
+        return failures;
+    }
+
+    public long getWallMillis() {
+        return wallMillis;
+    }
+
+    /**
+     * Latency percentile of the generated plans, by the nearest-rank method
+     * @param percentile Between 0 and 100
+     * @return The latency in milliseconds, or 0 if no plan was generated
+     */
+    public long getLatencyPercentile(double percentile) {
+        if (sortedLatencies.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * sortedLatencies.length);
+        return sortedLatencies[Math.min(sortedLatencies.length - 1, Math.max(0, rank - 1))];
+    }
+
+    @Override
+    public String toString() {
+        return "Cohort of " + total + ": " + getSucceeded() + " succeeded, " + getFailed() + " failed in "
+                + wallMillis + " ms (p50 " + getLatencyPercentile(50) + " ms, p90 " + getLatencyPercentile(90)
+                + " ms, p99 " + getLatencyPercentile(99) + " ms)";
+    }
+}
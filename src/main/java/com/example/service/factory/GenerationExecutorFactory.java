@@ -0,0 +1,124 @@
+package com.example.service.factory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.example.service.logging.PlanLogger;
+
+/**
+ * Factory for the executors that run the local stages of plan generation
+ * The configured executor is chosen with -Dplanner.executor=platform|virtual;
+ * planner.workerThreads sizes the platform pool (default 2)
+ */
+public class GenerationExecutorFactory {
+    private static final PlanLogger LOG = PlanLogger.get("generation");
+    
+    /**
+     * Available executor types
+     */
+    public enum ExecutorType {
+        // Fixed pool of platform threads
+        PLATFORM,
+        // A new virtual thread per task, on JDK 21 and later
+        VIRTUAL
+    }
+    
+    private final int workerThreads;
+    
+    public GenerationExecutorFactory() {
+        this(Integer.getInteger("planner.workerThreads", 2));
+    }
+    
+    /**
+     * Create a factory
+     * @param workerThreads Size of the platform thread pool
+     */
+    public GenerationExecutorFactory(int workerThreads) {
+        this.workerThreads = Math.max(1, workerThreads);
+    }
+    
+    /**
+     * Get the executor type selected by the planner.executor system property
+     * @return The configured type, PLATFORM by default
+     */
+    public static ExecutorType configuredType() {
+        String name = System.getProperty("planner.executor", "platform");
+        try {
+            return ExecutorType.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown planner.executor '" + name + "', using platform threads");
+            return ExecutorType.PLATFORM;
+        }
+    }
+    
+    /**
+     * Check whether this JVM can run virtual threads
+     * @return true on JDK 21 and later
+     */
+    public static boolean virtualThreadsAvailable() {
+        return Runtime.version().feature() >= 21;
+    }
+    
+    /**
+     * Create the executor selected by configuration
+     * @return The configured executor
+     */
+    public ExecutorService createConfiguredExecutor() {
+        return createExecutor(configuredType());
+    }
+    
+    /**
+     * Create an executor of the specified type
+     * Virtual threads fall back to the platform pool when the JVM does not have them
+     * @param type The type of executor to create
+     * @return The created executor
+     */
+    public ExecutorService createExecutor(ExecutorType type) {
+        switch (type) {
+            case PLATFORM:
+                return Executors.newFixedThreadPool(workerThreads, new WorkerThreadFactory());
+            case VIRTUAL:
+                ExecutorService virtual = newVirtualThreadPerTaskExecutor();
+                if (virtual != null) {
+                    return virtual;
+                }
+                LOG.warn("Virtual threads need JDK 21, using platform threads",
+                        "javaVersion", Runtime.version().feature(), "workerThreads", workerThreads);
+                return createExecutor(ExecutorType.PLATFORM);
+            default:
+                throw new IllegalArgumentException("Unknown executor type: " + type);
+        }
+    }
+    
+    /**
+     * Look up Executors.newVirtualThreadPerTaskExecutor, which the compile target does not have
+     * @return The executor, or null if this JVM cannot create it
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (!virtualThreadsAvailable()) {
+            return null;
+        }
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Names platform workers so thread dumps show which pool they belong to
+     */
+    private static final class WorkerThreadFactory implements ThreadFactory {
+        private static final AtomicInteger POOLS = new AtomicInteger();
+        
+        private final int pool = POOLS.incrementAndGet();
+        private final AtomicInteger threads = new AtomicInteger();
+        
+        @Override
+        public Thread newThread(Runnable task) {
+            return new Thread(task, "generation-" + pool + "-worker-" + threads.incrementAndGet());
+        }
+    }
+}
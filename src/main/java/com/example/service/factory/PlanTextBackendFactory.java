@@ -0,0 +1,88 @@
+package com.example.service.factory;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.example.service.backend.GeminiPlanTextBackend;
+import com.example.service.backend.PlanTextBackend;
+import com.example.service.backend.RecordReplayPlanTextBackend;
+import com.example.service.backend.SyntheticPlanTextBackend;
+
+/**
+ * Factory for creating plan text backends
+ * The configured backend is chosen with -Dplanner.backend=gemini|synthetic|record|replay
+ */
+public class PlanTextBackendFactory {
+    
+    /**
+     * Available plan text backend types
+     */
+    public enum BackendType {
+        GEMINI,
+        SYNTHETIC,
+        RECORD,
+        REPLAY
+    }
+    
+    private final Path recordingDirectory;
+    private final long latencyMillis;
+    
+    public PlanTextBackendFactory() {
+        this(Paths.get(System.getProperty("planner.backend.recordingDir", "recordings")),
+                Long.getLong("planner.backend.latencyMillis", 0L));
+    }
+    
+    /**
+     * Create a factory
+     * @param recordingDirectory Where the record and replay backends keep their files
+     * @param latencyMillis Fixed latency of the synthetic and replay backends
+     */
+    public PlanTextBackendFactory(Path recordingDirectory, long latencyMillis) {
+        this.recordingDirectory = recordingDirectory;
+        this.latencyMillis = latencyMillis;
+    }
+    
+    /**
+     * Get the backend type selected by the planner.backend system property
+     * @return The configured type, GEMINI by default
+     */
+    public static BackendType configuredType() {
+        String name = System.getProperty("planner.backend", "gemini");
+        try {
+            return BackendType.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown planner.backend '" + name + "', using Gemini");
+            return BackendType.GEMINI;
+        }
+    }
+    
+    /**
+     * Create the backend selected by configuration
+     * @return The configured backend
+     */
+    public PlanTextBackend createConfiguredBackend() {
+        return createBackend(configuredType());
+    }
+    
+    /**
+     * Create a plan text backend of the specified type
+     * @param type The type of backend to create
+     * @return The created backend
+     */
+    public PlanTextBackend createBackend(BackendType type) {
+        switch (type) {
+            case GEMINI:
+                return new GeminiPlanTextBackend();
+            case SYNTHETIC:
+                return new SyntheticPlanTextBackend(latencyMillis);
+            case RECORD:
+                return new RecordReplayPlanTextBackend(new GeminiPlanTextBackend(), recordingDirectory,
+                        RecordReplayPlanTextBackend.Mode.RECORD, 0);
+            case REPLAY:
+                return new RecordReplayPlanTextBackend(null, recordingDirectory,
+                        RecordReplayPlanTextBackend.Mode.REPLAY, latencyMillis);
+            default:
+                throw new IllegalArgumentException("Unknown backend type: " + type);
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.example.service.factory;
 
+import com.example.service.backend.PlanTextBackend;
 import com.example.service.strategy.BalancedStudyPlanStrategy;
 import com.example.service.strategy.IntensiveStudyPlanStrategy;
+import com.example.service.strategy.LocalStudyPlanStrategy;
+import com.example.service.strategy.SpacedRepetitionStudyPlanStrategy;
 import com.example.service.strategy.StudyPlanStrategy;
 
 /**
@@ -15,7 +18,27 @@ public class StudyPlanStrategyFactory {
      */
     public enum StrategyType {
         BALANCED,
-        INTENSIVE
+        INTENSIVE,
+        // Scheduled on this machine, without Gemini
+        LOCAL,
+        SPACED_REPETITION
+    }
+    
+    private final PlanTextBackend backend;
+    
+    /**
+     * Create a factory whose strategies use the backend selected by configuration
+     */
+    public StudyPlanStrategyFactory() {
+        this(new PlanTextBackendFactory().createConfiguredBackend());
+    }
+    
+    /**
+     * Create a factory whose strategies all use the given backend
+     * @param backend The source of the plan text
+     */
+    public StudyPlanStrategyFactory(PlanTextBackend backend) {
+        this.backend = backend;
     }
     
     /**
@@ -26,11 +49,15 @@ public class StudyPlanStrategyFactory {
     public StudyPlanStrategy createStrategy(StrategyType type) {
         switch (type) {
             case BALANCED:
-                return new BalancedStudyPlanStrategy();
+                return new BalancedStudyPlanStrategy(backend);
             case INTENSIVE:
-                return new IntensiveStudyPlanStrategy();
+                return new IntensiveStudyPlanStrategy(backend);
+            case LOCAL:
+                return new LocalStudyPlanStrategy();
+            case SPACED_REPETITION:
+                return new SpacedRepetitionStudyPlanStrategy();
             default:
                 throw new IllegalArgumentException("Unknown strategy type: " + type);
         }
     }
-} 
\ No newline at end of file
+} 
\ No newline at end of file
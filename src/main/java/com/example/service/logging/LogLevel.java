@@ -0,0 +1,27 @@
+package com.example.service.logging;
+
+/**
+ * Severity of a log message, lowest first
+ * OFF is only used as a threshold to silence a category
+ */
+public enum LogLevel {
+    DEBUG, INFO, WARN, ERROR, OFF;
+
+    /**
+     * Parse a level name, ignoring case
+     * @param name The level name, may be null
+     * @param fallback Level used when the name is missing or unknown
+     * @return The parsed level
+     */
+    public static LogLevel parse(String name, LogLevel fallback) {
+        if (name == null || name.trim().isEmpty()) {
+            return fallback;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown log level '" + name + "', using " + fallback);
+            return fallback;
+        }
+    }
+}
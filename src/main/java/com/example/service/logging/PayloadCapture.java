@@ -0,0 +1,209 @@
+package com.example.service.logging;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Debug capture of full payloads (prompts, request bodies, responses) to a rotating file
+ * Callers only enqueue; a single daemon thread does the file I/O, so capturing never
+ * blocks generation. When the queue is full new payloads are dropped and counted
+ */
+public class PayloadCapture implements AutoCloseable {
+    private static final int QUEUE_CAPACITY = 1024;
+
+    private final Path file;
+    private final long maxBytes;
+    private final int maxFiles;
+    private final BlockingQueue<Object> queue;
+    private final AtomicLong dropped;
+    private final Thread writerThread;
+    private volatile boolean closed;
+
+    /**
+     * Create a capture writing to the given file
+     * @param file The current capture file; rotated files get .1, .2, ... appended
+     * @param maxBytes Size at which the file is rotated
+     * @param maxFiles Number of rotated files to keep besides the current one
+     */
+    public PayloadCapture(Path file, long maxBytes, int maxFiles) {
+        this.file = file;
+        this.maxBytes = maxBytes;
+        this.maxFiles = Math.max(0, maxFiles);
+        this.queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+        this.dropped = new AtomicLong();
+        this.writerThread = new Thread(this::run, "payload-capture");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Create the capture configured by system properties
+     * planner.log.capture names the file; planner.log.capture.maxBytes and
+     * planner.log.capture.files control rotation
+     * @return The capture, or null when capture is not enabled
+     */
+    public static PayloadCapture fromSystemProperties() {
+        String path = System.getProperty("planner.log.capture");
+        if (path == null || path.trim().isEmpty()) {
+            return null;
+        }
+        return new PayloadCapture(Paths.get(path.trim()),
+                Long.getLong("planner.log.capture.maxBytes", 5L * 1024 * 1024),
+                Integer.getInteger("planner.log.capture.files", 3));
+    }
+
+    /**
+     * Queue a payload for writing
+     * @param category The logging category
+     * @param label What the payload is, e.g. "prompt"
+     * @param payload The full payload
+     */
+    public void capture(String category, String label, String payload) {
+        if (closed || !queue.offer(new Entry(category, label, payload))) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Wait until everything queued so far has been written
+     * @param timeoutMillis Maximum time to wait
+     * @return true if the queue was flushed in time
+     */
+    public boolean flush(long timeoutMillis) throws InterruptedException {
+        CountDownLatch marker = new CountDownLatch(1);
+        if (!queue.offer(marker, timeoutMillis, TimeUnit.MILLISECONDS)) {
+            return false;
+        }
+        return marker.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get the number of payloads dropped because the writer could not keep up
+     * @return dropped payload count
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            flush(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writerThread.interrupt();
+    }
+
+    private void run() {
+        List<Object> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<Object> batch) {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            BufferedWriter writer = null;
+            try {
+                for (Object item : batch) {
+                    if (item instanceof CountDownLatch) {
+                        if (writer != null) {
+                            writer.flush();
+                        }
+                        ((CountDownLatch) item).countDown();
+                        continue;
+                    }
+                    if (writer == null) {
+                        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                    }
+                    Entry entry = (Entry) item;
+                    writer.write("=== " + Instant.now() + " [" + entry.category + "] " + entry.label
+                            + " (" + entry.payload.length() + " chars)\n");
+                    writer.write(entry.payload);
+                    writer.write("\n");
+                    writer.flush();
+                    if (Files.size(file) >= maxBytes) {
+                        writer.close();
+                        writer = null;
+                        rotate();
+                    }
+                }
+            } finally {
+                if (writer != null) {
+                    writer.close();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing payload capture: " + e.getMessage());
+            for (Object item : batch) {
+                if (item instanceof CountDownLatch) {
+                    ((CountDownLatch) item).countDown();
+                }
+            }
+        }
+    }
+
+    /**
+     * Shift file.N to file.N+1, dropping the oldest, and move the current file to file.1
+     */
+    private void rotate() throws IOException {
+        if (maxFiles == 0) {
+            Files.deleteIfExists(file);
+            return;
+        }
+        Files.deleteIfExists(rotated(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            if (Files.exists(rotated(i))) {
+                Files.move(rotated(i), rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path rotated(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    private static final class Entry {
+        private final String category;
+        private final String label;
+        private final String payload;
+
+        private Entry(String category, String label, String payload) {
+            this.category = category;
+            this.label = label;
+            this.payload = payload;
+        }
+    }
+}
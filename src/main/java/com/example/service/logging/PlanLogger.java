@@ -0,0 +1,210 @@
+package com.example.service.logging;
+
+import java.io.PrintStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Small logging facade for the planner's console output
+ * One logger per category ("gemini", "prompt", "parser", ...); each has its own
+ * level and sampling rate, configured through system properties:
+ * <ul>
+ *   <li>planner.log.level - default level, INFO unless set</li>
+ *   <li>planner.log.level.&lt;category&gt; - level for one category, e.g. DEBUG or OFF</li>
+ *   <li>planner.log.sample.&lt;category&gt; - log only every Nth sampled message</li>
+ *   <li>planner.log.maxPayloadChars - payloads are cut to this many characters on the console</li>
+ *   <li>planner.log.capture - file that receives full payloads, see {@link PayloadCapture}</li>
+ * </ul>
+ * Lines look like "INFO  [parser] Parsing complete days=12"
+ */
+public final class PlanLogger {
+    private static final ConcurrentMap<String, PlanLogger> LOGGERS = new ConcurrentHashMap<>();
+
+    private static volatile LogLevel defaultLevel = LogLevel.parse(System.getProperty("planner.log.level"), LogLevel.INFO);
+    private static volatile int maxPayloadChars = Integer.getInteger("planner.log.maxPayloadChars", 200);
+    private static volatile PayloadCapture capture = PayloadCapture.fromSystemProperties();
+
+    private final String category;
+    private volatile LogLevel level;
+    private volatile int sampleEvery;
+    private final AtomicLong sampleCounter;
+
+    private PlanLogger(String category) {
+        this.category = category;
+        String configured = System.getProperty("planner.log.level." + category);
+        this.level = configured != null ? LogLevel.parse(configured, null) : null;
+        this.sampleEvery = Math.max(1, Integer.getInteger("planner.log.sample." + category, 1));
+        this.sampleCounter = new AtomicLong();
+    }
+
+    /**
+     * Get the logger for a category
+     * @param category The category name
+     * @return The shared logger for that category
+     */
+    public static PlanLogger get(String category) {
+        return LOGGERS.computeIfAbsent(category, PlanLogger::new);
+    }
+
+    /**
+     * Set the level used by categories without their own level
+     * @param level The default level
+     */
+    public static void setDefaultLevel(LogLevel level) {
+        defaultLevel = level;
+    }
+
+    /**
+     * Set how many characters of a payload are shown on the console
+     * @param chars Maximum characters; the full payload still goes to the capture file
+     */
+    public static void setMaxPayloadChars(int chars) {
+        maxPayloadChars = chars;
+    }
+
+    /**
+     * Replace the payload capture, closing the previous one
+     * @param payloadCapture The new capture, or null to disable capture
+     */
+    public static void setCapture(PayloadCapture payloadCapture) {
+        PayloadCapture previous = capture;
+        capture = payloadCapture;
+        if (previous != null && previous != payloadCapture) {
+            previous.close();
+        }
+    }
+
+    public static PayloadCapture getCapture() {
+        return capture;
+    }
+
+    /**
+     * Set the level of this category
+     * @param level The level, or null to follow the default level
+     */
+    public void setLevel(LogLevel level) {
+        this.level = level;
+    }
+
+    public LogLevel getLevel() {
+        return level != null ? level : defaultLevel;
+    }
+
+    /**
+     * Log only every Nth message passed to the sampled methods
+     * @param sampleEvery The sampling interval, 1 to log every message
+     */
+    public void setSampleEvery(int sampleEvery) {
+        this.sampleEvery = Math.max(1, sampleEvery);
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public boolean isEnabled(LogLevel messageLevel) {
+        LogLevel threshold = getLevel();
+        return threshold != LogLevel.OFF && messageLevel.compareTo(threshold) >= 0;
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(LogLevel.DEBUG);
+    }
+
+    public void debug(String message, Object... fields) {
+        log(LogLevel.DEBUG, message, fields);
+    }
+
+    /**
+     * Log a debug message built only when debug logging is on
+     * @param message Builds the message
+     */
+    public void debug(Supplier<String> message) {
+        if (isDebugEnabled()) {
+            log(LogLevel.DEBUG, message.get());
+        }
+    }
+
+    /**
+     * Log one in every N debug messages of a high-volume event
+     * The message is only built when it will be written
+     * @param message Builds the message
+     */
+    public void debugSampled(Supplier<String> message) {
+        if (isDebugEnabled() && sampleCounter.getAndIncrement() % sampleEvery == 0) {
+            log(LogLevel.DEBUG, message.get());
+        }
+    }
+
+    public void info(String message, Object... fields) {
+        log(LogLevel.INFO, message, fields);
+    }
+
+    public void warn(String message, Object... fields) {
+        log(LogLevel.WARN, message, fields);
+    }
+
+    public void error(String message, Object... fields) {
+        log(LogLevel.ERROR, message, fields);
+    }
+
+    /**
+     * Record a large payload such as a prompt or response
+     * At DEBUG the console gets a truncated copy; the capture file, when enabled,
+     * gets the full text whatever the console level
+     * @param label What the payload is
+     * @param payload The payload text
+     */
+    public void payload(String label, String payload) {
+        if (payload == null) {
+            return;
+        }
+        PayloadCapture payloadCapture = capture;
+        if (payloadCapture != null) {
+            payloadCapture.capture(category, label, payload);
+        }
+        if (isDebugEnabled()) {
+            log(LogLevel.DEBUG, label, "chars", payload.length(), "text", truncate(payload, maxPayloadChars));
+        }
+    }
+
+    /**
+     * Cut text to at most maxChars characters, noting how much was left out
+     * @param text The text
+     * @param maxChars Maximum characters to keep
+     * @return The text, or its head followed by "...(N more chars)"
+     */
+    public static String truncate(String text, int maxChars) {
+        if (text.length() <= maxChars) {
+            return text;
+        }
+        return text.substring(0, Math.max(0, maxChars)) + "...(" + (text.length() - maxChars) + " more chars)";
+    }
+
+    /**
+     * Write a message with key/value fields appended as key=value
+     * @param messageLevel The message level
+     * @param message The message
+     * @param fields Alternating field names and values
+     */
+    public void log(LogLevel messageLevel, String message, Object... fields) {
+        if (!isEnabled(messageLevel)) {
+            return;
+        }
+        StringBuilder line = new StringBuilder(message.length() + 32);
+        line.append(String.format("%-5s", messageLevel)).append(" [").append(category).append("] ").append(message);
+        for (int i = 0; i + 1 < fields.length; i += 2) {
+            line.append(' ').append(fields[i]).append('=');
+            String value = String.valueOf(fields[i + 1]);
+            if (value.indexOf(' ') >= 0 || value.indexOf('\n') >= 0) {
+                line.append('"').append(value.replace("\n", "\\n")).append('"');
+            } else {
+                line.append(value);
+            }
+        }
+        PrintStream out = messageLevel.compareTo(LogLevel.WARN) >= 0 ? System.err : System.out;
+        out.println(line);
+    }
+}
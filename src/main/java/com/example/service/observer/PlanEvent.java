@@ -0,0 +1,118 @@
+package com.example.service.observer;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.example.model.DailyStudyItem;
+import com.example.model.StudyPlan;
+
+/**
+ * Something that happened while generating or saving a study plan
+ * Only the fields that belong to the event's type are set
+ */
+public final class PlanEvent {
+    /**
+     * Kinds of plan events
+     */
+    public enum Type {
+        STARTED,
+        // Share of the plan's days parsed so far
+        PROGRESS,
+        DAY_PARSED,
+        // The response came from the response cache instead of Gemini
+        CACHE_HIT,
+        COMPLETED,
+        FAILED,
+        // The plan was saved to the database
+        PERSISTED,
+        // Missed work was moved into the remaining days of an existing plan
+        REPLANNED
+    }
+
+    private final Type type;
+    private final LocalDate date;
+    private final List<DailyStudyItem> items;
+    private final StudyPlan studyPlan;
+    private final Exception error;
+    private final double progress;
+    private final int studyPlanId;
+
+    private PlanEvent(Type type, LocalDate date, List<DailyStudyItem> items, StudyPlan studyPlan, Exception error,
+                      double progress, int studyPlanId) {
+        this.type = type;
+        this.date = date;
+        this.items = items;
+        this.studyPlan = studyPlan;
+        this.error = error;
+        this.progress = progress;
+        this.studyPlanId = studyPlanId;
+    }
+
+    public static PlanEvent started() {
+        return new PlanEvent(Type.STARTED, null, null, null, null, 0, 0);
+    }
+
+    /**
+     * @param progress Share of the plan's days parsed, between 0 and 1
+     */
+    public static PlanEvent progress(double progress) {
+        return new PlanEvent(Type.PROGRESS, null, null, null, null, progress, 0);
+    }
+
+    public static PlanEvent dayParsed(LocalDate date, List<DailyStudyItem> items) {
+        return new PlanEvent(Type.DAY_PARSED, date, items, null, null, 0, 0);
+    }
+
+    public static PlanEvent cacheHit() {
+        return new PlanEvent(Type.CACHE_HIT, null, null, null, null, 0, 0);
+    }
+
+    public static PlanEvent completed(StudyPlan studyPlan) {
+        return new PlanEvent(Type.COMPLETED, null, null, studyPlan, null, 1, 0);
+    }
+
+    public static PlanEvent failed(Exception error) {
+        return new PlanEvent(Type.FAILED, null, null, null, error, 0, 0);
+    }
+
+    public static PlanEvent persisted(StudyPlan studyPlan, int studyPlanId) {
+        return new PlanEvent(Type.PERSISTED, null, null, studyPlan, null, 0, studyPlanId);
+    }
+
+    public static PlanEvent replanned(StudyPlan studyPlan) {
+        return new PlanEvent(Type.REPLANNED, null, null, studyPlan, null, 0, 0);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public List<DailyStudyItem> getItems() {
+        return items;
+    }
+
+    public StudyPlan getStudyPlan() {
+        return studyPlan;
+    }
+
+    public Exception getError() {
+        return error;
+    }
+
+    public double getProgress() {
+        return progress;
+    }
+
+    public int getStudyPlanId() {
+        return studyPlanId;
+    }
+
+    @Override
+    public String toString() {
+        return type + (date != null ? " " + date : "") + (type == Type.PROGRESS ? " " + progress : "");
+    }
+}
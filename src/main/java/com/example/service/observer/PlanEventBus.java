@@ -0,0 +1,254 @@
+package com.example.service.observer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.service.logging.PlanLogger;
+
+/**
+ * Delivers plan events to subscribers without blocking the publisher
+ * Subscriptions are copy-on-write, so subscribing during a publish is safe.
+ * Each subscriber has its own queue, drained by one task at a time on the
+ * subscriber's executor: events arrive in publish order, a slow subscriber
+ * only delays itself, and a burst of events costs one hand-off to the
+ * executor (one Platform.runLater for a UI subscriber). Progress events
+ * superseded by a later one in the same drain are skipped, and are dropped
+ * outright once a subscriber has planner.events.maxPending events queued
+ */
+public class PlanEventBus {
+    private static final PlanLogger LOG = PlanLogger.get("events");
+    private static final AtomicInteger BUSES = new AtomicInteger();
+
+    private final List<Subscription> subscriptions;
+    private final ExecutorService deliveryPool;
+    private final int maxPending;
+    private final Object idleLock;
+    // Events queued for any subscriber and not yet handled, guarded by idleLock
+    private long undelivered;
+
+    public PlanEventBus() {
+        this(Integer.getInteger("planner.events.maxPending", 10_000));
+    }
+
+    /**
+     * Create an event bus
+     * @param maxPending Queued events per subscriber above which progress events are dropped
+     */
+    public PlanEventBus(int maxPending) {
+        this.subscriptions = new CopyOnWriteArrayList<>();
+        int bus = BUSES.incrementAndGet();
+        AtomicInteger threads = new AtomicInteger();
+        this.deliveryPool = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "plan-events-" + bus + "-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maxPending = Math.max(1, maxPending);
+        this.idleLock = new Object();
+    }
+
+    /**
+     * Subscribe a listener, delivering on the bus's own threads
+     * @param listener The listener
+     * @return The subscription, for cancelling it
+     */
+    public Subscription subscribe(PlanEventListener listener) {
+        return subscribe(listener, deliveryPool);
+    }
+
+    /**
+     * Subscribe a listener, delivering on the given executor
+     * @param listener The listener
+     * @param executor Runs the deliveries, e.g. Platform::runLater for UI listeners
+     * @return The subscription, for cancelling it
+     */
+    public Subscription subscribe(PlanEventListener listener, Executor executor) {
+        Subscription subscription = new Subscription(listener, executor);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Queue an event for every current subscriber and return at once
+     * @param event The event
+     */
+    public void publish(PlanEvent event) {
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Wait until every event published so far has been handled
+     * @param timeout Longest time to wait
+     * @param unit Unit of the timeout
+     * @return true if all events were handled, false on timeout
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (idleLock) {
+            while (undelivered > 0) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return false;
+                }
+                idleLock.wait(remaining);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Stop the bus's delivery threads; events still queued for them are discarded
+     */
+    public void shutdown() {
+        deliveryPool.shutdown();
+    }
+
+    private void queued(int count) {
+        synchronized (idleLock) {
+            undelivered += count;
+        }
+    }
+
+    private void handled(int count) {
+        synchronized (idleLock) {
+            undelivered -= count;
+            if (undelivered == 0) {
+                idleLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * One listener's queue of events
+     */
+    public final class Subscription {
+        private final PlanEventListener listener;
+        private final Executor executor;
+        private final Queue<PlanEvent> queue;
+        private final AtomicInteger queued;
+        private final AtomicBoolean draining;
+        private final AtomicLong dropped;
+        private volatile boolean cancelled;
+
+        private Subscription(PlanEventListener listener, Executor executor) {
+            this.listener = listener;
+            this.executor = executor;
+            this.queue = new ConcurrentLinkedQueue<>();
+            this.queued = new AtomicInteger();
+            this.draining = new AtomicBoolean();
+            this.dropped = new AtomicLong();
+        }
+
+        /**
+         * Stop delivering to this listener; events already queued are discarded
+         */
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+            if (draining.compareAndSet(false, true)) {
+                discard(drainQueue());
+                draining.set(false);
+            }
+        }
+
+        public PlanEventListener getListener() {
+            return listener;
+        }
+
+        /**
+         * Get the number of progress events dropped because the listener fell behind
+         * @return dropped event count
+         */
+        public long getDroppedCount() {
+            return dropped.get();
+        }
+
+        private void offer(PlanEvent event) {
+            if (cancelled) {
+                return;
+            }
+            if (event.getType() == PlanEvent.Type.PROGRESS && queued.get() >= maxPending) {
+                dropped.incrementAndGet();
+                return;
+            }
+            queued.incrementAndGet();
+            queued(1);
+            queue.add(event);
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                discard(drainQueue());
+                draining.set(false);
+            }
+        }
+
+        /**
+         * Deliver everything queued so far in one task
+         */
+        private void drain() {
+            List<PlanEvent> batch = drainQueue();
+            int lastProgress = -1;
+            for (int i = 0; i < batch.size(); i++) {
+                if (batch.get(i).getType() == PlanEvent.Type.PROGRESS) {
+                    lastProgress = i;
+                }
+            }
+            for (int i = 0; i < batch.size() && !cancelled; i++) {
+                PlanEvent event = batch.get(i);
+                if (event.getType() == PlanEvent.Type.PROGRESS && i != lastProgress) {
+                    continue;
+                }
+                try {
+                    listener.onEvent(event);
+                } catch (RuntimeException e) {
+                    LOG.warn("Event listener failed", "event", event, "error", e);
+                }
+            }
+            discard(batch);
+            draining.set(false);
+            // Events offered after the queue was emptied but before the flag was cleared
+            if (!queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private List<PlanEvent> drainQueue() {
+            List<PlanEvent> batch = new ArrayList<>();
+            PlanEvent event;
+            while ((event = queue.poll()) != null) {
+                batch.add(event);
+            }
+            return batch;
+        }
+
+        private void discard(List<PlanEvent> batch) {
+            queued.addAndGet(-batch.size());
+            handled(batch.size());
+        }
+    }
+}
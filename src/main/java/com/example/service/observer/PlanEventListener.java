@@ -0,0 +1,48 @@
+package com.example.service.observer;
+
+/**
+ * Receives plan events from a {@link PlanEventBus}
+ * Events reach each listener one at a time, in the order they were published
+ */
+@FunctionalInterface
+public interface PlanEventListener {
+    void onEvent(PlanEvent event);
+
+    /**
+     * Adapt an observer to the event bus
+     * @param observer The observer
+     * @return A listener that calls the observer method matching each event
+     */
+    static PlanEventListener of(StudyPlanObserver observer) {
+        return event -> {
+            switch (event.getType()) {
+                case STARTED:
+                    observer.onGenerationStarted();
+                    break;
+                case PROGRESS:
+                    observer.onProgress(event.getProgress());
+                    break;
+                case DAY_PARSED:
+                    observer.onDayParsed(event.getDate(), event.getItems());
+                    break;
+                case CACHE_HIT:
+                    observer.onCacheHit();
+                    break;
+                case COMPLETED:
+                    observer.onGenerationCompleted(event.getStudyPlan());
+                    break;
+                case FAILED:
+                    observer.onGenerationFailed(event.getError());
+                    break;
+                case PERSISTED:
+                    observer.onPlanPersisted(event.getStudyPlan(), event.getStudyPlanId());
+                    break;
+                case REPLANNED:
+                    observer.onPlanReplanned(event.getStudyPlan());
+                    break;
+                default:
+                    break;
+            }
+        };
+    }
+}
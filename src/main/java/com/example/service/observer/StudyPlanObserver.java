@@ -1,5 +1,9 @@
 package com.example.service.observer;
 
+import java.time.LocalDate;
+import java.util.List;
+
+import com.example.model.DailyStudyItem;
 import com.example.model.StudyPlan;
 
 /**
@@ -12,6 +16,28 @@ public interface StudyPlanObserver {
      */
     void onGenerationStarted();
     
+    /**
+     * Called when a single day of a streamed study plan has been parsed
+     * @param date The day that was parsed
+     * @param items The study items for that day
+     */
+    default void onDayParsed(LocalDate date, List<DailyStudyItem> items) {
+        // Observers that only care about the finished plan ignore partial days
+    }
+    
+    /**
+     * Called as streamed days arrive
+     * @param progress Share of the plan's days parsed so far, between 0 and 1
+     */
+    default void onProgress(double progress) {
+    }
+    
+    /**
+     * Called when the plan is answered from the response cache instead of Gemini
+     */
+    default void onCacheHit() {
+    }
+    
     /**
      * Called when a study plan is successfully generated
      * @param studyPlan The generated study plan
@@ -23,4 +49,19 @@ public interface StudyPlanObserver {
      * @param exception The exception that occurred
      */
     void onGenerationFailed(Exception exception);
-} 
\ No newline at end of file
+    
+    /**
+     * Called when a generated plan has been saved to the database
+     * @param studyPlan The saved study plan
+     * @param studyPlanId Its database ID
+     */
+    default void onPlanPersisted(StudyPlan studyPlan, int studyPlanId) {
+    }
+    
+    /**
+     * Called when missed work of the current plan was moved into the remaining days
+     * @param studyPlan The updated study plan
+     */
+    default void onPlanReplanned(StudyPlan studyPlan) {
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,159 @@
+package com.example.service.prompt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Prompt text with named slots, compiled once and rendered many times
+ * "{{name}}" is replaced by the value of the slot; "{{#name}}...{{/name}}"
+ * is a section kept only when the slot has a non-empty value. Sections do
+ * not nest. The template is parsed when it is compiled, so rendering is a
+ * single pass over literal and slot parts, and the rendered length can be
+ * computed beforehand from the slot values alone
+ */
+public final class PromptTemplate {
+    /**
+     * A literal run of text or a slot; sections hold their own parts
+     */
+    private static final class Part {
+        private final String literal;
+        private final String slot;
+        private final List<Part> section;
+
+        private Part(String literal, String slot, List<Part> section) {
+            this.literal = literal;
+            this.slot = slot;
+            this.section = section;
+        }
+    }
+
+    private final List<Part> parts;
+    private final Set<String> slots;
+
+    private PromptTemplate(List<Part> parts, Set<String> slots) {
+        this.parts = parts;
+        this.slots = Collections.unmodifiableSet(slots);
+    }
+
+    /**
+     * Compile a template
+     * @param text The template text
+     * @return The compiled template
+     * @throws IllegalArgumentException If a slot or section is not closed or sections are nested
+     */
+    public static PromptTemplate compile(String text) {
+        Set<String> slots = new LinkedHashSet<>();
+        List<Part> parts = new ArrayList<>();
+        List<Part> target = parts;
+        String openSection = null;
+        int position = 0;
+        while (position < text.length()) {
+            int open = text.indexOf("{{", position);
+            if (open < 0) {
+                target.add(new Part(text.substring(position), null, null));
+                break;
+            }
+            if (open > position) {
+                target.add(new Part(text.substring(position, open), null, null));
+            }
+            int close = text.indexOf("}}", open + 2);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed slot at index " + open);
+            }
+            String tag = text.substring(open + 2, close).trim();
+            if (tag.startsWith("#")) {
+                if (openSection != null) {
+                    throw new IllegalArgumentException("Section " + tag.substring(1) + " is nested in " + openSection);
+                }
+                openSection = tag.substring(1);
+                slots.add(openSection);
+                List<Part> section = new ArrayList<>();
+                parts.add(new Part(null, openSection, section));
+                target = section;
+            } else if (tag.startsWith("/")) {
+                if (!tag.substring(1).equals(openSection)) {
+                    throw new IllegalArgumentException("Unexpected end of section " + tag.substring(1));
+                }
+                openSection = null;
+                target = parts;
+            } else {
+                slots.add(tag);
+                target.add(new Part(null, tag, null));
+            }
+            position = close + 2;
+        }
+        if (openSection != null) {
+            throw new IllegalArgumentException("Section " + openSection + " is not closed");
+        }
+        return new PromptTemplate(parts, slots);
+    }
+
+    /**
+     * @return Names of the slots and sections, in order of first use
+     */
+    public Set<String> getSlots() {
+        return slots;
+    }
+
+    /**
+     * Compute the rendered length without rendering
+     * @param values Slot values; missing slots count as empty
+     * @return The number of characters render would produce
+     */
+    public int estimateLength(Map<String, ? extends CharSequence> values) {
+        return length(parts, values);
+    }
+
+    /**
+     * Render the template
+     * @param values Slot values; missing slots render as empty
+     * @return The prompt text
+     */
+    public String render(Map<String, ? extends CharSequence> values) {
+        StringBuilder text = new StringBuilder(estimateLength(values));
+        append(text, parts, values);
+        return text.toString();
+    }
+
+    private static int length(List<Part> parts, Map<String, ? extends CharSequence> values) {
+        int length = 0;
+        for (Part part : parts) {
+            if (part.literal != null) {
+                length += part.literal.length();
+            } else if (part.section != null) {
+                if (isPresent(values.get(part.slot))) {
+                    length += length(part.section, values);
+                }
+            } else {
+                CharSequence value = values.get(part.slot);
+                length += value != null ? value.length() : 0;
+            }
+        }
+        return length;
+    }
+
+    private static void append(StringBuilder text, List<Part> parts, Map<String, ? extends CharSequence> values) {
+        for (Part part : parts) {
+            if (part.literal != null) {
+                text.append(part.literal);
+            } else if (part.section != null) {
+                if (isPresent(values.get(part.slot))) {
+                    append(text, part.section, values);
+                }
+            } else {
+                CharSequence value = values.get(part.slot);
+                if (value != null) {
+                    text.append(value);
+                }
+            }
+        }
+    }
+
+    private static boolean isPresent(CharSequence value) {
+        return value != null && value.length() > 0;
+    }
+}
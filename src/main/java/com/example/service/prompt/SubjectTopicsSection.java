@@ -0,0 +1,123 @@
+package com.example.service.prompt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The subject and topic list of a prompt, in a stable order and within a size limit
+ * Subjects are sorted by name, as PlanShard assigns them, and topics keep the
+ * order the user entered, so the same input always gives the same text whatever
+ * map it came from. When the full list is too long, each subject shows only its
+ * first topics followed by "and N more topics"; the number shown is the largest
+ * that fits, found by measuring rather than rendering. If even topic counts
+ * alone do not fit, the last subjects are left out and counted instead
+ */
+public final class SubjectTopicsSection {
+    private final List<String> names = new ArrayList<>();
+    private final List<List<String>> topics = new ArrayList<>();
+    private final int maxTopics;
+
+    /**
+     * Create the section
+     * @param subjectsWithTopics Subject names mapped to their topics, in any order
+     */
+    public SubjectTopicsSection(Map<String, List<String>> subjectsWithTopics) {
+        int most = 0;
+        for (Map.Entry<String, List<String>> entry : new TreeMap<>(subjectsWithTopics).entrySet()) {
+            names.add(entry.getKey());
+            topics.add(entry.getValue());
+            most = Math.max(most, entry.getValue().size());
+        }
+        this.maxTopics = most;
+    }
+
+    /**
+     * @return Length of the untrimmed section
+     */
+    public int length() {
+        return append(null, maxTopics, names.size());
+    }
+
+    /**
+     * @return The untrimmed section
+     */
+    public String render() {
+        return render(maxTopics, names.size());
+    }
+
+    /**
+     * Render the section, trimming topics and then subjects until it fits
+     * @param maxChars Most characters the section may take
+     * @return The section, which is only longer than maxChars if a single subject line does not fit
+     */
+    public String renderWithin(int maxChars) {
+        if (length() <= maxChars) {
+            return render();
+        }
+        // Trimmed lengths grow with the number of topics shown, so the largest that fits can be searched for
+        int low = 0;
+        int high = maxTopics - 1;
+        int fits = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (append(null, mid, names.size()) <= maxChars) {
+                fits = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (fits >= 0) {
+            return render(fits, names.size());
+        }
+        int subjects = names.size();
+        while (subjects > 1 && append(null, 0, subjects) > maxChars) {
+            subjects--;
+        }
+        return render(0, subjects);
+    }
+
+    private String render(int topicLimit, int subjectLimit) {
+        StringBuilder text = new StringBuilder(append(null, topicLimit, subjectLimit));
+        append(text, topicLimit, subjectLimit);
+        return text.toString();
+    }
+
+    /**
+     * Append the section, or only measure it when text is null
+     * @param topicLimit Most topics to name per subject
+     * @param subjectLimit Number of subjects to include
+     * @return The section's length
+     */
+    private int append(StringBuilder text, int topicLimit, int subjectLimit) {
+        int length = 0;
+        for (int s = 0; s < subjectLimit; s++) {
+            length += put(text, "Subject: ") + put(text, names.get(s)) + put(text, "\nTopics: ");
+            List<String> subjectTopics = topics.get(s);
+            int shown = Math.min(topicLimit, subjectTopics.size());
+            for (int t = 0; t < shown; t++) {
+                length += put(text, t > 0 ? ", " : "") + put(text, subjectTopics.get(t));
+            }
+            int rest = subjectTopics.size() - shown;
+            if (rest > 0) {
+                length += put(text, shown > 0 ? ", and " + rest + " more" : Integer.toString(rest))
+                        + put(text, rest == 1 ? " topic" : " topics");
+            }
+            length += put(text, "\n\n");
+        }
+        int omitted = names.size() - subjectLimit;
+        if (omitted > 0) {
+            length += put(text, "And " + omitted + (omitted == 1 ? " more subject" : " more subjects") + "\n\n");
+        }
+        return length;
+    }
+
+    private static int put(StringBuilder text, String part) {
+        if (text != null) {
+            text.append(part);
+        }
+        return part.length();
+    }
+}
@@ -0,0 +1,344 @@
+package com.example.service.ratelimit;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.example.service.resilience.Deadline;
+import com.example.service.resilience.GeminiApiException;
+
+/**
+ * Client-side limiter for Gemini requests-per-minute and tokens-per-minute quotas
+ * Callers wait in a bounded priority queue so interactive generations are admitted
+ * ahead of batch and background work. Waiting is non-blocking: admissions are
+ * granted by a single scheduler thread when the buckets refill
+ */
+public class GenerationRateLimiter {
+    
+    /**
+     * Admission priority, highest first
+     */
+    public enum Priority {
+        INTERACTIVE,
+        BATCH,
+        BACKGROUND
+    }
+    
+    private static final ThreadLocal<Priority> CURRENT_PRIORITY = new ThreadLocal<>();
+    
+    private final TokenBucket requestBucket;
+    private final TokenBucket tokenBucket;
+    private final int queueCapacity;
+    private final ReentrantLock lock;
+    private final PriorityQueue<Waiter> queue;
+    private final ScheduledExecutorService scheduler;
+    private long nextSequence;
+    private ScheduledFuture<?> pendingDrain;
+    private long pendingDrainAt;
+    
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private volatile int maxQueueDepth;
+    
+    /**
+     * Create a limiter
+     * @param requestsPerMinute Request quota per minute
+     * @param tokensPerMinute Token quota per minute (prompt plus response)
+     * @param queueCapacity Maximum number of callers waiting for admission
+     */
+    public GenerationRateLimiter(int requestsPerMinute, int tokensPerMinute, int queueCapacity) {
+        this.requestBucket = new TokenBucket(requestsPerMinute);
+        this.tokenBucket = new TokenBucket(tokensPerMinute);
+        this.queueCapacity = queueCapacity;
+        this.lock = new ReentrantLock();
+        this.queue = new PriorityQueue<>((a, b) -> a.priority != b.priority
+                ? a.priority.compareTo(b.priority)
+                : Long.compare(a.sequence, b.sequence));
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gemini-rate-limiter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Create a limiter from system properties
+     * (gemini.rateLimit.rpm, gemini.rateLimit.tpm, gemini.rateLimit.queueCapacity)
+     * @return The configured limiter
+     */
+    public static GenerationRateLimiter fromSystemProperties() {
+        return new GenerationRateLimiter(
+                Integer.getInteger("gemini.rateLimit.rpm", 60),
+                Integer.getInteger("gemini.rateLimit.tpm", 1_000_000),
+                Integer.getInteger("gemini.rateLimit.queueCapacity", 32));
+    }
+    
+    /**
+     * Get the priority bound to the current thread
+     * @return The current priority, INTERACTIVE if none is set
+     */
+    public static Priority currentPriority() {
+        Priority priority = CURRENT_PRIORITY.get();
+        return priority != null ? priority : Priority.INTERACTIVE;
+    }
+    
+    /**
+     * Bind an admission priority to the current thread
+     * @param priority The priority, or null to clear it
+     */
+    public static void setCurrentPriority(Priority priority) {
+        if (priority == null) {
+            CURRENT_PRIORITY.remove();
+        } else {
+            CURRENT_PRIORITY.set(priority);
+        }
+    }
+    
+    /**
+     * Wait for admission of one request, bounded by the deadline bound to this thread
+     * @param priority The admission priority
+     * @param estimatedTokens Estimated prompt plus response tokens
+     * @return A permit to settle with the actual token usage once the call finishes
+     * @throws GeminiApiException QUEUE_FULL if too many callers are waiting, or
+     *         DEADLINE_EXCEEDED if the deadline passes while waiting
+     * @throws InterruptedIOException If the waiting thread is interrupted
+     */
+    public Permit acquire(Priority priority, int estimatedTokens) throws GeminiApiException, InterruptedIOException {
+        CompletableFuture<Permit> admission = acquireAsync(priority, estimatedTokens);
+        Deadline deadline = Deadline.current();
+        try {
+            return deadline == null
+                    ? admission.get()
+                    : admission.get(Math.max(0, deadline.remainingMillis()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            admission.cancel(false);
+            throw new GeminiApiException(GeminiApiException.Kind.DEADLINE_EXCEEDED,
+                    "Study plan generation deadline exceeded while waiting for Gemini quota");
+        } catch (InterruptedException e) {
+            admission.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for Gemini quota");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof GeminiApiException) {
+                throw (GeminiApiException) e.getCause();
+            }
+            throw new IllegalStateException("Rate limiter admission failed", e.getCause());
+        }
+    }
+    
+    /**
+     * Queue for admission of one request without blocking
+     * Cancelling or failing the returned future withdraws the caller from the queue
+     * @param priority The admission priority
+     * @param estimatedTokens Estimated prompt plus response tokens
+     * @return A future completing with the permit, or failing with a QUEUE_FULL GeminiApiException
+     */
+    public CompletableFuture<Permit> acquireAsync(Priority priority, int estimatedTokens) {
+        CompletableFuture<Permit> admission = new CompletableFuture<>();
+        Waiter waiter;
+        lock.lock();
+        try {
+            if (queue.size() >= queueCapacity) {
+                rejected.incrementAndGet();
+                admission.completeExceptionally(new GeminiApiException(GeminiApiException.Kind.QUEUE_FULL,
+                        "Too many study plan generations are waiting (" + queue.size() + " queued); try again shortly"));
+                return admission;
+            }
+            waiter = new Waiter(priority, nextSequence++, estimatedTokens, admission);
+            queue.add(waiter);
+            maxQueueDepth = Math.max(maxQueueDepth, queue.size());
+        } finally {
+            lock.unlock();
+        }
+        
+        admission.whenComplete((permit, error) -> {
+            if (error != null) {
+                // Withdrawn (cancelled or timed out by the caller): free its queue slot
+                // so it no longer counts against the capacity, then let the next waiter through
+                lock.lock();
+                try {
+                    queue.remove(waiter);
+                } finally {
+                    lock.unlock();
+                }
+                drain();
+            }
+        });
+        drain();
+        return admission;
+    }
+    
+    /**
+     * Admit waiters from the head of the queue while the buckets allow,
+     * then schedule the next attempt for when the head can be admitted
+     */
+    private void drain() {
+        List<Waiter> granted = new ArrayList<>();
+        lock.lock();
+        try {
+            while (!queue.isEmpty()) {
+                Waiter head = queue.peek();
+                if (head.admission.isDone()) {
+                    queue.poll();
+                    continue;
+                }
+                long waitNanos = Math.max(requestBucket.nanosUntilAvailable(1),
+                        tokenBucket.nanosUntilAvailable(head.tokens));
+                if (waitNanos > 0) {
+                    scheduleDrain(waitNanos);
+                    break;
+                }
+                requestBucket.take(1);
+                tokenBucket.take(head.tokens);
+                queue.poll();
+                granted.add(head);
+            }
+        } finally {
+            lock.unlock();
+        }
+        
+        // Complete outside the lock: dependent stages may run inline
+        for (Waiter waiter : granted) {
+            if (waiter.admission.complete(new Permit(waiter.tokens))) {
+                admitted.incrementAndGet();
+                totalWaitNanos.addAndGet(System.nanoTime() - waiter.enqueuedAt);
+            } else {
+                // Withdrawn after being granted: the request was never sent
+                release(waiter.tokens);
+            }
+        }
+    }
+    
+    /**
+     * Schedule a drain, keeping whichever pending drain runs first; caller holds the lock
+     */
+    private void scheduleDrain(long waitNanos) {
+        long now = System.nanoTime();
+        long runAt = now + waitNanos;
+        // A pending drain whose time has come may be the one running right now
+        if (pendingDrain != null && !pendingDrain.isDone() && pendingDrainAt > now && pendingDrainAt <= runAt) {
+            return;
+        }
+        if (pendingDrain != null) {
+            pendingDrain.cancel(false);
+        }
+        pendingDrainAt = runAt;
+        pendingDrain = scheduler.schedule(this::drain, waitNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * Return the request slot and tokens of an admission that was never used
+     */
+    private void release(int reservedTokens) {
+        lock.lock();
+        try {
+            requestBucket.giveBack(1);
+            tokenBucket.giveBack(reservedTokens);
+        } finally {
+            lock.unlock();
+        }
+        drain();
+    }
+    
+    /**
+     * Adjust the token bucket once the real usage of a reservation is known
+     */
+    private void settleReservation(int reservedTokens, int actualTokens) {
+        lock.lock();
+        try {
+            if (actualTokens < reservedTokens) {
+                tokenBucket.giveBack(reservedTokens - actualTokens);
+            } else if (actualTokens > reservedTokens) {
+                tokenBucket.take(actualTokens - reservedTokens);
+            }
+        } finally {
+            lock.unlock();
+        }
+        drain();
+    }
+    
+    /**
+     * Estimate the token count of a piece of text (about four characters per token)
+     * @param text The text
+     * @return Estimated tokens
+     */
+    public static int estimateTokens(CharSequence text) {
+        return text.length() / 4 + 1;
+    }
+    
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+    
+    public long getAdmittedCount() {
+        return admitted.get();
+    }
+    
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+    
+    /**
+     * Get the mean time callers spent waiting for admission
+     * @return Average wait in milliseconds
+     */
+    public double getAverageWaitMillis() {
+        long count = admitted.get();
+        return count == 0 ? 0 : totalWaitNanos.get() / 1_000_000.0 / count;
+    }
+    
+    /**
+     * Admission granted for one request
+     */
+    public class Permit {
+        private final int reservedTokens;
+        
+        private Permit(int reservedTokens) {
+            this.reservedTokens = reservedTokens;
+        }
+        
+        /**
+         * Reconcile the reservation with the tokens actually used
+         * @param actualTokens Tokens used by the prompt and response
+         */
+        public void settle(int actualTokens) {
+            settleReservation(reservedTokens, actualTokens);
+        }
+    }
+    
+    private static final class Waiter {
+        private final Priority priority;
+        private final long sequence;
+        private final int tokens;
+        private final CompletableFuture<Permit> admission;
+        private final long enqueuedAt;
+        
+        private Waiter(Priority priority, long sequence, int tokens, CompletableFuture<Permit> admission) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.tokens = tokens;
+            this.admission = admission;
+            this.enqueuedAt = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.service.ratelimit;
+
+/**
+ * Token bucket that refills continuously up to its capacity
+ * Not thread-safe; GenerationRateLimiter guards access
+ */
+class TokenBucket {
+    private final double capacity;
+    private final double refillPerNano;
+    private double available;
+    private long lastRefillNanos;
+    
+    /**
+     * Create a bucket that starts full
+     * @param capacityPerMinute Tokens granted per minute (also the burst size)
+     */
+    TokenBucket(double capacityPerMinute) {
+        this.capacity = capacityPerMinute;
+        this.refillPerNano = capacityPerMinute / 60_000_000_000.0;
+        this.available = capacityPerMinute;
+        this.lastRefillNanos = System.nanoTime();
+    }
+    
+    /**
+     * Nanoseconds until the requested amount is available (0 if available now)
+     * Requests larger than the capacity only wait for a full bucket
+     */
+    long nanosUntilAvailable(double amount) {
+        refill();
+        double needed = Math.min(amount, capacity) - available;
+        return needed <= 0 ? 0 : (long) Math.ceil(needed / refillPerNano);
+    }
+    
+    /**
+     * Take tokens; may drive the balance negative for oversized requests
+     */
+    void take(double amount) {
+        refill();
+        available -= amount;
+    }
+    
+    /**
+     * Return tokens that were taken but not used, never exceeding capacity
+     */
+    void giveBack(double amount) {
+        refill();
+        available = Math.min(capacity, available + amount);
+    }
+    
+    private void refill() {
+        long now = System.nanoTime();
+        available = Math.min(capacity, available + (now - lastRefillNanos) * refillPerNano);
+        lastRefillNanos = now;
+    }
+}
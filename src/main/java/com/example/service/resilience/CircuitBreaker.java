@@ -0,0 +1,82 @@
+package com.example.service.resilience;
+
+/**
+ * Circuit breaker for a single upstream endpoint
+ * Opens after a run of consecutive failures, fails fast while open and lets a
+ * single trial call through once the open period has elapsed
+ */
+public class CircuitBreaker {
+    
+    /**
+     * Breaker states
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+    
+    private final int failureThreshold;
+    private final long openMillis;
+    private State state;
+    private int consecutiveFailures;
+    private long openedAt;
+    
+    /**
+     * Create a circuit breaker
+     * @param failureThreshold Consecutive failures that open the circuit
+     * @param openMillis How long the circuit stays open before a trial call
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.state = State.CLOSED;
+    }
+    
+    /**
+     * Check whether a call may proceed
+     * @return true if the call may be attempted
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis) {
+            state = State.HALF_OPEN;
+            return true;
+        }
+        return state == State.CLOSED;
+    }
+    
+    /**
+     * Record a successful call, closing the circuit
+     */
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        state = State.CLOSED;
+    }
+    
+    /**
+     * Record a failed call, opening the circuit when the threshold is reached
+     * or when the half-open trial call fails
+     */
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+        }
+    }
+    
+    /**
+     * Record a call that ended without reaching the endpoint (e.g. rejected
+     * client-side); a half-open trial slot is handed back for the next caller
+     */
+    public synchronized void recordNotAttempted() {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis() - openMillis;
+        }
+    }
+    
+    public synchronized State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.service.resilience;
+
+/**
+ * Absolute point in time by which a generation must finish
+ * The deadline of the current generation is bound to the worker thread so the
+ * HTTP layer can cap timeouts and retries without threading it through every call
+ */
+public class Deadline {
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+    
+    private final long deadlineNanos;
+    
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+    
+    /**
+     * Create a deadline the given number of milliseconds from now
+     * @param millis Time budget in milliseconds
+     * @return The deadline
+     */
+    public static Deadline after(long millis) {
+        return new Deadline(System.nanoTime() + millis * 1_000_000L);
+    }
+    
+    /**
+     * Get the deadline bound to the current thread
+     * @return The current deadline, or null if none is set
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+    
+    /**
+     * Bind a deadline to the current thread
+     * @param deadline The deadline, or null to clear it
+     */
+    public static void set(Deadline deadline) {
+        if (deadline == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(deadline);
+        }
+    }
+    
+    /**
+     * Get the remaining time budget
+     * @return Remaining milliseconds, zero or negative once expired
+     */
+    public long remainingMillis() {
+        return (deadlineNanos - System.nanoTime()) / 1_000_000L;
+    }
+    
+    public boolean isExpired() {
+        return remainingMillis() <= 0;
+    }
+    
+    /**
+     * Fail if the deadline has passed
+     * @param cause The last failure seen, may be null
+     * @throws GeminiApiException If the deadline has passed
+     */
+    public void check(Throwable cause) throws GeminiApiException {
+        if (isExpired()) {
+            throw new GeminiApiException(GeminiApiException.Kind.DEADLINE_EXCEEDED,
+                    "Study plan generation deadline exceeded", cause);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.service.resilience;
+
+import java.io.IOException;
+
+/**
+ * Typed failure of a Gemini API call
+ * Carries enough detail for the resilience layer to decide whether to retry
+ */
+public class GeminiApiException extends IOException {
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * Category of failure
+     */
+    public enum Kind {
+        /** HTTP 429 or quota exhaustion */
+        RATE_LIMITED(true),
+        /** HTTP 5xx */
+        SERVER_ERROR(true),
+        /** HTTP 4xx other than 429, e.g. a bad request or invalid key */
+        CLIENT_ERROR(false),
+        /** Connect or read timeout */
+        TIMEOUT(true),
+        /** Connection refused, reset or closed without a response */
+        CONNECTION(true),
+        /** A streamed response broke off after chunks were already delivered */
+        STREAM_INTERRUPTED(false),
+        /** Response arrived but did not contain candidate text */
+        MALFORMED_RESPONSE(false),
+        /** The client-side rate limiter queue is full and the call was not attempted */
+        QUEUE_FULL(false),
+        /** The circuit breaker is open and the call was not attempted */
+        CIRCUIT_OPEN(false),
+        /** The overall generation deadline has passed */
+        DEADLINE_EXCEEDED(false);
+        
+        private final boolean retryable;
+        
+        Kind(boolean retryable) {
+            this.retryable = retryable;
+        }
+        
+        public boolean isRetryable() {
+            return retryable;
+        }
+    }
+    
+    private final Kind kind;
+    private final int statusCode;
+    private final long retryAfterMillis;
+    
+    public GeminiApiException(Kind kind, String message) {
+        this(kind, message, -1, -1, null);
+    }
+    
+    public GeminiApiException(Kind kind, String message, Throwable cause) {
+        this(kind, message, -1, -1, cause);
+    }
+    
+    /**
+     * Create a new exception
+     * @param kind The failure category
+     * @param message The error message
+     * @param statusCode The HTTP status, or -1 if no response was received
+     * @param retryAfterMillis Server-requested delay before retrying, or -1 if none
+     * @param cause The underlying exception, may be null
+     */
+    public GeminiApiException(Kind kind, String message, int statusCode, long retryAfterMillis, Throwable cause) {
+        super(message, cause);
+        this.kind = kind;
+        this.statusCode = statusCode;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+    
+    /**
+     * Classify an HTTP error status
+     * @param statusCode The HTTP status code
+     * @param message The error message from the response body
+     * @param retryAfterMillis Parsed Retry-After value, or -1
+     * @return The typed exception
+     */
+    public static GeminiApiException forStatus(int statusCode, String message, long retryAfterMillis) {
+        Kind kind;
+        if (statusCode == 429) {
+            kind = Kind.RATE_LIMITED;
+        } else if (statusCode >= 500) {
+            kind = Kind.SERVER_ERROR;
+        } else {
+            kind = Kind.CLIENT_ERROR;
+        }
+        return new GeminiApiException(kind, "Gemini API returned " + statusCode + ": " + message,
+                statusCode, retryAfterMillis, null);
+    }
+    
+    public Kind getKind() {
+        return kind;
+    }
+    
+    public int getStatusCode() {
+        return statusCode;
+    }
+    
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+    
+    public boolean isRetryable() {
+        return kind.isRetryable();
+    }
+}
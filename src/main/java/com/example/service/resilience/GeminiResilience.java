@@ -0,0 +1,221 @@
+package com.example.service.resilience;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.example.service.logging.PlanLogger;
+
+/**
+ * Retry, backoff, circuit breaking and deadline enforcement around Gemini calls
+ */
+public class GeminiResilience {
+    private static final PlanLogger LOG = PlanLogger.get("gemini");
+    
+    /**
+     * A single attempt of an I/O call
+     * @param <T> The result type
+     */
+    @FunctionalInterface
+    public interface Attempt<T> {
+        T call() throws IOException;
+    }
+    
+    private final RetryPolicy retryPolicy;
+    private final int breakerFailureThreshold;
+    private final long breakerOpenMillis;
+    private final Map<String, CircuitBreaker> breakers;
+    
+    /**
+     * Create a resilience stage
+     * @param retryPolicy Backoff and attempt limits
+     * @param breakerFailureThreshold Consecutive failures that open an endpoint's circuit
+     * @param breakerOpenMillis How long an open circuit fails fast
+     */
+    public GeminiResilience(RetryPolicy retryPolicy, int breakerFailureThreshold, long breakerOpenMillis) {
+        this.retryPolicy = retryPolicy;
+        this.breakerFailureThreshold = breakerFailureThreshold;
+        this.breakerOpenMillis = breakerOpenMillis;
+        this.breakers = new ConcurrentHashMap<>();
+    }
+    
+    /**
+     * Create a resilience stage from system properties
+     * (gemini.retry.maxAttempts, gemini.retry.baseDelayMillis, gemini.retry.maxDelayMillis,
+     * gemini.breaker.failureThreshold, gemini.breaker.openMillis)
+     * @return The configured resilience stage
+     */
+    public static GeminiResilience fromSystemProperties() {
+        RetryPolicy retryPolicy = new RetryPolicy(
+                Integer.getInteger("gemini.retry.maxAttempts", 4),
+                Long.getLong("gemini.retry.baseDelayMillis", 500L),
+                Long.getLong("gemini.retry.maxDelayMillis", 20_000L));
+        return new GeminiResilience(retryPolicy,
+                Integer.getInteger("gemini.breaker.failureThreshold", 5),
+                Long.getLong("gemini.breaker.openMillis", 30_000L));
+    }
+    
+    /**
+     * Run a call with retries under the endpoint's circuit breaker
+     * and the deadline bound to the current thread
+     * @param endpoint Identifies the upstream endpoint (one breaker per endpoint)
+     * @param attempt The call to make
+     * @return The call result
+     * @throws IOException The last failure once retries are exhausted, or a
+     *         CIRCUIT_OPEN / DEADLINE_EXCEEDED GeminiApiException
+     */
+    public <T> T call(String endpoint, Attempt<T> attempt) throws IOException {
+        CircuitBreaker breaker = getBreaker(endpoint);
+        Deadline deadline = Deadline.current();
+        GeminiApiException lastFailure = null;
+        
+        for (int attemptNumber = 1; ; attemptNumber++) {
+            checkCanAttempt(endpoint, breaker, deadline, lastFailure);
+            
+            long delay;
+            try {
+                T result = attempt.call();
+                breaker.recordSuccess();
+                return result;
+            } catch (IOException | RuntimeException e) {
+                delay = onFailure(breaker, e, attemptNumber, deadline);
+                lastFailure = (GeminiApiException) e;
+            }
+            
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting to retry Gemini call");
+            }
+        }
+    }
+    
+    /**
+     * Run an asynchronous call with retries under the endpoint's circuit breaker
+     * Backoff waits are scheduled rather than slept, so no thread is held between attempts
+     * @param endpoint Identifies the upstream endpoint (one breaker per endpoint)
+     * @param deadline Overall deadline, or null for none
+     * @param attempt Starts one attempt of the call
+     * @return A future for the result; cancelling it cancels the attempt in flight
+     */
+    public <T> CompletableFuture<T> callAsync(String endpoint, Deadline deadline,
+                                              Supplier<CompletableFuture<T>> attempt) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attemptAsync(endpoint, getBreaker(endpoint), deadline, attempt, 1, null, result);
+        return result;
+    }
+    
+    private <T> void attemptAsync(String endpoint, CircuitBreaker breaker, Deadline deadline,
+                                  Supplier<CompletableFuture<T>> attempt, int attemptNumber,
+                                  GeminiApiException lastFailure, CompletableFuture<T> result) {
+        if (result.isDone()) {
+            return;
+        }
+        CompletableFuture<T> call;
+        try {
+            checkCanAttempt(endpoint, breaker, deadline, lastFailure);
+            call = attempt.get();
+        } catch (GeminiApiException | RuntimeException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                call.cancel(true);
+            }
+        });
+        
+        call.whenComplete((value, error) -> {
+            if (error == null) {
+                breaker.recordSuccess();
+                result.complete(value);
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            long delay;
+            try {
+                delay = onFailure(breaker, cause, attemptNumber, deadline);
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+                return;
+            }
+            CompletableFuture.runAsync(
+                    () -> attemptAsync(endpoint, breaker, deadline, attempt, attemptNumber + 1,
+                            (GeminiApiException) cause, result),
+                    CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS));
+        });
+    }
+    
+    /**
+     * Fail fast if the deadline has passed or the circuit is open
+     */
+    private void checkCanAttempt(String endpoint, CircuitBreaker breaker, Deadline deadline,
+                                 GeminiApiException lastFailure) throws GeminiApiException {
+        if (deadline != null) {
+            deadline.check(lastFailure);
+        }
+        if (!breaker.allowRequest()) {
+            throw new GeminiApiException(GeminiApiException.Kind.CIRCUIT_OPEN,
+                    "Gemini endpoint temporarily unavailable (circuit open): " + endpoint, lastFailure);
+        }
+    }
+    
+    /**
+     * Record a failed attempt and decide whether to retry
+     * @return The backoff delay before the next attempt
+     * @throws IOException The failure itself when it must not be retried
+     */
+    private long onFailure(CircuitBreaker breaker, Throwable failure, int attemptNumber, Deadline deadline)
+            throws IOException {
+        if (!(failure instanceof GeminiApiException)) {
+            breaker.recordNotAttempted();
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            }
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            throw new IOException("Gemini call failed", failure);
+        }
+        
+        GeminiApiException e = (GeminiApiException) failure;
+        if (e.isRetryable()) {
+            breaker.recordFailure();
+        } else if (e.getStatusCode() > 0 || e.getKind() == GeminiApiException.Kind.MALFORMED_RESPONSE) {
+            // The upstream answered; the request itself was at fault
+            breaker.recordSuccess();
+        } else {
+            breaker.recordNotAttempted();
+        }
+        if (!e.isRetryable() || attemptNumber >= retryPolicy.getMaxAttempts()) {
+            throw e;
+        }
+        
+        long delay = retryPolicy.delayMillis(attemptNumber, e.getRetryAfterMillis());
+        if (deadline != null && delay >= deadline.remainingMillis()) {
+            throw new GeminiApiException(GeminiApiException.Kind.DEADLINE_EXCEEDED,
+                    "Study plan generation deadline exceeded while backing off", e);
+        }
+        LOG.warn("Gemini call failed, retrying", "error", e.getMessage(), "delayMs", delay);
+        return delay;
+    }
+    
+    /**
+     * Get the circuit breaker state for an endpoint
+     * @param endpoint The endpoint
+     * @return The breaker state
+     */
+    public CircuitBreaker.State getBreakerState(String endpoint) {
+        return getBreaker(endpoint).getState();
+    }
+    
+    private CircuitBreaker getBreaker(String endpoint) {
+        return breakers.computeIfAbsent(endpoint, key -> new CircuitBreaker(breakerFailureThreshold, breakerOpenMillis));
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.service.resilience;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with full jitter that honors server Retry-After hints up to the maximum delay
+ */
+public class RetryPolicy {
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    
+    /**
+     * Create a retry policy
+     * @param maxAttempts Total attempts including the first one
+     * @param baseDelayMillis Backoff ceiling for the first retry
+     * @param maxDelayMillis Upper bound for any single backoff
+     */
+    public RetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis) {
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+    
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+    
+    /**
+     * Compute how long to wait before the next attempt
+     * @param attempt The attempt that just failed (1-based)
+     * @param retryAfterMillis Server-requested delay, or -1 if none; capped at the maximum delay
+     * @return Delay in milliseconds
+     */
+    public long delayMillis(int attempt, long retryAfterMillis) {
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt - 1, 20));
+        long jittered = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        return Math.min(maxDelayMillis, Math.max(jittered, retryAfterMillis));
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.service.strategy;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import com.example.model.DailyStudyItem;
+import com.example.model.StudyPlan;
+import com.example.model.Subject;
+import com.example.model.User;
+
+/**
+ * Base class for strategies that compute the schedule on this machine
+ * Subclasses only decide which items go on which day; validation, the raw
+ * plan text and day streaming are shared. Nothing here needs the network, so
+ * these strategies also work offline or while Gemini is unavailable
+ */
+public abstract class AbstractLocalStudyPlanStrategy implements StudyPlanStrategy {
+    // Hours are scheduled in half-hour steps
+    protected static final double STEP = 0.5;
+
+    protected final double dailyHourCap;
+
+    /**
+     * Create the strategy
+     * @param dailyHourCap Most hours to schedule on one day, rounded down to half hours
+     */
+    protected AbstractLocalStudyPlanStrategy(double dailyHourCap) {
+        this.dailyHourCap = Math.max(STEP, floorToStep(dailyHourCap));
+    }
+
+    /**
+     * Read the daily hour cap shared by the local strategies
+     * @return planner.local.dailyHours, 4 unless set
+     */
+    protected static double configuredDailyHours() {
+        return Double.parseDouble(System.getProperty("planner.local.dailyHours", "4"));
+    }
+
+    @Override
+    public StudyPlan generatePlan(User user) {
+        return generatePlan(user, null);
+    }
+
+    @Override
+    public StudyPlan generatePlan(User user, BiConsumer<LocalDate, List<DailyStudyItem>> dayListener) {
+        LocalDate today = LocalDate.now();
+        LocalDate examDate = user.getExamDate();
+        if (examDate == null || !examDate.isAfter(today)) {
+            throw new IllegalArgumentException("Exam date must be in the future");
+        }
+
+        Map<LocalDate, List<DailyStudyItem>> dailyPlan = schedule(user.getSubjects(), today, examDate);
+
+        StudyPlan studyPlan = new StudyPlan(user);
+        studyPlan.setDailyPlan(dailyPlan);
+        studyPlan.setRawPlanText(toPlanText(dailyPlan));
+        if (dayListener != null) {
+            for (Map.Entry<LocalDate, List<DailyStudyItem>> day : dailyPlan.entrySet()) {
+                dayListener.accept(day.getKey(), day.getValue());
+            }
+        }
+        return studyPlan;
+    }
+
+    /**
+     * Schedule the subjects' topics on the days from startDate up to the exam
+     * @param subjects The subjects, in the order they were entered
+     * @param startDate First study day
+     * @param examDate The exam date; nothing is scheduled on it
+     * @return Study items by date, in date order
+     */
+    abstract Map<LocalDate, List<DailyStudyItem>> schedule(List<Subject> subjects, LocalDate startDate, LocalDate examDate);
+
+    /**
+     * Order topics round-robin by subject: first topic of each subject, then the second, ...
+     * @return Pairs of subject name and topic
+     */
+    protected static List<String[]> interleave(List<Subject> subjects) {
+        List<String[]> topics = new ArrayList<>();
+        int longest = 0;
+        for (Subject subject : subjects) {
+            longest = Math.max(longest, subject.getTopics().size());
+        }
+        for (int i = 0; i < longest; i++) {
+            for (Subject subject : subjects) {
+                if (i < subject.getTopics().size()) {
+                    topics.add(new String[] {subject.getName(), subject.getTopics().get(i)});
+                }
+            }
+        }
+        return topics;
+    }
+
+    /**
+     * Write the plan in the same "Date:" / "Subject:" format the prompts ask the model for
+     */
+    private static String toPlanText(Map<LocalDate, List<DailyStudyItem>> dailyPlan) {
+        StringBuilder text = new StringBuilder(dailyPlan.size() * 160);
+        for (Map.Entry<LocalDate, List<DailyStudyItem>> day : dailyPlan.entrySet()) {
+            text.append("Date: ").append(day.getKey()).append('\n');
+            for (DailyStudyItem item : day.getValue()) {
+                text.append("- Subject: ").append(item.getSubject())
+                        .append(", Topic: ").append(item.getTopic())
+                        .append(", Hours: ").append(item.getHoursRecommended()).append('\n');
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+
+    protected static double floorToStep(double hours) {
+        return Math.floor(hours / STEP) * STEP;
+    }
+
+    public double getDailyHourCap() {
+        return dailyHourCap;
+    }
+}
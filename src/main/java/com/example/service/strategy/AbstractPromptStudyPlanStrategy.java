@@ -0,0 +1,485 @@
+package com.example.service.strategy;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+
+import com.example.model.DailyStudyItem;
+import com.example.model.StudyPlan;
+import com.example.model.User;
+import com.example.service.HourBalanceReport;
+import com.example.service.IncrementalPlanParser;
+import com.example.service.PlanChunkParser;
+import com.example.service.PlanHourBalancer;
+import com.example.service.PlanSchema;
+import com.example.service.StructuredPlanParser;
+import com.example.service.StudyPlanParser;
+import com.example.service.backend.PlanTextBackend;
+import com.example.service.backend.PlanTextRequest;
+import com.example.service.cache.PlanResponseCache;
+import com.example.service.factory.PlanTextBackendFactory;
+import com.example.service.logging.PlanLogger;
+import com.example.service.observer.PlanEvent;
+import com.example.service.observer.PlanEventListener;
+import com.example.service.prompt.PromptTemplate;
+import com.example.service.prompt.SubjectTopicsSection;
+
+/**
+ * Base class for strategies that ask a language model to write the plan
+ * Subclasses only supply the prompt template; the request and parsing flow is
+ * shared, and the text comes from whichever PlanTextBackend the strategy was given.
+ * Templates fill these slots: student, daysUntilExam, examDate, subjects,
+ * shardContext, days and outputFormat, plus the section trimmed, which is only
+ * kept when the subject list was shortened to fit the prompt token budget
+ */
+public abstract class AbstractPromptStudyPlanStrategy implements ShardableStudyPlanStrategy {
+    private static final PlanLogger LOG = PlanLogger.get("prompt");
+    // Rough size of a token in English prompt text
+    private static final int CHARS_PER_TOKEN = 4;
+    
+    private final PlanTextBackend backend;
+    private volatile boolean structuredOutput;
+    private volatile int maxPromptTokens;
+    private volatile PlanHourBalancer hourBalancer;
+    
+    /**
+     * Create a strategy using the backend selected by configuration
+     */
+    protected AbstractPromptStudyPlanStrategy() {
+        this(new PlanTextBackendFactory().createConfiguredBackend());
+    }
+    
+    /**
+     * Create a strategy using the given backend
+     * @param backend The source of the plan text
+     */
+    protected AbstractPromptStudyPlanStrategy(PlanTextBackend backend) {
+        this.backend = backend;
+        this.structuredOutput = Boolean.getBoolean("planner.structuredOutput");
+        this.maxPromptTokens = Integer.getInteger("planner.prompt.maxTokens", 8000);
+        this.hourBalancer = createHourBalancer();
+    }
+    
+    /**
+     * Create the balancer this strategy starts with
+     * The default caps days at planner.balance.dailyHours; strategies whose prompt
+     * asks for a different daily load override this
+     * @return The balancer, or null to keep the hours as the model wrote them
+     */
+    protected PlanHourBalancer createHourBalancer() {
+        return new PlanHourBalancer();
+    }
+    
+    /**
+     * Get the share of the hours each subject should end up with after balancing
+     * The default follows the number of topics of each subject
+     * @param user The user the plan is for
+     * @return Subject names mapped to their share, or empty to keep the subject totals the model chose
+     */
+    protected Map<String, Double> targetShares(User user) {
+        return PlanHourBalancer.topicShares(user.getAllSubjectsWithTopics());
+    }
+    
+    public PlanTextBackend getBackend() {
+        return backend;
+    }
+    
+    /**
+     * Ask for JSON matching PlanSchema instead of free text
+     * Structured responses are bound directly by StructuredPlanParser; the text
+     * parser is only used if the JSON turns out to be invalid
+     * @param structuredOutput true to request structured output
+     */
+    public void setStructuredOutput(boolean structuredOutput) {
+        this.structuredOutput = structuredOutput;
+    }
+    
+    public boolean isStructuredOutput() {
+        return structuredOutput;
+    }
+    
+    /**
+     * Limit the prompt size; subject topics are summarized when the full list does not fit
+     * Defaults to planner.prompt.maxTokens, or 8000
+     * @param maxPromptTokens Most tokens a prompt should take, estimated at four characters each
+     */
+    public void setMaxPromptTokens(int maxPromptTokens) {
+        this.maxPromptTokens = maxPromptTokens;
+    }
+    
+    public int getMaxPromptTokens() {
+        return maxPromptTokens;
+    }
+    
+    /**
+     * Set the stage that rebalances the parsed hours across days
+     * When days are streamed to a day listener, each day the balancer changed is
+     * delivered again with its balanced items once the response is complete.
+     * Hours that fit on no day are reported by StudyPlan.getUnscheduledHours
+     * @param hourBalancer The balancer, or null to keep the hours as the model wrote them
+     */
+    public void setHourBalancer(PlanHourBalancer hourBalancer) {
+        this.hourBalancer = hourBalancer;
+    }
+    
+    public PlanHourBalancer getHourBalancer() {
+        return hourBalancer;
+    }
+    
+    @Override
+    public StudyPlan generatePlan(User user) throws IOException {
+        return generatePlan(user, null);
+    }
+    
+    @Override
+    public StudyPlan generatePlan(User user, BiConsumer<LocalDate, List<DailyStudyItem>> dayListener) throws IOException {
+        PreparedRequest request = prepare(user, null, dayListener, null);
+        if (request.cachedResponse != null) {
+            return request.complete(request.cachedResponse, false);
+        }
+        
+        String response;
+        if (dayListener == null) {
+            response = backend.generateText(request.textRequest);
+        } else {
+            // Stream the response and hand out each day as soon as it is parsed
+            response = backend.streamText(request.textRequest, request.parser::feed);
+        }
+        return request.complete(response, true);
+    }
+    
+    /**
+     * Generate the plan with the backend's asynchronous calls
+     * Prompt building, the cache lookup and parsing run on the context's executor;
+     * no thread is held while the request is queued, retried or in flight
+     */
+    @Override
+    public CompletableFuture<StudyPlan> generatePlanAsync(User user, GenerationContext context) {
+        return generateAsync(user, null, context);
+    }
+    
+    /**
+     * Generate one shard with its own prompt, asking only for the shard's days
+     */
+    @Override
+    public CompletableFuture<StudyPlan> generateShardAsync(User user, PlanShard shard, GenerationContext context) {
+        return generateAsync(user, shard, context);
+    }
+    
+    private CompletableFuture<StudyPlan> generateAsync(User user, PlanShard shard, GenerationContext context) {
+        CompletableFuture<StudyPlan> result = new CompletableFuture<>();
+        CompletableFuture<PreparedRequest> prepared = CompletableFuture.supplyAsync(
+                () -> prepare(user, shard, context.getDayListener(), context.getEventListener()),
+                context.getExecutor());
+        
+        prepared.whenComplete((request, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+                return;
+            }
+            if (result.isDone()) {
+                // Cancelled before the request was sent
+                return;
+            }
+            if (request.cachedResponse != null) {
+                complete(request, request.cachedResponse, false, result);
+                return;
+            }
+            request.textRequest.setPriority(context.getPriority());
+            request.textRequest.setDeadline(context.getDeadline());
+            CompletableFuture<String> call = context.getDayListener() == null
+                    ? backend.generateTextAsync(request.textRequest)
+                    : backend.streamTextAsync(request.textRequest, request.parser::feed);
+            result.whenComplete((studyPlan, resultError) -> {
+                if (result.isCancelled()) {
+                    call.cancel(true);
+                }
+            });
+            call.whenCompleteAsync((response, callError) -> {
+                if (callError != null) {
+                    result.completeExceptionally(callError);
+                } else {
+                    complete(request, response, true, result);
+                }
+            }, context.getExecutor());
+        });
+        return result;
+    }
+    
+    private static void complete(PreparedRequest request, String response, boolean fresh,
+                                 CompletableFuture<StudyPlan> result) {
+        try {
+            result.complete(request.complete(response, fresh));
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+    }
+    
+    /**
+     * Validate the user, build the prompt and look it up in the response cache
+     * @param shard The part of the window to plan, or null for the whole window
+     * @param eventListener Told about cache hits, or null
+     */
+    private PreparedRequest prepare(User user, PlanShard shard,
+                                    BiConsumer<LocalDate, List<DailyStudyItem>> dayListener,
+                                    PlanEventListener eventListener) {
+        // Calculate days until exam
+        LocalDate today = LocalDate.now();
+        LocalDate examDate = user.getExamDate();
+        long daysUntilExam = ChronoUnit.DAYS.between(today, examDate);
+        
+        if (daysUntilExam <= 0) {
+            throw new IllegalArgumentException("Exam date must be in the future");
+        }
+        
+        String finalPrompt = buildPrompt(user, examDate, daysUntilExam, shard);
+        
+        LOG.info("Generated prompt", "backend", backend.getName(), "chars", finalPrompt.length(),
+                "shard", shard != null ? shard.getIndex() + 1 : "-");
+        LOG.payload("prompt", finalPrompt);
+        
+        String cachedResponse = null;
+        if (backend.isCacheable()) {
+            PlanResponseCache cache = PlanResponseCache.getInstance();
+            cachedResponse = cache.get(finalPrompt);
+            if (cachedResponse != null) {
+                LOG.info("Using cached Gemini response", "cache", cache.getStats());
+                if (eventListener != null) {
+                    eventListener.onEvent(PlanEvent.cacheHit());
+                }
+            }
+        }
+        PlanTextRequest textRequest = shard == null
+                ? new PlanTextRequest(finalPrompt, user, today, examDate)
+                : new PlanTextRequest(finalPrompt, user, shard.getStartDate(), shard.getEndDate());
+        textRequest.setStructured(structuredOutput);
+        LocalDate lastPlanDay = shard == null ? examDate : shard.getLastPlanDay();
+        PlanHourBalancer balancer = hourBalancer;
+        return new PreparedRequest(textRequest, lastPlanDay, cachedResponse, backend.isCacheable(), dayListener,
+                balancer, balancer != null ? targetShares(user) : null);
+    }
+    
+    /**
+     * A built prompt waiting for its response
+     */
+    private static final class PreparedRequest {
+        private final PlanTextRequest textRequest;
+        private final LocalDate today;
+        private final LocalDate examDate;
+        private final String cachedResponse;
+        private final boolean cacheable;
+        private final BiConsumer<LocalDate, List<DailyStudyItem>> dayListener;
+        // Streaming parser fed while the response arrives; null when waiting for the full text
+        private final PlanChunkParser parser;
+        private final PlanHourBalancer hourBalancer;
+        private final Map<String, Double> targetShares;
+        
+        private PreparedRequest(PlanTextRequest textRequest, LocalDate lastPlanDay, String cachedResponse,
+                                boolean cacheable, BiConsumer<LocalDate, List<DailyStudyItem>> dayListener,
+                                PlanHourBalancer hourBalancer, Map<String, Double> targetShares) {
+            this.textRequest = textRequest;
+            this.today = textRequest.getStartDate();
+            this.examDate = lastPlanDay;
+            this.cachedResponse = cachedResponse;
+            this.cacheable = cacheable;
+            this.dayListener = dayListener;
+            this.parser = dayListener != null && cachedResponse == null ? newParser() : null;
+            this.hourBalancer = hourBalancer;
+            this.targetShares = targetShares;
+        }
+        
+        /**
+         * Parse the response into a study plan and balance its hours, caching the response if it came from the model
+         */
+        private StudyPlan complete(String response, boolean fresh) {
+            // Create the study plan
+            StudyPlan studyPlan = new StudyPlan(textRequest.getUser());
+            studyPlan.setRawPlanText(response);
+            
+            Map<LocalDate, List<DailyStudyItem>> parsedPlan;
+            if (parser != null) {
+                parsedPlan = parser.finish();
+            } else if (!fresh || textRequest.isStructured()) {
+                // Replay cached text through the same parser the live response would use
+                PlanChunkParser replay = newParser();
+                replay.feed(response);
+                parsedPlan = replay.finish();
+            } else {
+                // Parse the response and update the study plan
+                StudyPlanParser parser = new StudyPlanParser();
+                parsedPlan = parser.parsePlan(response, today, examDate);
+            }
+            if (hourBalancer != null) {
+                // Streamed days were handed out as they are; balance copies so those stay untouched
+                if (dayListener != null) {
+                    parsedPlan = copyOf(parsedPlan);
+                }
+                HourBalanceReport report = hourBalancer.balance(parsedPlan, textRequest.getStartDate(),
+                        textRequest.getExamDate(), targetShares);
+                studyPlan.setUnscheduledHours(report.getHoursDropped());
+                if (dayListener != null) {
+                    // Deliver the balanced version of every day that changed, replacing what was streamed
+                    for (LocalDate date : report.getChangedDates()) {
+                        dayListener.accept(date, parsedPlan.get(date));
+                    }
+                }
+            }
+            if (fresh && cacheable) {
+                PlanResponseCache.getInstance().put(textRequest.getPrompt(), response);
+            }
+            studyPlan.setDailyPlan(parsedPlan);
+            
+            return studyPlan;
+        }
+        
+        private static Map<LocalDate, List<DailyStudyItem>> copyOf(Map<LocalDate, List<DailyStudyItem>> dailyPlan) {
+            Map<LocalDate, List<DailyStudyItem>> copy = new HashMap<>();
+            for (Map.Entry<LocalDate, List<DailyStudyItem>> day : dailyPlan.entrySet()) {
+                List<DailyStudyItem> items = new ArrayList<>(day.getValue().size());
+                for (DailyStudyItem item : day.getValue()) {
+                    items.add(new DailyStudyItem(item.getSubject(), item.getTopic(), item.getHoursRecommended()));
+                }
+                copy.put(day.getKey(), items);
+            }
+            return copy;
+        }
+        
+        private PlanChunkParser newParser() {
+            return textRequest.isStructured()
+                    ? new StructuredPlanParser(today, examDate, dayListener)
+                    : new IncrementalPlanParser(today, examDate, dayListener, false);
+        }
+    }
+    
+    @Override
+    public String requestKey(User user) {
+        LocalDate examDate = user.getExamDate();
+        if (examDate == null) {
+            return null;
+        }
+        long daysUntilExam = ChronoUnit.DAYS.between(LocalDate.now(), examDate);
+        if (daysUntilExam <= 0) {
+            return null;
+        }
+        return PlanResponseCache.keyFor(buildPrompt(user, examDate, daysUntilExam, null));
+    }
+    
+    /**
+     * Append the output format instructions for the configured output mode
+     * @param promptBuilder The prompt being built
+     */
+    protected void appendOutputFormat(StringBuilder promptBuilder) {
+        if (structuredOutput) {
+            promptBuilder.append(PlanSchema.formatInstructions());
+            return;
+        }
+        promptBuilder.append("REQUIRED OUTPUT FORMAT:\n");
+        promptBuilder.append("For each day, format as follows:\n");
+        promptBuilder.append("Date: YYYY-MM-DD\n");
+        promptBuilder.append("- Subject: [subject name], Topic: [topic name], Hours: [X.X]\n");
+        promptBuilder.append("- Subject: [subject name], Topic: [topic name], Hours: [X.X]\n");
+        promptBuilder.append("... and so on for each topic that day\n\n");
+    }
+    
+    /**
+     * Append what a shard prompt needs on top of the full-window prompt:
+     * its date range and which topics it introduces or only reviews
+     * @param promptBuilder The prompt being built
+     * @param shard The shard, or null for the whole window
+     */
+    protected void appendShardContext(StringBuilder promptBuilder, PlanShard shard) {
+        if (shard == null) {
+            return;
+        }
+        promptBuilder.append("THIS IS PART ").append(shard.getIndex() + 1).append(" OF ").append(shard.getCount())
+                .append(" OF THE PLAN\n");
+        promptBuilder.append("Plan ONLY the days from ").append(shard.getStartDate())
+                .append(" to ").append(shard.getLastPlanDay()).append("\n");
+        if (!shard.getNewTopics().isEmpty()) {
+            promptBuilder.append("Topics to study in this part: ");
+            appendTopics(promptBuilder, shard.getNewTopics());
+        }
+        if (!shard.getCoveredTopics().isEmpty()) {
+            promptBuilder.append("Already covered in earlier parts (review only): ");
+            appendTopics(promptBuilder, shard.getCoveredTopics());
+        }
+        if (shard.getNewTopics().isEmpty()) {
+            promptBuilder.append("This part is for review and practice of all topics before the exam\n");
+        }
+        promptBuilder.append("\n");
+    }
+    
+    private static void appendTopics(StringBuilder promptBuilder, Map<String, List<String>> topics) {
+        boolean first = true;
+        for (Map.Entry<String, List<String>> entry : topics.entrySet()) {
+            for (String topic : entry.getValue()) {
+                promptBuilder.append(first ? "" : "; ").append(entry.getKey()).append(" - ").append(topic);
+                first = false;
+            }
+        }
+        promptBuilder.append("\n");
+    }
+    
+    /**
+     * Describe the days the prompt asks for
+     * @param daysUntilExam Number of days from today until the exam
+     * @param shard The shard, or null for the whole window
+     * @return e.g. "all 30 days until the exam" or "the 7 days of this part"
+     */
+    protected String describeDays(long daysUntilExam, PlanShard shard) {
+        if (shard == null) {
+            return "all " + daysUntilExam + " days until the exam";
+        }
+        return "the " + shard.getDays() + " days of this part";
+    }
+    
+    /**
+     * Build the prompt sent to the backend by filling the strategy's template
+     * The rest of the prompt is measured first, and the subject list gets what
+     * is left of the token budget
+     * @param user The user to generate a study plan for
+     * @param examDate The exam date
+     * @param daysUntilExam Number of days from today until the exam
+     * @param shard The part of the window to plan, or null for the whole window
+     * @return The prompt text
+     */
+    protected String buildPrompt(User user, LocalDate examDate, long daysUntilExam, PlanShard shard) {
+        PromptTemplate template = promptTemplate();
+        Map<String, CharSequence> values = new HashMap<>();
+        values.put("student", String.valueOf(user.getName()));
+        values.put("daysUntilExam", Long.toString(daysUntilExam));
+        values.put("examDate", String.valueOf(examDate));
+        StringBuilder shardContext = new StringBuilder();
+        appendShardContext(shardContext, shard);
+        values.put("shardContext", shardContext);
+        values.put("days", describeDays(daysUntilExam, shard));
+        StringBuilder outputFormat = new StringBuilder();
+        appendOutputFormat(outputFormat);
+        values.put("outputFormat", outputFormat);
+        
+        SubjectTopicsSection subjects = new SubjectTopicsSection(user.getAllSubjectsWithTopics());
+        long maxChars = (long) maxPromptTokens * CHARS_PER_TOKEN;
+        if (template.estimateLength(values) + subjects.length() <= maxChars) {
+            values.put("subjects", subjects.render());
+        } else {
+            values.put("trimmed", "true");
+            int room = (int) Math.max(0, Math.min(Integer.MAX_VALUE, maxChars - template.estimateLength(values)));
+            String trimmed = subjects.renderWithin(room);
+            values.put("subjects", trimmed);
+            LOG.warn("Subject list shortened to fit the prompt budget", "maxTokens", maxPromptTokens,
+                    "fullChars", subjects.length(), "keptChars", trimmed.length());
+        }
+        return template.render(values);
+    }
+    
+    /**
+     * @return The compiled prompt template, shared by every prompt this strategy builds
+     */
+    protected abstract PromptTemplate promptTemplate();
+}
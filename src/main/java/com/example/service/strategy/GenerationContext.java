@@ -0,0 +1,74 @@
+package com.example.service.strategy;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+
+import com.example.model.DailyStudyItem;
+import com.example.service.observer.PlanEventListener;
+import com.example.service.ratelimit.GenerationRateLimiter;
+import com.example.service.resilience.Deadline;
+
+/**
+ * Settings for one asynchronous plan generation
+ * Carries what the blocking path binds to the worker thread (deadline, priority)
+ * plus the executor that runs the local stages such as prompt building and parsing
+ */
+public class GenerationContext {
+    private final Executor executor;
+    private final Deadline deadline;
+    private final GenerationRateLimiter.Priority priority;
+    private final BiConsumer<LocalDate, List<DailyStudyItem>> dayListener;
+    private final PlanEventListener eventListener;
+
+    /**
+     * Create a new generation context
+     * @param executor Runs the local stages; never held while waiting for Gemini
+     * @param deadline Overall deadline, or null for none
+     * @param priority Admission priority for the Gemini quota
+     * @param dayListener Called with each parsed day, or null to wait for the full response
+     */
+    public GenerationContext(Executor executor, Deadline deadline, GenerationRateLimiter.Priority priority,
+                             BiConsumer<LocalDate, List<DailyStudyItem>> dayListener) {
+        this(executor, deadline, priority, dayListener, null);
+    }
+
+    /**
+     * Create a new generation context that also reports events such as cache hits
+     * @param executor Runs the local stages; never held while waiting for Gemini
+     * @param deadline Overall deadline, or null for none
+     * @param priority Admission priority for the Gemini quota
+     * @param dayListener Called with each parsed day, or null to wait for the full response
+     * @param eventListener Receives events the strategy raises, or null
+     */
+    public GenerationContext(Executor executor, Deadline deadline, GenerationRateLimiter.Priority priority,
+                             BiConsumer<LocalDate, List<DailyStudyItem>> dayListener,
+                             PlanEventListener eventListener) {
+        this.executor = executor;
+        this.deadline = deadline;
+        this.priority = priority != null ? priority : GenerationRateLimiter.Priority.INTERACTIVE;
+        this.dayListener = dayListener;
+        this.eventListener = eventListener;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public Deadline getDeadline() {
+        return deadline;
+    }
+
+    public GenerationRateLimiter.Priority getPriority() {
+        return priority;
+    }
+
+    public BiConsumer<LocalDate, List<DailyStudyItem>> getDayListener() {
+        return dayListener;
+    }
+
+    public PlanEventListener getEventListener() {
+        return eventListener;
+    }
+}
@@ -1,100 +1,71 @@
 package com.example.service.strategy;
 
-import java.io.IOException;
-import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
-import java.util.List;
+import java.util.Collections;
 import java.util.Map;
 
-import com.example.model.DailyStudyItem;
-import com.example.model.StudyPlan;
 import com.example.model.User;
-import com.example.service.GeminiClientSingleton;
-import com.example.service.StudyPlanParser;
+import com.example.service.PlanHourBalancer;
+import com.example.service.backend.PlanTextBackend;
+import com.example.service.prompt.PromptTemplate;
 
 /**
  * Intensive strategy for study plan generation - designed for short-term cramming
  * Implements the Strategy design pattern
  */
-public class IntensiveStudyPlanStrategy implements StudyPlanStrategy {
+public class IntensiveStudyPlanStrategy extends AbstractPromptStudyPlanStrategy {
+    private static final PromptTemplate PROMPT = PromptTemplate.compile(
+            "CREATE AN INTENSIVE CRAMMING STUDY PLAN\n\n"
+            + "Student: {{student}}\n"
+            + "Days until exam: {{daysUntilExam}}\n"
+            + "Exam date: {{examDate}}\n\n"
+            + "INCLUDE ONLY THE FOLLOWING SUBJECTS AND TOPICS:\n"
+            + "{{subjects}}"
+            + "{{#trimmed}}Some topic lists are shortened to keep this request short; "
+            + "plan the listed topics first and share the remaining time among the rest of each subject\n\n{{/trimmed}}"
+            + "{{shardContext}}"
+            + "INTENSIVE STUDY PLAN REQUIREMENTS:\n"
+            + "1. Focus ONLY on the exact subjects and topics listed above\n"
+            + "2. Create a day-by-day INTENSIVE breakdown for {{days}}\n"
+            + "3. Include MORE hours per topic (this is a cramming schedule)\n"
+            + "4. Prioritize most important topics first\n"
+            + "5. Include multiple review sessions\n\n"
+            + "{{outputFormat}}"
+            + "DO NOT add any subjects or topics that are not in the list above.\n"
+            + "DO NOT create a general plan - focus only on the specific subjects and topics provided.\n"
+            + "This is a HIGH-INTENSITY cramming schedule - allocate more hours per day than a normal plan.\n");
     
+    public IntensiveStudyPlanStrategy() {
+        super();
+    }
+    
+    /**
+     * Create the strategy with a specific plan text backend
+     * @param backend The source of the plan text
+     */
+    public IntensiveStudyPlanStrategy(PlanTextBackend backend) {
+        super(backend);
+    }
+    
+    @Override
+    protected PromptTemplate promptTemplate() {
+        return PROMPT;
+    }
+    
+    /**
+     * Cramming plans are meant to go over a normal day, so the cap is
+     * planner.balance.intensiveDailyHours (default 14) and subjects are not rescaled
+     */
+    @Override
+    protected PlanHourBalancer createHourBalancer() {
+        return new PlanHourBalancer(
+                Double.parseDouble(System.getProperty("planner.balance.intensiveDailyHours", "14")), 0);
+    }
+    
+    /**
+     * Keep the model's priorities between subjects
+     */
     @Override
-    public StudyPlan generatePlan(User user) throws IOException {
-        // Create the study plan
-        StudyPlan studyPlan = new StudyPlan(user);
-        
-        // Calculate days until exam
-        LocalDate today = LocalDate.now();
-        LocalDate examDate = user.getExamDate();
-        long daysUntilExam = ChronoUnit.DAYS.between(today, examDate);
-        
-        if (daysUntilExam <= 0) {
-            throw new IllegalArgumentException("Exam date must be in the future");
-        }
-        
-        // Prepare the prompt for Gemini
-        StringBuilder promptBuilder = new StringBuilder();
-        
-        // Create a more focused, detailed instruction
-        promptBuilder.append("CREATE AN INTENSIVE CRAMMING STUDY PLAN\n\n");
-        promptBuilder.append("Student: ").append(user.getName()).append("\n");
-        promptBuilder.append("Days until exam: ").append(daysUntilExam).append("\n");
-        promptBuilder.append("Exam date: ").append(examDate).append("\n\n");
-        
-        promptBuilder.append("INCLUDE ONLY THE FOLLOWING SUBJECTS AND TOPICS:\n");
-        
-        // Add the subjects and topics with clear formatting
-        Map<String, List<String>> subjectsWithTopics = user.getAllSubjectsWithTopics();
-        for (Map.Entry<String, List<String>> entry : subjectsWithTopics.entrySet()) {
-            promptBuilder.append("Subject: ").append(entry.getKey()).append("\n");
-            promptBuilder.append("Topics: ");
-            
-            List<String> topics = entry.getValue();
-            for (int i = 0; i < topics.size(); i++) {
-                promptBuilder.append(topics.get(i));
-                if (i < topics.size() - 1) {
-                    promptBuilder.append(", ");
-                }
-            }
-            promptBuilder.append("\n\n");
-        }
-        
-        // Provide clearer formatting instructions
-        promptBuilder.append("INTENSIVE STUDY PLAN REQUIREMENTS:\n");
-        promptBuilder.append("1. Focus ONLY on the exact subjects and topics listed above\n");
-        promptBuilder.append("2. Create a day-by-day INTENSIVE breakdown for all ").append(daysUntilExam).append(" days until the exam\n");
-        promptBuilder.append("3. Include MORE hours per topic (this is a cramming schedule)\n");
-        promptBuilder.append("4. Prioritize most important topics first\n");
-        promptBuilder.append("5. Include multiple review sessions\n\n");
-        
-        promptBuilder.append("REQUIRED OUTPUT FORMAT:\n");
-        promptBuilder.append("For each day, format as follows:\n");
-        promptBuilder.append("Date: YYYY-MM-DD\n");
-        promptBuilder.append("- Subject: [subject name], Topic: [topic name], Hours: [X.X]\n");
-        promptBuilder.append("- Subject: [subject name], Topic: [topic name], Hours: [X.X]\n");
-        promptBuilder.append("... and so on for each topic that day\n\n");
-        
-        promptBuilder.append("DO NOT add any subjects or topics that are not in the list above.\n");
-        promptBuilder.append("DO NOT create a general plan - focus only on the specific subjects and topics provided.\n");
-        promptBuilder.append("This is a HIGH-INTENSITY cramming schedule - allocate more hours per day than a normal plan.\n");
-        
-        // Get response from Gemini
-        String finalPrompt = promptBuilder.toString();
-        
-        // Debug information
-        System.out.println("Generated prompt for Gemini API:");
-        System.out.println("===================================");
-        System.out.println(finalPrompt);
-        System.out.println("===================================");
-        
-        String response = GeminiClientSingleton.getInstance().generateText(finalPrompt);
-        studyPlan.setRawPlanText(response);
-        
-        // Parse the response and update the study plan
-        StudyPlanParser parser = new StudyPlanParser();
-        Map<LocalDate, List<DailyStudyItem>> parsedPlan = parser.parsePlan(response, today, examDate);
-        studyPlan.setDailyPlan(parsedPlan);
-        
-        return studyPlan;
+    protected Map<String, Double> targetShares(User user) {
+        return Collections.emptyMap();
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
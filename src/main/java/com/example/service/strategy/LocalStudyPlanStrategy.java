@@ -0,0 +1,136 @@
+package com.example.service.strategy;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.model.DailyStudyItem;
+import com.example.model.Subject;
+import com.example.service.logging.PlanLogger;
+
+/**
+ * Strategy that schedules the plan locally, without a model
+ * Topics are interleaved across subjects and given equal hours, split into
+ * sessions that are packed into the days before the exam up to a daily cap.
+ * The last days are kept for review of every subject. The schedule only depends
+ * on the user's input and today's date, so it is the same every time
+ */
+public class LocalStudyPlanStrategy extends AbstractLocalStudyPlanStrategy {
+    private static final PlanLogger LOG = PlanLogger.get("local");
+
+    private final double sessionHours;
+    private final double reviewFraction;
+
+    /**
+     * Create the strategy configured by system properties
+     * planner.local.dailyHours caps the hours per day (default 4),
+     * planner.local.sessionHours is the longest single session (default 2)
+     * and planner.local.reviewFraction the share of days kept for review (default 0.15)
+     */
+    public LocalStudyPlanStrategy() {
+        this(configuredDailyHours(),
+                Double.parseDouble(System.getProperty("planner.local.sessionHours", "2")),
+                Double.parseDouble(System.getProperty("planner.local.reviewFraction", "0.15")));
+    }
+
+    /**
+     * Create the strategy
+     * @param dailyHourCap Most hours to schedule on one day
+     * @param sessionHours Longest time spent on one topic in a row
+     * @param reviewFraction Share of the days before the exam kept for review
+     */
+    public LocalStudyPlanStrategy(double dailyHourCap, double sessionHours, double reviewFraction) {
+        super(dailyHourCap);
+        this.sessionHours = Math.min(this.dailyHourCap, Math.max(STEP, floorToStep(sessionHours)));
+        this.reviewFraction = Math.min(0.5, Math.max(0, reviewFraction));
+    }
+
+    @Override
+    Map<LocalDate, List<DailyStudyItem>> schedule(List<Subject> subjects, LocalDate startDate, LocalDate examDate) {
+        int days = (int) ChronoUnit.DAYS.between(startDate, examDate);
+        List<String[]> topics = interleave(subjects);
+        Map<LocalDate, List<DailyStudyItem>> dailyPlan = new LinkedHashMap<>();
+        if (topics.isEmpty() || days <= 0) {
+            return dailyPlan;
+        }
+
+        // Keep the last days for review, unless the topics need them
+        int reviewDays = days >= 3 ? Math.max(1, (int) Math.round(days * reviewFraction)) : 0;
+        int contentDays = days - reviewDays;
+        int neededDays = (int) Math.ceil(topics.size() * STEP / dailyHourCap);
+        if (neededDays > contentDays) {
+            contentDays = Math.min(days, neededDays);
+            reviewDays = days - contentDays;
+        }
+        double hoursPerTopic = Math.max(STEP, floorToStep(contentDays * dailyHourCap / topics.size()));
+
+        // Every topic gets one session per round until its hours are used up,
+        // so later rounds revisit topics instead of finishing one before the next
+        int rounds = (int) Math.ceil(hoursPerTopic / sessionHours);
+        int day = 0;
+        double dayHours = 0;
+        List<DailyStudyItem> dayItems = new ArrayList<>();
+        int unscheduled = 0;
+        for (int round = 0; round < rounds; round++) {
+            double roundHours = Math.min(sessionHours, hoursPerTopic - round * sessionHours);
+            for (String[] topic : topics) {
+                double remaining = roundHours;
+                while (remaining > 0 && day < contentDays) {
+                    double hours = Math.min(remaining, dailyHourCap - dayHours);
+                    dayItems.add(new DailyStudyItem(topic[0], topic[1], hours));
+                    remaining -= hours;
+                    dayHours += hours;
+                    if (dayHours >= dailyHourCap) {
+                        dailyPlan.put(startDate.plusDays(day), dayItems);
+                        day++;
+                        dayHours = 0;
+                        dayItems = new ArrayList<>();
+                    }
+                }
+                if (remaining > 0) {
+                    unscheduled++;
+                }
+            }
+        }
+        if (!dayItems.isEmpty()) {
+            dailyPlan.put(startDate.plusDays(day), dayItems);
+        }
+        if (unscheduled > 0) {
+            LOG.warn("Topics do not fit under the daily hour cap", "sessionsDropped", unscheduled,
+                    "dailyHours", dailyHourCap, "days", days);
+        }
+
+        for (int review = days - reviewDays; review < days; review++) {
+            dailyPlan.put(startDate.plusDays(review), reviewDay(subjects));
+        }
+        LOG.info("Scheduled plan locally", "topics", topics.size(), "days", dailyPlan.size(),
+                "hoursPerTopic", hoursPerTopic, "reviewDays", reviewDays);
+        return dailyPlan;
+    }
+
+    /**
+     * A day that reviews every subject, sharing the daily cap between them
+     */
+    private List<DailyStudyItem> reviewDay(List<Subject> subjects) {
+        List<DailyStudyItem> items = new ArrayList<>();
+        List<Subject> withTopics = new ArrayList<>();
+        for (Subject subject : subjects) {
+            if (!subject.getTopics().isEmpty()) {
+                withTopics.add(subject);
+            }
+        }
+        double hours = Math.max(STEP, floorToStep(dailyHourCap / withTopics.size()));
+        double used = 0;
+        for (Subject subject : withTopics) {
+            if (used + hours > dailyHourCap) {
+                break;
+            }
+            items.add(new DailyStudyItem(subject.getName(), "Review of all topics", hours));
+            used += hours;
+        }
+        return items;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.service.strategy;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * One slice of a long study window, generated by its own prompt
+ * Topics are assigned to shards up front, so every shard knows what earlier
+ * shards cover without waiting for them and all shards can run concurrently
+ */
+public class PlanShard {
+    private final int index;
+    private final int count;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final LocalDate lastPlanDay;
+    private final Map<String, List<String>> newTopics;
+    private final Map<String, List<String>> coveredTopics;
+
+    /**
+     * Create a shard
+     * @param index Position of the shard, from 0
+     * @param count Total number of shards in the window
+     * @param startDate First day of the shard
+     * @param endDate Day after the shard (the next shard's start, or the exam date)
+     * @param lastPlanDay Last day whose items belong to this shard
+     * @param newTopics Topics to introduce in this shard, by subject
+     * @param coveredTopics Topics introduced by earlier shards, by subject
+     */
+    public PlanShard(int index, int count, LocalDate startDate, LocalDate endDate, LocalDate lastPlanDay,
+                     Map<String, List<String>> newTopics, Map<String, List<String>> coveredTopics) {
+        this.index = index;
+        this.count = count;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.lastPlanDay = lastPlanDay;
+        this.newTopics = newTopics;
+        this.coveredTopics = coveredTopics;
+    }
+
+    /**
+     * Split the window from startDate to examDate into shards of shardDays days
+     * Topics are spread over the shards in order; with three or more shards the
+     * last one is left for review of everything
+     * @param startDate First day of the plan
+     * @param examDate The exam date
+     * @param shardDays Days per shard
+     * @param subjectsWithTopics Topics of the plan, by subject
+     * @return The shards in date order
+     */
+    public static List<PlanShard> split(LocalDate startDate, LocalDate examDate, int shardDays,
+                                        Map<String, List<String>> subjectsWithTopics) {
+        long totalDays = ChronoUnit.DAYS.between(startDate, examDate);
+        int count = (int) Math.max(1, (totalDays + shardDays - 1) / shardDays);
+
+        // Flatten in a stable order so the same input always gives the same shards
+        List<String[]> topics = new ArrayList<>();
+        for (Map.Entry<String, List<String>> entry : new TreeMap<>(subjectsWithTopics).entrySet()) {
+            for (String topic : entry.getValue()) {
+                topics.add(new String[] {entry.getKey(), topic});
+            }
+        }
+        int contentShards = count >= 3 ? count - 1 : count;
+
+        List<PlanShard> shards = new ArrayList<>(count);
+        Map<String, List<String>> covered = new LinkedHashMap<>();
+        int nextTopic = 0;
+        for (int i = 0; i < count; i++) {
+            LocalDate shardStart = startDate.plusDays((long) i * shardDays);
+            boolean last = i == count - 1;
+            LocalDate shardEnd = last ? examDate : shardStart.plusDays(shardDays);
+
+            Map<String, List<String>> assigned = new LinkedHashMap<>();
+            int topicLimit = i < contentShards ? (int) ((long) topics.size() * (i + 1) / contentShards) : nextTopic;
+            for (; nextTopic < topicLimit; nextTopic++) {
+                String[] topic = topics.get(nextTopic);
+                assigned.computeIfAbsent(topic[0], subject -> new ArrayList<>()).add(topic[1]);
+            }
+            shards.add(new PlanShard(i, count, shardStart, shardEnd, last ? examDate : shardEnd.minusDays(1),
+                    copy(assigned), copy(covered)));
+            for (Map.Entry<String, List<String>> entry : assigned.entrySet()) {
+                covered.computeIfAbsent(entry.getKey(), subject -> new ArrayList<>()).addAll(entry.getValue());
+            }
+        }
+        return shards;
+    }
+
+    private static Map<String, List<String>> copy(Map<String, List<String>> topics) {
+        Map<String, List<String>> copy = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> entry : topics.entrySet()) {
+            copy.put(entry.getKey(), Collections.unmodifiableList(new ArrayList<>(entry.getValue())));
+        }
+        return Collections.unmodifiableMap(copy);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public boolean isLast() {
+        return index == count - 1;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    /**
+     * Get the day after the shard
+     * @return the next shard's start date, or the exam date for the last shard
+     */
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    /**
+     * Get the last day whose parsed items are kept for this shard
+     * Days the model writes past it belong to the next shard and are dropped
+     * @return the last plan day
+     */
+    public LocalDate getLastPlanDay() {
+        return lastPlanDay;
+    }
+
+    public long getDays() {
+        return ChronoUnit.DAYS.between(startDate, endDate);
+    }
+
+    public Map<String, List<String>> getNewTopics() {
+        return newTopics;
+    }
+
+    public Map<String, List<String>> getCoveredTopics() {
+        return coveredTopics;
+    }
+
+    @Override
+    public String toString() {
+        return "shard " + (index + 1) + "/" + count + " (" + startDate + " to " + endDate + ")";
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.service.strategy;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.example.model.StudyPlan;
+import com.example.model.User;
+
+/**
+ * Strategy that can generate part of the study window on its own
+ * Long windows are split into shards that are generated concurrently and stitched together
+ */
+public interface ShardableStudyPlanStrategy extends StudyPlanStrategy {
+    /**
+     * Generate the days of one shard of the study window
+     * @param user The user to generate a study plan for
+     * @param shard The part of the window to plan
+     * @param context Executor, deadline, priority and day listener for this shard
+     * @return A future for a study plan holding only the shard's days
+     */
+    CompletableFuture<StudyPlan> generateShardAsync(User user, PlanShard shard, GenerationContext context);
+}
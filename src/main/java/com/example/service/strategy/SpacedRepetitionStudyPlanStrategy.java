@@ -0,0 +1,183 @@
+package com.example.service.strategy;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import com.example.model.DailyStudyItem;
+import com.example.model.Subject;
+import com.example.service.logging.PlanLogger;
+
+/**
+ * Strategy that schedules a first session per topic followed by reviews at
+ * expanding intervals (1, 2, 4, 7, 14 and 30 days, then doubling) until the exam
+ * Pending reviews sit in a priority queue keyed on the day they fall due, so
+ * each day takes what is due without scanning every topic and the whole plan
+ * costs O((topics + reviews) log topics). Reviews that do not fit under the
+ * daily cap stay queued and are done on the next day with room. New topics
+ * are introduced at the rate that gets every topic started before the last
+ * days, which are kept for reviews only
+ */
+public class SpacedRepetitionStudyPlanStrategy extends AbstractLocalStudyPlanStrategy {
+    private static final PlanLogger LOG = PlanLogger.get("local");
+    private static final int[] REVIEW_GAPS = {1, 2, 4, 7, 14, 30};
+
+    private final double learnHours;
+    private final double reviewHours;
+    private final double reviewOnlyFraction;
+
+    /**
+     * Create the strategy configured by system properties
+     * planner.local.dailyHours caps the hours per day (default 4),
+     * planner.spaced.learnHours is the first session of a topic (default 1),
+     * planner.spaced.reviewHours each review (default 0.5) and
+     * planner.spaced.reviewOnlyFraction the share of final days without new topics (default 0.15)
+     */
+    public SpacedRepetitionStudyPlanStrategy() {
+        this(configuredDailyHours(),
+                Double.parseDouble(System.getProperty("planner.spaced.learnHours", "1")),
+                Double.parseDouble(System.getProperty("planner.spaced.reviewHours", "0.5")),
+                Double.parseDouble(System.getProperty("planner.spaced.reviewOnlyFraction", "0.15")));
+    }
+
+    /**
+     * Create the strategy
+     * @param dailyHourCap Most hours to schedule on one day
+     * @param learnHours Length of a topic's first session
+     * @param reviewHours Length of each review
+     * @param reviewOnlyFraction Share of the days before the exam with reviews only
+     */
+    public SpacedRepetitionStudyPlanStrategy(double dailyHourCap, double learnHours, double reviewHours,
+                                             double reviewOnlyFraction) {
+        super(dailyHourCap);
+        this.learnHours = Math.min(this.dailyHourCap, Math.max(STEP, floorToStep(learnHours)));
+        this.reviewHours = Math.min(this.dailyHourCap, Math.max(STEP, floorToStep(reviewHours)));
+        this.reviewOnlyFraction = Math.min(0.5, Math.max(0, reviewOnlyFraction));
+    }
+
+    @Override
+    Map<LocalDate, List<DailyStudyItem>> schedule(List<Subject> subjects, LocalDate startDate, LocalDate examDate) {
+        int days = (int) ChronoUnit.DAYS.between(startDate, examDate);
+        List<String[]> topics = interleave(subjects);
+        Map<LocalDate, List<DailyStudyItem>> dailyPlan = new LinkedHashMap<>();
+        if (topics.isEmpty() || days <= 0) {
+            return dailyPlan;
+        }
+
+        int introDays = days >= 4 ? days - Math.max(1, (int) Math.round(days * reviewOnlyFraction)) : days;
+        int maxNewPerDay = (int) (dailyHourCap / learnHours);
+        PriorityQueue<Review> queue = new PriorityQueue<>();
+        int nextTopic = 0;
+        int reviewsDone = 0;
+
+        for (int day = 0; day < days; day++) {
+            List<DailyStudyItem> items = new ArrayList<>();
+
+            // Keep enough room for the new topics that must start today to finish introducing in time
+            int newToday = 0;
+            if (day < introDays) {
+                int remainingTopics = topics.size() - nextTopic;
+                int remainingDays = introDays - day;
+                newToday = Math.min(maxNewPerDay, (remainingTopics + remainingDays - 1) / remainingDays);
+            }
+            double reviewBudget = dailyHourCap - newToday * learnHours;
+
+            double used = takeReviews(queue, day, days, reviewBudget, 0, items);
+            reviewsDone += items.size();
+            while (day < introDays && nextTopic < topics.size() && used + learnHours <= dailyHourCap) {
+                String[] topic = topics.get(nextTopic);
+                items.add(new DailyStudyItem(topic[0], topic[1], learnHours));
+                used += learnHours;
+                if (day + REVIEW_GAPS[0] < days) {
+                    queue.add(new Review(topic[0], topic[1], day + REVIEW_GAPS[0], nextTopic));
+                }
+                nextTopic++;
+            }
+            // Spare time goes to reviews that are due
+            int before = items.size();
+            takeReviews(queue, day, days, dailyHourCap, used, items);
+            reviewsDone += items.size() - before;
+
+            if (!items.isEmpty()) {
+                dailyPlan.put(startDate.plusDays(day), items);
+            }
+        }
+
+        int missedReviews = 0;
+        for (Review review : queue) {
+            if (review.dueDay < days) {
+                missedReviews++;
+            }
+        }
+        if (nextTopic < topics.size() || missedReviews > 0) {
+            LOG.warn("Not everything fits under the daily hour cap", "topicsNotStarted", topics.size() - nextTopic,
+                    "reviewsMissed", missedReviews, "dailyHours", dailyHourCap, "days", days);
+        }
+        LOG.info("Scheduled spaced repetition plan", "topics", topics.size(), "days", dailyPlan.size(),
+                "reviews", reviewsDone);
+        return dailyPlan;
+    }
+
+    /**
+     * Do due reviews while they fit, queueing each topic's next review
+     * @return The hours used on the day afterwards
+     */
+    private double takeReviews(PriorityQueue<Review> queue, int day, int days, double budget, double used,
+                               List<DailyStudyItem> items) {
+        while (!queue.isEmpty() && queue.peek().dueDay <= day && used + reviewHours <= budget) {
+            Review review = queue.poll();
+            items.add(new DailyStudyItem(review.subject, "Review: " + review.topic, reviewHours));
+            used += reviewHours;
+            review.count++;
+            int nextDue = day + gap(review.count);
+            if (nextDue < days) {
+                review.dueDay = nextDue;
+                queue.add(review);
+            }
+        }
+        return used;
+    }
+
+    /**
+     * Days from a topic's review number count (0 for the first session) to the next review
+     */
+    static int gap(int count) {
+        if (count < REVIEW_GAPS.length) {
+            return REVIEW_GAPS[count];
+        }
+        int last = REVIEW_GAPS[REVIEW_GAPS.length - 1];
+        int doublings = count - REVIEW_GAPS.length + 1;
+        return doublings >= 20 ? Integer.MAX_VALUE / 2 : last << doublings;
+    }
+
+    /**
+     * The next review of one topic, ordered by due day and then by when the topic was introduced
+     */
+    private static final class Review implements Comparable<Review> {
+        private final String subject;
+        private final String topic;
+        private final int order;
+        private int dueDay;
+        // Reviews done so far, counting the first session as review 0
+        private int count;
+
+        private Review(String subject, String topic, int dueDay, int order) {
+            this.subject = subject;
+            this.topic = topic;
+            this.dueDay = dueDay;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(Review other) {
+            if (dueDay != other.dueDay) {
+                return Integer.compare(dueDay, other.dueDay);
+            }
+            return Integer.compare(order, other.order);
+        }
+    }
+}
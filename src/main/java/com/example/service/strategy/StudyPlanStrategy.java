@@ -1,9 +1,17 @@
 package com.example.service.strategy;
 
 import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
 
+import com.example.model.DailyStudyItem;
 import com.example.model.StudyPlan;
 import com.example.model.User;
+import com.example.service.ratelimit.GenerationRateLimiter;
+import com.example.service.resilience.Deadline;
 
 /**
  * Strategy interface for different study plan generation strategies
@@ -17,4 +25,50 @@ public interface StudyPlanStrategy {
      * @throws IOException If an I/O error occurs
      */
     StudyPlan generatePlan(User user) throws IOException;
-} 
\ No newline at end of file
+    
+    /**
+     * Generate a study plan, reporting each day as soon as it is available
+     * Strategies that cannot stream simply generate the whole plan
+     * @param user The user to generate a study plan for
+     * @param dayListener Called with each parsed day, may be null
+     * @return The generated study plan
+     * @throws IOException If an I/O error occurs
+     */
+    default StudyPlan generatePlan(User user, BiConsumer<LocalDate, List<DailyStudyItem>> dayListener) throws IOException {
+        return generatePlan(user);
+    }
+    
+    /**
+     * Generate a study plan without blocking the calling thread
+     * The default runs the blocking generation on the context's executor with the
+     * deadline and priority bound to that thread; strategies backed by the
+     * asynchronous Gemini client override this so no thread waits on the network
+     * @param user The user to generate a study plan for
+     * @param context Executor, deadline, priority and day listener for this generation
+     * @return A future for the generated study plan
+     */
+    default CompletableFuture<StudyPlan> generatePlanAsync(User user, GenerationContext context) {
+        return CompletableFuture.supplyAsync(() -> {
+            Deadline.set(context.getDeadline());
+            GenerationRateLimiter.setCurrentPriority(context.getPriority());
+            try {
+                return generatePlan(user, context.getDayListener());
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            } finally {
+                Deadline.set(null);
+                GenerationRateLimiter.setCurrentPriority(null);
+            }
+        }, context.getExecutor());
+    }
+    
+    /**
+     * Get a key identifying equivalent generation requests
+     * Requests with the same key may share a single generation
+     * @param user The user to generate a study plan for
+     * @return The request key, or null if requests should never be shared
+     */
+    default String requestKey(User user) {
+        return null;
+    }
+} 
\ No newline at end of file
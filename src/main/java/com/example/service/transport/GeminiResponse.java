@@ -0,0 +1,62 @@
+package com.example.service.transport;
+
+/**
+ * The parts of a generateContent response the planner uses
+ * Token counts are -1 when the response did not report them
+ */
+public class GeminiResponse {
+    private final String text;
+    private final String finishReason;
+    private final String errorMessage;
+    private final int promptTokenCount;
+    private final int candidatesTokenCount;
+    private final int totalTokenCount;
+    
+    public GeminiResponse(String text, String finishReason, String errorMessage,
+                          int promptTokenCount, int candidatesTokenCount, int totalTokenCount) {
+        this.text = text;
+        this.finishReason = finishReason;
+        this.errorMessage = errorMessage;
+        this.promptTokenCount = promptTokenCount;
+        this.candidatesTokenCount = candidatesTokenCount;
+        this.totalTokenCount = totalTokenCount;
+    }
+    
+    /**
+     * Get the first candidate's text
+     * @return the text, or null if the response had no candidate text
+     */
+    public String getText() {
+        return text;
+    }
+    
+    public String getFinishReason() {
+        return finishReason;
+    }
+    
+    /**
+     * Get the message of an error object embedded in the body
+     * @return the error message, or null if there was none
+     */
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+    
+    public int getPromptTokenCount() {
+        return promptTokenCount;
+    }
+    
+    public int getCandidatesTokenCount() {
+        return candidatesTokenCount;
+    }
+    
+    public int getTotalTokenCount() {
+        return totalTokenCount;
+    }
+    
+    @Override
+    public String toString() {
+        return "GeminiResponse{" + (text != null ? text.length() : 0) + " chars, finishReason=" + finishReason
+                + ", tokens=" + promptTokenCount + "+" + candidatesTokenCount + "=" + totalTokenCount + "}";
+    }
+}
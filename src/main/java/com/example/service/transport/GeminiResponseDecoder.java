@@ -0,0 +1,298 @@
+package com.example.service.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+
+/**
+ * Streaming decoder for generateContent responses and stream events
+ * Reads tokens straight from the body and keeps only the first candidate's text
+ * and the usage counts, so no String copy of the payload or JsonNode tree is built.
+ * Bodies can be read from a stream or pushed buffer by buffer to a {@link Feeder}
+ */
+public final class GeminiResponseDecoder {
+    
+    private GeminiResponseDecoder() {
+    }
+    
+    /**
+     * Decode a response body as it is read from the connection
+     * @param factory Shared Jackson factory
+     * @param body The response body; not closed
+     * @return The decoded response
+     * @throws IOException If the body cannot be read or is not valid JSON
+     */
+    public static GeminiResponse decode(JsonFactory factory, InputStream body) throws IOException {
+        try (JsonParser parser = factory.createParser(body)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            return decode(parser);
+        }
+    }
+    
+    /**
+     * Decode a response body that was received in full
+     * @param factory Shared Jackson factory
+     * @param body The UTF-8 response body
+     * @return The decoded response
+     * @throws IOException If the body is not valid JSON
+     */
+    public static GeminiResponse decode(JsonFactory factory, byte[] body) throws IOException {
+        try (JsonParser parser = factory.createParser(body)) {
+            return decode(parser);
+        }
+    }
+    
+    /**
+     * Decode one server-sent event payload
+     * @param factory Shared Jackson factory
+     * @param data The event data
+     * @return The decoded event
+     * @throws IOException If the data is not valid JSON
+     */
+    public static GeminiResponse decode(JsonFactory factory, String data) throws IOException {
+        try (JsonParser parser = factory.createParser(data)) {
+            return decode(parser);
+        }
+    }
+    
+    private static GeminiResponse decode(JsonParser parser) throws IOException {
+        Decoder decoder = new Decoder();
+        JsonToken token;
+        while ((token = parser.nextToken()) != null) {
+            if (decoder.onToken(parser, token)) {
+                return decoder.response();
+            }
+        }
+        throw new JsonParseException(parser, "Unexpected end of response");
+    }
+    
+    /**
+     * Start decoding a body that arrives in pieces, without blocking for the rest
+     * @param factory Shared Jackson factory
+     * @return A feeder to pass each received buffer to
+     * @throws IOException If the parser cannot be created
+     */
+    public static Feeder newFeeder(JsonFactory factory) throws IOException {
+        return new Feeder(factory.createNonBlockingByteBufferParser());
+    }
+    
+    /**
+     * Decodes a response from buffers pushed as they are received
+     * Each buffer is parsed as far as it goes before feed returns, so only the
+     * parser's partial token is kept between buffers, never the body
+     */
+    public static final class Feeder {
+        private final JsonParser parser;
+        private final ByteBufferFeeder input;
+        private final Decoder decoder = new Decoder();
+        private boolean done;
+        
+        private Feeder(JsonParser parser) {
+            this.parser = parser;
+            this.input = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+        }
+        
+        /**
+         * Parse the next piece of the body
+         * @param bytes The received bytes; fully consumed when this returns
+         * @throws IOException If the body is not valid JSON
+         */
+        public void feed(ByteBuffer bytes) throws IOException {
+            if (done || !bytes.hasRemaining()) {
+                return;
+            }
+            input.feedInput(bytes);
+            drain();
+        }
+        
+        /**
+         * End the body
+         * @return The decoded response
+         * @throws IOException If the body ended before the response object did
+         */
+        public GeminiResponse finish() throws IOException {
+            try {
+                if (!done) {
+                    input.endOfInput();
+                    drain();
+                }
+                if (!done) {
+                    throw new JsonParseException(parser, "Unexpected end of response");
+                }
+                return decoder.response();
+            } finally {
+                parser.close();
+            }
+        }
+        
+        private void drain() throws IOException {
+            JsonToken token;
+            while (!done && (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                done = decoder.onToken(parser, token);
+            }
+        }
+    }
+    
+    /**
+     * Where a JSON container sits in the response; only these are read
+     */
+    private enum Role {
+        ROOT, CANDIDATES, CANDIDATE, CONTENT, PARTS, PART, USAGE, ERROR, IGNORED
+    }
+    
+    /**
+     * Collects the wanted values from tokens handed to it one at a time
+     * Works the same whether the tokens are pulled from a complete body or
+     * arrive from a non-blocking parser, so both paths share one decoder
+     */
+    private static final class Decoder {
+        private Role[] roles = new Role[8];
+        private String[] fieldNames = new String[8];
+        private int[] elementCounts = new int[8];
+        private int depth;
+        
+        // The usual single part is kept as the parser's String; a builder is only needed to join several
+        private String firstPart;
+        private StringBuilder joinedParts;
+        private String finishReason;
+        private String errorMessage;
+        private int promptTokens = -1;
+        private int candidatesTokens = -1;
+        private int totalTokens = -1;
+        
+        /**
+         * Take the next token
+         * @return true once the response object is complete
+         */
+        private boolean onToken(JsonParser parser, JsonToken token) throws IOException {
+            if (depth == 0 && token != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object");
+            }
+            switch (token) {
+                case FIELD_NAME:
+                    fieldNames[depth - 1] = parser.currentName();
+                    return false;
+                case START_OBJECT:
+                case START_ARRAY:
+                    push(childRole(token == JsonToken.START_ARRAY));
+                    return false;
+                case END_OBJECT:
+                case END_ARRAY:
+                    depth--;
+                    return depth == 0;
+                default:
+                    readValue(parser, token);
+                    return false;
+            }
+        }
+        
+        private Role childRole(boolean array) {
+            if (depth == 0) {
+                return Role.ROOT;
+            }
+            Role parent = roles[depth - 1];
+            String name = fieldNames[depth - 1];
+            int element = elementCounts[depth - 1]++;
+            switch (parent) {
+                case ROOT:
+                    if (array && "candidates".equals(name)) {
+                        return Role.CANDIDATES;
+                    }
+                    if (!array && "usageMetadata".equals(name)) {
+                        return Role.USAGE;
+                    }
+                    if (!array && "error".equals(name)) {
+                        errorMessage = "";
+                        return Role.ERROR;
+                    }
+                    return Role.IGNORED;
+                case CANDIDATES:
+                    return !array && element == 0 ? Role.CANDIDATE : Role.IGNORED;
+                case CANDIDATE:
+                    return !array && "content".equals(name) ? Role.CONTENT : Role.IGNORED;
+                case CONTENT:
+                    return array && "parts".equals(name) ? Role.PARTS : Role.IGNORED;
+                case PARTS:
+                    return !array ? Role.PART : Role.IGNORED;
+                default:
+                    return Role.IGNORED;
+            }
+        }
+        
+        private void push(Role role) {
+            if (depth == roles.length) {
+                roles = Arrays.copyOf(roles, depth * 2);
+                fieldNames = Arrays.copyOf(fieldNames, depth * 2);
+                elementCounts = Arrays.copyOf(elementCounts, depth * 2);
+            }
+            roles[depth] = role;
+            fieldNames[depth] = null;
+            elementCounts[depth] = 0;
+            depth++;
+        }
+        
+        private void readValue(JsonParser parser, JsonToken token) throws IOException {
+            Role parent = roles[depth - 1];
+            String name = fieldNames[depth - 1];
+            elementCounts[depth - 1]++;
+            boolean string = token == JsonToken.VALUE_STRING;
+            switch (parent) {
+                case CANDIDATE:
+                    if (string && "finishReason".equals(name)) {
+                        finishReason = parser.getText();
+                    }
+                    break;
+                case PART:
+                    if (string && "text".equals(name)) {
+                        appendText(parser);
+                    }
+                    break;
+                case USAGE:
+                    if (token == JsonToken.VALUE_NUMBER_INT) {
+                        readUsage(parser, name);
+                    }
+                    break;
+                case ERROR:
+                    if (string && "message".equals(name)) {
+                        errorMessage = parser.getText();
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        
+        private void readUsage(JsonParser parser, String name) throws IOException {
+            if ("promptTokenCount".equals(name)) {
+                promptTokens = parser.getIntValue();
+            } else if ("candidatesTokenCount".equals(name)) {
+                candidatesTokens = parser.getIntValue();
+            } else if ("totalTokenCount".equals(name)) {
+                totalTokens = parser.getIntValue();
+            }
+        }
+        
+        private void appendText(JsonParser parser) throws IOException {
+            if (firstPart == null) {
+                firstPart = parser.getText();
+                return;
+            }
+            if (joinedParts == null) {
+                joinedParts = new StringBuilder(firstPart.length() + parser.getTextLength()).append(firstPart);
+            }
+            joinedParts.append(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+        }
+        
+        private GeminiResponse response() {
+            return new GeminiResponse(joinedParts != null ? joinedParts.toString() : firstPart, finishReason,
+                    errorMessage, promptTokens, candidatesTokens, totalTokens);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.service.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.HeaderElement;
+import org.apache.http.HeaderElementIterator;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.message.BasicHeaderElementIterator;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.protocol.HttpContext;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Long-lived HTTP transport shared by all Gemini calls
+ * Keeps a pool of warm keep-alive connections and reusable Jackson objects
+ * so consecutive generations skip the TCP/TLS handshake and mapper bootstrap
+ * Blocking calls use the pooled Apache client; asynchronous calls use a
+ * java.net.http client whose callbacks run on a small daemon executor
+ */
+public class GeminiTransport implements Closeable {
+    private final GeminiTransportConfig config;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final RequestConfig requestConfig;
+    private final CloseableHttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter objectWriter;
+    private final ExecutorService asyncExecutor;
+    private final java.net.http.HttpClient asyncHttpClient;
+    
+    /**
+     * Create a new transport
+     * @param config The transport configuration
+     */
+    public GeminiTransport(GeminiTransportConfig config) {
+        this.config = config;
+        
+        this.connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(config.getMaxTotalConnections());
+        connectionManager.setDefaultMaxPerRoute(config.getMaxConnectionsPerRoute());
+        // Re-check connections that sat idle in the pool before handing them out
+        connectionManager.setValidateAfterInactivity(2_000);
+        
+        this.requestConfig = RequestConfig.custom()
+                .setConnectTimeout(config.getConnectTimeoutMillis())
+                .setSocketTimeout(config.getReadTimeoutMillis())
+                .setConnectionRequestTimeout(config.getConnectionRequestTimeoutMillis())
+                .build();
+        
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(createKeepAliveStrategy(config.getKeepAliveMillis()))
+                // Retries are owned by the resilience layer, which knows about deadlines and backoff
+                .disableAutomaticRetries()
+                .evictExpiredConnections()
+                .evictIdleConnections(config.getKeepAliveMillis(), TimeUnit.MILLISECONDS)
+                .build();
+        
+        this.objectMapper = new ObjectMapper();
+        this.objectWriter = objectMapper.writer();
+        
+        AtomicInteger threadCount = new AtomicInteger();
+        this.asyncExecutor = Executors.newFixedThreadPool(Math.max(1, config.getAsyncThreads()), r -> {
+            Thread thread = new Thread(r, "gemini-async-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.asyncHttpClient = java.net.http.HttpClient.newBuilder()
+                .executor(asyncExecutor)
+                .connectTimeout(Duration.ofMillis(config.getConnectTimeoutMillis()))
+                .version(java.net.http.HttpClient.Version.HTTP_2)
+                .build();
+    }
+    
+    /**
+     * Honor the server's Keep-Alive timeout when present, otherwise use the configured default
+     */
+    private static ConnectionKeepAliveStrategy createKeepAliveStrategy(long defaultKeepAliveMillis) {
+        return (HttpResponse response, HttpContext context) -> {
+            HeaderElementIterator it = new BasicHeaderElementIterator(response.headerIterator(HTTP.CONN_KEEP_ALIVE));
+            while (it.hasNext()) {
+                HeaderElement element = it.nextElement();
+                if ("timeout".equalsIgnoreCase(element.getName()) && element.getValue() != null) {
+                    try {
+                        return Math.min(Long.parseLong(element.getValue()) * 1000, defaultKeepAliveMillis);
+                    } catch (NumberFormatException e) {
+                        // Fall through to the default
+                    }
+                }
+            }
+            return defaultKeepAliveMillis;
+        };
+    }
+    
+    public GeminiTransportConfig getConfig() {
+        return config;
+    }
+    
+    public CloseableHttpClient getHttpClient() {
+        return httpClient;
+    }
+    
+    /**
+     * Get the non-blocking client used by the asynchronous Gemini calls
+     * @return the shared async HTTP client
+     */
+    public java.net.http.HttpClient getAsyncHttpClient() {
+        return asyncHttpClient;
+    }
+    
+    /**
+     * Get the default per-request timeouts
+     * @return the request configuration every call starts from
+     */
+    public RequestConfig getRequestConfig() {
+        return requestConfig;
+    }
+    
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+    
+    /**
+     * Get the Jackson factory used to create streaming parsers for responses
+     * @return the shared JSON factory
+     */
+    public JsonFactory getJsonFactory() {
+        return objectMapper.getFactory();
+    }
+    
+    public ObjectWriter getObjectWriter() {
+        return objectWriter;
+    }
+    
+    /**
+     * Get the number of pooled connections currently leased or available
+     * @return pool statistics as a short string
+     */
+    public String getPoolStats() {
+        return connectionManager.getTotalStats().toString();
+    }
+    
+    /**
+     * Close the client and every pooled connection
+     */
+    @Override
+    public void close() {
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            System.err.println("Error closing Gemini transport: " + e.getMessage());
+        }
+        connectionManager.close();
+        asyncExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.service.transport;
+
+/**
+ * Configuration for the shared Gemini HTTP transport
+ * Defaults can be overridden with system properties (e.g. -Dgemini.http.maxTotal=40)
+ */
+public class GeminiTransportConfig {
+    public static final String DEFAULT_BASE_URL = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.0-flash";
+    
+    private String baseUrl;
+    private String apiKey;
+    private int maxTotalConnections;
+    private int maxConnectionsPerRoute;
+    private int connectTimeoutMillis;
+    private int readTimeoutMillis;
+    private int connectionRequestTimeoutMillis;
+    private long keepAliveMillis;
+    private int asyncThreads;
+    
+    public GeminiTransportConfig() {
+        this.baseUrl = System.getProperty("gemini.baseUrl", DEFAULT_BASE_URL);
+        this.apiKey = System.getProperty("gemini.apiKey");
+        this.maxTotalConnections = Integer.getInteger("gemini.http.maxTotal", 20);
+        this.maxConnectionsPerRoute = Integer.getInteger("gemini.http.maxPerRoute", 10);
+        this.connectTimeoutMillis = Integer.getInteger("gemini.http.connectTimeoutMillis", 5_000);
+        this.readTimeoutMillis = Integer.getInteger("gemini.http.readTimeoutMillis", 120_000);
+        this.connectionRequestTimeoutMillis = Integer.getInteger("gemini.http.poolTimeoutMillis", 10_000);
+        this.keepAliveMillis = Long.getLong("gemini.http.keepAliveMillis", 60_000L);
+        this.asyncThreads = Integer.getInteger("gemini.http.asyncThreads", 2);
+    }
+    
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+    
+    public void setBaseUrl(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+    
+    /**
+     * Get the API key, or null to use the key built into GeminiClient
+     * @return the configured API key
+     */
+    public String getApiKey() {
+        return apiKey;
+    }
+    
+    public void setApiKey(String apiKey) {
+        this.apiKey = apiKey;
+    }
+    
+    public int getMaxTotalConnections() {
+        return maxTotalConnections;
+    }
+    
+    public void setMaxTotalConnections(int maxTotalConnections) {
+        this.maxTotalConnections = maxTotalConnections;
+    }
+    
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+    
+    public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+    }
+    
+    public int getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+    
+    public void setConnectTimeoutMillis(int connectTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+    }
+    
+    public int getReadTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+    
+    public void setReadTimeoutMillis(int readTimeoutMillis) {
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+    
+    public int getConnectionRequestTimeoutMillis() {
+        return connectionRequestTimeoutMillis;
+    }
+    
+    public void setConnectionRequestTimeoutMillis(int connectionRequestTimeoutMillis) {
+        this.connectionRequestTimeoutMillis = connectionRequestTimeoutMillis;
+    }
+    
+    public long getKeepAliveMillis() {
+        return keepAliveMillis;
+    }
+    
+    public void setKeepAliveMillis(long keepAliveMillis) {
+        this.keepAliveMillis = keepAliveMillis;
+    }
+    
+    /**
+     * Get the number of threads completing asynchronous requests
+     * These only run response callbacks, so a couple serve many concurrent calls
+     * @return the async executor size
+     */
+    public int getAsyncThreads() {
+        return asyncThreads;
+    }
+    
+    public void setAsyncThreads(int asyncThreads) {
+        this.asyncThreads = asyncThreads;
+    }
+}
\ No newline at end of file
@@ -1,5 +1,9 @@
 package com.example.view;
 
+import java.time.LocalDate;
+import java.util.List;
+
+import com.example.model.DailyStudyItem;
 import com.example.model.StudyPlan;
 import com.example.service.observer.StudyPlanObserver;
 
@@ -11,7 +15,8 @@ import javafx.scene.control.ProgressIndicator;
 
 /**
  * Concrete implementation of StudyPlanObserver for UI updates
- * Implements the Observer design pattern
+ * Implements the Observer design pattern; updates run directly when already
+ * on the FX thread, so deliveries batched into one runLater stay one runLater
  */
 public class StudyPlanGenerationObserver implements StudyPlanObserver {
     
@@ -37,29 +42,45 @@ public class StudyPlanGenerationObserver implements StudyPlanObserver {
 
     @Override
     public void onGenerationStarted() {
-        Platform.runLater(() -> {
+        runOnFxThread(() -> {
             progressIndicator.setVisible(true);
             progressIndicator.setProgress(ProgressIndicator.INDETERMINATE_PROGRESS);
             progressBar.setVisible(true);
             progressBar.setProgress(ProgressIndicator.INDETERMINATE_PROGRESS);
             progressLabel.setVisible(true);
+            studyPlanView.clearView();
         });
     }
 
+    @Override
+    public void onDayParsed(LocalDate date, List<DailyStudyItem> items) {
+        runOnFxThread(() -> studyPlanView.appendDay(date, items));
+    }
+    
+    @Override
+    public void onProgress(double progress) {
+        runOnFxThread(() -> progressBar.setProgress(progress));
+    }
+
     @Override
     public void onGenerationCompleted(StudyPlan studyPlan) {
-        Platform.runLater(() -> {
+        runOnFxThread(() -> {
             progressIndicator.setVisible(false);
             progressBar.setVisible(false);
             progressLabel.setVisible(false);
             studyPlanView.updateStudyPlan(studyPlan);
-            showSuccessAlert();
+            showSuccessAlert(studyPlan);
         });
     }
 
+    @Override
+    public void onPlanReplanned(StudyPlan studyPlan) {
+        runOnFxThread(() -> studyPlanView.updateStudyPlan(studyPlan));
+    }
+
     @Override
     public void onGenerationFailed(Exception exception) {
-        Platform.runLater(() -> {
+        runOnFxThread(() -> {
             progressIndicator.setVisible(false);
             progressBar.setVisible(false);
             progressLabel.setVisible(false);
@@ -78,14 +99,28 @@ public class StudyPlanGenerationObserver implements StudyPlanObserver {
         });
     }
     
+    private static void runOnFxThread(Runnable update) {
+        if (Platform.isFxApplicationThread()) {
+            update.run();
+        } else {
+            Platform.runLater(update);
+        }
+    }
+    
     /**
-     * Show a success alert
+     * Show a success alert, noting any hours that did not fit into the plan
+     * @param studyPlan The generated study plan
      */
-    private void showSuccessAlert() {
+    private void showSuccessAlert(StudyPlan studyPlan) {
+        String message = "Study plan generated successfully!";
+        if (studyPlan.getUnscheduledHours() > 0) {
+            message += String.format("%n%.1f hours did not fit under the daily limit and were left out.",
+                    studyPlan.getUnscheduledHours());
+        }
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle("Success");
         alert.setHeaderText(null);
-        alert.setContentText("Study plan generated successfully!");
+        alert.setContentText(message);
         alert.showAndWait();
     }
     
@@ -100,4 +135,4 @@ public class StudyPlanGenerationObserver implements StudyPlanObserver {
         alert.setContentText("Failed to generate study plan: " + message);
         alert.showAndWait();
     }
-} 
\ No newline at end of file
+} 
\ No newline at end of file
@@ -2,6 +2,8 @@ package com.example.view;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -212,33 +214,37 @@ public class StudyPlanView extends BorderPane {
         // Clear and update table data
         tableData.clear();
         
-        // Get the daily plan from the study plan
-        Map<LocalDate, List<DailyStudyItem>> dailyPlan = studyPlan.getDailyPlan();
-        
-        // Format for dates
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MMM d, yyyy");
-        
         // Add rows for each day and item
-        for (Map.Entry<LocalDate, List<DailyStudyItem>> entry : dailyPlan.entrySet()) {
-            LocalDate date = entry.getKey();
-            String formattedDate = date.format(dateFormatter);
-            
-            for (DailyStudyItem item : entry.getValue()) {
-                DayPlanRow row = new DayPlanRow(
-                        formattedDate,
-                        item.getSubject(),
-                        item.getTopic(),
-                        String.format("%.1f", item.getHoursRecommended()),
-                        item.isCompleted()
-                );
-                tableData.add(row);
-            }
-        }
+        tableData.addAll(DayPlanRow.forDays(studyPlan.getDailyPlan()));
         
         // Update progress
         updateProgress();
     }
     
+    /**
+     * Append the rows of a single day while a streamed plan is still arriving
+     * A day delivered again (e.g. after hour balancing) replaces its earlier rows in place.
+     * The full plan replaces these rows once generation completes
+     * @param date The day that was parsed
+     * @param items The study items for that day
+     */
+    public void appendDay(LocalDate date, List<DailyStudyItem> items) {
+        List<DayPlanRow> rows = DayPlanRow.forDays(Collections.singletonMap(date, items));
+        String formattedDate = date.format(DateTimeFormatter.ofPattern("MMM d, yyyy"));
+        int position = -1;
+        for (int i = tableData.size() - 1; i >= 0; i--) {
+            if (formattedDate.equals(tableData.get(i).getDate())) {
+                tableData.remove(i);
+                position = i;
+            }
+        }
+        if (position < 0) {
+            tableData.addAll(rows);
+        } else {
+            tableData.addAll(position, rows);
+        }
+    }
+    
     /**
      * Helper class for table rows
      */
@@ -257,6 +263,29 @@ public class StudyPlanView extends BorderPane {
             this.completed = new SimpleBooleanProperty(completed);
         }
         
+        /**
+         * Build the table rows for the days of a plan
+         * @param dailyPlan Study items by date
+         * @return One row per item
+         */
+        public static List<DayPlanRow> forDays(Map<LocalDate, List<DailyStudyItem>> dailyPlan) {
+            DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MMM d, yyyy");
+            List<DayPlanRow> rows = new ArrayList<>();
+            for (Map.Entry<LocalDate, List<DailyStudyItem>> entry : dailyPlan.entrySet()) {
+                String formattedDate = entry.getKey().format(dateFormatter);
+                for (DailyStudyItem item : entry.getValue()) {
+                    rows.add(new DayPlanRow(
+                            formattedDate,
+                            item.getSubject(),
+                            item.getTopic(),
+                            String.format("%.1f", item.getHoursRecommended()),
+                            item.isCompleted()
+                    ));
+                }
+            }
+            return rows;
+        }
+        
         public String getDate() {
             return date.get();
         }
@@ -312,4 +341,4 @@ public class StudyPlanView extends BorderPane {
         progressBar.setProgress(0);
         progressLabel.setText("0% Completed");
     }
-} 
\ No newline at end of file
+} 
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.example.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.example.model.DailyStudyItem;
+import com.example.model.StudyPlan;
+import com.example.model.Subject;
+import com.example.model.User;
+
+/**
+ * Verifies saving a group of plans in one transaction
+ */
+public class DatabaseServiceTest {
+    
+    @Test
+    public void savesGroupOfPlans() throws Exception {
+        File dbFile = File.createTempFile("plans", ".db");
+        dbFile.deleteOnExit();
+        DatabaseService database = new DatabaseService("jdbc:sqlite:" + dbFile.getAbsolutePath());
+        try {
+            List<StudyPlan> plans = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                User user = new User("Student " + i, LocalDate.of(2030, 6, 1));
+                Subject subject = new Subject("Math");
+                subject.addTopic("Topic " + i);
+                user.addSubject(subject);
+                StudyPlan plan = new StudyPlan(user);
+                plan.addDailyItems(LocalDate.of(2030, 5, 1), List.of(new DailyStudyItem("Math", "Topic " + i, 2)));
+                plan.setRawPlanText("Plan " + i);
+                plans.add(plan);
+            }
+            
+            int[] ids = database.saveStudyPlans(7, plans, "BALANCED");
+            
+            assertEquals(5, ids.length);
+            assertEquals(5, database.getUserStudyPlans(7).size());
+            for (int i = 0; i < ids.length; i++) {
+                assertTrue(ids[i] > 0);
+                StudyPlan loaded = database.loadStudyPlan(ids[i]);
+                assertEquals("Student " + i, loaded.getUser().getName());
+                assertEquals("Plan " + i, loaded.getRawPlanText());
+                assertEquals(List.of("Topic " + i), loaded.getUser().getSubjects().get(0).getTopics());
+                assertEquals("Topic " + i, loaded.getDailyPlan().get(LocalDate.of(2030, 5, 1)).get(0).getTopic());
+            }
+        } finally {
+            database.close();
+        }
+    }
+}
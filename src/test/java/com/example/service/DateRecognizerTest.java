@@ -0,0 +1,104 @@
+package com.example.service;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+/**
+ * Checks the hand-rolled date recognizer against the formatters and regex it replaces
+ */
+public class DateRecognizerTest {
+    
+    private static final DateTimeFormatter[] FORMATTERS = {
+        DateTimeFormatter.ofPattern("yyyy-MM-dd", Locale.ENGLISH),
+        DateTimeFormatter.ofPattern("MM/dd/yyyy", Locale.ENGLISH),
+        DateTimeFormatter.ofPattern("MMM d, yyyy", Locale.ENGLISH),
+        DateTimeFormatter.ofPattern("MMMM d, yyyy", Locale.ENGLISH),
+        DateTimeFormatter.ofPattern("d MMMM yyyy", Locale.ENGLISH)
+    };
+    
+    private static final Pattern DAY_NUMBER = Pattern.compile("\\b(?:day|date)\\s*(\\d+)\\b", Pattern.CASE_INSENSITIVE);
+    
+    @Test
+    public void recognizesSupportedShapes() {
+        assertEquals(LocalDate.of(2030, 1, 5).toEpochDay(), parse("2030-01-05"));
+        assertEquals(LocalDate.of(2030, 1, 9).toEpochDay(), parse("01/09/2030"));
+        assertEquals(LocalDate.of(2030, 1, 7).toEpochDay(), parse("Jan 7, 2030"));
+        assertEquals(LocalDate.of(2030, 9, 17).toEpochDay(), parse("September 17, 2030"));
+        assertEquals(LocalDate.of(2030, 2, 15).toEpochDay(), parse("15 February 2030"));
+        assertEquals(LocalDate.of(2028, 2, 29).toEpochDay(), parse("2028-02-31"));
+        assertEquals(DateRecognizer.NOT_A_DATE, parse("2030-13-01"));
+        assertEquals(DateRecognizer.NOT_A_DATE, parse("Sept 7, 2030"));
+        assertEquals(DateRecognizer.NOT_A_DATE, parse("january 7, 2030"));
+        assertEquals(DateRecognizer.NOT_A_DATE, parse("7 Jan 2030"));
+        assertEquals(DateRecognizer.NOT_A_DATE, parse("0000-01-01"));
+    }
+    
+    @Test
+    public void randomTextMatchesFormatters() {
+        String[] tokens = {"2030", "2028", "1900", "0000", "01", "02", "12", "13", "00", "1", "7", "29", "30", "31", "32",
+            "007", "-", "/", ",", " ", ", ", "Jan", "January", "Feb", "February", "May", "Sep", "Sept", "September",
+            "december", "x"};
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            StringBuilder text = new StringBuilder();
+            int count = 1 + random.nextInt(6);
+            for (int t = 0; t < count; t++) {
+                text.append(tokens[random.nextInt(tokens.length)]);
+            }
+            String value = text.toString();
+            assertEquals(value, formatterEpochDay(value), parse(value));
+        }
+    }
+    
+    @Test
+    public void findsDayNumbersLikeTheRegex() {
+        String[] tokens = {"Day", "day", "DATE", "date", "da", "y", " ", "\t", ":", "3", "12", "99999999999", "rd", "_",
+            "é", "-", "x"};
+        Random random = new Random(11);
+        for (int i = 0; i < 50_000; i++) {
+            StringBuilder text = new StringBuilder();
+            int count = 1 + random.nextInt(8);
+            for (int t = 0; t < count; t++) {
+                text.append(tokens[random.nextInt(tokens.length)]);
+            }
+            String value = text.toString();
+            assertEquals(value, regexDayNumber(value), DateRecognizer.findDayNumber(value));
+        }
+    }
+    
+    private static long parse(String text) {
+        return DateRecognizer.parseEpochDay(text, 0, text.length());
+    }
+    
+    private static long formatterEpochDay(String text) {
+        for (DateTimeFormatter formatter : FORMATTERS) {
+            try {
+                return LocalDate.parse(text, formatter).toEpochDay();
+            } catch (DateTimeParseException e) {
+                // Try the next formatter
+            }
+        }
+        return DateRecognizer.NOT_A_DATE;
+    }
+    
+    private static int regexDayNumber(String text) {
+        Matcher matcher = DAY_NUMBER.matcher(text);
+        if (!matcher.find()) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(matcher.group(1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
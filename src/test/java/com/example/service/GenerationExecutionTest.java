@@ -0,0 +1,99 @@
+package com.example.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+
+import com.example.model.StudyPlan;
+import com.example.model.Subject;
+import com.example.model.User;
+import com.example.service.backend.SyntheticPlanTextBackend;
+import com.example.service.factory.GenerationExecutorFactory;
+import com.example.service.factory.StudyPlanStrategyFactory;
+import com.example.service.ratelimit.GenerationRateLimiter;
+
+/**
+ * Verifies executor selection, task gauges and per-request deadlines
+ */
+public class GenerationExecutionTest {
+    
+    @Test
+    public void gaugesCountQueuedAndActiveTasks() throws Exception {
+        InstrumentedExecutor executor = new InstrumentedExecutor(
+                new GenerationExecutorFactory(1).createExecutor(GenerationExecutorFactory.ExecutorType.PLATFORM));
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            for (int i = 0; i < 3; i++) {
+                executor.execute(() -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertEquals(1, executor.getActiveTaskCount());
+            assertEquals(2, executor.getQueuedTaskCount());
+            
+            release.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+            assertEquals(0, executor.getActiveTaskCount());
+            assertEquals(0, executor.getQueuedTaskCount());
+            assertEquals(3, executor.getCompletedTaskCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    public void virtualThreadsRunTasksOnEveryJdk() throws Exception {
+        // Falls back to the platform pool before JDK 21
+        ExecutorService executor = new GenerationExecutorFactory(1)
+                .createExecutor(GenerationExecutorFactory.ExecutorType.VIRTUAL);
+        try {
+            assertEquals("done", CompletableFuture.supplyAsync(() -> "done", executor).get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    public void requestDeadlineFailsAndCancelsTheGeneration() throws Exception {
+        StudyPlanGenerator generator = new StudyPlanGenerator(
+                new StudyPlanStrategyFactory(new SyntheticPlanTextBackend(5_000)));
+        try {
+            User user = new User("Sam", LocalDate.now().plusDays(5));
+            Subject math = new Subject("Math");
+            math.addTopic("Algebra");
+            user.addSubject(math);
+            
+            long started = System.nanoTime();
+            CompletableFuture<StudyPlan> plan = generator.generatePlanAsync(user,
+                    StudyPlanStrategyFactory.StrategyType.BALANCED, GenerationRateLimiter.Priority.INTERACTIVE, 200);
+            try {
+                plan.get(5, TimeUnit.SECONDS);
+                fail("Expected the deadline to pass");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof TimeoutException);
+            }
+            assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(2));
+            assertEquals(0, generator.getInFlightGenerationCount());
+        } finally {
+            generator.shutdown();
+        }
+    }
+}
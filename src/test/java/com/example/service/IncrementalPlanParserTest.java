@@ -0,0 +1,121 @@
+package com.example.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import com.example.model.DailyStudyItem;
+
+/**
+ * Verifies that parsing from a Reader gives the same plan as parsing the whole text
+ */
+public class IncrementalPlanParserTest {
+    
+    private static final LocalDate START = LocalDate.of(2030, 1, 1);
+    private static final LocalDate END = LocalDate.of(2030, 3, 31);
+    
+    @Test
+    public void readerMatchesWholeTextParsing() throws IOException {
+        StringBuilder plan = new StringBuilder("Here is your plan:\r\n\r\n");
+        for (int day = 0; day < 60; day++) {
+            plan.append(day % 3 == 0 ? "**Date: " : "Date: ").append(START.plusDays(day)).append(day % 3 == 0 ? "**" : "")
+                    .append("\r\n- Subject: Math, Topic: Unit ").append(day).append(", Hours: 2.5\r\n")
+                    .append("Physics: Waves (").append(1 + day % 4).append(" hours)\r\n\r\n");
+        }
+        List<LocalDate> delivered = new ArrayList<>();
+        Map<LocalDate, List<DailyStudyItem>> streamed = new StudyPlanParser().parsePlan(
+                new TrickleReader(plan.toString()), START, END, (date, items) -> delivered.add(date));
+        
+        assertEquals(describe(new StudyPlanParser().parsePlan(plan.toString(), START, END)), describe(streamed));
+        assertEquals(60, delivered.size());
+        assertEquals(START, delivered.get(0));
+        assertEquals(START.plusDays(59), delivered.get(59));
+    }
+    
+    @Test
+    public void fallsBackToDefaultPlanWithoutRetainedText() throws IOException {
+        String text = "Subject: Chemistry, Topic: Bonds\nStudy a little every day.";
+        IncrementalPlanParser parser = new IncrementalPlanParser(START, START.plusDays(4), null, false);
+        
+        assertEquals(describe(new StudyPlanParser().parsePlan(text, START, START.plusDays(4))),
+                describe(parser.parse(new TrickleReader(text))));
+        assertNull(parser.getRawText());
+    }
+    
+    @Test
+    public void longStreamsOnlyBufferTheCurrentDay() throws IOException {
+        int days = 50_000;
+        Reader reader = new Reader() {
+            private int day;
+            private String pending = "";
+            
+            @Override
+            public int read(char[] buffer, int offset, int length) {
+                if (pending.isEmpty()) {
+                    if (day == days) {
+                        return -1;
+                    }
+                    pending = "Day " + (++day) + "\nSubject: History, Topic: Era " + day + ", Hours: 1\n";
+                }
+                int count = Math.min(length, pending.length());
+                pending.getChars(0, count, buffer, offset);
+                pending = pending.substring(count);
+                return count;
+            }
+            
+            @Override
+            public void close() {
+            }
+        };
+        int[] delivered = new int[1];
+        Map<LocalDate, List<DailyStudyItem>> plan = new StudyPlanParser().parsePlan(
+                reader, START, START.plusDays(days), (date, items) -> delivered[0]++);
+        
+        assertEquals(days, delivered[0]);
+        assertEquals(days, plan.size());
+        assertEquals("Era " + days, plan.get(START.plusDays(days - 1)).get(0).getTopic());
+    }
+    
+    /**
+     * Hands out text a few characters at a time, splitting lines and CRLF pairs
+     */
+    private static final class TrickleReader extends Reader {
+        private final StringReader text;
+        private int calls;
+        
+        private TrickleReader(String text) {
+            this.text = new StringReader(text);
+        }
+        
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            return text.read(buffer, offset, Math.min(length, 1 + calls++ % 7));
+        }
+        
+        @Override
+        public void close() {
+        }
+    }
+    
+    private static String describe(Map<LocalDate, List<DailyStudyItem>> plan) {
+        List<String> days = new ArrayList<>();
+        for (Map.Entry<LocalDate, List<DailyStudyItem>> day : new TreeMap<>(plan).entrySet()) {
+            List<String> items = new ArrayList<>();
+            for (DailyStudyItem item : day.getValue()) {
+                items.add(item.getSubject() + "|" + item.getTopic() + "|" + item.getHoursRecommended());
+            }
+            days.add(day.getKey() + "=" + items);
+        }
+        return days.toString();
+    }
+}
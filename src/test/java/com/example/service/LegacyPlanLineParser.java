@@ -0,0 +1,206 @@
+package com.example.service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.example.model.DailyStudyItem;
+
+/**
+ * The line parsing StudyPlanParser used before PlanLineScanner, kept as the
+ * reference for equivalence tests and as the benchmark baseline
+ * Patterns are compiled on every call, as they were; logging is left out
+ */
+class LegacyPlanLineParser {
+    
+    private static final DateTimeFormatter[] DATE_FORMATTERS = {
+            DateTimeFormatter.ofPattern("yyyy-MM-dd"),
+            DateTimeFormatter.ofPattern("MM/dd/yyyy"),
+            DateTimeFormatter.ofPattern("MMM d, yyyy"),
+            DateTimeFormatter.ofPattern("MMMM d, yyyy"),
+            DateTimeFormatter.ofPattern("d MMMM yyyy")
+    };
+    
+    Map<LocalDate, List<DailyStudyItem>> parsePlan(String rawPlanText, LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, List<DailyStudyItem>> result = new HashMap<>();
+        LocalDate currentDate = null;
+        List<DailyStudyItem> currentDayItems = null;
+        for (String line : rawPlanText.split("\\r?\\n")) {
+            line = line.trim();
+            if (line.isEmpty()) continue;
+            LocalDate possibleDate = extractDate(line, startDate, endDate);
+            if (possibleDate != null) {
+                if (currentDate != null && currentDayItems != null && !currentDayItems.isEmpty()) {
+                    result.put(currentDate, new ArrayList<>(currentDayItems));
+                }
+                currentDate = possibleDate;
+                currentDayItems = new ArrayList<>();
+                continue;
+            }
+            if (currentDate != null && currentDayItems != null) {
+                DailyStudyItem item = extractStudyItem(line);
+                if (item != null) {
+                    currentDayItems.add(item);
+                }
+            }
+        }
+        if (currentDate != null && currentDayItems != null && !currentDayItems.isEmpty()) {
+            result.put(currentDate, currentDayItems);
+        }
+        return result;
+    }
+    
+    /**
+     * Extract a date from a line of text
+     */
+    LocalDate extractDate(String line, LocalDate startDate, LocalDate endDate) {
+        // First, look for specific "Date:" prefix
+        Pattern datePrefix = Pattern.compile("(?i)\\b(?:date|day)\\s*:\\s*(.+)");
+        Matcher datePrefixMatcher = datePrefix.matcher(line);
+        
+        if (datePrefixMatcher.find()) {
+            String dateText = datePrefixMatcher.group(1).trim();
+            LocalDate date = parseDate(dateText, startDate, endDate);
+            if (date != null) {
+                return date;
+            }
+        }
+        
+        // Second, try to find a date pattern directly in the whole line
+        LocalDate date = parseDate(line, startDate, endDate);
+        if (date != null) {
+            return date;
+        }
+        
+        // Try more lenient approach for lines that just have "Day X" or similar
+        Pattern dayPattern = Pattern.compile("\\b(?:day|date)\\s*(\\d+)\\b", Pattern.CASE_INSENSITIVE);
+        Matcher dayMatcher = dayPattern.matcher(line);
+        
+        if (dayMatcher.find()) {
+            try {
+                int dayOffset = Integer.parseInt(dayMatcher.group(1)) - 1;
+                LocalDate offsetDate = startDate.plusDays(dayOffset);
+                
+                if (!offsetDate.isAfter(endDate)) {
+                    return offsetDate;
+                }
+            } catch (NumberFormatException e) {
+                // Ignore and continue
+            }
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Try to parse a date string using multiple formatters
+     */
+    private LocalDate parseDate(String dateText, LocalDate startDate, LocalDate endDate) {
+        // Try each formatter
+        for (DateTimeFormatter formatter : DATE_FORMATTERS) {
+            try {
+                LocalDate date = LocalDate.parse(dateText, formatter);
+                if (!date.isBefore(startDate) && !date.isAfter(endDate)) {
+                    return date;
+                }
+            } catch (DateTimeParseException e) {
+                // Try the next formatter
+            }
+        }
+        
+        // Try to extract and parse date patterns
+        Pattern datePattern = Pattern.compile("\\b\\d{1,4}[\\-/\\s]\\d{1,2}[\\-/\\s]\\d{1,4}\\b|\\b\\w+ \\d{1,2},? \\d{4}\\b|\\b\\d{1,2} \\w+ \\d{4}\\b");
+        Matcher dateMatcher = datePattern.matcher(dateText);
+        
+        if (dateMatcher.find()) {
+            String extractedDate = dateMatcher.group();
+            for (DateTimeFormatter formatter : DATE_FORMATTERS) {
+                try {
+                    LocalDate date = LocalDate.parse(extractedDate, formatter);
+                    if (!date.isBefore(startDate) && !date.isAfter(endDate)) {
+                        return date;
+                    }
+                } catch (DateTimeParseException e) {
+                    // Try the next formatter
+                }
+            }
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Extract a study item from a line of text
+     */
+    DailyStudyItem extractStudyItem(String line) {
+        // Check for lines starting with a bullet point or dash
+        if (line.startsWith("-") || line.startsWith("•") || line.startsWith("*")) {
+            line = line.substring(1).trim();
+        }
+        
+        // Try several patterns:
+        
+        // Pattern 1: Subject: [subject], Topic: [topic], Hours: [hours]
+        Pattern pattern1 = Pattern.compile("(?i)subject\\s*:\\s*([^,]+)\\s*,\\s*topic\\s*:\\s*([^,]+)\\s*,\\s*hours\\s*:\\s*(\\d+(?:\\.\\d+)?)");
+        Matcher matcher1 = pattern1.matcher(line);
+        
+        if (matcher1.find()) {
+            String subject = matcher1.group(1).trim();
+            String topic = matcher1.group(2).trim();
+            double hours = Double.parseDouble(matcher1.group(3));
+            return new DailyStudyItem(subject, topic, hours);
+        }
+        
+        // Pattern 2: [Subject] - [Topic] ([X] hours)
+        Pattern pattern2 = Pattern.compile("([^\\-]+)\\s*-\\s*([^\\(]+)\\s*\\(\\s*(\\d+(?:\\.\\d+)?)\\s*(?:hours|hrs|hour|hr)\\s*\\)");
+        Matcher matcher2 = pattern2.matcher(line);
+        
+        if (matcher2.find()) {
+            String subject = matcher2.group(1).trim();
+            String topic = matcher2.group(2).trim();
+            double hours = Double.parseDouble(matcher2.group(3));
+            return new DailyStudyItem(subject, topic, hours);
+        }
+        
+        // Pattern 3: [Subject]: [Topic] - [X] hours
+        Pattern pattern3 = Pattern.compile("([^:]+)\\s*:\\s*([^\\-]+)\\s*-\\s*(\\d+(?:\\.\\d+)?)\\s*(?:hours|hrs|hour|hr)");
+        Matcher matcher3 = pattern3.matcher(line);
+        
+        if (matcher3.find()) {
+            String subject = matcher3.group(1).trim();
+            String topic = matcher3.group(2).trim();
+            double hours = Double.parseDouble(matcher3.group(3));
+            return new DailyStudyItem(subject, topic, hours);
+        }
+        
+        // Pattern 4: [X] hours - [Subject]: [Topic]
+        Pattern pattern4 = Pattern.compile("(\\d+(?:\\.\\d+)?)\\s*(?:hours|hrs|hour|hr)\\s*-\\s*([^:]+)\\s*:\\s*(.+)");
+        Matcher matcher4 = pattern4.matcher(line);
+        
+        if (matcher4.find()) {
+            double hours = Double.parseDouble(matcher4.group(1));
+            String subject = matcher4.group(2).trim();
+            String topic = matcher4.group(3).trim();
+            return new DailyStudyItem(subject, topic, hours);
+        }
+        
+        // Pattern 5: [Subject]: [Topic] ([X] hours)
+        Pattern pattern5 = Pattern.compile("([^:]+)\\s*:\\s*([^\\(]+)\\s*\\(\\s*(\\d+(?:\\.\\d+)?)\\s*(?:hours|hrs|hour|hr)\\s*\\)");
+        Matcher matcher5 = pattern5.matcher(line);
+        
+        if (matcher5.find()) {
+            String subject = matcher5.group(1).trim();
+            String topic = matcher5.group(2).trim();
+            double hours = Double.parseDouble(matcher5.group(3));
+            return new DailyStudyItem(subject, topic, hours);
+        }
+        
+        return null;
+    }
+}
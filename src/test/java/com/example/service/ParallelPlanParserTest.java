@@ -0,0 +1,111 @@
+package com.example.service;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import com.example.model.DailyStudyItem;
+
+/**
+ * Verifies that parallel parsing gives the same plans as a single pass, wherever the text is split
+ */
+public class ParallelPlanParserTest {
+    
+    private static final LocalDate START = LocalDate.of(2030, 1, 1);
+    private static final LocalDate END = LocalDate.of(2030, 6, 30);
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+    
+    @AfterClass
+    public static void shutdownPool() {
+        POOL.shutdown();
+    }
+    
+    @Test
+    public void splitTextParsesLikeOnePass() {
+        StudyPlanParser sequential = new StudyPlanParser();
+        Random random = new Random(3);
+        for (int round = 0; round < 20; round++) {
+            String plan = randomPlan(random, 40 + random.nextInt(120));
+            for (int segmentChars : new int[] {1, 37, 256, 4096}) {
+                ParallelPlanParser parallel = new ParallelPlanParser(POOL, segmentChars);
+                assertEquals(describe(sequential.parsePlan(plan, START, END)),
+                        describe(parallel.parsePlan(plan, START, END)));
+            }
+        }
+    }
+    
+    @Test
+    public void batchKeepsInputOrderAndMatchesSinglePlans() {
+        Random random = new Random(5);
+        List<StoredPlanText> stored = new ArrayList<>();
+        for (int id = 50; id > 0; id--) {
+            stored.add(new StoredPlanText(id, START, END, randomPlan(random, 10 + random.nextInt(30))));
+        }
+        stored.add(new StoredPlanText(0, START, START.plusDays(3), null));
+        
+        Map<Integer, Map<LocalDate, List<DailyStudyItem>>> parsed = new ParallelPlanParser(POOL, 512).parsePlans(stored);
+        
+        List<Integer> ids = new ArrayList<>(parsed.keySet());
+        assertEquals(stored.size(), ids.size());
+        StudyPlanParser sequential = new StudyPlanParser();
+        for (int i = 0; i < stored.size(); i++) {
+            StoredPlanText plan = stored.get(i);
+            assertEquals(Integer.valueOf(plan.getStudyPlanId()), ids.get(i));
+            String text = plan.getRawPlanText() != null ? plan.getRawPlanText() : "";
+            assertEquals(describe(sequential.parsePlan(text, plan.getStartDate(), plan.getExamDate())),
+                    describe(parsed.get(plan.getStudyPlanId())));
+        }
+    }
+    
+    /**
+     * A plan with the awkward cases a split can hit: items before the first header,
+     * headers outside the window, repeated dates and empty days
+     */
+    private static String randomPlan(Random random, int days) {
+        StringBuilder plan = new StringBuilder("Here is your plan\r\n- Subject: Intro, Topic: Overview, Hours: 1\r\n");
+        for (int day = 0; day < days; day++) {
+            switch (random.nextInt(6)) {
+                case 0:
+                    plan.append("### Day ").append(1 + random.nextInt(200)).append("\n");
+                    break;
+                case 1:
+                    plan.append("**Date: ").append(START.plusDays(random.nextInt(400) - 20)).append("**\r\n");
+                    break;
+                case 2:
+                    plan.append("Notes for the week\n");
+                    break;
+                default:
+                    plan.append("Date: ").append(START.plusDays(day)).append("\n");
+                    break;
+            }
+            int items = random.nextInt(4);
+            for (int i = 0; i < items; i++) {
+                plan.append(random.nextBoolean()
+                        ? "- Subject: Math, Topic: Unit " + day + "." + i + ", Hours: 1.5\n"
+                        : "Physics: Waves " + i + " (" + (1 + i) + " hours)\n\n");
+            }
+        }
+        return plan.toString();
+    }
+    
+    private static String describe(Map<LocalDate, List<DailyStudyItem>> plan) {
+        List<String> days = new ArrayList<>();
+        for (Map.Entry<LocalDate, List<DailyStudyItem>> day : new TreeMap<>(plan).entrySet()) {
+            List<String> items = new ArrayList<>();
+            for (DailyStudyItem item : day.getValue()) {
+                items.add(item.getSubject() + "|" + item.getTopic() + "|" + item.getHoursRecommended());
+            }
+            days.add(day.getKey() + "=" + items);
+        }
+        return days.toString();
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.example.model.DailyStudyItem;
+import com.example.service.logging.LogLevel;
+import com.example.service.logging.PlanLogger;
+
+/**
+ * Verifies that balancing respects the daily cap and subject shares and reports what it changed
+ */
+public class PlanHourBalancerTest {
+    
+    private static final LocalDate START = LocalDate.of(2030, 3, 1);
+    
+    @BeforeClass
+    public static void quietLogs() {
+        PlanLogger.get("balance").setLevel(LogLevel.OFF);
+    }
+    
+    @Test
+    public void movesHoursOverTheCapToTheLeastBusyDays() {
+        Map<LocalDate, List<DailyStudyItem>> plan = new HashMap<>();
+        plan.put(START, items(new DailyStudyItem("Math", "Algebra", 8), new DailyStudyItem("History", "Rome", 6)));
+        plan.put(START.plusDays(2), items(new DailyStudyItem("Math", "Calculus", 2)));
+        
+        HourBalanceReport report = new PlanHourBalancer(6, 0.5).balance(plan, START, START.plusDays(3), null);
+        
+        assertEquals(6, hours(plan.get(START)), 0.001);
+        assertEquals(6, hours(plan.get(START.plusDays(1))), 0.001);
+        assertEquals(4, hours(plan.get(START.plusDays(2))), 0.001);
+        assertEquals(16, report.getHoursBefore(), 0.001);
+        assertEquals(16, report.getHoursAfter(), 0.001);
+        assertEquals(8, report.getHoursMoved(), 0.001);
+        assertEquals(0, report.getHoursDropped(), 0.001);
+        assertEquals(1, report.getDaysOverCap());
+        assertEquals(Arrays.asList(START, START.plusDays(1), START.plusDays(2)), report.getChangedDates());
+        assertTrue(report.isChanged());
+    }
+    
+    @Test
+    public void rescalesSubjectsFarFromTheirShareAndLeavesBalancedPlansAlone() {
+        Map<String, List<String>> subjects = new LinkedHashMap<>();
+        subjects.put("Math", Arrays.asList("Algebra", "Calculus"));
+        subjects.put("History", Arrays.asList("Rome", "Greece"));
+        Map<String, Double> shares = PlanHourBalancer.topicShares(subjects);
+        PlanHourBalancer balancer = new PlanHourBalancer(8, 0.5);
+        
+        Map<LocalDate, List<DailyStudyItem>> lopsided = new HashMap<>();
+        lopsided.put(START, items(new DailyStudyItem("Math", "Algebra", 5), new DailyStudyItem("History", "Rome", 1)));
+        lopsided.put(START.plusDays(1), items(new DailyStudyItem("Math", "Calculus", 4)));
+        HourBalanceReport report = balancer.balance(lopsided, START, START.plusDays(2), shares);
+        assertEquals(5, subjectHours(lopsided, "Math"), 0.001);
+        assertEquals(5, subjectHours(lopsided, "History"), 0.001);
+        assertTrue(report.getHoursRescaled() > 0);
+        
+        Map<LocalDate, List<DailyStudyItem>> balanced = new HashMap<>();
+        balanced.put(START, items(new DailyStudyItem("Math", "Algebra", 2), new DailyStudyItem("History", "Rome", 2.5)));
+        assertFalse(balancer.balance(balanced, START, START.plusDays(2), shares).isChanged());
+    }
+    
+    @Test
+    public void dropsAndReportsHoursThatFitNowhere() {
+        Map<LocalDate, List<DailyStudyItem>> plan = new HashMap<>();
+        plan.put(START, items(new DailyStudyItem("Math", "Algebra", 14)));
+        
+        HourBalanceReport report = new PlanHourBalancer(4, 0.5).balance(plan, START, START.plusDays(3), null);
+        
+        assertEquals(2, report.getHoursDropped(), 0.001);
+        assertEquals(12, report.getHoursAfter(), 0.001);
+        for (int d = 0; d < 3; d++) {
+            assertEquals(4, hours(plan.get(START.plusDays(d))), 0.001);
+            assertEquals("Algebra", plan.get(START.plusDays(d)).get(0).getTopic());
+        }
+    }
+    
+    @Test
+    public void balancesThousandsOfItemsUnderTheCap() {
+        Map<LocalDate, List<DailyStudyItem>> plan = new HashMap<>();
+        for (int d = 0; d < 200; d += 4) {
+            List<DailyStudyItem> day = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                day.add(new DailyStudyItem("Subject " + (i % 5), "Topic " + d + "." + i, 0.5 + (i % 4) * 0.5));
+            }
+            plan.put(START.plusDays(d), day);
+        }
+        
+        HourBalanceReport report = new PlanHourBalancer(40, 0.5).balance(plan, START, START.plusDays(200), null);
+        
+        assertEquals(report.getHoursBefore(), report.getHoursAfter(), 0.001);
+        for (List<DailyStudyItem> day : plan.values()) {
+            assertTrue(hours(day) <= 40 + 0.001);
+        }
+    }
+    
+    private static List<DailyStudyItem> items(DailyStudyItem... items) {
+        return new ArrayList<>(Arrays.asList(items));
+    }
+    
+    private static double hours(List<DailyStudyItem> items) {
+        double hours = 0;
+        for (DailyStudyItem item : items) {
+            hours += item.getHoursRecommended();
+        }
+        return hours;
+    }
+    
+    private static double subjectHours(Map<LocalDate, List<DailyStudyItem>> plan, String subject) {
+        double hours = 0;
+        for (List<DailyStudyItem> items : plan.values()) {
+            for (DailyStudyItem item : items) {
+                if (item.getSubject().equals(subject)) {
+                    hours += item.getHoursRecommended();
+                }
+            }
+        }
+        return hours;
+    }
+}
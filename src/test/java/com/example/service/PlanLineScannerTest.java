@@ -0,0 +1,115 @@
+package com.example.service;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import com.example.model.DailyStudyItem;
+
+/**
+ * Verifies that the single-pass scanner gives the same results as the old per-line regex parsing
+ */
+public class PlanLineScannerTest {
+    
+    private static final LocalDate START = LocalDate.of(2030, 1, 1);
+    private static final LocalDate END = LocalDate.of(2030, 3, 31);
+    
+    private static final String[] LINES = {
+        "Date: 2030-01-05",
+        "date:2030-01-05",
+        "DATE :  2030-02-29",
+        "Date: 2030-02-30",
+        "Date: 2029-12-31",
+        "Date: 2030-01-05 (Saturday)",
+        "**Date: January 7, 2030**",
+        "Day: 01/09/2030",
+        "Day 3",
+        "Day 3: Algebra review",
+        "Day 120",
+        "### Day 0",
+        "Monday, January 14, 2030",
+        "15 February 2030",
+        "Week of 2030-01-20",
+        "Dates: 2030-01-05",
+        "Holiday break",
+        "- Subject: Math, Topic: Algebra, Hours: 2.5",
+        "* SUBJECT: Physics, TOPIC: Optics, HOURS: 1",
+        "• Subject: History, Topic: Day 3 events, Hours: 2",
+        "Math - Calculus (2 hours)",
+        "Math - Calculus (2 Hours)",
+        "Chemistry: Bonds - 1.5 hrs",
+        "2 hours - Biology: Cells",
+        "Physics: Waves (3 hr)",
+        "Subject: Math, Topic: Algebra",
+        "Take a break: 30 minutes",
+        "Review everything before 2030-03-30",
+        "1 2 3",
+        "Hours: 2.0",
+        "",
+    };
+    
+    @Test
+    public void sampleLinesMatchLegacyParsing() {
+        LegacyPlanLineParser legacy = new LegacyPlanLineParser();
+        for (String line : LINES) {
+            assertSame(line, legacy);
+        }
+    }
+    
+    @Test
+    public void randomLinesMatchLegacyParsing() {
+        String[] tokens = {"Date", "date", "Day", "day", ":", " ", " ", "-", "/", ",", "(", ")", "2030", "01", "1", "12",
+            "31", "2.5", "hours", "hr", "Hours", "Subject", "subject", "Topic", "topic", "January", "Feb", "Math",
+            "*", "•", "x", "\t"};
+        Random random = new Random(42);
+        LegacyPlanLineParser legacy = new LegacyPlanLineParser();
+        for (int i = 0; i < 5_000; i++) {
+            StringBuilder line = new StringBuilder();
+            int count = 1 + random.nextInt(10);
+            for (int t = 0; t < count; t++) {
+                line.append(tokens[random.nextInt(tokens.length)]);
+            }
+            assertSame(line.toString().trim(), legacy);
+        }
+    }
+    
+    @Test
+    public void planParsesTheSameAsLegacy() {
+        StringBuilder plan = new StringBuilder();
+        for (String line : LINES) {
+            plan.append(line).append("\r\n");
+        }
+        assertEquals(describe(new LegacyPlanLineParser().parsePlan(plan.toString(), START, END)),
+                describe(new StudyPlanParser().parsePlan(plan.toString(), START, END)));
+    }
+    
+    private static void assertSame(String line, LegacyPlanLineParser legacy) {
+        assertEquals(line, legacy.extractDate(line, START, END),
+                PlanLineScanner.extractDate(line, PlanLineScanner.scan(line), START, END));
+        assertEquals(line, describe(legacy.extractStudyItem(line)),
+                describe(PlanLineScanner.extractStudyItem(line, PlanLineScanner.scan(line))));
+    }
+    
+    private static String describe(DailyStudyItem item) {
+        return item == null ? null : item.getSubject() + "|" + item.getTopic() + "|" + item.getHoursRecommended();
+    }
+    
+    private static String describe(Map<LocalDate, List<DailyStudyItem>> plan) {
+        List<String> days = new ArrayList<>();
+        for (Map.Entry<LocalDate, List<DailyStudyItem>> day : new TreeMap<>(plan).entrySet()) {
+            List<String> items = new ArrayList<>();
+            for (DailyStudyItem item : day.getValue()) {
+                items.add(describe(item));
+            }
+            days.add(day.getKey() + "=" + items);
+        }
+        return days.toString();
+    }
+}
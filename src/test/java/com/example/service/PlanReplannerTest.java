@@ -0,0 +1,129 @@
+package com.example.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.example.model.DailyStudyItem;
+import com.example.model.StudyPlan;
+import com.example.model.User;
+import com.example.service.logging.LogLevel;
+import com.example.service.logging.PlanLogger;
+
+/**
+ * Verifies that replanning only moves missed work and that only those rows are written
+ */
+public class PlanReplannerTest {
+    
+    private static final LocalDate START = LocalDate.of(2030, 3, 1);
+    private static final LocalDate TODAY = START.plusDays(3);
+    
+    @BeforeClass
+    public static void quietLogs() {
+        PlanLogger.get("replan").setLevel(LogLevel.OFF);
+    }
+    
+    @Test
+    public void missedItemsMoveToTheEarliestDaysWithRoom() {
+        StudyPlan plan = plan(10);
+        DailyStudyItem done = plan.getDailyPlan().get(START).get(0);
+        done.setCompleted(true);
+        DailyStudyItem future = plan.getDailyPlan().get(TODAY.plusDays(1)).get(0);
+        // Leave room for two missed items today and one on each later day
+        plan.getDailyPlan().get(TODAY).remove(1);
+        
+        PlanChangeSet changes = new PlanReplanner(6).replan(plan, TODAY);
+        
+        assertEquals(5, changes.size());
+        assertSame(done, plan.getDailyPlan().get(START).get(0));
+        assertEquals(1, plan.getDailyPlan().get(START).size());
+        assertNull(plan.getDailyPlan().get(START.plusDays(1)));
+        assertSame(future, plan.getDailyPlan().get(TODAY.plusDays(1)).get(0));
+        assertEquals("Subject 0.1", plan.getDailyPlan().get(TODAY).get(1).getTopic());
+        assertEquals("Subject 1.0", plan.getDailyPlan().get(TODAY).get(2).getTopic());
+        assertEquals("Subject 2.1", plan.getDailyPlan().get(TODAY.plusDays(3)).get(2).getTopic());
+        for (PlanChangeSet.Change change : changes.getChanges()) {
+            assertEquals(PlanChangeSet.Kind.MOVE, change.getKind());
+            assertTrue(change.getDate().isBefore(TODAY));
+            assertFalse(change.getNewDate().isBefore(TODAY));
+        }
+        for (Map.Entry<LocalDate, List<DailyStudyItem>> day : plan.getDailyPlan().entrySet()) {
+            assertTrue(day.getKey() + " over the cap", hours(day.getValue()) <= 6);
+        }
+        
+        assertTrue(new PlanReplanner(6).replan(plan, TODAY).isEmpty());
+    }
+    
+    @Test
+    public void onlyChangedRowsAreWritten() throws Exception {
+        File dbFile = File.createTempFile("replan", ".db");
+        dbFile.deleteOnExit();
+        DatabaseService database = new DatabaseService("jdbc:sqlite:" + dbFile.getAbsolutePath());
+        try {
+            StudyPlan saved = plan(10);
+            // The same topic missed on one day and planned again today merges into one row
+            saved.getDailyPlan().get(TODAY).get(0).setTopic("Subject 1.0");
+            int studyPlanId = database.saveStudyPlan(1, saved, "LOCAL");
+            database.updateItemCompletion(studyPlanId, START, "Subject", "Subject 0.0", true);
+            
+            StudyPlan loaded = database.loadStudyPlan(studyPlanId);
+            PlanChangeSet changes = new PlanReplanner(8).replan(loaded, TODAY);
+            assertTrue(database.applyPlanChanges(studyPlanId, changes));
+            
+            StudyPlan reloaded = database.loadStudyPlan(studyPlanId);
+            assertEquals(describe(loaded), describe(reloaded));
+            assertEquals(19, (int) database.getCompletionStats(studyPlanId).get("total"));
+            assertEquals(1, (int) database.getCompletionStats(studyPlanId).get("completed"));
+            assertEquals(4.0, hours(reloaded.getDailyPlan().get(TODAY)) - hours(saved.getDailyPlan().get(TODAY)), 0);
+            
+            // A change set that no longer matches the rows is rolled back whole
+            assertFalse(database.applyPlanChanges(studyPlanId, changes));
+            assertEquals(describe(reloaded), describe(database.loadStudyPlan(studyPlanId)));
+        } finally {
+            database.close();
+        }
+    }
+    
+    /**
+     * Two two-hour items a day from START until the exam
+     */
+    private static StudyPlan plan(int days) {
+        StudyPlan plan = new StudyPlan(new User("Student", START.plusDays(days)));
+        for (int day = 0; day < days; day++) {
+            List<DailyStudyItem> items = new ArrayList<>();
+            items.add(new DailyStudyItem("Subject", "Subject " + day + ".0", 2));
+            items.add(new DailyStudyItem("Subject", "Subject " + day + ".1", 2));
+            plan.addDailyItems(START.plusDays(day), items);
+        }
+        return plan;
+    }
+    
+    private static double hours(List<DailyStudyItem> items) {
+        double hours = 0;
+        for (DailyStudyItem item : items) {
+            hours += item.getHoursRecommended();
+        }
+        return hours;
+    }
+    
+    private static String describe(StudyPlan plan) {
+        StringBuilder text = new StringBuilder();
+        new java.util.TreeMap<>(plan.getDailyPlan()).forEach((date, items) -> {
+            text.append(date).append(':');
+            items.stream().map(DailyStudyItem::toString).sorted().forEach(item -> text.append(' ').append(item));
+            text.append('\n');
+        });
+        return text.toString();
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.example.model.DailyStudyItem;
+import com.example.model.StudyPlan;
+import com.example.model.Subject;
+import com.example.model.User;
+import com.example.service.backend.SyntheticPlanTextBackend;
+import com.example.service.factory.StudyPlanStrategyFactory;
+import com.example.service.observer.StudyPlanObserver;
+import com.example.service.strategy.PlanShard;
+
+/**
+ * Verifies that long windows are generated as concurrent shards and stitched into one plan
+ */
+public class ShardedGenerationTest {
+    
+    private static final long LATENCY_MILLIS = 300;
+    
+    private final StudyPlanGenerator generator =
+            new StudyPlanGenerator(new StudyPlanStrategyFactory(new SyntheticPlanTextBackend(LATENCY_MILLIS)));
+    
+    @After
+    public void shutdown() {
+        generator.shutdown();
+    }
+    
+    private static User user(int daysUntilExam) {
+        User user = new User("Sam", LocalDate.now().plusDays(daysUntilExam));
+        Subject math = new Subject("Math");
+        math.addTopic("Algebra");
+        math.addTopic("Geometry");
+        math.addTopic("Calculus");
+        user.addSubject(math);
+        Subject physics = new Subject("Physics");
+        physics.addTopic("Optics");
+        user.addSubject(physics);
+        return user;
+    }
+    
+    @Test
+    public void longWindowIsGeneratedInParallelShards() throws Exception {
+        generator.setStreamingEnabled(false);
+        long start = System.nanoTime();
+        StudyPlan plan = generator.generatePlanAsync(user(90), StudyPlanStrategyFactory.StrategyType.BALANCED)
+                .get(10, TimeUnit.SECONDS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        
+        // 13 shards at 300 ms each would take about 4 s one after another
+        assertTrue("took " + elapsedMillis + " ms", elapsedMillis < LATENCY_MILLIS * 5);
+        assertEquals(90, plan.getDailyPlan().size());
+        for (int day = 0; day < 90; day++) {
+            assertTrue("missing day " + day, plan.getDailyPlan().containsKey(LocalDate.now().plusDays(day)));
+        }
+    }
+    
+    @Test
+    public void streamedDaysFromAllShardsReachObservers() throws Exception {
+        List<LocalDate> days = new ArrayList<>();
+        generator.addObserver(new StudyPlanObserver() {
+            @Override
+            public void onGenerationStarted() {
+            }
+            
+            @Override
+            public void onDayParsed(LocalDate date, List<DailyStudyItem> items) {
+                days.add(date);
+            }
+            
+            @Override
+            public void onGenerationCompleted(StudyPlan studyPlan) {
+            }
+            
+            @Override
+            public void onGenerationFailed(Exception exception) {
+            }
+        });
+        StudyPlan plan = generator.generatePlanAsync(user(40), StudyPlanStrategyFactory.StrategyType.INTENSIVE)
+                .get(10, TimeUnit.SECONDS);
+        // Observers are notified asynchronously
+        assertTrue(generator.getEventBus().awaitIdle(10, TimeUnit.SECONDS));
+        
+        assertEquals(40, days.size());
+        assertEquals(40, plan.getDailyPlan().size());
+    }
+    
+    @Test
+    public void topicsAreSpreadOverShardsWithAFinalReviewShard() {
+        Map<String, List<String>> topics = new LinkedHashMap<>();
+        topics.put("Physics", List.of("Optics"));
+        topics.put("Math", List.of("Algebra", "Geometry", "Calculus"));
+        LocalDate start = LocalDate.of(2030, 1, 1);
+        List<PlanShard> shards = PlanShard.split(start, start.plusDays(30), 7, topics);
+        
+        assertEquals(5, shards.size());
+        assertEquals(start.plusDays(28), shards.get(4).getStartDate());
+        assertEquals(start.plusDays(30), shards.get(4).getEndDate());
+        assertEquals(start.plusDays(6), shards.get(0).getLastPlanDay());
+        assertEquals(Map.of("Math", List.of("Algebra")), shards.get(0).getNewTopics());
+        assertEquals(Map.of("Math", List.of("Algebra", "Geometry", "Calculus")), shards.get(3).getCoveredTopics());
+        assertEquals(Map.of("Physics", List.of("Optics")), shards.get(3).getNewTopics());
+        assertTrue(shards.get(4).getNewTopics().isEmpty());
+        assertEquals(4, shards.get(4).getCoveredTopics().values().stream().mapToInt(List::size).sum());
+    }
+}
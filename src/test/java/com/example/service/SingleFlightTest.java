@@ -0,0 +1,55 @@
+package com.example.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Verifies call coalescing and waiter-counted cancellation
+ */
+public class SingleFlightTest {
+    
+    @Test
+    public void concurrentCallersShareOneCall() {
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        
+        CompletableFuture<String> first = singleFlight.execute("k", () -> {
+            calls.incrementAndGet();
+            return upstream;
+        });
+        CompletableFuture<String> second = singleFlight.execute("k", () -> {
+            calls.incrementAndGet();
+            return upstream;
+        });
+        upstream.complete("plan");
+        
+        assertEquals(1, calls.get());
+        assertEquals("plan", first.join());
+        assertEquals("plan", second.join());
+        assertEquals(1, singleFlight.getCoalescedCount());
+        assertEquals(0, singleFlight.getInFlightCount());
+    }
+    
+    @Test
+    public void upstreamIsCancelledOnlyWhenEveryWaiterCancels() {
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        
+        CompletableFuture<String> first = singleFlight.execute("k", () -> upstream);
+        CompletableFuture<String> second = singleFlight.execute("k", () -> upstream);
+        
+        first.cancel(true);
+        assertFalse(upstream.isCancelled());
+        
+        second.cancel(true);
+        assertTrue(upstream.isCancelled());
+        assertEquals(0, singleFlight.getInFlightCount());
+    }
+}
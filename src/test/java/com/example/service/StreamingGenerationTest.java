@@ -0,0 +1,97 @@
+package com.example.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.example.GeminiClient;
+import com.example.model.DailyStudyItem;
+import com.example.service.transport.GeminiTransport;
+import com.example.service.transport.GeminiTransportConfig;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Verifies that streamed days reach the listener before the stream has finished
+ */
+public class StreamingGenerationTest {
+    
+    private final LocalDate today = LocalDate.now();
+    private final CountDownLatch firstDayDelivered = new CountDownLatch(1);
+    private HttpServer server;
+    
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                in.readAllBytes();
+            }
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                // The first day is split across two events, mid-line
+                writeEvent(out, "Date: " + today.plusDays(1) + "\\n- Subject: Math, Topic: Alg");
+                writeEvent(out, "ebra, Hours: 2.0\\nDate: " + today.plusDays(2) + "\\n");
+                // Hold the rest of the stream back until the client has seen day one
+                if (!firstDayDelivered.await(5, TimeUnit.SECONDS)) {
+                    return;
+                }
+                writeEvent(out, "- Subject: Physics, Topic: Optics, Hours: 1.5\\n");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+    }
+    
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+    
+    private static void writeEvent(OutputStream out, String text) throws IOException {
+        String event = "data: {\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"" + text + "\"}]}}]}\r\n\r\n";
+        out.write(event.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+    
+    @Test
+    public void daysAreDeliveredBeforeStreamEnds() throws IOException {
+        GeminiTransportConfig config = new GeminiTransportConfig();
+        config.setBaseUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/v1beta/models/test");
+        config.setApiKey("test-key");
+        
+        List<LocalDate> deliveredDays = new ArrayList<>();
+        IncrementalPlanParser parser = new IncrementalPlanParser(today, today.plusDays(10), (date, items) -> {
+            deliveredDays.add(date);
+            firstDayDelivered.countDown();
+        });
+        
+        Map<LocalDate, List<DailyStudyItem>> plan;
+        try (GeminiTransport transport = new GeminiTransport(config)) {
+            GeminiClient.streamText("prompt", transport, parser::feed);
+            plan = parser.finish();
+        }
+        
+        assertEquals(List.of(today.plusDays(1), today.plusDays(2)), deliveredDays);
+        assertEquals(2, plan.size());
+        assertEquals("Algebra", plan.get(today.plusDays(1)).get(0).getTopic());
+        assertEquals(1.5, plan.get(today.plusDays(2)).get(0).getHoursRecommended(), 0.001);
+        assertTrue(parser.getRawText().contains("Optics"));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.example.model.DailyStudyItem;
+import com.example.model.StudyPlan;
+import com.example.model.Subject;
+import com.example.model.User;
+import com.example.service.backend.SyntheticPlanTextBackend;
+import com.example.service.strategy.BalancedStudyPlanStrategy;
+
+/**
+ * Verifies structured plans are bound while streaming and fall back to text parsing when invalid
+ */
+public class StructuredPlanParserTest {
+    
+    private final LocalDate today = LocalDate.of(2030, 1, 1);
+    private final LocalDate examDate = today.plusDays(10);
+    
+    @Test
+    public void daysAreDeliveredAsTheirObjectsClose() {
+        List<LocalDate> deliveredDays = new ArrayList<>();
+        StructuredPlanParser parser = new StructuredPlanParser(today, examDate,
+                (date, items) -> deliveredDays.add(date));
+        
+        // Chunks split inside a string, a number and between days
+        parser.feed("{\"days\":[{\"date\":\"" + today.plusDays(1) + "\",\"items\":[{\"subject\":\"Ma");
+        parser.feed("th\",\"topic\":\"Algebra\",\"hours\":2.");
+        assertTrue(deliveredDays.isEmpty());
+        parser.feed("5}]}");
+        assertEquals(List.of(today.plusDays(1)), deliveredDays);
+        parser.feed(",{\"date\":\"" + today.plusDays(2) + "\",\"items\":[{\"subject\":\"Physics\","
+                + "\"topic\":\"Optics\",\"hours\":1.5}]}]}");
+        Map<LocalDate, List<DailyStudyItem>> plan = parser.finish();
+        
+        assertFalse(parser.isInvalid());
+        assertEquals(List.of(today.plusDays(1), today.plusDays(2)), deliveredDays);
+        assertEquals("Math", plan.get(today.plusDays(1)).get(0).getSubject());
+        assertEquals(2.5, plan.get(today.plusDays(1)).get(0).getHoursRecommended(), 0.001);
+        assertEquals("Optics", plan.get(today.plusDays(2)).get(0).getTopic());
+    }
+    
+    @Test
+    public void unknownFieldsAndOutOfRangeDaysAreSkipped() {
+        String json = "{\"note\":{\"nested\":[1,{\"a\":2}]},\"days\":["
+                + "{\"date\":\"" + today.plusDays(20) + "\",\"items\":[{\"subject\":\"Late\",\"topic\":\"X\",\"hours\":1}]},"
+                + "{\"extra\":[\"x\"],\"date\":\"" + today.plusDays(3) + "\",\"items\":[{\"subject\":\"Chemistry\","
+                + "\"topic\":\"Bonds\",\"hours\":\"1.5\",\"difficulty\":{\"level\":2}}]}]}";
+        Map<LocalDate, List<DailyStudyItem>> plan = StructuredPlanParser.parse(json, today, examDate);
+        
+        assertEquals(1, plan.size());
+        assertEquals("Bonds", plan.get(today.plusDays(3)).get(0).getTopic());
+        assertEquals(1.5, plan.get(today.plusDays(3)).get(0).getHoursRecommended(), 0.001);
+    }
+    
+    @Test
+    public void invalidJsonFallsBackToTextParsing() {
+        StructuredPlanParser parser = new StructuredPlanParser(today, examDate, null);
+        parser.feed("Date: " + today.plusDays(1) + "\n- Subject: Math, Topic: Algebra, Hours: 2.0\n");
+        Map<LocalDate, List<DailyStudyItem>> plan = parser.finish();
+        
+        assertTrue(parser.isInvalid());
+        assertEquals("Algebra", plan.get(today.plusDays(1)).get(0).getTopic());
+    }
+    
+    @Test
+    public void strategyRequestsAndParsesStructuredOutput() throws Exception {
+        User user = new User("Sam", LocalDate.now().plusDays(5));
+        Subject math = new Subject("Math");
+        math.addTopic("Algebra");
+        user.addSubject(math);
+        
+        BalancedStudyPlanStrategy strategy = new BalancedStudyPlanStrategy(new SyntheticPlanTextBackend());
+        strategy.setStructuredOutput(true);
+        StudyPlan plan = strategy.generatePlan(user);
+        
+        assertTrue(plan.getRawPlanText().startsWith("{\"days\":["));
+        assertEquals(5, plan.getDailyPlan().size());
+    }
+}
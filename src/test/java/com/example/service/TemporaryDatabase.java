@@ -0,0 +1,24 @@
+package com.example.service;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Opens a DatabaseService on a temporary file for tests outside this package
+ */
+public final class TemporaryDatabase {
+    
+    private TemporaryDatabase() {
+    }
+    
+    /**
+     * Create a database in a new temporary file, deleted when the JVM exits
+     * @return The database service
+     * @throws IOException if the file cannot be created
+     */
+    public static DatabaseService create() throws IOException {
+        File dbFile = File.createTempFile("planner", ".db");
+        dbFile.deleteOnExit();
+        return new DatabaseService("jdbc:sqlite:" + dbFile.getAbsolutePath());
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.service.backend;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.example.model.StudyPlan;
+import com.example.model.Subject;
+import com.example.model.User;
+import com.example.service.strategy.BalancedStudyPlanStrategy;
+
+/**
+ * Verifies that recorded responses are served back unchanged without the recorded backend
+ */
+public class RecordReplayPlanTextBackendTest {
+    
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    private static PlanTextRequest request() {
+        User user = new User("Sam", LocalDate.of(2030, 1, 8));
+        Subject math = new Subject("Math");
+        math.addTopic("Algebra");
+        math.addTopic("Geometry");
+        user.addSubject(math);
+        user.addSubject(new Subject("History"));
+        return new PlanTextRequest("plan prompt", user, LocalDate.of(2030, 1, 1), user.getExamDate());
+    }
+    
+    @Test
+    public void replayServesRecordedResponse() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        RecordReplayPlanTextBackend recorder = new RecordReplayPlanTextBackend(new SyntheticPlanTextBackend(),
+                directory, RecordReplayPlanTextBackend.Mode.RECORD, 0);
+        String recorded = recorder.generateText(request());
+        assertTrue(Files.exists(recorder.recordingPath("plan prompt")));
+        
+        RecordReplayPlanTextBackend replayer = new RecordReplayPlanTextBackend(null, directory,
+                RecordReplayPlanTextBackend.Mode.REPLAY, 0);
+        assertEquals(recorded, replayer.generateText(request()));
+        
+        List<String> chunks = new ArrayList<>();
+        assertEquals(recorded, replayer.streamTextAsync(request(), chunks::add).get(5, TimeUnit.SECONDS));
+        assertEquals(recorded, String.join("", chunks));
+        assertTrue(chunks.size() > 1);
+    }
+    
+    @Test
+    public void replayWithoutRecordingFails() throws IOException {
+        RecordReplayPlanTextBackend replayer = new RecordReplayPlanTextBackend(null, folder.getRoot().toPath(),
+                RecordReplayPlanTextBackend.Mode.REPLAY, 0);
+        try {
+            replayer.generateText(request());
+            fail("Expected a missing recording");
+        } catch (FileNotFoundException e) {
+            // expected
+        }
+    }
+    
+    @Test
+    public void syntheticPlanParsesIntoEveryDay() throws IOException {
+        User user = request().getUser();
+        user.setExamDate(LocalDate.now().plusDays(5));
+        StudyPlan plan = new BalancedStudyPlanStrategy(new SyntheticPlanTextBackend()).generatePlan(user);
+        
+        assertEquals(5, plan.getDailyPlan().size());
+        assertEquals(3, plan.getDailyPlan().get(LocalDate.now()).size());
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.service.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.example.service.DatabaseService;
+import com.example.service.TemporaryDatabase;
+
+/**
+ * Verifies both cache tiers: expiry, eviction, promotion and the counters
+ */
+public class PlanResponseCacheTest {
+    
+    private static final long TTL = 60_000;
+    
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private DatabaseService database;
+    
+    @Before
+    public void openDatabase() throws Exception {
+        database = TemporaryDatabase.create();
+    }
+    
+    @After
+    public void closeDatabase() {
+        database.close();
+    }
+    
+    @Test
+    public void countsMemoryHitsAndMisses() {
+        PlanResponseCache cache = cache(4, 4, null);
+        cache.put("prompt", "plan");
+        
+        assertEquals("plan", cache.get("prompt"));
+        assertNull(cache.get("other prompt"));
+        assertEquals(1, cache.getMemoryHits());
+        assertEquals(0, cache.getPersistentHits());
+        assertEquals(1, cache.getMisses());
+    }
+    
+    @Test
+    public void expiresEntriesInBothTiers() {
+        PlanResponseCache cache = cache(4, 4, database);
+        cache.put("prompt", "plan");
+        
+        now.addAndGet(TTL - 1);
+        assertEquals("plan", cache.get("prompt"));
+        now.addAndGet(2);
+        assertNull(cache.get("prompt"));
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getEvictions());
+    }
+    
+    @Test
+    public void evictsTheLeastRecentlyUsedMemoryEntry() {
+        PlanResponseCache cache = cache(2, 4, null);
+        cache.put("a", "plan a");
+        cache.put("b", "plan b");
+        cache.get("a");
+        cache.put("c", "plan c");
+        
+        assertNull(cache.get("b"));
+        assertEquals("plan a", cache.get("a"));
+        assertEquals("plan c", cache.get("c"));
+        assertEquals(1, cache.getEvictions());
+    }
+    
+    @Test
+    public void promotesPersistentHitsToMemory() {
+        PlanResponseCache cache = cache(4, 4, database);
+        cache.put("prompt", "plan");
+        cache.clearMemory();
+        
+        assertEquals("plan", cache.get("prompt"));
+        assertEquals(1, cache.getPersistentHits());
+        assertEquals("plan", cache.get("prompt"));
+        assertEquals(1, cache.getMemoryHits());
+        
+        // A new cache on the same database starts with an empty memory tier
+        assertEquals("plan", cache(4, 4, database).get("prompt"));
+    }
+    
+    @Test
+    public void evictsTheLeastRecentlyUsedPersistentEntry() {
+        PlanResponseCache cache = cache(4, 2, database);
+        cache.put("a", "plan a");
+        now.incrementAndGet();
+        cache.put("b", "plan b");
+        now.incrementAndGet();
+        cache.clearMemory();
+        cache.get("a");
+        now.incrementAndGet();
+        cache.put("c", "plan c");
+        cache.clearMemory();
+        
+        assertNull(cache.get("b"));
+        assertEquals("plan a", cache.get("a"));
+        assertEquals("plan c", cache.get("c"));
+    }
+    
+    @Test
+    public void doesNotStoreEmptyResponses() {
+        PlanResponseCache cache = cache(4, 4, database);
+        cache.put("prompt", "");
+        cache.put("prompt", "  \n");
+        cache.put("prompt", null);
+        
+        assertNull(cache.get("prompt"));
+        assertEquals(1, cache.getMisses());
+    }
+    
+    @Test
+    public void keysIgnoreCosmeticWhitespace() {
+        assertEquals(PlanResponseCache.keyFor("Plan  for\t Sam\r\nDays: 3 "),
+                PlanResponseCache.keyFor("Plan for Sam\nDays: 3"));
+    }
+    
+    private PlanResponseCache cache(int memoryEntries, int persistentEntries, DatabaseService databaseService) {
+        return new PlanResponseCache(memoryEntries, persistentEntries, TTL, databaseService, now::get);
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.service.cohort;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.example.model.Subject;
+import com.example.model.User;
+import com.example.service.StudyPlanGenerator;
+import com.example.service.backend.SyntheticPlanTextBackend;
+import com.example.service.factory.StudyPlanStrategyFactory;
+import com.example.service.logging.LogLevel;
+import com.example.service.logging.PlanLogger;
+
+/**
+ * Verifies bounded parallel cohort generation, its report and the cohort file formats
+ */
+public class CohortGeneratorTest {
+    
+    private static final long LATENCY_MILLIS = 100;
+    
+    private static StudyPlanGenerator generator;
+    
+    @BeforeClass
+    public static void createGenerator() {
+        PlanLogger.setDefaultLevel(LogLevel.WARN);
+        generator = new StudyPlanGenerator(new StudyPlanStrategyFactory(new SyntheticPlanTextBackend(LATENCY_MILLIS)));
+    }
+    
+    @AfterClass
+    public static void shutdown() {
+        generator.shutdown();
+        PlanLogger.setDefaultLevel(LogLevel.INFO);
+    }
+    
+    @Test
+    public void generatesConcurrentlyAndReportsFailures() throws Exception {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            users.add(student("Student " + i, LocalDate.now().plusDays(10), "Topic " + i));
+        }
+        users.add(student("Late", LocalDate.now().minusDays(1), "Topic"));
+        
+        AtomicInteger generated = new AtomicInteger();
+        AtomicInteger lastFinished = new AtomicInteger();
+        CohortReport report = new CohortGenerator(generator, null, 8, 10)
+                .generate(users, StudyPlanStrategyFactory.StrategyType.BALANCED, 1, new CohortProgressListener() {
+                    @Override
+                    public void onPlanGenerated(int index, User user, long latencyMillis, int finished, int total) {
+                        generated.incrementAndGet();
+                        lastFinished.set(finished);
+                    }
+                    
+                    @Override
+                    public void onPlanFailed(int index, User user, Throwable error, int finished, int total) {
+                        lastFinished.set(finished);
+                    }
+                })
+                .get(30, TimeUnit.SECONDS);
+        
+        assertEquals(41, report.getTotal());
+        assertEquals(40, report.getSucceeded());
+        assertEquals(40, generated.get());
+        assertEquals(41, lastFinished.get());
+        assertEquals("Exam date must be in the future", report.getFailures().get(40));
+        assertEquals(-1, report.getStudyPlanId(40));
+        // Without a database nothing is saved
+        assertEquals(0, report.getStudyPlanId(0));
+        
+        assertTrue(report.toString(), report.getLatencyPercentile(50) >= LATENCY_MILLIS);
+        assertTrue(report.toString(), report.getLatencyPercentile(99) >= report.getLatencyPercentile(50));
+        // Forty sequential generations would take four seconds
+        assertTrue(report.toString(), report.getWallMillis() < 40 * LATENCY_MILLIS / 2);
+    }
+    
+    @Test
+    public void aThrowingListenerDoesNotStallTheCohort() throws Exception {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            users.add(student("Student " + i, LocalDate.now().plusDays(10), "Topic " + i));
+        }
+        users.add(student("Late", LocalDate.now().minusDays(1), "Topic"));
+        
+        CohortReport report = new CohortGenerator(generator, null, 2, 10)
+                .generate(users, StudyPlanStrategyFactory.StrategyType.BALANCED, 1, new CohortProgressListener() {
+                    @Override
+                    public void onPlanGenerated(int index, User user, long latencyMillis, int finished, int total) {
+                        if (index % 2 == 0) {
+                            throw new IllegalStateException("listener broke");
+                        }
+                    }
+                    
+                    @Override
+                    public void onPlanFailed(int index, User user, Throwable error, int finished, int total) {
+                        throw new IllegalStateException("listener broke again");
+                    }
+                })
+                .get(30, TimeUnit.SECONDS);
+        
+        assertEquals(7, report.getTotal());
+        assertEquals(3, report.getSucceeded());
+        assertEquals("listener broke", report.getFailures().get(0));
+        assertEquals("Exam date must be in the future", report.getFailures().get(6));
+    }
+    
+    @Test
+    public void readsCsvAndJsonCohorts() throws Exception {
+        List<User> fromCsv = CohortInputReader.readCsv(new BufferedReader(new StringReader(
+                "name,examDate,subject,topic\n"
+                + "Ana,2030-06-01,Math,Algebra\n"
+                + "Ana,2030-06-01,Math,\"Limits, series\"\n"
+                + "Ben,2030-06-02,Physics,Optics\n"
+                + "Ana,2030-06-01,Physics,Waves\n")));
+        List<User> fromJson = CohortInputReader.readJson(new BufferedReader(new StringReader(
+                "[{\"name\":\"Ana\",\"examDate\":\"2030-06-01\",\"subjects\":["
+                + "{\"name\":\"Math\",\"topics\":[\"Algebra\",\"Limits, series\"]},"
+                + "{\"name\":\"Physics\",\"topics\":[\"Waves\"]}]},"
+                + "{\"name\":\"Ben\",\"examDate\":\"2030-06-02\",\"subjects\":["
+                + "{\"name\":\"Physics\",\"topics\":[\"Optics\"]}]}]")));
+        
+        for (List<User> users : List.of(fromCsv, fromJson)) {
+            assertEquals(2, users.size());
+            assertEquals("Ana", users.get(0).getName());
+            assertEquals(LocalDate.of(2030, 6, 1), users.get(0).getExamDate());
+            assertEquals(List.of("Algebra", "Limits, series"), users.get(0).getSubjects().get(0).getTopics());
+            assertEquals("Physics", users.get(0).getSubjects().get(1).getName());
+            assertEquals(List.of("Optics"), users.get(1).getSubjects().get(0).getTopics());
+        }
+    }
+    
+    private static User student(String name, LocalDate examDate, String topic) {
+        User user = new User(name, examDate);
+        Subject subject = new Subject("Math");
+        subject.addTopic(topic);
+        user.addSubject(subject);
+        return user;
+    }
+}
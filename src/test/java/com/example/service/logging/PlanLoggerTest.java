@@ -0,0 +1,108 @@
+package com.example.service.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Verifies levels, sampling, truncation and asynchronous payload capture
+ */
+public class PlanLoggerTest {
+    
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    private final ByteArrayOutputStream console = new ByteArrayOutputStream();
+    private PrintStream originalOut;
+    private PlanLogger logger;
+    
+    @Before
+    public void redirectConsole() {
+        originalOut = System.out;
+        System.setOut(new PrintStream(console, true, StandardCharsets.UTF_8));
+        logger = PlanLogger.get("test-" + System.nanoTime());
+    }
+    
+    @After
+    public void restoreConsole() {
+        System.setOut(originalOut);
+        PlanLogger.setCapture(null);
+    }
+    
+    private String output() {
+        return new String(console.toByteArray(), StandardCharsets.UTF_8);
+    }
+    
+    @Test
+    public void categoryLevelFiltersMessages() {
+        logger.debug("hidden");
+        logger.info("Parsed", "days", 3, "note", "two words");
+        assertEquals("INFO  [" + logger.getCategory() + "] Parsed days=3 note=\"two words\"",
+                output().trim());
+        
+        logger.setLevel(LogLevel.OFF);
+        logger.info("silenced");
+        assertFalse(output().contains("silenced"));
+    }
+    
+    @Test
+    public void sampledDebugMessagesAreThinnedOut() {
+        logger.setLevel(LogLevel.DEBUG);
+        logger.setSampleEvery(10);
+        int[] built = new int[1];
+        for (int i = 0; i < 100; i++) {
+            int line = i;
+            logger.debugSampled(() -> {
+                built[0]++;
+                return "line " + line;
+            });
+        }
+        assertEquals(10, built[0]);
+        assertEquals(10, output().split("\n").length);
+    }
+    
+    @Test
+    public void payloadsAreTruncatedOnConsoleButCapturedInFull() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("payloads.log");
+        PayloadCapture capture = new PayloadCapture(file, 1024 * 1024, 2);
+        PlanLogger.setCapture(capture);
+        logger.setLevel(LogLevel.DEBUG);
+        String payload = "x".repeat(500);
+        
+        logger.payload("prompt", payload);
+        
+        assertTrue(output().contains("chars=500"));
+        assertTrue(output().contains("(300 more chars)"));
+        assertTrue(capture.flush(5000));
+        assertTrue(new String(Files.readAllBytes(file), StandardCharsets.UTF_8).contains(payload));
+    }
+    
+    @Test
+    public void captureFileRotates() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("payloads.log");
+        PayloadCapture capture = new PayloadCapture(file, 200, 2);
+        try {
+            for (int i = 0; i < 5; i++) {
+                capture.capture("test", "response " + i, "y".repeat(150));
+            }
+            assertTrue(capture.flush(5000));
+        } finally {
+            capture.close();
+        }
+        assertTrue(Files.exists(file.resolveSibling("payloads.log.1")));
+        assertTrue(Files.exists(file.resolveSibling("payloads.log.2")));
+        assertFalse(Files.exists(file.resolveSibling("payloads.log.3")));
+    }
+}
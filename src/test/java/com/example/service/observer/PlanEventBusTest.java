@@ -0,0 +1,153 @@
+package com.example.service.observer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.example.model.StudyPlan;
+
+/**
+ * Verifies ordered asynchronous delivery, coalescing and cancellation of plan events
+ */
+public class PlanEventBusTest {
+    
+    private static final LocalDate START = LocalDate.of(2030, 1, 1);
+    
+    private final PlanEventBus bus = new PlanEventBus();
+    
+    @After
+    public void shutdown() {
+        bus.shutdown();
+    }
+    
+    @Test
+    public void slowSubscriberDoesNotHoldUpPublisherOrOthers() throws Exception {
+        List<LocalDate> slow = Collections.synchronizedList(new ArrayList<>());
+        List<LocalDate> fast = Collections.synchronizedList(new ArrayList<>());
+        bus.subscribe(event -> {
+            sleep(20);
+            slow.add(event.getDate());
+        });
+        bus.subscribe(event -> fast.add(event.getDate()));
+        
+        long started = System.nanoTime();
+        for (int day = 0; day < 20; day++) {
+            bus.publish(PlanEvent.dayParsed(START.plusDays(day), List.of()));
+        }
+        assertTrue(System.nanoTime() - started < TimeUnit.MILLISECONDS.toNanos(200));
+        
+        assertTrue(bus.awaitIdle(10, TimeUnit.SECONDS));
+        List<LocalDate> expected = new ArrayList<>();
+        for (int day = 0; day < 20; day++) {
+            expected.add(START.plusDays(day));
+        }
+        assertEquals(expected, fast);
+        assertEquals(expected, slow);
+    }
+    
+    @Test
+    public void replanReachesObserversWithoutCompletingAGeneration() throws Exception {
+        List<String> calls = Collections.synchronizedList(new ArrayList<>());
+        bus.subscribe(PlanEventListener.of(new StudyPlanObserver() {
+            @Override
+            public void onGenerationStarted() {
+                calls.add("started");
+            }
+            
+            @Override
+            public void onGenerationCompleted(StudyPlan studyPlan) {
+                calls.add("completed");
+            }
+            
+            @Override
+            public void onGenerationFailed(Exception exception) {
+                calls.add("failed");
+            }
+            
+            @Override
+            public void onPlanReplanned(StudyPlan studyPlan) {
+                calls.add("replanned");
+            }
+        }));
+        
+        bus.publish(PlanEvent.replanned(null));
+        
+        assertTrue(bus.awaitIdle(10, TimeUnit.SECONDS));
+        assertEquals(List.of("replanned"), calls);
+    }
+    
+    @Test
+    public void burstIsDeliveredInOneHandOffWithLatestProgress() throws Exception {
+        ExecutorService ui = Executors.newSingleThreadExecutor();
+        try {
+            CountDownLatch blocked = new CountDownLatch(1);
+            ui.execute(() -> await(blocked));
+            AtomicInteger handOffs = new AtomicInteger();
+            List<PlanEvent> received = Collections.synchronizedList(new ArrayList<>());
+            bus.subscribe(received::add, task -> {
+                handOffs.incrementAndGet();
+                ui.execute(task);
+            });
+            
+            bus.publish(PlanEvent.started());
+            for (int day = 0; day < 100; day++) {
+                bus.publish(PlanEvent.dayParsed(START.plusDays(day), List.of()));
+                bus.publish(PlanEvent.progress((day + 1) / 100.0));
+            }
+            bus.publish(PlanEvent.completed(null));
+            blocked.countDown();
+            
+            assertTrue(bus.awaitIdle(10, TimeUnit.SECONDS));
+            assertEquals(1, handOffs.get());
+            assertEquals(103, received.size());
+            assertEquals(PlanEvent.Type.STARTED, received.get(0).getType());
+            assertEquals(START.plusDays(99), received.get(100).getDate());
+            assertEquals(1.0, received.get(101).getProgress(), 0);
+            assertEquals(PlanEvent.Type.COMPLETED, received.get(102).getType());
+        } finally {
+            ui.shutdownNow();
+        }
+    }
+    
+    @Test
+    public void cancelledSubscriptionReceivesNothingMore() throws Exception {
+        AtomicInteger received = new AtomicInteger();
+        PlanEventBus.Subscription subscription = bus.subscribe(event -> received.incrementAndGet());
+        bus.publish(PlanEvent.started());
+        assertTrue(bus.awaitIdle(10, TimeUnit.SECONDS));
+        
+        subscription.cancel();
+        bus.publish(PlanEvent.started());
+        assertTrue(bus.awaitIdle(10, TimeUnit.SECONDS));
+        assertEquals(1, received.get());
+        assertEquals(0, bus.getSubscriberCount());
+    }
+    
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
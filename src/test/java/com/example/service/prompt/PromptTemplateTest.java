@@ -0,0 +1,69 @@
+package com.example.service.prompt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Verifies template rendering, length estimates and subject list trimming
+ */
+public class PromptTemplateTest {
+    
+    @Test
+    public void rendersSlotsAndKeepsSectionsOnlyWithAValue() {
+        PromptTemplate template = PromptTemplate.compile("Hi {{name}}!{{#note}} Note: {{note}}.{{/note}} Bye");
+        Map<String, String> values = new HashMap<>();
+        values.put("name", "Ada");
+        assertEquals("Hi Ada! Bye", template.render(values));
+        assertEquals(template.render(values).length(), template.estimateLength(values));
+        
+        values.put("note", "late");
+        assertEquals("Hi Ada! Note: late. Bye", template.render(values));
+        assertEquals(template.render(values).length(), template.estimateLength(values));
+        assertEquals(Arrays.asList("name", "note"), Arrays.asList(template.getSlots().toArray()));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsAnUnclosedSection() {
+        PromptTemplate.compile("{{#note}}text");
+    }
+    
+    @Test
+    public void subjectOrderDoesNotDependOnTheInputMap() {
+        Map<String, List<String>> first = new LinkedHashMap<>();
+        first.put("Physics", Arrays.asList("Optics", "Waves"));
+        first.put("Biology", Arrays.asList("Cells"));
+        Map<String, List<String>> second = new LinkedHashMap<>();
+        second.put("Biology", Arrays.asList("Cells"));
+        second.put("Physics", Arrays.asList("Optics", "Waves"));
+        
+        String text = new SubjectTopicsSection(first).render();
+        assertEquals("Subject: Biology\nTopics: Cells\n\nSubject: Physics\nTopics: Optics, Waves\n\n", text);
+        assertEquals(text, new SubjectTopicsSection(second).render());
+        assertEquals(text.length(), new SubjectTopicsSection(first).length());
+    }
+    
+    @Test
+    public void trimsTopicsThenSubjectsToFit() {
+        Map<String, List<String>> subjects = new LinkedHashMap<>();
+        subjects.put("Math", Arrays.asList("Algebra", "Calculus", "Geometry", "Statistics"));
+        subjects.put("History", Arrays.asList("Rome", "Greece", "Egypt"));
+        SubjectTopicsSection section = new SubjectTopicsSection(subjects);
+        
+        String trimmed = section.renderWithin(section.length() - 1);
+        assertTrue(trimmed.length() < section.length());
+        assertEquals("Subject: History\nTopics: Rome, and 2 more topics\n\n"
+                + "Subject: Math\nTopics: Algebra, and 3 more topics\n\n", trimmed);
+        
+        assertEquals("Subject: History\nTopics: 3 topics\n\nSubject: Math\nTopics: 4 topics\n\n",
+                section.renderWithin(70));
+        assertEquals("Subject: History\nTopics: 3 topics\n\nAnd 1 more subject\n\n", section.renderWithin(60));
+    }
+}
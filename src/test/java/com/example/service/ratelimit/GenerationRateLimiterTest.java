@@ -0,0 +1,91 @@
+package com.example.service.ratelimit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Test;
+
+import com.example.service.ratelimit.GenerationRateLimiter.Priority;
+import com.example.service.resilience.GeminiApiException;
+
+/**
+ * Verifies priority admission order, queue-full rejection and release of withdrawn slots
+ */
+public class GenerationRateLimiterTest {
+    
+    @Test
+    public void interactiveCallersAreAdmittedBeforeBackgroundCallers() throws Exception {
+        // 120 requests per minute refills one request every 500 ms once the burst is spent
+        GenerationRateLimiter limiter = new GenerationRateLimiter(120, 1_000_000, 10);
+        for (int i = 0; i < 120; i++) {
+            limiter.acquire(Priority.INTERACTIVE, 1);
+        }
+        
+        List<Priority> admissionOrder = new CopyOnWriteArrayList<>();
+        Thread background = startAcquirer(limiter, Priority.BACKGROUND, admissionOrder);
+        while (limiter.getQueueDepth() < 1) {
+            Thread.sleep(5);
+        }
+        Thread interactive = startAcquirer(limiter, Priority.INTERACTIVE, admissionOrder);
+        background.join(5_000);
+        interactive.join(5_000);
+        
+        assertEquals(List.of(Priority.INTERACTIVE, Priority.BACKGROUND), admissionOrder);
+        assertEquals(2, limiter.getMaxQueueDepth());
+    }
+    
+    @Test
+    public void rejectsWhenQueueIsFull() throws Exception {
+        GenerationRateLimiter limiter = new GenerationRateLimiter(1, 1_000_000, 1);
+        limiter.acquire(Priority.INTERACTIVE, 1);
+        
+        Thread waiting = startAcquirer(limiter, Priority.BATCH, new CopyOnWriteArrayList<>());
+        while (limiter.getQueueDepth() < 1) {
+            Thread.sleep(5);
+        }
+        try {
+            limiter.acquire(Priority.INTERACTIVE, 1);
+            fail("Expected the queue to be full");
+        } catch (GeminiApiException e) {
+            assertEquals(GeminiApiException.Kind.QUEUE_FULL, e.getKind());
+        } finally {
+            waiting.interrupt();
+        }
+        assertEquals(1, limiter.getRejectedCount());
+    }
+    
+    @Test
+    public void withdrawnWaitersFreeTheirQueueSlot() throws Exception {
+        GenerationRateLimiter limiter = new GenerationRateLimiter(1, 1_000_000, 1);
+        limiter.acquire(Priority.INTERACTIVE, 1);
+        
+        CompletableFuture<GenerationRateLimiter.Permit> withdrawn = limiter.acquireAsync(Priority.BATCH, 1);
+        assertEquals(1, limiter.getQueueDepth());
+        withdrawn.cancel(false);
+        assertEquals(0, limiter.getQueueDepth());
+        
+        CompletableFuture<GenerationRateLimiter.Permit> next = limiter.acquireAsync(Priority.BATCH, 1);
+        assertFalse(next.isCompletedExceptionally());
+        assertEquals(0, limiter.getRejectedCount());
+        next.cancel(false);
+    }
+    
+    private static Thread startAcquirer(GenerationRateLimiter limiter, Priority priority, List<Priority> admissionOrder) {
+        Thread thread = new Thread(() -> {
+            try {
+                limiter.acquire(priority, 1);
+                admissionOrder.add(priority);
+            } catch (IOException e) {
+                // Interrupted by the test
+            }
+        });
+        thread.start();
+        return thread;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.service.resilience;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal socket-level stand-in for the Gemini API that can inject latency,
+ * error statuses and connection resets, one scripted behavior per request
+ */
+class FakeGeminiServer implements AutoCloseable {
+    
+    static final String OK_BODY = "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"ok\"}]}}]}";
+    
+    /**
+     * What the server does with one request
+     */
+    static final class Behavior {
+        final int status;
+        final String extraHeaders;
+        final long delayMillis;
+        final boolean reset;
+        
+        private Behavior(int status, String extraHeaders, long delayMillis, boolean reset) {
+            this.status = status;
+            this.extraHeaders = extraHeaders;
+            this.delayMillis = delayMillis;
+            this.reset = reset;
+        }
+        
+        static Behavior ok() {
+            return new Behavior(200, "", 0, false);
+        }
+        
+        static Behavior status(int status, String extraHeaders) {
+            return new Behavior(status, extraHeaders, 0, false);
+        }
+        
+        static Behavior slow(long delayMillis) {
+            return new Behavior(200, "", delayMillis, false);
+        }
+        
+        static Behavior reset() {
+            return new Behavior(0, "", 0, true);
+        }
+    }
+    
+    private final ServerSocket serverSocket;
+    private final ConcurrentLinkedQueue<Behavior> script = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final Thread acceptThread;
+    
+    FakeGeminiServer(Behavior... behaviors) throws IOException {
+        for (Behavior behavior : behaviors) {
+            script.add(behavior);
+        }
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        acceptThread = new Thread(this::acceptLoop, "fake-gemini");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+    
+    String baseUrl() {
+        return "http://127.0.0.1:" + serverSocket.getLocalPort() + "/v1beta/models/test";
+    }
+    
+    int requestCount() {
+        return requestCount.get();
+    }
+    
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread handler = new Thread(() -> handle(socket));
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+    
+    private void handle(Socket socket) {
+        try (Socket s = socket) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+            int contentLength = 0;
+            String line;
+            while ((line = reader.readLine()) != null && !line.isEmpty()) {
+                if (line.toLowerCase().startsWith("content-length:")) {
+                    contentLength = Integer.parseInt(line.substring(15).trim());
+                }
+            }
+            for (int i = 0; i < contentLength; i++) {
+                reader.read();
+            }
+            requestCount.incrementAndGet();
+            
+            Behavior behavior = script.poll();
+            if (behavior == null) {
+                behavior = Behavior.ok();
+            }
+            if (behavior.delayMillis > 0) {
+                Thread.sleep(behavior.delayMillis);
+            }
+            if (behavior.reset) {
+                // Linger 0 turns close() into a TCP RST
+                s.setSoLinger(true, 0);
+                return;
+            }
+            
+            String body = behavior.status == 200 ? OK_BODY
+                    : "{\"error\":{\"code\":" + behavior.status + ",\"message\":\"injected failure\"}}";
+            byte[] bodyBytes = body.getBytes(StandardCharsets.UTF_8);
+            String head = "HTTP/1.1 " + behavior.status + " Injected\r\n"
+                    + "Content-Type: application/json\r\n"
+                    + "Content-Length: " + bodyBytes.length + "\r\n"
+                    + "Connection: close\r\n"
+                    + behavior.extraHeaders
+                    + "\r\n";
+            OutputStream out = s.getOutputStream();
+            out.write(head.getBytes(StandardCharsets.UTF_8));
+            out.write(bodyBytes);
+            out.flush();
+        } catch (IOException | InterruptedException e) {
+            // Client went away; nothing to do
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.service.resilience;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.example.GeminiClient;
+import com.example.service.resilience.FakeGeminiServer.Behavior;
+import com.example.service.transport.GeminiTransport;
+import com.example.service.transport.GeminiTransportConfig;
+
+/**
+ * Exercises retries, circuit breaking and deadlines against injected faults
+ */
+public class GeminiResilienceTest {
+    
+    private FakeGeminiServer server;
+    private GeminiTransport transport;
+    
+    @After
+    public void tearDown() throws IOException {
+        Deadline.set(null);
+        if (transport != null) {
+            transport.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+    
+    private String call(GeminiResilience resilience) throws IOException {
+        return resilience.call("generateContent", () -> GeminiClient.generateText("prompt", transport));
+    }
+    
+    private void start(Behavior... behaviors) throws IOException {
+        server = new FakeGeminiServer(behaviors);
+        GeminiTransportConfig config = new GeminiTransportConfig();
+        config.setBaseUrl(server.baseUrl());
+        config.setApiKey("test-key");
+        config.setReadTimeoutMillis(5_000);
+        transport = new GeminiTransport(config);
+    }
+    
+    @Test
+    public void retryAfterNeverExceedsTheMaximumDelay() {
+        RetryPolicy policy = new RetryPolicy(4, 10, 50);
+        assertEquals(50, policy.delayMillis(1, 3_600_000));
+        assertEquals(30, policy.delayMillis(1, 30));
+        assertTrue(policy.delayMillis(3, -1) <= 40);
+    }
+    
+    @Test
+    public void retriesThroughRateLimitAndConnectionReset() throws IOException {
+        start(Behavior.status(429, "Retry-After: 0\r\n"), Behavior.reset(), Behavior.ok());
+        GeminiResilience resilience = new GeminiResilience(new RetryPolicy(4, 10, 50), 5, 60_000);
+        
+        assertEquals("ok", call(resilience));
+        assertEquals(3, server.requestCount());
+        assertEquals(CircuitBreaker.State.CLOSED, resilience.getBreakerState("generateContent"));
+    }
+    
+    @Test
+    public void asyncCallRetriesWithoutBlocking() throws Exception {
+        start(Behavior.status(503, "Retry-After: 0\r\n"), Behavior.reset(), Behavior.ok());
+        GeminiResilience resilience = new GeminiResilience(new RetryPolicy(4, 10, 50), 5, 60_000);
+        
+        CompletableFuture<String> result = resilience.callAsync("generateContent", Deadline.after(5_000),
+                () -> GeminiClient.generateTextAsync("prompt", transport, null));
+        
+        assertEquals("ok", result.get(5, TimeUnit.SECONDS));
+        assertEquals(3, server.requestCount());
+    }
+    
+    @Test
+    public void clientErrorsAreNotRetried() throws IOException {
+        start(Behavior.status(400, ""));
+        GeminiResilience resilience = new GeminiResilience(new RetryPolicy(4, 10, 50), 5, 60_000);
+        
+        try {
+            call(resilience);
+            fail("Expected a client error");
+        } catch (GeminiApiException e) {
+            assertEquals(GeminiApiException.Kind.CLIENT_ERROR, e.getKind());
+            assertEquals(400, e.getStatusCode());
+        }
+        assertEquals(1, server.requestCount());
+    }
+    
+    @Test
+    public void openCircuitFailsFastWithoutCallingUpstream() throws IOException {
+        start(Behavior.status(503, ""), Behavior.status(503, ""));
+        GeminiResilience resilience = new GeminiResilience(new RetryPolicy(1, 10, 10), 2, 60_000);
+        
+        for (int i = 0; i < 2; i++) {
+            try {
+                call(resilience);
+                fail("Expected a server error");
+            } catch (GeminiApiException e) {
+                assertEquals(GeminiApiException.Kind.SERVER_ERROR, e.getKind());
+            }
+        }
+        try {
+            call(resilience);
+            fail("Expected the circuit to be open");
+        } catch (GeminiApiException e) {
+            assertEquals(GeminiApiException.Kind.CIRCUIT_OPEN, e.getKind());
+        }
+        assertEquals(2, server.requestCount());
+    }
+    
+    @Test
+    public void deadlineCutsOffSlowUpstream() throws IOException {
+        start(Behavior.slow(3_000), Behavior.slow(3_000));
+        GeminiResilience resilience = new GeminiResilience(new RetryPolicy(4, 10, 50), 5, 60_000);
+        
+        Deadline.set(Deadline.after(300));
+        long start = System.nanoTime();
+        try {
+            call(resilience);
+            fail("Expected the deadline to expire");
+        } catch (GeminiApiException e) {
+            assertEquals(GeminiApiException.Kind.DEADLINE_EXCEEDED, e.getKind());
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue("took " + elapsedMillis + " ms", elapsedMillis < 1_500);
+    }
+}
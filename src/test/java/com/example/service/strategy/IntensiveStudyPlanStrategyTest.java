@@ -0,0 +1,106 @@
+package com.example.service.strategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.example.model.DailyStudyItem;
+import com.example.model.StudyPlan;
+import com.example.model.Subject;
+import com.example.model.User;
+import com.example.service.backend.PlanTextBackend;
+import com.example.service.backend.PlanTextRequest;
+import com.example.service.logging.LogLevel;
+import com.example.service.logging.PlanLogger;
+
+/**
+ * Verifies that cramming plans keep the long days and subject priorities the model wrote
+ */
+public class IntensiveStudyPlanStrategyTest {
+    
+    private final LocalDate today = LocalDate.now();
+    
+    @BeforeClass
+    public static void quietLogs() {
+        PlanLogger.get("prompt").setLevel(LogLevel.OFF);
+        PlanLogger.get("parser").setLevel(LogLevel.OFF);
+        PlanLogger.get("balance").setLevel(LogLevel.OFF);
+    }
+    
+    @Test
+    public void intensivePlansKeepTheirHours() throws IOException {
+        StudyPlan plan = new IntensiveStudyPlanStrategy(fixedBackend()).generatePlan(user());
+    
+        assertEquals(11, hours(plan.getDailyPlan().get(today.plusDays(1))), 0.001);
+        assertEquals(11, hours(plan.getDailyPlan().get(today.plusDays(2))), 0.001);
+        assertEquals(10, subjectHours(plan, "Math"), 0.001);
+        assertEquals(0, plan.getUnscheduledHours(), 0.001);
+    }
+    
+    @Test
+    public void balancedPlansAreStillCapped() throws IOException {
+        StudyPlan plan = new BalancedStudyPlanStrategy(fixedBackend()).generatePlan(user());
+    
+        for (List<DailyStudyItem> items : plan.getDailyPlan().values()) {
+            assertTrue(hours(items) <= 8 + 0.001);
+        }
+        assertEquals(22, plan.getDailyPlan().values().stream()
+                .mapToDouble(IntensiveStudyPlanStrategyTest::hours).sum(), 0.001);
+    }
+    
+    private User user() {
+        User user = new User("Sam", today.plusDays(5));
+        for (String name : new String[] {"Math", "History"}) {
+            Subject subject = new Subject(name);
+            subject.addTopic(name + " 1");
+            user.addSubject(subject);
+        }
+        return user;
+    }
+    
+    private PlanTextBackend fixedBackend() {
+        String text = "Date: " + today.plusDays(1) + "\n"
+                + "- Subject: Math, Topic: Math 1, Hours: 5.0\n"
+                + "- Subject: History, Topic: History 1, Hours: 6.0\n"
+                + "Date: " + today.plusDays(2) + "\n"
+                + "- Subject: Math, Topic: Math 1, Hours: 5.0\n"
+                + "- Subject: History, Topic: History 1, Hours: 6.0\n";
+        return new PlanTextBackend() {
+            @Override
+            public String getName() {
+                return "fixed";
+            }
+    
+            @Override
+            public String generateText(PlanTextRequest request) {
+                return text;
+            }
+        };
+    }
+    
+    private static double subjectHours(StudyPlan plan, String subject) {
+        double hours = 0;
+        for (List<DailyStudyItem> items : plan.getDailyPlan().values()) {
+            for (DailyStudyItem item : items) {
+                if (item.getSubject().equals(subject)) {
+                    hours += item.getHoursRecommended();
+                }
+            }
+        }
+        return hours;
+    }
+    
+    private static double hours(List<DailyStudyItem> items) {
+        double hours = 0;
+        for (DailyStudyItem item : items) {
+            hours += item.getHoursRecommended();
+        }
+        return hours;
+    }
+}
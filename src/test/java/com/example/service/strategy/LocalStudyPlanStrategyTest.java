@@ -0,0 +1,142 @@
+package com.example.service.strategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.example.model.DailyStudyItem;
+import com.example.model.StudyPlan;
+import com.example.model.Subject;
+import com.example.model.User;
+import com.example.service.StudyPlanParser;
+import com.example.service.logging.LogLevel;
+import com.example.service.logging.PlanLogger;
+
+/**
+ * Verifies the local schedule: daily cap, topic coverage, interleaving and review days
+ */
+public class LocalStudyPlanStrategyTest {
+    
+    private static final LocalDate START = LocalDate.of(2030, 1, 1);
+    
+    @BeforeClass
+    public static void quietLogs() {
+        PlanLogger.get("local").setLevel(LogLevel.WARN);
+        PlanLogger.get("parser").setLevel(LogLevel.WARN);
+    }
+    
+    @Test
+    public void coversEveryTopicUnderTheCapWithReviewAtTheEnd() {
+        LocalStudyPlanStrategy strategy = new LocalStudyPlanStrategy(4, 2, 0.15);
+        List<Subject> subjects = subjects(3, 5);
+        Map<LocalDate, List<DailyStudyItem>> plan = strategy.schedule(subjects, START, START.plusDays(20));
+        
+        Set<String> covered = new HashSet<>();
+        for (Map.Entry<LocalDate, List<DailyStudyItem>> day : plan.entrySet()) {
+            assertTrue(day.getKey().isBefore(START.plusDays(20)));
+            double hours = 0;
+            for (DailyStudyItem item : day.getValue()) {
+                hours += item.getHoursRecommended();
+                covered.add(item.getSubject() + "/" + item.getTopic());
+            }
+            assertTrue(day.getKey() + " has " + hours + " hours", hours <= 4);
+        }
+        for (Subject subject : subjects) {
+            for (String topic : subject.getTopics()) {
+                assertTrue(topic, covered.contains(subject.getName() + "/" + topic));
+            }
+        }
+        
+        // 15% of 20 days are review days, one item per subject
+        for (int day = 17; day < 20; day++) {
+            List<DailyStudyItem> review = plan.get(START.plusDays(day));
+            assertEquals(3, review.size());
+            assertEquals("Review of all topics", review.get(0).getTopic());
+        }
+        
+        // Subjects alternate rather than running one after another
+        List<DailyStudyItem> firstDay = plan.get(START);
+        assertEquals("Subject 0", firstDay.get(0).getSubject());
+        assertEquals("Subject 1", firstDay.get(1).getSubject());
+    }
+    
+    @Test
+    public void respectsTheCapWhenTopicsDoNotFit() {
+        LocalStudyPlanStrategy strategy = new LocalStudyPlanStrategy(2, 1, 0.15);
+        Map<LocalDate, List<DailyStudyItem>> plan = strategy.schedule(subjects(10, 10), START, START.plusDays(5));
+        
+        assertEquals(5, plan.size());
+        for (List<DailyStudyItem> items : plan.values()) {
+            double hours = 0;
+            for (DailyStudyItem item : items) {
+                hours += item.getHoursRecommended();
+            }
+            assertEquals(2.0, hours, 0.001);
+        }
+    }
+    
+    @Test
+    public void rawTextParsesBackToThePlan() {
+        User user = new User("Student", LocalDate.now().plusDays(30));
+        for (Subject subject : subjects(4, 6)) {
+            user.addSubject(subject);
+        }
+        List<LocalDate> streamed = new ArrayList<>();
+        StudyPlan studyPlan = new LocalStudyPlanStrategy().generatePlan(user, (date, items) -> streamed.add(date));
+        
+        Map<LocalDate, List<DailyStudyItem>> reparsed = new StudyPlanParser().parsePlan(
+                studyPlan.getRawPlanText(), LocalDate.now(), user.getExamDate());
+        assertEquals(describe(studyPlan.getDailyPlan()), describe(reparsed));
+        assertEquals(new ArrayList<>(studyPlan.getDailyPlan().keySet()), streamed);
+    }
+    
+    @Test
+    public void hundredsOfTopicsScheduleInUnderAMillisecond() {
+        LocalStudyPlanStrategy strategy = new LocalStudyPlanStrategy();
+        List<Subject> subjects = subjects(10, 30);
+        for (int i = 0; i < 2_000; i++) {
+            strategy.schedule(subjects, START, START.plusDays(90));
+        }
+        int runs = 1_000;
+        long started = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            strategy.schedule(subjects, START, START.plusDays(90));
+        }
+        double averageMillis = (System.nanoTime() - started) / 1e6 / runs;
+        assertTrue("Average " + averageMillis + " ms", averageMillis < 1.0);
+    }
+    
+    private static List<Subject> subjects(int count, int topics) {
+        List<Subject> subjects = new ArrayList<>();
+        for (int s = 0; s < count; s++) {
+            Subject subject = new Subject("Subject " + s);
+            for (int t = 0; t < topics; t++) {
+                subject.addTopic("Topic " + s + "." + t);
+            }
+            subjects.add(subject);
+        }
+        return subjects;
+    }
+    
+    private static String describe(Map<LocalDate, List<DailyStudyItem>> plan) {
+        List<String> days = new ArrayList<>();
+        for (Map.Entry<LocalDate, List<DailyStudyItem>> day : new TreeMap<>(plan).entrySet()) {
+            List<String> items = new ArrayList<>();
+            for (DailyStudyItem item : day.getValue()) {
+                items.add(item.getSubject() + "|" + item.getTopic() + "|" + item.getHoursRecommended());
+            }
+            days.add(day.getKey() + "=" + items);
+        }
+        return days.toString();
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.service.strategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.example.model.Subject;
+import com.example.model.User;
+import com.example.service.backend.SyntheticPlanTextBackend;
+import com.example.service.logging.LogLevel;
+import com.example.service.logging.PlanLogger;
+
+/**
+ * Verifies the templated prompts are stable and stay within the token budget
+ */
+public class PromptBuildingTest {
+    
+    private static final LocalDate EXAM = LocalDate.of(2030, 3, 1);
+    
+    @BeforeClass
+    public static void quietLogs() {
+        PlanLogger.get("prompt").setLevel(LogLevel.OFF);
+    }
+    
+    @Test
+    public void rendersTheBalancedPrompt() {
+        BalancedStudyPlanStrategy strategy = new BalancedStudyPlanStrategy(new SyntheticPlanTextBackend(0));
+        strategy.setStructuredOutput(false);
+        User user = user("Physics", "Biology");
+        
+        String prompt = strategy.buildPrompt(user, EXAM, 10, null);
+        assertEquals("CREATE A BALANCED STUDY PLAN\n\n"
+                + "Student: Sam\n"
+                + "Days until exam: 10\n"
+                + "Exam date: 2030-03-01\n\n"
+                + "INCLUDE ONLY THE FOLLOWING SUBJECTS AND TOPICS:\n"
+                + "Subject: Biology\nTopics: Biology 0, Biology 1\n\n"
+                + "Subject: Physics\nTopics: Physics 0, Physics 1\n\n"
+                + "STUDY PLAN REQUIREMENTS:\n"
+                + "1. Focus ONLY on the exact subjects and topics listed above\n"
+                + "2. Create a day-by-day breakdown for all 10 days until the exam\n"
+                + "3. Include recommended study hours for each topic per day\n"
+                + "4. Ensure balanced distribution of study time across all subjects\n\n"
+                + "REQUIRED OUTPUT FORMAT:\n", prompt.substring(0, prompt.indexOf("REQUIRED OUTPUT FORMAT:\n") + 24));
+    }
+    
+    @Test
+    public void promptsAndCacheKeysDoNotDependOnSubjectEntryOrder() {
+        IntensiveStudyPlanStrategy strategy = new IntensiveStudyPlanStrategy(new SyntheticPlanTextBackend(0));
+        User first = user("Physics", "Biology", "Chemistry");
+        User second = user("Chemistry", "Physics", "Biology");
+        
+        assertEquals(strategy.buildPrompt(first, EXAM, 10, null), strategy.buildPrompt(second, EXAM, 10, null));
+        assertEquals(strategy.requestKey(first), strategy.requestKey(second));
+    }
+    
+    @Test
+    public void hugeInputsAreSummarizedWithinTheBudget() {
+        BalancedStudyPlanStrategy strategy = new BalancedStudyPlanStrategy(new SyntheticPlanTextBackend(0));
+        strategy.setMaxPromptTokens(400);
+        User user = new User("Sam", EXAM);
+        for (int s = 0; s < 20; s++) {
+            Subject subject = new Subject("Subject " + s);
+            for (int t = 0; t < 50; t++) {
+                subject.addTopic("A fairly long topic name " + s + "." + t);
+            }
+            user.addSubject(subject);
+        }
+        
+        String prompt = strategy.buildPrompt(user, EXAM, 30, null);
+        assertTrue(prompt.length() <= 400 * 4);
+        assertTrue(prompt.contains("Some topic lists are shortened"));
+        assertTrue(prompt.contains("more subjects"));
+        
+        strategy.setMaxPromptTokens(8000);
+        String larger = strategy.buildPrompt(user, EXAM, 30, null);
+        assertTrue(larger.length() <= 8000 * 4);
+        assertTrue(larger.contains("Subject: Subject 19\nTopics: A fairly long topic name 19.0, "));
+        assertTrue(larger.contains("more topics\n\n"));
+    }
+    
+    private static User user(String... subjects) {
+        User user = new User("Sam", EXAM);
+        for (String name : subjects) {
+            Subject subject = new Subject(name);
+            subject.addTopic(name + " 0");
+            subject.addTopic(name + " 1");
+            user.addSubject(subject);
+        }
+        return user;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.service.strategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.example.model.DailyStudyItem;
+import com.example.model.Subject;
+import com.example.service.logging.LogLevel;
+import com.example.service.logging.PlanLogger;
+
+/**
+ * Verifies review intervals, the daily cap and scaling of the spaced repetition schedule
+ */
+public class SpacedRepetitionStudyPlanStrategyTest {
+    
+    private static final LocalDate START = LocalDate.of(2030, 1, 1);
+    
+    @BeforeClass
+    public static void quietLogs() {
+        PlanLogger.get("local").setLevel(LogLevel.OFF);
+    }
+    
+    @Test
+    public void reviewsFollowExpandingIntervals() {
+        Map<LocalDate, List<DailyStudyItem>> plan = new SpacedRepetitionStudyPlanStrategy(4, 1, 0.5, 0.15)
+                .schedule(subjects(1, 1), START, START.plusDays(60));
+        
+        List<Long> studyDays = new ArrayList<>();
+        for (LocalDate date : plan.keySet()) {
+            studyDays.add(date.toEpochDay() - START.toEpochDay());
+        }
+        assertEquals(List.of(0L, 1L, 3L, 7L, 14L, 28L, 58L), studyDays);
+        assertEquals("Topic 0.0", plan.get(START).get(0).getTopic());
+        assertEquals("Review: Topic 0.0", plan.get(START.plusDays(1)).get(0).getTopic());
+    }
+    
+    @Test
+    public void everyTopicStartsAndIsReviewedUnderTheCap() {
+        Map<LocalDate, List<DailyStudyItem>> plan = new SpacedRepetitionStudyPlanStrategy(4, 1, 0.5, 0.15)
+                .schedule(subjects(6, 10), START, START.plusDays(45));
+        
+        Set<String> started = new HashSet<>();
+        Set<String> reviewed = new HashSet<>();
+        for (Map.Entry<LocalDate, List<DailyStudyItem>> day : plan.entrySet()) {
+            assertTrue(day.getKey().isBefore(START.plusDays(45)));
+            double hours = 0;
+            for (DailyStudyItem item : day.getValue()) {
+                hours += item.getHoursRecommended();
+                if (item.getTopic().startsWith("Review: ")) {
+                    reviewed.add(item.getTopic().substring(8));
+                } else {
+                    started.add(item.getTopic());
+                }
+            }
+            assertTrue(day.getKey() + " has " + hours + " hours", hours <= 4);
+        }
+        assertEquals(60, started.size());
+        assertEquals(started, reviewed);
+    }
+    
+    @Test
+    public void thousandsOfTopicsScaleLinearly() {
+        SpacedRepetitionStudyPlanStrategy strategy = new SpacedRepetitionStudyPlanStrategy(8, 1, 0.5, 0.15);
+        List<Subject> small = subjects(20, 50);
+        List<Subject> large = subjects(80, 50);
+        for (int i = 0; i < 20; i++) {
+            strategy.schedule(small, START, START.plusDays(1000));
+            strategy.schedule(large, START, START.plusDays(1000));
+        }
+        long smallNanos = time(strategy, small);
+        long largeNanos = time(strategy, large);
+        
+        // Four times the topics should take about four times as long, far from sixteen
+        assertTrue("1000 topics " + smallNanos / 1000 + " us, 4000 topics " + largeNanos / 1000 + " us",
+                largeNanos < smallNanos * 8);
+    }
+    
+    private static long time(SpacedRepetitionStudyPlanStrategy strategy, List<Subject> subjects) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long started = System.nanoTime();
+            strategy.schedule(subjects, START, START.plusDays(1000));
+            best = Math.min(best, System.nanoTime() - started);
+        }
+        return best;
+    }
+    
+    private static List<Subject> subjects(int count, int topics) {
+        List<Subject> subjects = new ArrayList<>();
+        for (int s = 0; s < count; s++) {
+            Subject subject = new Subject("Subject " + s);
+            for (int t = 0; t < topics; t++) {
+                subject.addTopic("Topic " + s + "." + t);
+            }
+            subjects.add(subject);
+        }
+        return subjects;
+    }
+}
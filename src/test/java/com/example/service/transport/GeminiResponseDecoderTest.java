@@ -0,0 +1,80 @@
+package com.example.service.transport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+/**
+ * Verifies the streaming decoder against the shapes generateContent returns
+ */
+public class GeminiResponseDecoderTest {
+    
+    private final JsonFactory factory = new JsonFactory();
+    
+    @Test
+    public void extractsFirstCandidateTextAndUsage() throws IOException {
+        String body = "{\"candidates\":[{\"content\":{\"role\":\"model\",\"parts\":[{\"text\":\"Date: 2030-01-01\\n\"},"
+                + "{\"text\":\"- Subject: Math\"}]},\"finishReason\":\"STOP\",\"safetyRatings\":[{\"x\":1}]},"
+                + "{\"content\":{\"parts\":[{\"text\":\"ignored\"}]}}],"
+                + "\"usageMetadata\":{\"promptTokenCount\":12,\"candidatesTokenCount\":30,\"totalTokenCount\":42},"
+                + "\"modelVersion\":\"gemini-2.0-flash\"}";
+        
+        GeminiResponse response = GeminiResponseDecoder.decode(factory,
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        
+        assertEquals("Date: 2030-01-01\n- Subject: Math", response.getText());
+        assertEquals("STOP", response.getFinishReason());
+        assertEquals(12, response.getPromptTokenCount());
+        assertEquals(30, response.getCandidatesTokenCount());
+        assertEquals(42, response.getTotalTokenCount());
+        assertNull(response.getErrorMessage());
+    }
+    
+    @Test
+    public void reportsEmbeddedError() throws IOException {
+        GeminiResponse response = GeminiResponseDecoder.decode(factory,
+                "{\"error\":{\"code\":500,\"message\":\"internal\",\"status\":\"INTERNAL\"}}");
+        
+        assertNull(response.getText());
+        assertEquals("internal", response.getErrorMessage());
+        assertEquals(-1, response.getTotalTokenCount());
+    }
+    
+    @Test
+    public void decodesABodyFedInSmallPieces() throws IOException {
+        byte[] body = ("{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"Date: 2030-01-01 \u00e9\"},"
+                + "{\"text\":\" more\"}]},\"finishReason\":\"STOP\"}],"
+                + "\"usageMetadata\":{\"totalTokenCount\":7}}\n").getBytes(StandardCharsets.UTF_8);
+        
+        GeminiResponseDecoder.Feeder feeder = GeminiResponseDecoder.newFeeder(factory);
+        for (int i = 0; i < body.length; i += 3) {
+            feeder.feed(ByteBuffer.wrap(body, i, Math.min(3, body.length - i)));
+        }
+        GeminiResponse response = feeder.finish();
+        
+        assertEquals("Date: 2030-01-01 \u00e9 more", response.getText());
+        assertEquals("STOP", response.getFinishReason());
+        assertEquals(7, response.getTotalTokenCount());
+    }
+    
+    @Test(expected = JsonProcessingException.class)
+    public void rejectsTruncatedFedBody() throws IOException {
+        GeminiResponseDecoder.Feeder feeder = GeminiResponseDecoder.newFeeder(factory);
+        feeder.feed(ByteBuffer.wrap("{\"candidates\":[{\"content\":{".getBytes(StandardCharsets.UTF_8)));
+        feeder.finish();
+    }
+    
+    @Test(expected = JsonProcessingException.class)
+    public void rejectsTruncatedBody() throws IOException {
+        GeminiResponseDecoder.decode(factory, "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"Date".getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.service.transport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.example.GeminiClient;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Verifies that the shared transport reuses pooled connections and that
+ * asynchronous calls do not need a thread per request
+ */
+public class GeminiTransportTest {
+    
+    private static final String RESPONSE =
+            "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"Date: 2030-01-01\"}]}}]}";
+    
+    private HttpServer server;
+    private final Set<InetSocketAddress> clientConnections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger concurrentRequests = new AtomicInteger();
+    private final AtomicInteger peakConcurrentRequests = new AtomicInteger();
+    
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            // Each distinct client port is a distinct TCP connection
+            clientConnections.add(exchange.getRemoteAddress());
+            requestCount.incrementAndGet();
+            try (InputStream in = exchange.getRequestBody()) {
+                in.readAllBytes();
+            }
+            byte[] body = RESPONSE.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/slow", exchange -> {
+            int concurrent = concurrentRequests.incrementAndGet();
+            peakConcurrentRequests.accumulateAndGet(concurrent, Math::max);
+            try (InputStream in = exchange.getRequestBody()) {
+                in.readAllBytes();
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrentRequests.decrementAndGet();
+            }
+            byte[] body = RESPONSE.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+    
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+    
+    @Test
+    public void sequentialCallsReuseOneConnection() throws IOException {
+        GeminiTransportConfig config = new GeminiTransportConfig();
+        config.setBaseUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/v1beta/models/test");
+        config.setApiKey("test-key");
+        
+        try (GeminiTransport transport = new GeminiTransport(config)) {
+            for (int i = 0; i < 5; i++) {
+                assertEquals("Date: 2030-01-01", GeminiClient.generateText("prompt " + i, transport));
+            }
+        }
+        
+        assertEquals(5, requestCount.get());
+        assertEquals(1, clientConnections.size());
+    }
+    
+    @Test
+    public void asyncCallsOverlapOnASingleThread() throws Exception {
+        GeminiTransportConfig config = new GeminiTransportConfig();
+        config.setBaseUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/slow/models/test");
+        config.setApiKey("test-key");
+        config.setAsyncThreads(1);
+        
+        try (GeminiTransport transport = new GeminiTransport(config)) {
+            List<CompletableFuture<String>> calls = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                calls.add(GeminiClient.generateTextAsync("prompt " + i, transport, null));
+            }
+            for (CompletableFuture<String> call : calls) {
+                assertEquals("Date: 2030-01-01", call.get(10, TimeUnit.SECONDS));
+            }
+        }
+        
+        // All requests were outstanding together even though only one client thread exists
+        assertTrue("peak " + peakConcurrentRequests.get(), peakConcurrentRequests.get() >= 20);
+    }
+}
\ No newline at end of file